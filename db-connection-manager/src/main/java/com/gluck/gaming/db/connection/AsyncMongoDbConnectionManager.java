@@ -0,0 +1,224 @@
+package com.gluck.gaming.db.connection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.async.SingleResultCallback;
+import com.mongodb.async.client.MongoClient;
+import com.mongodb.async.client.MongoClients;
+import com.mongodb.async.client.MongoCollection;
+import com.mongodb.async.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+
+/**
+ * Non blocking counterpart of {@link MongoDbConnectionManager}, built on the Mongo DB asynchronous driver. No thread waits while a call is in flight: every
+ * API returns a {@link CompletableFuture} completed by the driver's I/O threads once the database has responded, so the number of calls in flight is not bound
+ * by the number of application threads.<br>
+ * Dependent stages attached to the returned futures without an executor run on the driver's I/O threads and must not block.
+ *
+ * @author Vinay Semwal
+ */
+public class AsyncMongoDbConnectionManager {
+
+    private static final String DOCUMENT_ID = "_id";
+
+    private final MongoClient client;
+
+    private final String databaseName;
+
+    private final MongoDatabase database;
+
+    private final MongoDbConnectionSettings settings;
+
+    /**
+     * @param databaseName mongo DB database name to which the connections will be managed.
+     * @param dbHost database host name
+     * @param dbPort database port
+     */
+    public AsyncMongoDbConnectionManager(final String databaseName, final String dbHost, final Integer dbPort) {
+        this(databaseName, dbHost, dbPort, Collections.<Codec<?>> emptyList());
+    }
+
+    /**
+     * @param databaseName mongo DB database name to which the connections will be managed.
+     * @param dbHost database host name
+     * @param dbPort database port
+     * @param codecs codecs to register in addition to the default ones, to read and write application classes directly.
+     */
+    public AsyncMongoDbConnectionManager(final String databaseName, final String dbHost, final Integer dbPort, final List<? extends Codec<?>> codecs) {
+        this(databaseName, dbHost, dbPort, codecs, new MongoDbConnectionSettings());
+    }
+
+    /**
+     * @param databaseName mongo DB database name to which the connections will be managed.
+     * @param dbHost database host name
+     * @param dbPort database port
+     * @param codecs codecs to register in addition to the default ones, to read and write application classes directly.
+     * @param settings connection pool, timeout, read preference and write concern settings of the client.
+     */
+    public AsyncMongoDbConnectionManager(
+        final String databaseName,
+        final String dbHost,
+        final Integer dbPort,
+        final List<? extends Codec<?>> codecs,
+        final MongoDbConnectionSettings settings) {
+        Objects.requireNonNull(dbHost, "DB host cannot be null.");
+        Objects.requireNonNull(dbPort, "DB port cannot be null.");
+        this.databaseName = Objects.requireNonNull(databaseName, "Database name cannot be null.");
+        this.settings = Objects.requireNonNull(settings, "Connection settings cannot be null.");
+        client = MongoClients.create(
+            settings.toMongoClientSettings(
+                new ServerAddress(dbHost, dbPort),
+                CodecRegistries.fromRegistries(CodecRegistries.fromCodecs(codecs), MongoClients.getDefaultCodecRegistry())));
+        database = client.getDatabase(this.databaseName);
+    }
+
+    /**
+     * @param collectionName collection to retrieve
+     * @param documentClass class into which the documents are decoded, having a codec registered with this connection manager.
+     * @return {@link MongoCollection} of the given class
+     */
+    public <T> MongoCollection<T> getCollection(final String collectionName, final Class<T> documentClass) {
+        return database.getCollection(collectionName, documentClass);
+    }
+
+    /**
+     * @param collectionName name of the collection for which the document is to be created
+     * @param document document to create. Its unique identifier is generated by its codec before the insert if it doesn't have one.
+     * @param documentClass class of the document, having a codec registered with this connection manager.
+     * @return future completed once the document is created.
+     */
+    public <T> CompletableFuture<Void> createDocument(final String collectionName, final T document, final Class<T> documentClass) {
+        final CompletableFuture<Void> future = new CompletableFuture<Void>();
+        getCollection(collectionName, documentClass).withWriteConcern(settings.getWriteConcern(WriteOperation.CREATE))
+            .insertOne(document, complete(future, Function.identity()));
+        return future;
+    }
+
+    /**
+     * @param collectionName Name of the collection to be queried to find the document.
+     * @param id unique identifier of the document to be fetched.
+     * @param projection fields of the document to return, or null to return all the fields.
+     * @param documentClass class into which the document is decoded, having a codec registered with this connection manager.
+     * @return future of the document matching id provided, with the projected fields only, else an empty Optional
+     */
+    public <T> CompletableFuture<Optional<T>> findDocumentById(
+        final String collectionName,
+        final String id,
+        final Bson projection,
+        final Class<T> documentClass) {
+        final CompletableFuture<Optional<T>> future = new CompletableFuture<Optional<T>>();
+        getCollection(collectionName, documentClass).find(Filters.eq(DOCUMENT_ID, new ObjectId(id))).projection(projection)
+            .first(complete(future, Optional::ofNullable));
+        return future;
+    }
+
+    /**
+     * @param collectionName Name of the collection to be queried to find the documents.
+     * @param filter filter that the documents must match.
+     * @param projection fields of the documents to return, or null to return all the fields.
+     * @param sort order of the documents, or null for no specific order.
+     * @param limit maximum number of documents to return.
+     * @param documentClass class into which the documents are decoded, having a codec registered with this connection manager.
+     * @return future of the documents matching the filter, empty if there is none.
+     */
+    public <T> CompletableFuture<List<T>> findDocuments(
+        final String collectionName,
+        final Bson filter,
+        final Bson projection,
+        final Bson sort,
+        final int limit,
+        final Class<T> documentClass) {
+        final CompletableFuture<List<T>> future = new CompletableFuture<List<T>>();
+        getCollection(collectionName, documentClass).find(filter).projection(projection).sort(sort).limit(limit)
+            .into(new ArrayList<T>(limit), complete(future, Function.identity()));
+        return future;
+    }
+
+    /**
+     * API to update a document only if it still matches the given conditions. The conditions are checked and the update is applied by the database in a
+     * single atomic operation, so the document cannot be changed by another request in between.
+     *
+     * @param documentId unique identifier of the document to update
+     * @param conditions filter that the document must match, in addition to the document id, for the update to be applied
+     * @param update update operators to apply.
+     * @param projection fields of the updated document to return, or null to return all the fields.
+     * @param collectionName collection name to which the document belongs.
+     * @param documentClass class into which the document is decoded, having a codec registered with this connection manager.
+     * @return future of the updated document if the document matched the conditions else an empty Optional
+     */
+    public <T> CompletableFuture<Optional<T>> findAndUpdateDocument(
+        final String documentId,
+        final Bson conditions,
+        final Bson update,
+        final Bson projection,
+        final String collectionName,
+        final Class<T> documentClass) {
+        final Bson query = Filters.and(Filters.eq(DOCUMENT_ID, new ObjectId(documentId)), conditions);
+        final CompletableFuture<Optional<T>> future = new CompletableFuture<Optional<T>>();
+        getCollection(collectionName, documentClass).withWriteConcern(settings.getWriteConcern(WriteOperation.UPDATE)).findOneAndUpdate(
+            query,
+            update,
+            new FindOneAndUpdateOptions().projection(projection).returnDocument(ReturnDocument.AFTER),
+            complete(future, Optional::ofNullable));
+        return future;
+    }
+
+    /**
+     * API to delete a document only if it still matches the given conditions, checked and applied by the database in a single atomic operation.
+     *
+     * @param documentId id of the document to delete
+     * @param conditions filter that the document must match, in addition to the document id, to be deleted
+     * @param collectionName name of the collection containing document to delete.
+     * @return future of true if the document was deleted, false if it doesn't exist or doesn't match the conditions.
+     */
+    public CompletableFuture<Boolean> deleteDocument(final String documentId, final Bson conditions, final String collectionName) {
+        final Bson query = Filters.and(Filters.eq(DOCUMENT_ID, new ObjectId(documentId)), conditions);
+        final CompletableFuture<Boolean> future = new CompletableFuture<Boolean>();
+        getCollection(collectionName, Document.class).withWriteConcern(settings.getWriteConcern(WriteOperation.DELETE))
+            .deleteOne(query, complete(future, result -> result.getDeletedCount() == 1));
+        return future;
+    }
+
+    /**
+     * Closes the client and its connections.
+     */
+    public void close() {
+        client.close();
+    }
+
+    /**
+     * @return the databaseName
+     */
+    public String getDatabaseName() {
+        return databaseName;
+    }
+
+    /**
+     * @return callback completing the future with the converted result of the call, or exceptionally with the error of the call.
+     */
+    private static <R, T> SingleResultCallback<R> complete(final CompletableFuture<T> future, final Function<R, T> converter) {
+        return (result, error) -> {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(converter.apply(result));
+            }
+        };
+    }
+
+}
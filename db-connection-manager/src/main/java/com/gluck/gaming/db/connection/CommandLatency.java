@@ -0,0 +1,103 @@
+package com.gluck.gaming.db.connection;
+
+/**
+ * Latency statistics of a database command on a collection, as recorded by {@link CommandLatencyMetrics}. Latencies are in microseconds.
+ *
+ * @author Vinay Semwal
+ */
+public class CommandLatency {
+
+    private final String commandName;
+
+    private final String collectionName;
+
+    private final long count;
+
+    private final long failedCount;
+
+    private final long meanMicros;
+
+    private final long medianMicros;
+
+    private final long percentile95Micros;
+
+    private final long percentile99Micros;
+
+    private final long maxMicros;
+
+    CommandLatency(final String commandName, final String collectionName, final LatencyHistogram histogram, final long failedCount) {
+        this.commandName = commandName;
+        this.collectionName = collectionName;
+        this.count = histogram.getCount();
+        this.failedCount = failedCount;
+        this.meanMicros = histogram.getMeanMicros();
+        this.medianMicros = histogram.getPercentileMicros(50);
+        this.percentile95Micros = histogram.getPercentileMicros(95);
+        this.percentile99Micros = histogram.getPercentileMicros(99);
+        this.maxMicros = histogram.getMaxMicros();
+    }
+
+    /**
+     * @return the commandName
+     */
+    public String getCommandName() {
+        return commandName;
+    }
+
+    /**
+     * @return the collectionName, null for the commands not run on a collection
+     */
+    public String getCollectionName() {
+        return collectionName;
+    }
+
+    /**
+     * @return the number of commands run, failed ones included
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the number of commands that failed
+     */
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * @return the meanMicros
+     */
+    public long getMeanMicros() {
+        return meanMicros;
+    }
+
+    /**
+     * @return the medianMicros
+     */
+    public long getMedianMicros() {
+        return medianMicros;
+    }
+
+    /**
+     * @return the percentile95Micros
+     */
+    public long getPercentile95Micros() {
+        return percentile95Micros;
+    }
+
+    /**
+     * @return the percentile99Micros
+     */
+    public long getPercentile99Micros() {
+        return percentile99Micros;
+    }
+
+    /**
+     * @return the maxMicros
+     */
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+
+}
@@ -0,0 +1,278 @@
+package com.gluck.gaming.db.connection;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+/**
+ * Command listener recording the latency of the commands sent by a Mongo DB client in a histogram per command and collection, and logging the commands
+ * slower than a threshold to the {@code com.gluck.gaming.mongo.SlowOperations} logger with the shape of their filter, the values being replaced by
+ * {@code ?}. The statistics are registered as an MXBean under {@code com.gluck.gaming:type=CommandLatencyMetrics,name=<name>}.<br>
+ * The driver numbers the requests of all the connections from a single sequence, so the request id is enough to match the end of a command with its start.
+ *
+ * @author Vinay Semwal
+ */
+public class CommandLatencyMetrics implements CommandListener, CommandLatencyMetricsMXBean {
+
+    private static final Logger logger = LogManager.getLogger(CommandLatencyMetrics.class);
+
+    private static final Logger slowOperationLogger = LogManager.getLogger("com.gluck.gaming.mongo.SlowOperations");
+
+    private static final String OBJECT_NAME = "com.gluck.gaming:type=CommandLatencyMetrics,name=";
+
+    private static final String KEY_SEPARATOR = " ";
+
+    private static final String VALUE_PLACEHOLDER = "?";
+
+    private final String name;
+
+    private final long slowOperationThresholdMicros;
+
+    private final ConcurrentMap<Integer, StartedCommand> startedCommands = new ConcurrentHashMap<Integer, StartedCommand>();
+
+    private final ConcurrentMap<String, CommandStatistics> statistics = new ConcurrentHashMap<String, CommandStatistics>();
+
+    private final AtomicLong slowCommandCount = new AtomicLong();
+
+    /**
+     * @param name name of the client whose commands are measured, unique among the clients of the application.
+     * @param slowOperationThresholdMillis duration beyond which a command is logged as slow, a negative value to log none.
+     */
+    public CommandLatencyMetrics(final String name, final long slowOperationThresholdMillis) {
+        this.name = name;
+        this.slowOperationThresholdMicros = slowOperationThresholdMillis < 0 ? -1 : TimeUnit.MILLISECONDS.toMicros(slowOperationThresholdMillis);
+    }
+
+    /**
+     * Registers the statistics with the platform MBean server. A failure to register is logged, the statistics are still kept.
+     */
+    public void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME + name));
+        } catch (final JMException e) {
+            logger.error("Unable to register the command latency metrics of the client : {}. Exception : ", name, e);
+        }
+    }
+
+    /**
+     * @return name of the client whose commands are measured.
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public List<CommandLatency> getLatencies() {
+        final List<CommandLatency> latencies = new ArrayList<CommandLatency>(statistics.size());
+        for (final CommandStatistics commandStatistics : statistics.values()) {
+            latencies.add(
+                new CommandLatency(
+                    commandStatistics.commandName,
+                    commandStatistics.collectionName,
+                    commandStatistics.histogram,
+                    commandStatistics.failedCount.get()));
+        }
+        return latencies;
+    }
+
+    @Override
+    public long getSlowCommandCount() {
+        return slowCommandCount.get();
+    }
+
+    @Override
+    public void commandStarted(final CommandStartedEvent event) {
+        final BsonDocument command = event.getCommand();
+        final String collectionName = getCollectionName(event.getCommandName(), command);
+        //The shape is only needed if the command turns out to be slow, but the command document can't be read once it is sent.
+        final String filterShape = isSlowOperationLogEnabled() ? getFilterShape(event.getCommandName(), command) : null;
+        startedCommands.put(event.getRequestId(), new StartedCommand(event.getDatabaseName(), collectionName, filterShape));
+    }
+
+    @Override
+    public void commandSucceeded(final CommandSucceededEvent event) {
+        commandEnded(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.MICROSECONDS), false);
+    }
+
+    @Override
+    public void commandFailed(final CommandFailedEvent event) {
+        commandEnded(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.MICROSECONDS), true);
+    }
+
+    private void commandEnded(final int requestId, final String commandName, final long elapsedMicros, final boolean failed) {
+        final StartedCommand startedCommand = startedCommands.remove(requestId);
+        final String collectionName = startedCommand == null ? null : startedCommand.collectionName;
+        final CommandStatistics commandStatistics = getStatistics(commandName, collectionName);
+        commandStatistics.histogram.record(elapsedMicros);
+        if (failed) {
+            commandStatistics.failedCount.incrementAndGet();
+        }
+        if (slowOperationThresholdMicros >= 0 && elapsedMicros >= slowOperationThresholdMicros) {
+            slowCommandCount.incrementAndGet();
+            slowOperationLogger.warn(
+                "{} on {}.{} took {} ms{}. Filter : {}",
+                commandName,
+                startedCommand == null ? null : startedCommand.databaseName,
+                collectionName,
+                TimeUnit.MICROSECONDS.toMillis(elapsedMicros),
+                failed ? " and failed" : "",
+                startedCommand == null ? null : startedCommand.filterShape);
+        }
+    }
+
+    private CommandStatistics getStatistics(final String commandName, final String collectionName) {
+        final String key = commandName + KEY_SEPARATOR + collectionName;
+        CommandStatistics commandStatistics = statistics.get(key);
+        if (commandStatistics == null) {
+            commandStatistics = statistics.computeIfAbsent(key, newKey -> new CommandStatistics(commandName, collectionName));
+        }
+        return commandStatistics;
+    }
+
+    private boolean isSlowOperationLogEnabled() {
+        return slowOperationThresholdMicros >= 0 && slowOperationLogger.isWarnEnabled();
+    }
+
+    /**
+     * The collection commands have the collection name as the value of the command name, except getMore which has it in a field of its own.
+     */
+    static String getCollectionName(final String commandName, final BsonDocument command) {
+        final BsonValue value = "getMore".equals(commandName) ? command.get("collection") : command.get(commandName);
+        return value != null && value.isString() ? value.asString().getValue() : null;
+    }
+
+    /**
+     * @return shape of the filter of the command, with the values replaced by {@code ?}, or null if the command has no filter.
+     */
+    static String getFilterShape(final String commandName, final BsonDocument command) {
+        final BsonValue filter;
+        switch (commandName) {
+            case "find":
+                filter = command.get("filter");
+                break;
+            case "count":
+            case "distinct":
+            case "findAndModify":
+            case "findandmodify":
+                filter = command.get("query");
+                break;
+            case "update":
+                filter = getFirstStatementFilter(command.get("updates"));
+                break;
+            case "delete":
+                filter = getFirstStatementFilter(command.get("deletes"));
+                break;
+            default:
+                filter = null;
+        }
+        if (filter == null) {
+            return null;
+        }
+        final StringBuilder shape = new StringBuilder();
+        appendShape(filter, shape);
+        return shape.toString();
+    }
+
+    /**
+     * Update and delete commands carry a list of statements, the filter of the first one is taken as the shape of the statements of a batch is the same.
+     */
+    private static BsonValue getFirstStatementFilter(final BsonValue statements) {
+        if (statements == null || !statements.isArray() || statements.asArray().isEmpty() || !statements.asArray().get(0).isDocument()) {
+            return null;
+        }
+        return statements.asArray().get(0).asDocument().get("q");
+    }
+
+    /**
+     * Documents keep their field names and arrays of documents, like the operands of $and and $or, keep their elements. Any other value is replaced.
+     */
+    private static void appendShape(final BsonValue value, final StringBuilder shape) {
+        if (value.isDocument()) {
+            shape.append('{');
+            String separator = "";
+            for (final Map.Entry<String, BsonValue> field : value.asDocument().entrySet()) {
+                shape.append(separator).append(field.getKey()).append(": ");
+                appendShape(field.getValue(), shape);
+                separator = ", ";
+            }
+            shape.append('}');
+        } else if (value.isArray() && isArrayOfDocuments(value.asArray())) {
+            shape.append('[');
+            String separator = "";
+            for (final BsonValue element : value.asArray()) {
+                shape.append(separator);
+                appendShape(element, shape);
+                separator = ", ";
+            }
+            shape.append(']');
+        } else {
+            shape.append(VALUE_PLACEHOLDER);
+        }
+    }
+
+    private static boolean isArrayOfDocuments(final BsonArray array) {
+        for (final BsonValue element : array) {
+            if (!element.isDocument()) {
+                return false;
+            }
+        }
+        return !array.isEmpty();
+    }
+
+    /**
+     * Details of a command kept from its start to its end.
+     */
+    private static final class StartedCommand {
+
+        private final String databaseName;
+
+        private final String collectionName;
+
+        private final String filterShape;
+
+        private StartedCommand(final String databaseName, final String collectionName, final String filterShape) {
+            this.databaseName = databaseName;
+            this.collectionName = collectionName;
+            this.filterShape = filterShape;
+        }
+    }
+
+    /**
+     * Latency statistics of a command on a collection.
+     */
+    private static final class CommandStatistics {
+
+        private final String commandName;
+
+        private final String collectionName;
+
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private final AtomicLong failedCount = new AtomicLong();
+
+        private CommandStatistics(final String commandName, final String collectionName) {
+            this.commandName = commandName;
+            this.collectionName = collectionName;
+        }
+    }
+
+}
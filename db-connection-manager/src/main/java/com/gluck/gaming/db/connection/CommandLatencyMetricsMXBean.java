@@ -0,0 +1,22 @@
+package com.gluck.gaming.db.connection;
+
+import java.util.List;
+
+/**
+ * JMX view of the {@link CommandLatencyMetrics} of a Mongo DB client.
+ *
+ * @author Vinay Semwal
+ */
+public interface CommandLatencyMetricsMXBean {
+
+    /**
+     * @return latency statistics of each command and collection pair run so far.
+     */
+    List<CommandLatency> getLatencies();
+
+    /**
+     * @return number of commands that took longer than the slow operation threshold.
+     */
+    long getSlowCommandCount();
+
+}
@@ -0,0 +1,188 @@
+package com.gluck.gaming.db.connection;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.mongodb.event.ConnectionAddedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolClosedEvent;
+import com.mongodb.event.ConnectionPoolListenerAdapter;
+import com.mongodb.event.ConnectionPoolWaitQueueEnteredEvent;
+import com.mongodb.event.ConnectionPoolWaitQueueExitedEvent;
+import com.mongodb.event.ConnectionRemovedEvent;
+
+/**
+ * Connection pool listener keeping the statistics of the connection pools of a Mongo DB client: connections open and checked out, operations waiting for a
+ * connection and how long they waited. The statistics are registered as an MBean under {@code com.gluck.gaming:type=ConnectionPoolMetrics,name=<name>},
+ * so that pool exhaustion shows up before the requests start timing out.<br>
+ * The wait queue events carry nothing identifying the operation, so a wait is measured from a thread entering the queue to the same thread exiting it. This
+ * only holds for the sync driver, which waits for the connection in the thread of the operation. The async driver enters the queue in the calling thread and
+ * exits it in another one, so for its clients the operations waiting are counted but the waits are not timed, the wait count and times staying at zero.
+ *
+ * @author Vinay Semwal
+ */
+public class ConnectionPoolMetrics extends ConnectionPoolListenerAdapter implements ConnectionPoolMetricsMBean {
+
+    private static final Logger logger = LogManager.getLogger(ConnectionPoolMetrics.class);
+
+    private static final String OBJECT_NAME = "com.gluck.gaming:type=ConnectionPoolMetrics,name=";
+
+    private final String name;
+
+    private final boolean waitTimed;
+
+    private final AtomicInteger poolSize = new AtomicInteger();
+
+    private final AtomicInteger checkedOutCount = new AtomicInteger();
+
+    private final AtomicInteger waitQueueSize = new AtomicInteger();
+
+    private final AtomicLong totalCheckedOutCount = new AtomicLong();
+
+    private final AtomicLong waitCount = new AtomicLong();
+
+    private final AtomicLong totalWaitTimeNanos = new AtomicLong();
+
+    private final AtomicLong maxWaitTimeNanos = new AtomicLong();
+
+    private final ThreadLocal<Long> waitStartNanos = new ThreadLocal<Long>();
+
+    /**
+     * @param name name of the client whose pools are measured, unique among the clients of the application.
+     */
+    public ConnectionPoolMetrics(final String name) {
+        this(name, true);
+    }
+
+    /**
+     * @param name name of the client whose pools are measured, unique among the clients of the application.
+     * @param waitTimed true to time the waits for a connection, only for the clients of the sync driver.
+     */
+    public ConnectionPoolMetrics(final String name, final boolean waitTimed) {
+        this.name = name;
+        this.waitTimed = waitTimed;
+    }
+
+    /**
+     * Registers the statistics with the platform MBean server. A failure to register is logged, the statistics are still kept.
+     */
+    public void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME + name));
+        } catch (final JMException e) {
+            logger.error("Unable to register the connection pool metrics of the client : {}. Exception : ", name, e);
+        }
+    }
+
+    /**
+     * @return name of the client whose pools are measured.
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getPoolSize() {
+        return poolSize.get();
+    }
+
+    @Override
+    public int getCheckedOutCount() {
+        return checkedOutCount.get();
+    }
+
+    @Override
+    public int getWaitQueueSize() {
+        return waitQueueSize.get();
+    }
+
+    @Override
+    public long getWaitCount() {
+        return waitCount.get();
+    }
+
+    @Override
+    public double getAverageWaitTimeMillis() {
+        final long count = waitCount.get();
+        return count == 0 ? 0 : toMillis(totalWaitTimeNanos.get()) / count;
+    }
+
+    @Override
+    public double getMaxWaitTimeMillis() {
+        return toMillis(maxWaitTimeNanos.get());
+    }
+
+    @Override
+    public long getTotalCheckedOutCount() {
+        return totalCheckedOutCount.get();
+    }
+
+    @Override
+    public void connectionPoolClosed(final ConnectionPoolClosedEvent event) {
+        poolSize.set(0);
+        checkedOutCount.set(0);
+        waitQueueSize.set(0);
+    }
+
+    @Override
+    public void connectionAdded(final ConnectionAddedEvent event) {
+        poolSize.incrementAndGet();
+    }
+
+    @Override
+    public void connectionRemoved(final ConnectionRemovedEvent event) {
+        poolSize.decrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedOut(final ConnectionCheckedOutEvent event) {
+        checkedOutCount.incrementAndGet();
+        totalCheckedOutCount.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedIn(final ConnectionCheckedInEvent event) {
+        checkedOutCount.decrementAndGet();
+    }
+
+    @Override
+    public void waitQueueEntered(final ConnectionPoolWaitQueueEnteredEvent event) {
+        waitQueueSize.incrementAndGet();
+        if (waitTimed) {
+            waitStartNanos.set(System.nanoTime());
+        }
+    }
+
+    @Override
+    public void waitQueueExited(final ConnectionPoolWaitQueueExitedEvent event) {
+        waitQueueSize.decrementAndGet();
+        if (!waitTimed) {
+            return;
+        }
+        final Long startNanos = waitStartNanos.get();
+        if (startNanos != null) {
+            waitStartNanos.remove();
+            final long waitTimeNanos = System.nanoTime() - startNanos;
+            waitCount.incrementAndGet();
+            totalWaitTimeNanos.addAndGet(waitTimeNanos);
+            long currentMax = maxWaitTimeNanos.get();
+            while (waitTimeNanos > currentMax && !maxWaitTimeNanos.compareAndSet(currentMax, waitTimeNanos)) {
+                currentMax = maxWaitTimeNanos.get();
+            }
+        }
+    }
+
+    private static double toMillis(final long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+}
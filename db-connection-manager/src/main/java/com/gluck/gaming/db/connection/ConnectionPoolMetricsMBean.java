@@ -0,0 +1,45 @@
+package com.gluck.gaming.db.connection;
+
+/**
+ * JMX view of the {@link ConnectionPoolMetrics} of a Mongo DB client.
+ *
+ * @author Vinay Semwal
+ */
+public interface ConnectionPoolMetricsMBean {
+
+    /**
+     * @return number of connections open, idle or checked out.
+     */
+    int getPoolSize();
+
+    /**
+     * @return number of connections currently checked out.
+     */
+    int getCheckedOutCount();
+
+    /**
+     * @return number of operations currently waiting for a connection.
+     */
+    int getWaitQueueSize();
+
+    /**
+     * @return number of times an operation had to wait for a connection.
+     */
+    long getWaitCount();
+
+    /**
+     * @return average time an operation waited for a connection, in milliseconds.
+     */
+    double getAverageWaitTimeMillis();
+
+    /**
+     * @return longest time an operation waited for a connection, in milliseconds.
+     */
+    double getMaxWaitTimeMillis();
+
+    /**
+     * @return number of connections checked out since the client was created.
+     */
+    long getTotalCheckedOutCount();
+
+}
@@ -0,0 +1,114 @@
+package com.gluck.gaming.db.connection;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free histogram of latencies in microseconds. Latencies below 16 microseconds have a bucket each, above that every power of two is split in 8 buckets,
+ * so a percentile is known within 12.5% whatever the latency. Latencies beyond about 9 hours are counted in the last bucket.
+ *
+ * @author Vinay Semwal
+ */
+class LatencyHistogram {
+
+    private static final int LINEAR_BUCKETS = 16;
+
+    private static final int SUB_BUCKET_BITS = 3;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final int MAXIMUM_EXPONENT = 35;
+
+    /**
+     * Buckets of the latencies from 16 microseconds to 2^35 microseconds, followed by the bucket of the longer latencies.
+     */
+    private static final int BUCKET_COUNT = LINEAR_BUCKETS + (MAXIMUM_EXPONENT - 4) * SUB_BUCKETS + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong totalMicros = new AtomicLong();
+
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * @param micros latency to record, in microseconds
+     */
+    void record(final long micros) {
+        final long latency = Math.max(0, micros);
+        counts.incrementAndGet(getBucket(latency));
+        count.incrementAndGet();
+        totalMicros.addAndGet(latency);
+        long currentMax = maxMicros.get();
+        while (latency > currentMax && !maxMicros.compareAndSet(currentMax, latency)) {
+            currentMax = maxMicros.get();
+        }
+    }
+
+    /**
+     * @return number of latencies recorded
+     */
+    long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return mean of the latencies recorded, in microseconds, 0 if none is recorded
+     */
+    long getMeanMicros() {
+        final long recorded = count.get();
+        return recorded == 0 ? 0 : totalMicros.get() / recorded;
+    }
+
+    /**
+     * @return highest latency recorded, in microseconds
+     */
+    long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    /**
+     * @param percentile percentile between 0 and 100
+     * @return upper bound of the bucket holding the latency at the percentile, in microseconds, 0 if none is recorded
+     */
+    long getPercentileMicros(final double percentile) {
+        long remaining = (long) Math.ceil(count.get() * percentile / 100);
+        if (remaining == 0) {
+            return 0;
+        }
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            remaining -= counts.get(bucket);
+            if (remaining <= 0) {
+                return Math.min(getUpperBound(bucket), maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+
+    static int getBucket(final long micros) {
+        if (micros < LINEAR_BUCKETS) {
+            return (int) micros;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent >= MAXIMUM_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        final int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - 4) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return highest latency counted in the bucket, in microseconds
+     */
+    static long getUpperBound(final int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        final int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 4;
+        final int subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        final long bucketWidth = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (subBucket + 1) * bucketWidth - 1;
+    }
+
+}
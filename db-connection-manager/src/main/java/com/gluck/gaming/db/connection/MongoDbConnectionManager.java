@@ -1,19 +1,34 @@
 package com.gluck.gaming.db.connection;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
 import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 
 import com.mongodb.BasicDBObject;
 import com.mongodb.MongoClient;
+import com.mongodb.ServerAddress;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
 
 /**
  * Class to manage DB calls to be made to a specific database defined in MongoDB. All the connections are managed by a mongo db client instance contained in
@@ -35,17 +50,50 @@ public class MongoDbConnectionManager {
 
     private final MongoDatabase database;
 
+    private final MongoDbConnectionSettings settings;
+
     /**
      * @param databaseName mongo DB database name to which the connections will be managed.
      * @param dbHost database host name
      * @param dbPort database port
      */
     public MongoDbConnectionManager(final String databaseName, final String dbHost, final Integer dbPort) {
+        this(databaseName, dbHost, dbPort, Collections.<Codec<?>> emptyList());
+    }
+
+    /**
+     * @param databaseName mongo DB database name to which the connections will be managed.
+     * @param dbHost database host name
+     * @param dbPort database port
+     * @param codecs codecs to register in addition to the default ones, to read and write application classes directly through
+     *            {@link #getCollection(String, Class)}.
+     */
+    public MongoDbConnectionManager(final String databaseName, final String dbHost, final Integer dbPort, final List<? extends Codec<?>> codecs) {
+        this(databaseName, dbHost, dbPort, codecs, new MongoDbConnectionSettings());
+    }
+
+    /**
+     * @param databaseName mongo DB database name to which the connections will be managed.
+     * @param dbHost database host name
+     * @param dbPort database port
+     * @param codecs codecs to register in addition to the default ones, to read and write application classes directly through
+     *            {@link #getCollection(String, Class)}.
+     * @param settings connection pool, timeout, read preference and write concern settings of the client.
+     */
+    public MongoDbConnectionManager(
+        final String databaseName,
+        final String dbHost,
+        final Integer dbPort,
+        final List<? extends Codec<?>> codecs,
+        final MongoDbConnectionSettings settings) {
         super();
         this.dbHost = Objects.requireNonNull(dbHost, "DB host cannot be null.");
         this.dbPort = Objects.requireNonNull(dbPort, "DB port cannot be null.");
         this.databaseName = Objects.requireNonNull(databaseName, "Database name cannot be null.");
-        client = new MongoClient(dbHost, dbPort);
+        this.settings = Objects.requireNonNull(settings, "Connection settings cannot be null.");
+        client = new MongoClient(
+            new ServerAddress(dbHost, dbPort),
+            settings.toMongoClientOptions(CodecRegistries.fromRegistries(CodecRegistries.fromCodecs(codecs), MongoClient.getDefaultCodecRegistry())));
         database = client.getDatabase(this.databaseName);
 
     }
@@ -59,6 +107,17 @@ public class MongoDbConnectionManager {
         database.createCollection(collectionName);
     }
 
+    /**
+     * API to create indexes on a collection. Indexes that already exist with the same keys and options are left as they are.
+     *
+     * @param collectionName name of the collection to index.
+     * @param indexes indexes to create.
+     * @return names of the indexes.
+     */
+    public List<String> createIndexes(final String collectionName, final List<IndexModel> indexes) {
+        return getCollection(collectionName).createIndexes(indexes);
+    }
+
     /**
      * @param collectionName collection to retrieve
      * @return {@link MongoCollection}
@@ -72,14 +131,96 @@ public class MongoDbConnectionManager {
     }
 
     /**
+     * @param collectionName collection to retrieve
+     * @param documentClass class into which the documents are decoded, having a codec registered with this connection manager.
+     * @return {@link MongoCollection} of the given class
+     */
+    public <T> MongoCollection<T> getCollection(final String collectionName, final Class<T> documentClass) {
+        return database.getCollection(collectionName, documentClass);
+    }
+
+    /**
+     * @return collection with the write concern configured for the operation.
+     */
+    private MongoCollection<Document> getCollection(final String collectionName, final WriteOperation operation) {
+        return getCollection(collectionName).withWriteConcern(settings.getWriteConcern(operation));
+    }
+
+    /**
+     * @return collection of the given class with the write concern configured for the operation.
+     */
+    private <T> MongoCollection<T> getCollection(final String collectionName, final Class<T> documentClass, final WriteOperation operation) {
+        return getCollection(collectionName, documentClass).withWriteConcern(settings.getWriteConcern(operation));
+    }
+
+    /**
+     * The unique identifier is generated by the application before the insert if the document doesn't have one, so the document doesn't have to be read
+     * back to find out its identifier.
+     *
      * @param collectionName name of the collection for which the document is to be created
      * @param document {@link Document} to create.
      * @return unique identifier of the game created.
      */
     public String createDocument(final String collectionName, final Document document) {
-        final MongoCollection<Document> collection = getCollection(collectionName);
-        collection.insertOne(document);
-        return collection.find(document).first().getObjectId(DOCUMENT_ID).toString();
+        final ObjectId documentId = assignDocumentId(document);
+        getCollection(collectionName, WriteOperation.CREATE).insertOne(document);
+        return documentId.toString();
+    }
+
+    /**
+     * API to create multiple documents in a collection with a single database call.
+     *
+     * @param collectionName name of the collection for which the documents are to be created
+     * @param documents list of {@link Document} to create.
+     * @return unique identifiers of the documents created, in the same order as the documents.
+     */
+    public List<String> createDocuments(final String collectionName, final List<Document> documents) {
+        final List<String> documentIds = new ArrayList<String>(documents.size());
+        for (final Document document : documents) {
+            documentIds.add(assignDocumentId(document).toString());
+        }
+        getCollection(collectionName, WriteOperation.CREATE).insertMany(documents);
+        return documentIds;
+    }
+
+    /**
+     * API to create a document from an application object. The unique identifier is generated by the codec of the class before the insert if the object
+     * doesn't have one.
+     *
+     * @param collectionName name of the collection for which the document is to be created
+     * @param document object to create
+     * @param documentClass class of the object, having a codec registered with this connection manager.
+     */
+    public <T> void createDocument(final String collectionName, final T document, final Class<T> documentClass) {
+        getCollection(collectionName, documentClass, WriteOperation.CREATE).insertOne(document);
+    }
+
+    /**
+     * API to create documents from application objects with a single database call.
+     *
+     * @param collectionName name of the collection for which the documents are to be created
+     * @param documents objects to create
+     * @param documentClass class of the objects, having a codec registered with this connection manager.
+     */
+    public <T> void createDocuments(final String collectionName, final List<T> documents, final Class<T> documentClass) {
+        getCollection(collectionName, documentClass, WriteOperation.CREATE).insertMany(documents);
+    }
+
+    /**
+     * API to write documents from application objects with a single database call, replacing the documents having the same unique identifier and creating
+     * the others. Writing the same documents again leaves the collection as it is, so a failed call can be repeated. The writes are sent unordered.
+     *
+     * @param collectionName name of the collection to which the documents are written
+     * @param documentsById objects to write, keyed by their unique identifier
+     * @param documentClass class of the objects, having a codec registered with this connection manager.
+     */
+    public <T> void upsertDocuments(final String collectionName, final Map<String, T> documentsById, final Class<T> documentClass) {
+        final List<WriteModel<T>> replacements = new ArrayList<WriteModel<T>>(documentsById.size());
+        final UpdateOptions upsert = new UpdateOptions().upsert(true);
+        for (final Map.Entry<String, T> entry : documentsById.entrySet()) {
+            replacements.add(new ReplaceOneModel<T>(Filters.eq(DOCUMENT_ID, new ObjectId(entry.getKey())), entry.getValue(), upsert));
+        }
+        getCollection(collectionName, documentClass, WriteOperation.CREATE).bulkWrite(replacements, new BulkWriteOptions().ordered(false));
     }
 
     /**
@@ -103,6 +244,48 @@ public class MongoDbConnectionManager {
         return Optional.ofNullable(getCollection(collectionName).find(query).first());
     }
 
+    /**
+     * @param collectionName Name of the collection to be queried to find the document.
+     * @param id unique identifier of the document to be fetched.
+     * @param documentClass class into which the document is decoded, having a codec registered with this connection manager.
+     * @return Document matching id provided else an empty Optional
+     */
+    public <T> Optional<T> findDocumentById(final String collectionName, final String id, final Class<T> documentClass) {
+        return Optional.ofNullable(getCollection(collectionName, documentClass).find(Filters.eq(DOCUMENT_ID, new ObjectId(id))).first());
+    }
+
+    /**
+     * @param collectionName Name of the collection to be queried to find the document.
+     * @param filter filter that the document must match.
+     * @param projection fields of the document to return, or null to return all the fields.
+     * @return first Document matching the filter, with the projected fields only, else an empty Optional
+     */
+    public Optional<Document> findDocument(final String collectionName, final Bson filter, final Bson projection) {
+        return Optional.ofNullable(getCollection(collectionName).find(filter).projection(projection).first());
+    }
+
+    /**
+     * @param collectionName Name of the collection to be queried to find the document.
+     * @param id unique identifier of the document to be fetched.
+     * @param projection fields of the document to return, or null to return all the fields.
+     * @return Document matching id provided, with the projected fields only, else an empty Optional
+     */
+    public Optional<Document> findDocumentById(final String collectionName, final String id, final Bson projection) {
+        return findDocument(collectionName, Filters.eq(DOCUMENT_ID, new ObjectId(id)), projection);
+    }
+
+    /**
+     * @param collectionName Name of the collection to be queried to find the document.
+     * @param id unique identifier of the document to be fetched.
+     * @param projection fields of the document to return, or null to return all the fields.
+     * @param documentClass class into which the document is decoded, having a codec registered with this connection manager.
+     * @return Document matching id provided, with the projected fields only, else an empty Optional
+     */
+    public <T> Optional<T> findDocumentById(final String collectionName, final String id, final Bson projection, final Class<T> documentClass) {
+        return Optional.ofNullable(
+            getCollection(collectionName, documentClass).find(Filters.eq(DOCUMENT_ID, new ObjectId(id))).projection(projection).first());
+    }
+
     /**
      * @param collectionName Name of the collection to which the document belongs.
      * @param filter map of document field names and field values to be used to query the collection.
@@ -115,6 +298,25 @@ public class MongoDbConnectionManager {
         return Optional.ofNullable(collection.find().filter(query).first());
     }
 
+    /**
+     * @param collectionName Name of the collection to be queried to find the documents.
+     * @param filter filter that the documents must match.
+     * @param projection fields of the documents to return, or null to return all the fields.
+     * @param sort order of the documents, or null for no specific order.
+     * @param limit maximum number of documents to return.
+     * @param documentClass class into which the documents are decoded, having a codec registered with this connection manager.
+     * @return documents matching the filter, empty if there is none.
+     */
+    public <T> List<T> findDocuments(
+        final String collectionName,
+        final Bson filter,
+        final Bson projection,
+        final Bson sort,
+        final int limit,
+        final Class<T> documentClass) {
+        return getCollection(collectionName, documentClass).find(filter).projection(projection).sort(sort).limit(limit).into(new ArrayList<T>(limit));
+    }
+
     /**
      * @param documentId unique identifier of the document to update
      * @param updatedValues values to be updated present
@@ -122,7 +324,116 @@ public class MongoDbConnectionManager {
      */
     public void updateDocument(final String documentId, final Document updatedValues, final String collectionName) {
         final BasicDBObject query = new BasicDBObject(DOCUMENT_ID, new ObjectId(documentId));
-        getCollection(collectionName).updateOne(query, new Document("$set", updatedValues));
+        getCollection(collectionName, WriteOperation.UPDATE).updateOne(query, new Document("$set", updatedValues));
+    }
+
+    /**
+     * API to update multiple documents with a single database call. The updates are sent unordered, so the failure of one update doesn't stop the others.
+     *
+     * @param collectionName collection name to which the documents belong.
+     * @param updatedValuesById values to be updated, keyed by the unique identifier of the document to update.
+     * @return number of documents matched by the updates.
+     */
+    public int updateDocuments(final String collectionName, final Map<String, Document> updatedValuesById) {
+        final Map<String, Bson> updatesById = new LinkedHashMap<String, Bson>();
+        for (final Map.Entry<String, Document> entry : updatedValuesById.entrySet()) {
+            updatesById.put(entry.getKey(), new Document("$set", entry.getValue()));
+        }
+        return applyUpdates(collectionName, updatesById);
+    }
+
+    /**
+     * Same as {@link #updateDocuments(String, Map)}, with the update operators of each document given, for example $set along with $push.
+     *
+     * @param collectionName collection name to which the documents belong.
+     * @param updatesById update operators to apply, keyed by the unique identifier of the document to update.
+     * @return number of documents matched by the updates.
+     */
+    public int applyUpdates(final String collectionName, final Map<String, Bson> updatesById) {
+        final List<WriteModel<Document>> updates = new ArrayList<WriteModel<Document>>(updatesById.size());
+        for (final Map.Entry<String, Bson> entry : updatesById.entrySet()) {
+            updates.add(new UpdateOneModel<Document>(Filters.eq(DOCUMENT_ID, new ObjectId(entry.getKey())), entry.getValue()));
+        }
+        return getCollection(collectionName, WriteOperation.UPDATE).bulkWrite(updates, new BulkWriteOptions().ordered(false)).getMatchedCount();
+    }
+
+    /**
+     * API to update a document only if it still matches the given conditions. The conditions are checked and the update is applied by the database in a
+     * single atomic operation, so the document cannot be changed by another request in between.
+     *
+     * @param documentId unique identifier of the document to update
+     * @param conditions filter that the document must match, in addition to the document id, for the update to be applied
+     * @param update update operators to apply, for example $set or $inc of the changed fields only.
+     * @param collectionName collection name to which the document belongs.
+     * @return updated document if the document matched the conditions else an empty Optional
+     */
+    public Optional<Document> findAndUpdateDocument(final String documentId, final Bson conditions, final Bson update, final String collectionName) {
+        return findAndUpdateDocument(documentId, conditions, update, null, collectionName);
+    }
+
+    /**
+     * Same as {@link #findAndUpdateDocument(String, Bson, Bson, String)}, returning only the projected fields of the updated document.
+     *
+     * @param documentId unique identifier of the document to update
+     * @param conditions filter that the document must match, in addition to the document id, for the update to be applied
+     * @param update update operators to apply.
+     * @param projection fields of the updated document to return, or null to return all the fields.
+     * @param collectionName collection name to which the document belongs.
+     * @return updated document if the document matched the conditions else an empty Optional
+     */
+    public Optional<Document> findAndUpdateDocument(
+        final String documentId,
+        final Bson conditions,
+        final Bson update,
+        final Bson projection,
+        final String collectionName) {
+        final Bson query = Filters.and(Filters.eq(DOCUMENT_ID, new ObjectId(documentId)), conditions);
+        return Optional.ofNullable(
+            getCollection(collectionName, WriteOperation.UPDATE)
+                .findOneAndUpdate(query, update, new FindOneAndUpdateOptions().projection(projection).returnDocument(ReturnDocument.AFTER)));
+    }
+
+    /**
+     * Same as {@link #findAndUpdateDocument(String, Bson, Bson, String)}, decoding the updated document into an application object.
+     *
+     * @param documentId unique identifier of the document to update
+     * @param conditions filter that the document must match, in addition to the document id, for the update to be applied
+     * @param update update operators to apply.
+     * @param collectionName collection name to which the document belongs.
+     * @param documentClass class into which the document is decoded, having a codec registered with this connection manager.
+     * @return updated document if the document matched the conditions else an empty Optional
+     */
+    public <T> Optional<T> findAndUpdateDocument(
+        final String documentId,
+        final Bson conditions,
+        final Bson update,
+        final String collectionName,
+        final Class<T> documentClass) {
+        return findAndUpdateDocument(documentId, conditions, update, null, collectionName, documentClass);
+    }
+
+    /**
+     * Same as {@link #findAndUpdateDocument(String, Bson, Bson, String, Class)}, decoding only the projected fields of the updated document.
+     *
+     * @param documentId unique identifier of the document to update
+     * @param conditions filter that the document must match, in addition to the document id, for the update to be applied
+     * @param update update operators to apply.
+     * @param projection fields of the updated document to return, or null to return all the fields.
+     * @param collectionName collection name to which the document belongs.
+     * @param documentClass class into which the document is decoded, having a codec registered with this connection manager.
+     * @return updated document if the document matched the conditions else an empty Optional
+     */
+    public <T> Optional<T> findAndUpdateDocument(
+        final String documentId,
+        final Bson conditions,
+        final Bson update,
+        final Bson projection,
+        final String collectionName,
+        final Class<T> documentClass) {
+        final Bson query = Filters.and(Filters.eq(DOCUMENT_ID, new ObjectId(documentId)), conditions);
+        return Optional.ofNullable(
+            getCollection(collectionName, documentClass, WriteOperation.UPDATE)
+                .findOneAndUpdate(query, update, new FindOneAndUpdateOptions().projection(projection).returnDocument(ReturnDocument.AFTER)));
     }
 
     /**
@@ -133,7 +444,31 @@ public class MongoDbConnectionManager {
      */
     public void deleteDocument(final String documentId, final String collectionName) {
         final BasicDBObject deleteQuery = new BasicDBObject(DOCUMENT_ID, new ObjectId(documentId));
-        getCollection(collectionName).deleteOne(deleteQuery);
+        getCollection(collectionName, WriteOperation.DELETE).deleteOne(deleteQuery);
+    }
+
+    /**
+     * API to delete a document only if it still matches the given conditions, checked and applied by the database in a single atomic operation.
+     *
+     * @param documentId id of the document to delete
+     * @param conditions filter that the document must match, in addition to the document id, to be deleted
+     * @param collectionName name of the collection containing document to delete.
+     * @return true if the document was deleted, false if it doesn't exist or doesn't match the conditions.
+     */
+    public boolean deleteDocument(final String documentId, final Bson conditions, final String collectionName) {
+        final Bson query = Filters.and(Filters.eq(DOCUMENT_ID, new ObjectId(documentId)), conditions);
+        return getCollection(collectionName, WriteOperation.DELETE).deleteOne(query).getDeletedCount() == 1;
+    }
+
+    /**
+     * API to delete all the documents matching a filter with a single database call.
+     *
+     * @param collectionName name of the collection containing the documents to delete.
+     * @param filter filter that the documents must match to be deleted
+     * @return number of documents deleted.
+     */
+    public long deleteDocuments(final String collectionName, final Bson filter) {
+        return getCollection(collectionName, WriteOperation.DELETE).deleteMany(filter).getDeletedCount();
     }
 
     /**
@@ -158,6 +493,13 @@ public class MongoDbConnectionManager {
         return collectionNames;
     }
 
+    private ObjectId assignDocumentId(final Document document) {
+        if (!document.containsKey(DOCUMENT_ID)) {
+            document.append(DOCUMENT_ID, new ObjectId());
+        }
+        return document.getObjectId(DOCUMENT_ID);
+    }
+
     /**
      * @return the databaseName
      */
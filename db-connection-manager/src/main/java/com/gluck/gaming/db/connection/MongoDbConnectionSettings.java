@@ -0,0 +1,293 @@
+package com.gluck.gaming.db.connection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.codecs.configuration.CodecRegistry;
+
+import com.mongodb.MongoClientOptions;
+import com.mongodb.ReadPreference;
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteConcern;
+import com.mongodb.async.client.MongoClientSettings;
+import com.mongodb.connection.ClusterSettings;
+import com.mongodb.connection.ConnectionPoolSettings;
+import com.mongodb.connection.SocketSettings;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.ConnectionPoolListener;
+
+/**
+ * Connection pool, timeout, read preference and write concern settings of the Mongo DB clients created by {@link MongoDbConnectionManager} and
+ * {@link AsyncMongoDbConnectionManager}. The defaults are the ones of the driver.
+ *
+ * @author Vinay Semwal
+ */
+public class MongoDbConnectionSettings {
+
+    private int maxPoolSize = 100;
+
+    private int minPoolSize;
+
+    private int maxWaitQueueSize = 500;
+
+    private int maxWaitTimeMillis = 120000;
+
+    private int connectTimeoutMillis = 10000;
+
+    private int socketTimeoutMillis;
+
+    private int serverSelectionTimeoutMillis = 30000;
+
+    private ReadPreference readPreference = ReadPreference.primary();
+
+    private WriteConcern writeConcern = WriteConcern.ACKNOWLEDGED;
+
+    private final Map<WriteOperation, WriteConcern> operationWriteConcerns = new EnumMap<WriteOperation, WriteConcern>(WriteOperation.class);
+
+    private final List<ConnectionPoolListener> connectionPoolListeners = new ArrayList<ConnectionPoolListener>();
+
+    private final List<CommandListener> commandListeners = new ArrayList<CommandListener>();
+
+    /**
+     * @return the maximum number of connections to a server
+     */
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    /**
+     * @param maxPoolSize the maximum number of connections to a server
+     */
+    public void setMaxPoolSize(final int maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    /**
+     * @return the minimum number of connections kept open to a server
+     */
+    public int getMinPoolSize() {
+        return minPoolSize;
+    }
+
+    /**
+     * @param minPoolSize the minimum number of connections kept open to a server
+     */
+    public void setMinPoolSize(final int minPoolSize) {
+        this.minPoolSize = minPoolSize;
+    }
+
+    /**
+     * @return the maximum number of operations waiting for a connection, beyond which the operations fail straight away
+     */
+    public int getMaxWaitQueueSize() {
+        return maxWaitQueueSize;
+    }
+
+    /**
+     * @param maxWaitQueueSize the maximum number of operations waiting for a connection, beyond which the operations fail straight away
+     */
+    public void setMaxWaitQueueSize(final int maxWaitQueueSize) {
+        this.maxWaitQueueSize = maxWaitQueueSize;
+    }
+
+    /**
+     * @return the maximum time an operation waits for a connection
+     */
+    public int getMaxWaitTimeMillis() {
+        return maxWaitTimeMillis;
+    }
+
+    /**
+     * @param maxWaitTimeMillis the maximum time an operation waits for a connection
+     */
+    public void setMaxWaitTimeMillis(final int maxWaitTimeMillis) {
+        this.maxWaitTimeMillis = maxWaitTimeMillis;
+    }
+
+    /**
+     * @return the connect timeout
+     */
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    /**
+     * @param connectTimeoutMillis the connect timeout
+     */
+    public void setConnectTimeoutMillis(final int connectTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    /**
+     * @return the socket read timeout, 0 for no timeout
+     */
+    public int getSocketTimeoutMillis() {
+        return socketTimeoutMillis;
+    }
+
+    /**
+     * @param socketTimeoutMillis the socket read timeout, 0 for no timeout
+     */
+    public void setSocketTimeoutMillis(final int socketTimeoutMillis) {
+        this.socketTimeoutMillis = socketTimeoutMillis;
+    }
+
+    /**
+     * @return the maximum time to wait for a server to be available for an operation
+     */
+    public int getServerSelectionTimeoutMillis() {
+        return serverSelectionTimeoutMillis;
+    }
+
+    /**
+     * @param serverSelectionTimeoutMillis the maximum time to wait for a server to be available for an operation
+     */
+    public void setServerSelectionTimeoutMillis(final int serverSelectionTimeoutMillis) {
+        this.serverSelectionTimeoutMillis = serverSelectionTimeoutMillis;
+    }
+
+    /**
+     * @return the readPreference
+     */
+    public ReadPreference getReadPreference() {
+        return readPreference;
+    }
+
+    /**
+     * @param readPreference the readPreference
+     */
+    public void setReadPreference(final ReadPreference readPreference) {
+        this.readPreference = Objects.requireNonNull(readPreference, "Read preference cannot be null.");
+    }
+
+    /**
+     * @return the write concern of the operations without a write concern of their own
+     */
+    public WriteConcern getWriteConcern() {
+        return writeConcern;
+    }
+
+    /**
+     * @param writeConcern the write concern of the operations without a write concern of their own
+     */
+    public void setWriteConcern(final WriteConcern writeConcern) {
+        this.writeConcern = Objects.requireNonNull(writeConcern, "Write concern cannot be null.");
+    }
+
+    /**
+     * @param operation kind of write operation
+     * @return the write concern of the operation, the default write concern if none is set for the operation
+     */
+    public WriteConcern getWriteConcern(final WriteOperation operation) {
+        final WriteConcern operationWriteConcern = operationWriteConcerns.get(operation);
+        return operationWriteConcern == null ? writeConcern : operationWriteConcern;
+    }
+
+    /**
+     * @param operation kind of write operation
+     * @param operationWriteConcern write concern of the operation, null to use the default write concern
+     */
+    public void setWriteConcern(final WriteOperation operation, final WriteConcern operationWriteConcern) {
+        if (operationWriteConcern == null) {
+            operationWriteConcerns.remove(operation);
+        } else {
+            operationWriteConcerns.put(operation, operationWriteConcern);
+        }
+    }
+
+    /**
+     * @param connectionPoolListener listener to be notified of the connection pool events of the clients created with these settings
+     */
+    public void addConnectionPoolListener(final ConnectionPoolListener connectionPoolListener) {
+        connectionPoolListeners.add(Objects.requireNonNull(connectionPoolListener, "Connection pool listener cannot be null."));
+    }
+
+    /**
+     * @return the connectionPoolListeners
+     */
+    public List<ConnectionPoolListener> getConnectionPoolListeners() {
+        return Collections.unmodifiableList(connectionPoolListeners);
+    }
+
+    /**
+     * @param commandListener listener to be notified of the commands sent by the clients created with these settings
+     */
+    public void addCommandListener(final CommandListener commandListener) {
+        commandListeners.add(Objects.requireNonNull(commandListener, "Command listener cannot be null."));
+    }
+
+    /**
+     * @return the commandListeners
+     */
+    public List<CommandListener> getCommandListeners() {
+        return Collections.unmodifiableList(commandListeners);
+    }
+
+    /**
+     * The synchronous driver bounds the wait queue as a multiple of the pool size, so the configured size is rounded up to the next multiple.
+     *
+     * @param codecRegistry registry of the codecs of the client
+     * @return options of a synchronous client
+     */
+    MongoClientOptions toMongoClientOptions(final CodecRegistry codecRegistry) {
+        final MongoClientOptions.Builder builder = MongoClientOptions.builder()
+            .codecRegistry(codecRegistry)
+            .connectionsPerHost(maxPoolSize)
+            .minConnectionsPerHost(minPoolSize)
+            .threadsAllowedToBlockForConnectionMultiplier(Math.max(1, (maxWaitQueueSize + maxPoolSize - 1) / maxPoolSize))
+            .maxWaitTime(maxWaitTimeMillis)
+            .connectTimeout(connectTimeoutMillis)
+            .socketTimeout(socketTimeoutMillis)
+            .serverSelectionTimeout(serverSelectionTimeoutMillis)
+            .readPreference(readPreference)
+            .writeConcern(writeConcern);
+        for (final ConnectionPoolListener connectionPoolListener : connectionPoolListeners) {
+            builder.addConnectionPoolListener(connectionPoolListener);
+        }
+        for (final CommandListener commandListener : commandListeners) {
+            builder.addCommandListener(commandListener);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @param serverAddress address of the database server
+     * @param codecRegistry registry of the codecs of the client
+     * @return settings of an asynchronous client
+     */
+    MongoClientSettings toMongoClientSettings(final ServerAddress serverAddress, final CodecRegistry codecRegistry) {
+        final ConnectionPoolSettings.Builder connectionPoolSettings = ConnectionPoolSettings.builder()
+            .maxSize(maxPoolSize)
+            .minSize(minPoolSize)
+            .maxWaitQueueSize(maxWaitQueueSize)
+            .maxWaitTime(maxWaitTimeMillis, TimeUnit.MILLISECONDS);
+        for (final ConnectionPoolListener connectionPoolListener : connectionPoolListeners) {
+            connectionPoolSettings.addConnectionPoolListener(connectionPoolListener);
+        }
+        final MongoClientSettings.Builder builder = MongoClientSettings.builder()
+            .clusterSettings(
+                ClusterSettings.builder()
+                    .hosts(Collections.singletonList(serverAddress))
+                    .serverSelectionTimeout(serverSelectionTimeoutMillis, TimeUnit.MILLISECONDS)
+                    .build())
+            .connectionPoolSettings(connectionPoolSettings.build())
+            .socketSettings(
+                SocketSettings.builder()
+                    .connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS)
+                    .readTimeout(socketTimeoutMillis, TimeUnit.MILLISECONDS)
+                    .build())
+            .readPreference(readPreference)
+            .writeConcern(writeConcern)
+            .codecRegistry(codecRegistry);
+        for (final CommandListener commandListener : commandListeners) {
+            builder.addCommandListener(commandListener);
+        }
+        return builder.build();
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.gluck.gaming.db.connection;
+
+/**
+ * Kinds of write operation for which a different write concern can be configured in {@link MongoDbConnectionSettings}.
+ *
+ * @author Vinay Semwal
+ */
+public enum WriteOperation {
+
+    /**
+     * Insert of new documents.
+     */
+    CREATE,
+
+    /**
+     * Update of existing documents, conditional or not.
+     */
+    UPDATE,
+
+    /**
+     * Delete of documents.
+     */
+    DELETE
+}
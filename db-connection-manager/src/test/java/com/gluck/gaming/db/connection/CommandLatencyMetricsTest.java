@@ -0,0 +1,120 @@
+package com.gluck.gaming.db.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.ObjectName;
+
+import org.bson.BsonDocument;
+import org.junit.Test;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+/**
+ * Test class for {@link CommandLatencyMetrics} and {@link LatencyHistogram}. No database is needed.
+ *
+ * @author Vinay Semwal
+ */
+public class CommandLatencyMetricsTest {
+
+    private final ConnectionDescription connection = new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress("localhost", 27017)));
+
+    /**
+     * Test that the percentiles are found within the precision of the buckets.
+     */
+    @Test
+    public void testHistogramPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500, histogram.getMeanMicros());
+        assertEquals(1000, histogram.getMaxMicros());
+        assertWithinBucket(500, histogram.getPercentileMicros(50));
+        assertWithinBucket(990, histogram.getPercentileMicros(99));
+        assertEquals(1000, histogram.getPercentileMicros(100));
+        for (long micros = 1; micros < TimeUnit.HOURS.toMicros(1); micros = micros * 3 + 1) {
+            assertTrue(LatencyHistogram.getUpperBound(LatencyHistogram.getBucket(micros)) >= micros);
+        }
+    }
+
+    /**
+     * Test that the latencies are recorded per command and collection, failures included.
+     *
+     * @throws Exception if the MXBean can't be read
+     */
+    @Test
+    public void testCommandLatencies() throws Exception {
+        final CommandLatencyMetrics metrics = new CommandLatencyMetrics("test", 10);
+        metrics.register();
+        runCommand(metrics, 1, "{find: 'games', filter: {_id: {$oid: '588f8fd9ee15e4304b647126'}}}", 2, false);
+        runCommand(metrics, 2, "{find: 'games', filter: {firstPlayer: 'p1'}}", 30, false);
+        runCommand(metrics, 3, "{insert: 'games'}", 1, true);
+
+        final List<CommandLatency> latencies = metrics.getLatencies();
+        assertEquals(2, latencies.size());
+        for (final CommandLatency latency : latencies) {
+            assertEquals("games", latency.getCollectionName());
+            if ("find".equals(latency.getCommandName())) {
+                assertEquals(2, latency.getCount());
+                assertEquals(TimeUnit.MILLISECONDS.toMicros(30), latency.getMaxMicros());
+            } else {
+                assertEquals(1, latency.getFailedCount());
+            }
+        }
+        assertEquals(1, metrics.getSlowCommandCount());
+        assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(new ObjectName("com.gluck.gaming:type=CommandLatencyMetrics,name=test"),
+            "SlowCommandCount"));
+    }
+
+    /**
+     * Test that the filter values are left out of the shape logged for the slow commands.
+     */
+    @Test
+    public void testFilterShape() {
+        assertEquals(
+            "{_id: ?, $or: [{firstPlayer: ?}, {secondPlayer: ?}], state: {$in: ?}}",
+            CommandLatencyMetrics.getFilterShape(
+                "find",
+                BsonDocument.parse("{find: 'games', filter: {_id: 1, $or: [{firstPlayer: 'p1'}, {secondPlayer: 'p1'}], state: {$in: ['NEW']}}}")));
+        assertEquals(
+            "{_id: ?, state: ?}",
+            CommandLatencyMetrics.getFilterShape("update", BsonDocument.parse("{update: 'games', updates: [{q: {_id: 1, state: 'NEW'}, u: {}}]}")));
+        assertNull(CommandLatencyMetrics.getFilterShape("insert", BsonDocument.parse("{insert: 'games'}")));
+        assertEquals("games", CommandLatencyMetrics.getCollectionName("getMore", BsonDocument.parse("{getMore: 12, collection: 'games'}")));
+    }
+
+    private void runCommand(
+        final CommandLatencyMetrics metrics,
+        final int requestId,
+        final String command,
+        final long elapsedMillis,
+        final boolean failed) {
+        final BsonDocument commandDocument = BsonDocument.parse(command);
+        final String commandName = commandDocument.keySet().iterator().next();
+        metrics.commandStarted(new CommandStartedEvent(requestId, connection, "Connect4", commandName, commandDocument));
+        final long elapsedNanos = TimeUnit.MILLISECONDS.toNanos(elapsedMillis);
+        if (failed) {
+            metrics.commandFailed(new CommandFailedEvent(requestId, connection, commandName, elapsedNanos, new IllegalStateException()));
+        } else {
+            metrics.commandSucceeded(new CommandSucceededEvent(requestId, connection, commandName, new BsonDocument(), elapsedNanos));
+        }
+    }
+
+    private static void assertWithinBucket(final long expected, final long actual) {
+        assertTrue(actual + " is not within 12.5% above " + expected, actual >= expected && actual <= expected * 1.125);
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.gluck.gaming.db.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteConcern;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionPoolWaitQueueEnteredEvent;
+import com.mongodb.event.ConnectionPoolWaitQueueExitedEvent;
+
+/**
+ * Test class for {@link ConnectionPoolMetrics} and {@link MongoDbConnectionSettings}. No database is needed.
+ *
+ * @author Vinay Semwal
+ */
+public class ConnectionPoolMetricsTest {
+
+    private final ServerId serverId = new ServerId(new ClusterId(), new ServerAddress("localhost", 27017));
+
+    /**
+     * Test that the connections checked out and the waits for a connection are counted.
+     *
+     * @throws Exception if the thread is interrupted
+     */
+    @Test
+    public void testPoolStatistics() throws Exception {
+        final ConnectionPoolMetrics metrics = new ConnectionPoolMetrics("test");
+        //The metrics don't read the connection events, whose constructors are internal to the driver.
+        metrics.connectionAdded(null);
+        metrics.waitQueueEntered(new ConnectionPoolWaitQueueEnteredEvent(serverId));
+        assertEquals(1, metrics.getWaitQueueSize());
+        Thread.sleep(5);
+        metrics.waitQueueExited(new ConnectionPoolWaitQueueExitedEvent(serverId));
+        metrics.connectionCheckedOut(null);
+
+        assertEquals(1, metrics.getPoolSize());
+        assertEquals(1, metrics.getCheckedOutCount());
+        assertEquals(0, metrics.getWaitQueueSize());
+        assertEquals(1, metrics.getWaitCount());
+        assertTrue(metrics.getMaxWaitTimeMillis() >= 5);
+        assertEquals(metrics.getMaxWaitTimeMillis(), metrics.getAverageWaitTimeMillis(), 0.001);
+
+        metrics.connectionCheckedIn(null);
+        assertEquals(0, metrics.getCheckedOutCount());
+        assertEquals(1, metrics.getTotalCheckedOutCount());
+    }
+
+    /**
+     * Test that the waits of an async client are counted in the wait queue but not timed, since they are not exited by the thread that entered them.
+     *
+     * @throws Exception if the thread is interrupted
+     */
+    @Test
+    public void testAsyncClientWaitsNotTimed() throws Exception {
+        final ConnectionPoolMetrics metrics = new ConnectionPoolMetrics("test-async", false);
+        metrics.waitQueueEntered(new ConnectionPoolWaitQueueEnteredEvent(serverId));
+        assertEquals(1, metrics.getWaitQueueSize());
+        final Thread exitingThread = new Thread(() -> metrics.waitQueueExited(new ConnectionPoolWaitQueueExitedEvent(serverId)));
+        exitingThread.start();
+        exitingThread.join();
+        metrics.waitQueueEntered(new ConnectionPoolWaitQueueEnteredEvent(serverId));
+        metrics.waitQueueExited(new ConnectionPoolWaitQueueExitedEvent(serverId));
+
+        assertEquals(0, metrics.getWaitQueueSize());
+        assertEquals(0, metrics.getWaitCount());
+        assertEquals(0, metrics.getMaxWaitTimeMillis(), 0.001);
+    }
+
+    /**
+     * Test that the write concern of an operation falls back to the default one.
+     */
+    @Test
+    public void testOperationWriteConcern() {
+        final MongoDbConnectionSettings settings = new MongoDbConnectionSettings();
+        settings.setWriteConcern(WriteConcern.W1);
+        settings.setWriteConcern(WriteOperation.DELETE, WriteConcern.MAJORITY);
+        assertEquals(WriteConcern.W1, settings.getWriteConcern(WriteOperation.CREATE));
+        assertEquals(WriteConcern.MAJORITY, settings.getWriteConcern(WriteOperation.DELETE));
+        settings.setWriteConcern(WriteOperation.DELETE, null);
+        assertEquals(WriteConcern.W1, settings.getWriteConcern(WriteOperation.DELETE));
+    }
+
+}
@@ -7,6 +7,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -104,6 +105,26 @@ public class MongoDbConnectionManagerTest {
         }
     }
 
+    /**
+     * Test to create multiple documents in a collection
+     */
+    @Test
+    public void testCreateDocuments() {
+        MongoCollection<Document> collection = null;
+        try {
+            connectionManager.createCollection("testGame");
+            collection = connectionManager.getCollection("testGame");
+            final List<String> documentIds = connectionManager
+                .createDocuments("testGame", Arrays.asList(new Document("name", "first"), new Document("name", "second")));
+            assertEquals(2, documentIds.size());
+            assertEquals("first", connectionManager.findDocumentById("testGame", documentIds.get(0)).get().getString("name"));
+            assertEquals("second", connectionManager.findDocumentById("testGame", documentIds.get(1)).get().getString("name"));
+        } finally {
+            collection.drop();
+
+        }
+    }
+
     /**
      * Test to search a document using its unique identifier.
      */
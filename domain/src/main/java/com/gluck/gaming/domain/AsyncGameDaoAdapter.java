@@ -0,0 +1,94 @@
+package com.gluck.gaming.domain;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import com.gluck.gaming.dao.AsyncGameDao;
+import com.gluck.gaming.dao.GameDao;
+import com.gluck.gaming.dao.model.Game;
+import com.gluck.gaming.dao.model.GameHeader;
+
+/**
+ * {@link AsyncGameDao} running the calls of a {@link GameDao} in the calling thread and returning already completed futures. Meant for the {@link GameDao}
+ * implementations that answer from memory, like {@link InMemoryGameDao}, and as a fallback for the storage configurations without a non blocking
+ * implementation, in which case the calling thread waits for the database as with the {@link GameDao} itself.
+ *
+ * @author Vinay Semwal
+ */
+public class AsyncGameDaoAdapter implements AsyncGameDao {
+
+    private final GameDao gameDao;
+
+    /**
+     * @param gameDao {@link GameDao} to which all the calls are delegated.
+     */
+    public AsyncGameDaoAdapter(final GameDao gameDao) {
+        this.gameDao = gameDao;
+    }
+
+    @Override
+    public CompletableFuture<String> createGame(final String firstPlayerName, final String secondPlayerName, final String sessionId) {
+        return call(() -> gameDao.createGame(firstPlayerName, secondPlayerName, sessionId));
+    }
+
+    @Override
+    public CompletableFuture<String> createGame(final Game game) {
+        return call(() -> gameDao.createGames(Collections.singletonList(game)).get(0));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Game>> findGameById(final String id) {
+        return call(() -> gameDao.findGameById(id));
+    }
+
+    @Override
+    public CompletableFuture<Optional<GameHeader>> findGameHeaderById(final String id) {
+        return call(() -> gameDao.findGameHeaderById(id));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Game>> saveTurn(final Game game, final int row, final int column) {
+        return call(() -> gameDao.saveTurn(game, row, column));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Game>> saveGameResult(final Game game) {
+        return call(() -> gameDao.saveGameResult(game));
+    }
+
+    @Override
+    public CompletableFuture<Optional<GameHeader>> updateGameState(
+        final String id,
+        final List<String> currentStates,
+        final String targetState,
+        final String sessionId) {
+        return call(() -> gameDao.updateGameState(id, currentStates, targetState, sessionId));
+    }
+
+    @Override
+    public CompletableFuture<Optional<GameHeader>> saveGameState(final Game game, final List<String> currentStates) {
+        return call(() -> gameDao.saveGameState(game, currentStates));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteGame(final String id, final List<String> states) {
+        return call(() -> gameDao.deleteGame(id, states));
+    }
+
+    /**
+     * @return future completed with the result of the call, or exceptionally with the exception thrown by the call.
+     */
+    private static <T> CompletableFuture<T> call(final Supplier<T> call) {
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+        try {
+            future.complete(call.get());
+        } catch (final RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.gluck.gaming.domain;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.gluck.gaming.dao.AsyncGameDao;
+import com.gluck.gaming.dao.model.BitBoard;
+import com.gluck.gaming.dao.model.Game;
+import com.gluck.gaming.dao.model.GameHeader;
+import com.gluck.gaming.db.connection.AsyncMongoDbConnectionManager;
+
+/**
+ * Mongo DB implementation of {@link AsyncGameDao}, reading and writing the same documents as {@link GameDaoImpl} with the same conditions, through the
+ * asynchronous driver. {@link GameCodec} and {@link GameHeaderCodec} have to be registered with the connection manager.
+ *
+ * @author Vinay Semwal
+ */
+public class AsyncGameDaoImpl implements AsyncGameDao {
+
+    private static final Logger logger = LogManager.getLogger(AsyncGameDaoImpl.class);
+
+    private static final String NEW = "NEW";
+
+    private static final String GAME = "Game";
+
+    private final AsyncMongoDbConnectionManager connectionManager;
+
+    /**
+     * @param asyncMongoDbConnectionManager connection manager to make non blocking calls to a particular Mongo DB database.
+     */
+    public AsyncGameDaoImpl(final AsyncMongoDbConnectionManager asyncMongoDbConnectionManager) {
+        connectionManager = asyncMongoDbConnectionManager;
+    }
+
+    @Override
+    public CompletableFuture<String> createGame(final String firstPlayerName, final String secondPlayerName, final String sessionId) {
+        final Game game = new Game(null, sessionId, NEW, null, firstPlayerName, secondPlayerName, new BitBoard(), null);
+        logger.info("Adding Game doument to Database : {}", game);
+        return connectionManager.createDocument(GAME, game, Game.class).thenApply(created -> game.getGameId());
+    }
+
+    @Override
+    public CompletableFuture<String> createGame(final Game game) {
+        logger.info("Adding Game doument to Database : {}", game);
+        return connectionManager.createDocument(GAME, game, Game.class).thenApply(created -> game.getGameId());
+    }
+
+    @Override
+    public CompletableFuture<Optional<Game>> findGameById(final String id) {
+        return connectionManager.findDocumentById(GAME, id, null, Game.class);
+    }
+
+    @Override
+    public CompletableFuture<Optional<GameHeader>> findGameHeaderById(final String id) {
+        return connectionManager.findDocumentById(GAME, id, GameQueries.HEADER_PROJECTION, GameHeader.class);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Game>> saveTurn(final Game game, final int row, final int column) {
+        return connectionManager.findAndUpdateDocument(
+            game.getGameId(),
+            GameDaoImpl.getTurnConditions(game, row, column),
+            GameDaoImpl.getTurnUpdate(game),
+            null,
+            GAME,
+            Game.class).thenApply(savedGame -> {
+                if (savedGame.isPresent()) {
+                    game.clearChangedFields();
+                } else {
+                    logger.warn("Turn not saved for game with id : {} since the game was changed after it was read.", game.getGameId());
+                }
+                return savedGame;
+            });
+    }
+
+    @Override
+    public CompletableFuture<Optional<Game>> saveGameResult(final Game game) {
+        return connectionManager.findAndUpdateDocument(
+            game.getGameId(),
+            GameDaoImpl.getResultConditions(game),
+            GameDaoImpl.getResultUpdate(game),
+            null,
+            GAME,
+            Game.class).thenApply(savedGame -> {
+                if (savedGame.isPresent()) {
+                    game.clearChangedFields();
+                } else {
+                    logger.warn("Result not saved for game with id : {} since the game was changed after it was read.", game.getGameId());
+                }
+                return savedGame;
+            });
+    }
+
+    @Override
+    public CompletableFuture<Optional<GameHeader>> updateGameState(
+        final String id,
+        final List<String> currentStates,
+        final String targetState,
+        final String sessionId) {
+        return connectionManager.findAndUpdateDocument(
+            id,
+            GameQueries.getStatesFilter(currentStates),
+            GameQueries.getStateUpdate(targetState, sessionId),
+            GameQueries.HEADER_PROJECTION,
+            GAME,
+            GameHeader.class);
+    }
+
+    @Override
+    public CompletableFuture<Optional<GameHeader>> saveGameState(final Game game, final List<String> currentStates) {
+        return connectionManager.findAndUpdateDocument(
+            game.getGameId(),
+            GameQueries.getGameStateConditions(game, currentStates),
+            GameQueries.getGameStateUpdate(game),
+            GameQueries.HEADER_PROJECTION,
+            GAME,
+            GameHeader.class).thenApply(updatedGame -> {
+                if (updatedGame.isPresent()) {
+                    game.clearChangedFields();
+                } else {
+                    logger.warn("State of game with id : {} not updated since the game was changed after it was read.", game.getGameId());
+                }
+                return updatedGame;
+            });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteGame(final String id, final List<String> states) {
+        return connectionManager.deleteDocument(id, GameQueries.getStatesFilter(states), GAME);
+    }
+
+}
@@ -0,0 +1,355 @@
+package com.gluck.gaming.domain;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.gluck.gaming.dao.GameDao;
+import com.gluck.gaming.dao.model.Game;
+import com.gluck.gaming.dao.model.GameHeader;
+
+/**
+ * {@link GameDao} decorator that keeps recently used games in memory, so that repeated reads of the same game, like clients polling the game data, don't have
+ * to go to the database.<br>
+ * The cache is bounded both in size and in time: the least recently used games are evicted once the maximum size is reached and a game is read again from the
+ * database once it has been in the cache longer than the expiry time. Games are kept coherent with the writes made through this instance; the expiry time
+ * bounds how long a change made by another application instance can go unseen, so the cache is meant for a single instance serving the games. Turns are always
+ * saved with a conditional update, so a stale cached game can never overwrite a newer turn. A game read from the database is cached only if no write went
+ * through its segment during the read, so that a read racing a turn cannot put the older game back in the cache.<br>
+ * The cache is split in segments, each one guarded by its own lock, to limit contention between request threads.
+ *
+ * @author Vinay Semwal
+ */
+public class CachingGameDao implements GameDao {
+
+    private static final Logger logger = LogManager.getLogger(CachingGameDao.class);
+
+    private static final int SEGMENT_COUNT = 16;
+
+    private final GameDao gameDao;
+
+    private final long expireAfterWriteNanos;
+
+    private final Segment[] segments;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * @param gameDao {@link GameDao} to which all the calls not served from the cache are delegated.
+     * @param maximumSize maximum number of games to keep in the cache.
+     * @param expireAfterWriteSeconds number of seconds after which a cached game is read again from the database.
+     */
+    public CachingGameDao(final GameDao gameDao, final int maximumSize, final long expireAfterWriteSeconds) {
+        this.gameDao = gameDao;
+        expireAfterWriteNanos = TimeUnit.SECONDS.toNanos(expireAfterWriteSeconds);
+        segments = new Segment[SEGMENT_COUNT];
+        final int segmentSize = Math.max(1, maximumSize / SEGMENT_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+        logger.info("Game cache created with maximum size : {} and expiry of {} seconds", maximumSize, expireAfterWriteSeconds);
+    }
+
+    @Override
+    public String createGame(final String firstPlayerName, final String secondPlayerName, final String sessionId) {
+        return gameDao.createGame(firstPlayerName, secondPlayerName, sessionId);
+    }
+
+    @Override
+    public List<String> createGames(final List<Game> games) {
+        return gameDao.createGames(games);
+    }
+
+    @Override
+    public Optional<Game> findGameById(final String id) {
+        final Game cachedGame = segmentFor(id).get(id);
+        if (cachedGame != null) {
+            hitCount.increment();
+            return Optional.of(cachedGame.copy());
+        }
+        missCount.increment();
+        final Segment segment = segmentFor(id);
+        final long writeStamp = segment.getWriteStamp();
+        final Optional<Game> game = gameDao.findGameById(id);
+        if (game.isPresent()) {
+            segment.putIfUnchanged(id, game.get().copy(), writeStamp);
+        }
+        return game;
+    }
+
+    /**
+     * Served from the cached game if there is one, else read from the database without caching it, since the header doesn't have the grid.
+     */
+    @Override
+    public Optional<GameHeader> findGameHeaderById(final String id) {
+        final Game cachedGame = segmentFor(id).get(id);
+        if (cachedGame != null) {
+            hitCount.increment();
+            return Optional.of(cachedGame.getHeader());
+        }
+        missCount.increment();
+        return gameDao.findGameHeaderById(id);
+    }
+
+    @Override
+    public Optional<Game> findGameByPlayers(final String firstPlayerName, final String secondPlayerName) {
+        return gameDao.findGameByPlayers(firstPlayerName, secondPlayerName);
+    }
+
+    @Override
+    public List<GameHeader> findGamesByPlayer(final String playerName, final String gameState, final String afterGameId, final int limit) {
+        return gameDao.findGamesByPlayer(playerName, gameState, afterGameId, limit);
+    }
+
+    @Override
+    public void updateGame(final Game game) {
+        try {
+            gameDao.updateGame(game);
+        } catch (final RuntimeException e) {
+            invalidate(game.getGameId());
+            throw e;
+        }
+        segmentFor(game.getGameId()).put(game.getGameId(), game.copy());
+    }
+
+    @Override
+    public Optional<GameHeader> updateGameState(final String id, final List<String> currentStates, final String targetState, final String sessionId) {
+        try {
+            return gameDao.updateGameState(id, currentStates, targetState, sessionId);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public Optional<GameHeader> saveGameState(final Game game, final List<String> currentStates) {
+        try {
+            return gameDao.saveGameState(game, currentStates);
+        } finally {
+            invalidate(game.getGameId());
+        }
+    }
+
+    @Override
+    public Optional<GameHeader> saveIdleGameState(final Game game, final List<String> currentStates, final long idleSinceMillis) {
+        try {
+            return gameDao.saveIdleGameState(game, currentStates, idleSinceMillis);
+        } finally {
+            invalidate(game.getGameId());
+        }
+    }
+
+    @Override
+    public Map<String, Long> findLastUpdateTimes(final List<String> states) {
+        return gameDao.findLastUpdateTimes(states);
+    }
+
+    @Override
+    public void saveGames(final List<Game> games) {
+        try {
+            gameDao.saveGames(games);
+        } catch (final RuntimeException e) {
+            for (final Game game : games) {
+                invalidate(game.getGameId());
+            }
+            throw e;
+        }
+        for (final Game game : games) {
+            segmentFor(game.getGameId()).put(game.getGameId(), game.copy());
+        }
+    }
+
+    @Override
+    public Optional<Game> saveTurn(final Game game, final int row, final int column) {
+        final Optional<Game> savedGame;
+        try {
+            savedGame = gameDao.saveTurn(game, row, column);
+        } catch (final RuntimeException e) {
+            invalidate(game.getGameId());
+            throw e;
+        }
+        if (savedGame.isPresent()) {
+            segmentFor(game.getGameId()).put(game.getGameId(), savedGame.get().copy());
+        } else {
+            //The cached game is older than the one in the database.
+            invalidate(game.getGameId());
+        }
+        return savedGame;
+    }
+
+    @Override
+    public Optional<Game> saveGameResult(final Game game) {
+        final Optional<Game> savedGame;
+        try {
+            savedGame = gameDao.saveGameResult(game);
+        } catch (final RuntimeException e) {
+            invalidate(game.getGameId());
+            throw e;
+        }
+        if (savedGame.isPresent()) {
+            segmentFor(game.getGameId()).put(game.getGameId(), savedGame.get().copy());
+        } else {
+            //The cached game is older than the one in the database.
+            invalidate(game.getGameId());
+        }
+        return savedGame;
+    }
+
+    @Override
+    public void deleteGame(final Game game) {
+        try {
+            gameDao.deleteGame(game);
+        } finally {
+            invalidate(game.getGameId());
+        }
+    }
+
+    @Override
+    public boolean deleteGame(final String id, final List<String> states) {
+        try {
+            return gameDao.deleteGame(id, states);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    /**
+     * Removes a game from the cache.
+     *
+     * @param id unique identifier of the game to remove.
+     */
+    public void invalidate(final String id) {
+        segmentFor(id).remove(id);
+    }
+
+    /**
+     * @return number of reads served from the cache.
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return number of reads that had to go to the database.
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return number of games evicted because the cache was full.
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * @return number of games currently in the cache, including the expired games not yet removed.
+     */
+    public long getSize() {
+        long size = 0;
+        for (final Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private Segment segmentFor(final String id) {
+        final int hash = id.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENT_COUNT - 1)];
+    }
+
+    /**
+     * Cached game along with the time at which it expires.
+     */
+    private static class CacheEntry {
+
+        private final Game game;
+
+        private final long expiresAtNanos;
+
+        private CacheEntry(final Game game, final long expiresAtNanos) {
+            this.game = game;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    /**
+     * Part of the cache holding games in least recently used order.
+     */
+    private class Segment {
+
+        private final LinkedHashMap<String, CacheEntry> entries;
+
+        /**
+         * Number of writes made to the segment, to detect the writes made while a game was read from the database.
+         */
+        private long writeStamp;
+
+        private Segment(final int maximumSize) {
+            entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, CacheEntry> eldest) {
+                    if (size() > maximumSize) {
+                        evictionCount.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private synchronized Game get(final String id) {
+            final CacheEntry entry = entries.get(id);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAtNanos >= 0) {
+                entries.remove(id);
+                return null;
+            }
+            return entry.game;
+        }
+
+        private synchronized void put(final String id, final Game game) {
+            writeStamp++;
+            entries.put(id, new CacheEntry(game, System.nanoTime() + expireAfterWriteNanos));
+        }
+
+        private synchronized long getWriteStamp() {
+            return writeStamp;
+        }
+
+        /**
+         * Puts a game read from the database unless a write was made to the segment since the stamp was taken, the game read being possibly older.
+         */
+        private synchronized void putIfUnchanged(final String id, final Game game, final long stamp) {
+            if (writeStamp == stamp) {
+                put(id, game);
+            }
+        }
+
+        private synchronized void remove(final String id) {
+            writeStamp++;
+            entries.remove(id);
+        }
+
+        private synchronized int size() {
+            return entries.size();
+        }
+    }
+
+}
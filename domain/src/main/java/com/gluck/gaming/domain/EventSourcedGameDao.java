@@ -0,0 +1,406 @@
+package com.gluck.gaming.domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import com.gluck.gaming.dao.GameDao;
+import com.gluck.gaming.dao.model.BitBoard;
+import com.gluck.gaming.dao.model.Game;
+import com.gluck.gaming.dao.model.GameClock;
+import com.gluck.gaming.dao.model.GameHeader;
+import com.gluck.gaming.dao.model.GameMove;
+import com.gluck.gaming.db.connection.MongoDbConnectionManager;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+
+/**
+ * {@link GameDao} implementation storing the moves of a game instead of its grid. Every turn appends a compact move event (sequence, column and disc) to the
+ * game document, and every few moves a snapshot of the board is stored as the two player bit masks. The board is rebuilt from the latest snapshot and the
+ * moves played after it, so only the tail of the move log has to be read. The complete move log is kept in the document for replay and auditing.<br>
+ * Games stored by {@link GameDaoImpl} can be read and played: their board is used as the snapshot until the first snapshot is stored. Games stored by this
+ * class can only be read by this class since their board is kept in the snapshot only.
+ *
+ * @author Vinay Semwal
+ */
+public class EventSourcedGameDao implements GameDao {
+
+    private static final Logger logger = LogManager.getLogger(EventSourcedGameDao.class);
+
+    private static final String MOVES = "moves";
+
+    private static final String MOVE_SEQUENCE = "n";
+
+    private static final String MOVE_COLUMN = "c";
+
+    private static final String MOVE_DISC = "p";
+
+    private static final String SNAPSHOT = "snapshot";
+
+    private static final String NEW = "NEW";
+
+    private static final String IN_PROGRESS = "IN_PROGRESS";
+
+    private static final String GAME = "Game";
+
+    private final MongoDbConnectionManager connectionManager;
+
+    private final int snapshotInterval;
+
+    /**
+     * Projection returning all the fields of a game with only the moves that can have been played after the latest snapshot.
+     */
+    private final Bson movesTailProjection;
+
+    /**
+     * @param mongoDBConnectionManager connection manager to manage DB connection to a particular Mongo DB database using at specified host and port.
+     * @param snapshotInterval number of moves after which a snapshot of the board is stored.
+     */
+    public EventSourcedGameDao(final MongoDbConnectionManager mongoDBConnectionManager, final int snapshotInterval) {
+        connectionManager = mongoDBConnectionManager;
+        this.snapshotInterval = snapshotInterval;
+        movesTailProjection = Projections.slice(MOVES, -snapshotInterval);
+    }
+
+    @Override
+    public String createGame(final String firstPlayerName, final String secondPlayerName, final String sessionId) {
+        final Document game = getGameDocumentToCreate(firstPlayerName, secondPlayerName, sessionId, null);
+        logger.info("Adding Game document to Database : {}", game);
+        return connectionManager.createDocument(GAME, game);
+    }
+
+    @Override
+    public List<String> createGames(final List<Game> games) {
+        final List<Document> gameDocuments = new ArrayList<Document>(games.size());
+        for (final Game game : games) {
+            gameDocuments.add(getGameDocumentToCreate(game.getFirstPlayer(), game.getSecondplayer(), game.getSessionId(), game.getClock()));
+        }
+        logger.info("Adding {} Game documents to Database", gameDocuments.size());
+        return connectionManager.createDocuments(GAME, gameDocuments);
+    }
+
+    @Override
+    public Optional<Game> findGameById(final String id) {
+        return getGame(connectionManager.findDocumentById(GAME, id, movesTailProjection));
+    }
+
+    @Override
+    public Optional<GameHeader> findGameHeaderById(final String id) {
+        return connectionManager.findDocumentById(GAME, id, GameQueries.HEADER_PROJECTION, GameHeader.class);
+    }
+
+    @Override
+    public Optional<Game> findGameByPlayers(final String firstPlayerName, final String secondPlayerName) {
+        final List<Document> gameDocuments = connectionManager.findDocuments(
+            GAME,
+            GameQueries.getPlayersFilter(firstPlayerName, secondPlayerName),
+            movesTailProjection,
+            GameQueries.LATEST_FIRST,
+            1,
+            Document.class);
+        return getGame(gameDocuments.stream().findFirst());
+    }
+
+    @Override
+    public List<GameHeader> findGamesByPlayer(final String playerName, final String gameState, final String afterGameId, final int limit) {
+        return connectionManager.findDocuments(
+            GAME,
+            GameQueries.getPlayerGamesFilter(playerName, gameState, afterGameId),
+            GameQueries.HEADER_PROJECTION,
+            GameQueries.LATEST_FIRST,
+            limit,
+            GameHeader.class);
+    }
+
+    /**
+     * Creates the indexes used to find the games by players, if they don't exist yet. Meant to be called once at application startup.
+     */
+    public void createIndexes() {
+        logger.info("Created indexes : {} on Game collection", connectionManager.createIndexes(GAME, GameQueries.getIndexes()));
+    }
+
+    @Override
+    public void updateGame(final Game game) {
+        final Document changedValues = getChangedValues(game);
+        if (changedValues.isEmpty()) {
+            logger.info("No changes to update for game with id : {}", game.getGameId());
+            return;
+        }
+        connectionManager.updateDocument(game.getGameId(), changedValues.append(GameCodec.LAST_UPDATED, new Date()), GAME);
+        game.clearChangedFields();
+    }
+
+    @Override
+    public Optional<GameHeader> updateGameState(final String id, final List<String> currentStates, final String targetState, final String sessionId) {
+        final Optional<GameHeader> updatedGame = connectionManager.findAndUpdateDocument(
+            id,
+            GameQueries.getStatesFilter(currentStates),
+            GameQueries.getStateUpdate(targetState, sessionId),
+            GameQueries.HEADER_PROJECTION,
+            GAME,
+            GameHeader.class);
+        if (!updatedGame.isPresent()) {
+            logger.warn("State of game with id : {} not updated to : {} since the game is not in any of the states : {}", id, targetState, currentStates);
+        }
+        return updatedGame;
+    }
+
+    @Override
+    public Optional<GameHeader> saveGameState(final Game game, final List<String> currentStates) {
+        final Optional<GameHeader> updatedGame = connectionManager.findAndUpdateDocument(
+            game.getGameId(),
+            GameQueries.getGameStateConditions(game, currentStates),
+            GameQueries.getGameStateUpdate(game),
+            GameQueries.HEADER_PROJECTION,
+            GAME,
+            GameHeader.class);
+        if (updatedGame.isPresent()) {
+            game.clearChangedFields();
+        } else {
+            logger.warn(
+                "State of game with id : {} not updated to : {} since the game is not in any of the states : {} or its clock was changed",
+                game.getGameId(),
+                game.getGameState(),
+                currentStates);
+        }
+        return updatedGame;
+    }
+
+    @Override
+    public Optional<GameHeader> saveIdleGameState(final Game game, final List<String> currentStates, final long idleSinceMillis) {
+        final Optional<GameHeader> updatedGame = connectionManager.findAndUpdateDocument(
+            game.getGameId(),
+            GameQueries.getIdleGameStateConditions(game, currentStates, idleSinceMillis),
+            GameQueries.getIdleGameStateUpdate(game),
+            GameQueries.HEADER_PROJECTION,
+            GAME,
+            GameHeader.class);
+        if (updatedGame.isPresent()) {
+            game.clearChangedFields();
+        } else {
+            logger.warn(
+                "State of idle game with id : {} not updated to : {} since the game is not in any of the states : {}, its clock was changed or it was updated",
+                game.getGameId(),
+                game.getGameState(),
+                currentStates);
+        }
+        return updatedGame;
+    }
+
+    @Override
+    public Map<String, Long> findLastUpdateTimes(final List<String> states) {
+        return GameQueries.getLastUpdateTimes(
+            connectionManager.findDocuments(GAME, GameQueries.getStatesFilter(states), GameQueries.LAST_UPDATE_PROJECTION, null, 0, Document.class));
+    }
+
+    /**
+     * The unwritten moves recorded on the games are appended to their move log. They are added as a set, so that the moves of a game written again, for
+     * example after a failed batch some updates of which were applied, are not logged twice.
+     */
+    @Override
+    public void saveGames(final List<Game> games) {
+        final Map<String, Bson> updatesById = new LinkedHashMap<String, Bson>();
+        for (final Game game : games) {
+            final Document update = new Document(
+                "$set",
+                new Document(GameCodec.SESSION_ID, game.getSessionId()).append(GameCodec.STATE, game.getGameState())
+                    .append(GameCodec.LAST_TURN_PLAYED_BY, game.getLastTurnedPlayedBy()).append(SNAPSHOT, getSnapshot(game.getBoard()))
+                    .append(GameCodec.MOVE_COUNT, game.getBoard().getFilledCellCount()).append(GameCodec.WINNER, game.getWinner())
+                    .append(GameCodec.CLOCK, GameCodec.toDocument(game.getClock())).append(GameCodec.LAST_UPDATED, new Date()));
+            if (!game.getUnwrittenMoves().isEmpty()) {
+                final List<Document> moves = new ArrayList<Document>(game.getUnwrittenMoves().size());
+                for (final GameMove move : game.getUnwrittenMoves()) {
+                    moves.add(getMoveDocument(move.getSequence(), move.getColumn(), move.getDisc()));
+                }
+                update.append("$addToSet", new Document(MOVES, new Document("$each", moves)));
+            }
+            updatesById.put(game.getGameId(), update);
+        }
+        connectionManager.applyUpdates(GAME, updatesById);
+    }
+
+    @Override
+    public Optional<Game> saveTurn(final Game game, final int row, final int column) {
+        final int moveCount = game.getBoard().getFilledCellCount();
+        //The cell is checked only for games stored without a move count, for the others the move count guarantees that the column has not changed.
+        final Bson conditions = Filters.and(
+            Filters.or(
+                Filters.eq(GameCodec.MOVE_COUNT, moveCount - 1),
+                Filters.and(Filters.exists(GameCodec.MOVE_COUNT, false), Filters.eq(GameCodec.GRID + "." + row + "." + column, BitBoard.EMPTY_CELL))),
+            Filters.in(GameCodec.STATE, NEW, IN_PROGRESS),
+            Filters.eq(GameCodec.SESSION_ID, game.getStoredSessionId()),
+            Filters.ne(GameCodec.LAST_TURN_PLAYED_BY, game.getLastTurnedPlayedBy()));
+        final Document changedValues = getChangedValues(game).append(GameCodec.MOVE_COUNT, moveCount).append(GameCodec.LAST_UPDATED, new Date());
+        changedValues.remove(SNAPSHOT);
+        if (moveCount % snapshotInterval == 0) {
+            changedValues.append(SNAPSHOT, getSnapshot(game.getBoard()));
+        }
+        final Document move = getMoveDocument(moveCount, column, game.getBoard().getCell(row, column));
+        final Document update = new Document("$set", changedValues).append("$push", new Document(MOVES, move));
+        final Optional<Game> savedGame = getGame(connectionManager.findAndUpdateDocument(game.getGameId(), conditions, update, movesTailProjection, GAME));
+        if (savedGame.isPresent()) {
+            game.clearChangedFields();
+        } else {
+            logger.warn(
+                "Turn not saved for game with id : {} since the game was changed after it was read. Expected move count : {}",
+                game.getGameId(),
+                moveCount - 1);
+        }
+        return savedGame;
+    }
+
+    @Override
+    public Optional<Game> saveGameResult(final Game game) {
+        final Bson conditions = Filters.and(
+            Filters.or(
+                Filters.eq(GameCodec.MOVE_COUNT, game.getBoard().getFilledCellCount()),
+                Filters.and(Filters.exists(GameCodec.MOVE_COUNT, false), Filters.eq(GameCodec.GRID, GameCodec.toGridList(game.getBoard())))),
+            Filters.in(GameCodec.STATE, NEW, IN_PROGRESS));
+        final Document update = new Document("$set", getChangedValues(game).append(GameCodec.LAST_UPDATED, new Date()));
+        final Optional<Game> savedGame = getGame(connectionManager.findAndUpdateDocument(game.getGameId(), conditions, update, movesTailProjection, GAME));
+        if (savedGame.isPresent()) {
+            game.clearChangedFields();
+        } else {
+            logger.warn("Result not saved for game with id : {} since the game was changed after it was read.", game.getGameId());
+        }
+        return savedGame;
+    }
+
+    @Override
+    public void deleteGame(final Game game) {
+        connectionManager.deleteDocument(game.getGameId(), GAME);
+    }
+
+    @Override
+    public boolean deleteGame(final String id, final List<String> states) {
+        return connectionManager.deleteDocument(id, GameQueries.getStatesFilter(states), GAME);
+    }
+
+    /**
+     * API to retrieve all the moves played in a game, for replay or auditing.
+     *
+     * @param id unique identifier of the game.
+     * @return moves of the game in the order they were played, empty if the game doesn't exist.
+     */
+    public List<GameMove> findMoves(final String id) {
+        final Optional<Document> gameDocument = connectionManager.findDocumentById(GAME, id, Projections.include(MOVES));
+        if (!gameDocument.isPresent()) {
+            return Collections.emptyList();
+        }
+        final List<Document> moveDocuments = getMoveDocuments(gameDocument.get());
+        final List<GameMove> moves = new ArrayList<GameMove>(moveDocuments.size());
+        for (final Document moveDocument : moveDocuments) {
+            moves.add(new GameMove(moveDocument.getInteger(MOVE_SEQUENCE), moveDocument.getInteger(MOVE_COLUMN), moveDocument.getInteger(MOVE_DISC)));
+        }
+        return moves;
+    }
+
+    /**
+     * Rebuilds the board of a game from its latest snapshot, or the board stored by {@link GameDaoImpl} if no snapshot has been stored yet, and the moves
+     * played after it.
+     *
+     * @param gameDocument game document having at least the moves played after the latest snapshot.
+     * @return {@link BitBoard} of the game.
+     */
+    static BitBoard getBoard(final Document gameDocument) {
+        final Document snapshot = gameDocument.get(SNAPSHOT, Document.class);
+        final BitBoard board;
+        if (snapshot != null) {
+            board = new BitBoard(snapshot.getLong(GameCodec.FIRST_PLAYER_DISCS), snapshot.getLong(GameCodec.SECOND_PLAYER_DISCS));
+        } else {
+            board = GameCodec.toBoard(gameDocument);
+        }
+        final int snapshotMoveCount = board.getFilledCellCount();
+        for (final Document move : getMoveDocuments(gameDocument)) {
+            if (move.getInteger(MOVE_SEQUENCE) > snapshotMoveCount) {
+                final int column = move.getInteger(MOVE_COLUMN);
+                board.fillCell(BitBoard.ROWS - 1 - board.getColumnHeight(column), column, move.getInteger(MOVE_DISC));
+            }
+        }
+        return board;
+    }
+
+    private static Document getMoveDocument(final int sequence, final int column, final int disc) {
+        return new Document(MOVE_SEQUENCE, sequence).append(MOVE_COLUMN, column).append(MOVE_DISC, disc);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Document> getMoveDocuments(final Document gameDocument) {
+        final List<Document> moves = gameDocument.get(MOVES, List.class);
+        return moves == null ? Collections.<Document> emptyList() : moves;
+    }
+
+    private static Document getSnapshot(final BitBoard board) {
+        return new Document(GameCodec.FIRST_PLAYER_DISCS, board.getFirstPlayerDiscs()).append(GameCodec.SECOND_PLAYER_DISCS, board.getSecondPlayerDiscs());
+    }
+
+    private Document getGameDocumentToCreate(final String firstPlayerName, final String secondPlayerName, final String sessionId, final GameClock clock) {
+        final Document gameDocument = new Document(GameCodec.FIRST_PLAYER, firstPlayerName).append(GameCodec.SECOND_PLAYER, secondPlayerName)
+            .append(GameCodec.SESSION_ID, sessionId).append(GameCodec.STATE, NEW).append(GameCodec.LAST_TURN_PLAYED_BY, null)
+            .append(SNAPSHOT, getSnapshot(new BitBoard())).append(GameCodec.MOVE_COUNT, 0).append(MOVES, new ArrayList<Document>());
+        if (clock != null) {
+            gameDocument.append(GameCodec.CLOCK, GameCodec.toDocument(clock));
+        }
+        return gameDocument;
+    }
+
+    /**
+     * @return document with the fields of the game that have been changed since it was read. A changed board is stored as a new snapshot.
+     */
+    private Document getChangedValues(final Game game) {
+        final Document changedValues = new Document();
+        for (final Game.Field field : game.getChangedFields()) {
+            switch (field) {
+                case SESSION_ID:
+                    changedValues.append(GameCodec.SESSION_ID, game.getSessionId());
+                    break;
+                case GAME_STATE:
+                    changedValues.append(GameCodec.STATE, game.getGameState());
+                    break;
+                case LAST_TURN_PLAYED_BY:
+                    changedValues.append(GameCodec.LAST_TURN_PLAYED_BY, game.getLastTurnedPlayedBy());
+                    break;
+                case BOARD:
+                    changedValues.append(SNAPSHOT, getSnapshot(game.getBoard())).append(GameCodec.MOVE_COUNT, game.getBoard().getFilledCellCount());
+                    break;
+                case WINNER:
+                    changedValues.append(GameCodec.WINNER, game.getWinner());
+                    break;
+                case CLOCK:
+                    changedValues.append(GameCodec.CLOCK, GameCodec.toDocument(game.getClock()));
+                    break;
+                default:
+                    throw new EnumConstantNotPresentException(Game.Field.class, field.name());
+            }
+        }
+        return changedValues;
+    }
+
+    private Optional<Game> getGame(final Optional<Document> optionalGameDocument) {
+        if (optionalGameDocument.isPresent()) {
+            final Document gameDocument = optionalGameDocument.get();
+            return Optional.of(
+                new Game(
+                    gameDocument.getObjectId("_id").toString(),
+                    gameDocument.getString(GameCodec.SESSION_ID),
+                    gameDocument.getString(GameCodec.STATE),
+                    gameDocument.getString(GameCodec.LAST_TURN_PLAYED_BY),
+                    gameDocument.getString(GameCodec.FIRST_PLAYER),
+                    gameDocument.getString(GameCodec.SECOND_PLAYER),
+                    getBoard(gameDocument),
+                    gameDocument.getString(GameCodec.WINNER),
+                    GameCodec.toClock(gameDocument.get(GameCodec.CLOCK, Document.class))));
+        }
+        return Optional.empty();
+    }
+
+}
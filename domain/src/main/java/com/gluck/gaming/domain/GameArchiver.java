@@ -0,0 +1,211 @@
+package com.gluck.gaming.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+import com.gluck.gaming.dao.model.Game;
+import com.gluck.gaming.db.connection.MongoDbConnectionManager;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+
+/**
+ * Background job moving the games that ended a while ago from the Game collection to the {@value #GAME_ARCHIVE} collection, so that the Game collection and
+ * its indexes only hold the games that can still be played or have just ended. The games are read and written back through {@link GameCodec}, so archived
+ * games are stored in the compact layout whatever their layout in the Game collection.<br>
+ * A batch of games is first written to the archive with a single bulk write, replacing any copy left by a batch that failed half way, then deleted from the
+ * Game collection. A game is found in one collection or the other at any time, which {@link GameDaoImpl} relies on to read the archived games.<br>
+ * The archiver pauses between the batches so that it doesn't move more than the configured number of games per second, leaving the database to the live
+ * traffic.
+ *
+ * @author Vinay Semwal
+ */
+public class GameArchiver {
+
+    private static final Logger logger = LogManager.getLogger(GameArchiver.class);
+
+    /**
+     * Name of the collection of the archived games.
+     */
+    public static final String GAME_ARCHIVE = "GameArchive";
+
+    private static final String GAME = "Game";
+
+    /**
+     * States from which a game can't move anymore, other than by being deleted.
+     */
+    static final List<String> TERMINAL_STATES = Arrays.asList("COMPLETED", "DRAWN", "ABANDONED");
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final MongoDbConnectionManager connectionManager;
+
+    private final long archiveAfterMillis;
+
+    private final int batchSize;
+
+    private final long nanosPerGame;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final LongAdder archivedGameCount = new LongAdder();
+
+    private final LongAdder failedRunCount = new LongAdder();
+
+    private volatile boolean stopped;
+
+    /**
+     * @param connectionManager connection manager having {@link GameCodec} registered.
+     * @param archiveAfterMillis time after the last change of a game that has ended from which it is archived.
+     * @param batchSize maximum number of games moved with a single bulk write.
+     * @param maximumGamesPerSecond maximum number of games moved per second.
+     */
+    public GameArchiver(final MongoDbConnectionManager connectionManager, final long archiveAfterMillis, final int batchSize, final int maximumGamesPerSecond) {
+        this.connectionManager = connectionManager;
+        this.archiveAfterMillis = archiveAfterMillis;
+        this.batchSize = batchSize;
+        this.nanosPerGame = TimeUnit.SECONDS.toNanos(1) / maximumGamesPerSecond;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "game-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts archiving the games, every interval.
+     *
+     * @param intervalMillis number of milliseconds between the end of a run and the start of the next one.
+     */
+    public void start(final long intervalMillis) {
+        scheduler.scheduleWithFixedDelay(this::archiveGames, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        logger.info(
+            "Archival of games started with interval : {} ms, archive after : {} ms, batch size : {}, games per second : {}",
+            intervalMillis,
+            archiveAfterMillis,
+            batchSize,
+            TimeUnit.SECONDS.toNanos(1) / nanosPerGame);
+    }
+
+    /**
+     * Stops archiving the games. A batch being moved is completed.
+     */
+    public void shutdown() {
+        stopped = true;
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("Archival of games did not stop within {} seconds", SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Moves the games due for archival in batches, until none is left.
+     *
+     * @return number of games archived.
+     */
+    public int archiveGames() {
+        int archivedGames = 0;
+        try {
+            final Date archiveBefore = new Date(System.currentTimeMillis() - archiveAfterMillis);
+            int batchGames;
+            do {
+                final long batchStartNanos = System.nanoTime();
+                batchGames = archiveBatch(archiveBefore);
+                archivedGames += batchGames;
+                pause(getPauseNanos(batchGames, System.nanoTime() - batchStartNanos));
+            } while (batchGames == batchSize && !stopped);
+        } catch (final RuntimeException e) {
+            //The games of the failed batch are moved again by the next run.
+            failedRunCount.increment();
+            logger.error("Archival of games failed after archiving {} games. Exception : ", archivedGames, e);
+        }
+        if (archivedGames > 0) {
+            logger.info("Archived {} games", archivedGames);
+        }
+        return archivedGames;
+    }
+
+    /**
+     * @return number of games archived since the archiver was created.
+     */
+    public long getArchivedGameCount() {
+        return archivedGameCount.sum();
+    }
+
+    /**
+     * @return number of runs that failed since the archiver was created.
+     */
+    public long getFailedRunCount() {
+        return failedRunCount.sum();
+    }
+
+    private int archiveBatch(final Date archiveBefore) {
+        final List<Game> games = connectionManager.findDocuments(
+            GAME,
+            getArchivableFilter(archiveBefore),
+            null,
+            Sorts.ascending(GameCodec.DOCUMENT_ID),
+            batchSize,
+            Game.class);
+        if (games.isEmpty()) {
+            return 0;
+        }
+        final Map<String, Game> gamesById = new LinkedHashMap<String, Game>();
+        final List<ObjectId> gameIds = new ArrayList<ObjectId>(games.size());
+        for (final Game game : games) {
+            gamesById.put(game.getGameId(), game);
+            gameIds.add(new ObjectId(game.getGameId()));
+        }
+        connectionManager.upsertDocuments(GAME_ARCHIVE, gamesById, Game.class);
+        final long deletedGames = connectionManager
+            .deleteDocuments(GAME, Filters.and(Filters.in(GameCodec.DOCUMENT_ID, gameIds), GameQueries.getStatesFilter(TERMINAL_STATES)));
+        archivedGameCount.add(deletedGames);
+        return games.size();
+    }
+
+    /**
+     * Games that ended before their last change time was stored are archived from their creation time, given by their id.
+     *
+     * @return filter matching the games that ended and haven't changed since the given time.
+     */
+    static Bson getArchivableFilter(final Date archiveBefore) {
+        return Filters.and(
+            GameQueries.getStatesFilter(TERMINAL_STATES),
+            GameQueries.getUpdatedBeforeFilter(archiveBefore));
+    }
+
+    /**
+     * @return time to wait after a batch of games for the archival not to exceed the maximum number of games per second.
+     */
+    long getPauseNanos(final int batchGames, final long batchNanos) {
+        return Math.max(0, batchGames * nanosPerGame - batchNanos);
+    }
+
+    private void pause(final long nanos) {
+        if (nanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(nanos);
+            } catch (final InterruptedException e) {
+                stopped = true;
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,365 @@
+package com.gluck.gaming.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.BsonWriter;
+import org.bson.codecs.CollectibleCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+
+import com.gluck.gaming.dao.model.BitBoard;
+import com.gluck.gaming.dao.model.Game;
+import com.gluck.gaming.dao.model.GameClock;
+
+/**
+ * Codec reading and writing {@link Game} straight from and to BSON, so that the driver doesn't have to build a {@link org.bson.Document} for every game read
+ * or created.<br>
+ * Games are written in the compact layout, with the grid stored as the two player bit masks. Documents stored with the original layout, having the grid as 6
+ * arrays of 7 cells, are still read.
+ *
+ * @author Vinay Semwal
+ */
+public class GameCodec implements CollectibleCodec<Game> {
+
+    static final String DOCUMENT_ID = "_id";
+
+    static final String FIRST_PLAYER = "firstPlayer";
+
+    static final String SECOND_PLAYER = "secondPlayer";
+
+    static final String SESSION_ID = "sessionId";
+
+    static final String STATE = "state";
+
+    static final String LAST_TURN_PLAYED_BY = "lastTurnPlayedBy";
+
+    static final String WINNER = "winner";
+
+    /**
+     * Time of the last change of the game, written with the changes only. Games created before the field was added don't have it until their next change.
+     */
+    static final String LAST_UPDATED = "lastUpdated";
+
+    static final String SCHEMA_VERSION = "schemaVersion";
+
+    /**
+     * Clock of a timed game, a sub document with the fields below. Games that are not timed don't have it.
+     */
+    static final String CLOCK = "clock";
+
+    static final String INCREMENT_MILLIS = "incrementMillis";
+
+    static final String FIRST_PLAYER_REMAINING_MILLIS = "firstPlayerRemainingMillis";
+
+    static final String SECOND_PLAYER_REMAINING_MILLIS = "secondPlayerRemainingMillis";
+
+    static final String TURN_STARTED_MILLIS = "turnStartedMillis";
+
+    /**
+     * Version of the document layout storing the grid as player bit masks.
+     */
+    static final int COMPACT_BOARD_SCHEMA_VERSION = 2;
+
+    static final String FIRST_PLAYER_DISCS = "firstPlayerDiscs";
+
+    static final String SECOND_PLAYER_DISCS = "secondPlayerDiscs";
+
+    static final String MOVE_COUNT = "moveCount";
+
+    static final String GRID = "grid";
+
+    @Override
+    public Class<Game> getEncoderClass() {
+        return Game.class;
+    }
+
+    @Override
+    public void encode(final BsonWriter writer, final Game game, final EncoderContext encoderContext) {
+        final BitBoard board = game.getBoard();
+        writer.writeStartDocument();
+        if (game.getGameId() != null) {
+            writer.writeObjectId(DOCUMENT_ID, new ObjectId(game.getGameId()));
+        }
+        writeString(writer, FIRST_PLAYER, game.getFirstPlayer());
+        writeString(writer, SECOND_PLAYER, game.getSecondplayer());
+        writeString(writer, SESSION_ID, game.getSessionId());
+        writeString(writer, STATE, game.getGameState());
+        writeString(writer, LAST_TURN_PLAYED_BY, game.getLastTurnedPlayedBy());
+        writeString(writer, WINNER, game.getWinner());
+        writer.writeInt32(SCHEMA_VERSION, COMPACT_BOARD_SCHEMA_VERSION);
+        writer.writeInt64(FIRST_PLAYER_DISCS, board.getFirstPlayerDiscs());
+        writer.writeInt64(SECOND_PLAYER_DISCS, board.getSecondPlayerDiscs());
+        writer.writeInt32(MOVE_COUNT, board.getFilledCellCount());
+        final GameClock clock = game.getClock();
+        if (clock != null) {
+            writer.writeStartDocument(CLOCK);
+            writer.writeInt64(INCREMENT_MILLIS, clock.getIncrementMillis());
+            writer.writeInt64(FIRST_PLAYER_REMAINING_MILLIS, clock.getFirstPlayerRemainingMillis());
+            writer.writeInt64(SECOND_PLAYER_REMAINING_MILLIS, clock.getSecondPlayerRemainingMillis());
+            writer.writeInt64(TURN_STARTED_MILLIS, clock.getTurnStartedMillis());
+            writer.writeEndDocument();
+        }
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Game decode(final BsonReader reader, final DecoderContext decoderContext) {
+        String gameId = null;
+        String firstPlayer = null;
+        String secondPlayer = null;
+        String sessionId = null;
+        String gameState = null;
+        String lastTurnPlayedBy = null;
+        String winner = null;
+        Long firstPlayerDiscs = null;
+        Long secondPlayerDiscs = null;
+        BitBoard gridBoard = null;
+        GameClock clock = null;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case DOCUMENT_ID:
+                    gameId = reader.readObjectId().toString();
+                    break;
+                case FIRST_PLAYER:
+                    firstPlayer = readString(reader);
+                    break;
+                case SECOND_PLAYER:
+                    secondPlayer = readString(reader);
+                    break;
+                case SESSION_ID:
+                    sessionId = readString(reader);
+                    break;
+                case STATE:
+                    gameState = readString(reader);
+                    break;
+                case LAST_TURN_PLAYED_BY:
+                    lastTurnPlayedBy = readString(reader);
+                    break;
+                case WINNER:
+                    winner = readString(reader);
+                    break;
+                case FIRST_PLAYER_DISCS:
+                    firstPlayerDiscs = readLong(reader);
+                    break;
+                case SECOND_PLAYER_DISCS:
+                    secondPlayerDiscs = readLong(reader);
+                    break;
+                case GRID:
+                    gridBoard = readGrid(reader);
+                    break;
+                case CLOCK:
+                    clock = readClock(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        final BitBoard board;
+        if (firstPlayerDiscs != null && secondPlayerDiscs != null) {
+            board = new BitBoard(firstPlayerDiscs, secondPlayerDiscs);
+        } else if (gridBoard != null) {
+            board = gridBoard;
+        } else {
+            board = new BitBoard();
+        }
+        return new Game(gameId, sessionId, gameState, lastTurnPlayedBy, firstPlayer, secondPlayer, board, winner, clock);
+    }
+
+    @Override
+    public Game generateIdIfAbsentFromDocument(final Game game) {
+        if (!documentHasId(game)) {
+            game.setGameId(new ObjectId().toString());
+        }
+        return game;
+    }
+
+    @Override
+    public boolean documentHasId(final Game game) {
+        return game.getGameId() != null;
+    }
+
+    @Override
+    public BsonValue getDocumentId(final Game game) {
+        if (!documentHasId(game)) {
+            throw new IllegalStateException("The game does not have an id");
+        }
+        return new BsonObjectId(new ObjectId(game.getGameId()));
+    }
+
+    static void writeString(final BsonWriter writer, final String name, final String value) {
+        if (value == null) {
+            writer.writeNull(name);
+        } else {
+            writer.writeString(name, value);
+        }
+    }
+
+    static String readString(final BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return null;
+        }
+        return reader.readString();
+    }
+
+    private static long readLong(final BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case INT32:
+                return reader.readInt32();
+            case DOUBLE:
+                return (long) reader.readDouble();
+            default:
+                return reader.readInt64();
+        }
+    }
+
+    /**
+     * @return the document with the board appended to it in the compact layout.
+     */
+    static Document appendBoard(final Document document, final BitBoard board) {
+        return document.append(SCHEMA_VERSION, COMPACT_BOARD_SCHEMA_VERSION).append(FIRST_PLAYER_DISCS, board.getFirstPlayerDiscs())
+            .append(SECOND_PLAYER_DISCS, board.getSecondPlayerDiscs()).append(MOVE_COUNT, board.getFilledCellCount());
+    }
+
+    /**
+     * @param gameDocument game document stored in either the compact or the original layout.
+     * @return {@link BitBoard} holding the discs filled in the grid, empty if the document has no grid.
+     */
+    @SuppressWarnings("unchecked")
+    static BitBoard toBoard(final Document gameDocument) {
+        if (gameDocument.getInteger(SCHEMA_VERSION, 1) >= COMPACT_BOARD_SCHEMA_VERSION) {
+            return new BitBoard(gameDocument.getLong(FIRST_PLAYER_DISCS), gameDocument.getLong(SECOND_PLAYER_DISCS));
+        }
+        if (gameDocument.containsKey(GRID)) {
+            return toBoard(gameDocument.get(GRID, List.class));
+        }
+        return new BitBoard();
+    }
+
+    /**
+     * @param gridList grid stored in the database as a list of 6 rows having 7 cells each.
+     * @return {@link BitBoard} holding the discs filled in the grid.
+     */
+    private static BitBoard toBoard(final List<List<Integer>> gridList) {
+        final BitBoard board = new BitBoard();
+        int row = 0;
+        for (final List<Integer> gridRow : gridList) {
+            int column = 0;
+            for (final Integer cell : gridRow) {
+                if (cell != BitBoard.EMPTY_CELL) {
+                    board.fillCell(row, column, cell);
+                }
+                column++;
+            }
+            row++;
+        }
+        return board;
+    }
+
+    /**
+     * @param board board to store
+     * @return grid in the format stored in the database, that is, a list of 6 rows having 7 cells each.
+     */
+    static List<List<Integer>> toGridList(final BitBoard board) {
+        final List<List<Integer>> gridList = new ArrayList<List<Integer>>(BitBoard.ROWS);
+        for (int row = 0; row < BitBoard.ROWS; row++) {
+            final List<Integer> gridRow = new ArrayList<Integer>(BitBoard.COLUMNS);
+            for (int column = 0; column < BitBoard.COLUMNS; column++) {
+                gridRow.add(board.getCell(row, column));
+            }
+            gridList.add(gridRow);
+        }
+        return gridList;
+    }
+
+    /**
+     * @return the clock as a sub document, null if the game is not timed.
+     */
+    static Document toDocument(final GameClock clock) {
+        if (clock == null) {
+            return null;
+        }
+        return new Document(INCREMENT_MILLIS, clock.getIncrementMillis()).append(FIRST_PLAYER_REMAINING_MILLIS, clock.getFirstPlayerRemainingMillis())
+            .append(SECOND_PLAYER_REMAINING_MILLIS, clock.getSecondPlayerRemainingMillis()).append(TURN_STARTED_MILLIS, clock.getTurnStartedMillis());
+    }
+
+    /**
+     * @return the clock read from the sub document, null if the game is not timed.
+     */
+    static GameClock toClock(final Document clockDocument) {
+        if (clockDocument == null) {
+            return null;
+        }
+        return new GameClock(
+            clockDocument.getLong(INCREMENT_MILLIS),
+            clockDocument.getLong(FIRST_PLAYER_REMAINING_MILLIS),
+            clockDocument.getLong(SECOND_PLAYER_REMAINING_MILLIS),
+            clockDocument.getLong(TURN_STARTED_MILLIS));
+    }
+
+    private static GameClock readClock(final BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return null;
+        }
+        long incrementMillis = 0;
+        long firstPlayerRemainingMillis = 0;
+        long secondPlayerRemainingMillis = 0;
+        long turnStartedMillis = 0;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case INCREMENT_MILLIS:
+                    incrementMillis = readLong(reader);
+                    break;
+                case FIRST_PLAYER_REMAINING_MILLIS:
+                    firstPlayerRemainingMillis = readLong(reader);
+                    break;
+                case SECOND_PLAYER_REMAINING_MILLIS:
+                    secondPlayerRemainingMillis = readLong(reader);
+                    break;
+                case TURN_STARTED_MILLIS:
+                    turnStartedMillis = readLong(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new GameClock(incrementMillis, firstPlayerRemainingMillis, secondPlayerRemainingMillis, turnStartedMillis);
+    }
+
+    /**
+     * Reads a grid stored with the original layout, as 6 arrays of 7 cells.
+     */
+    private static BitBoard readGrid(final BsonReader reader) {
+        final BitBoard board = new BitBoard();
+        reader.readStartArray();
+        int row = 0;
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            reader.readStartArray();
+            int column = 0;
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                final int cell = (int) readLong(reader);
+                if (cell != BitBoard.EMPTY_CELL) {
+                    board.fillCell(row, column, cell);
+                }
+                column++;
+            }
+            reader.readEndArray();
+            row++;
+        }
+        reader.readEndArray();
+        return board;
+    }
+
+}
@@ -1,8 +1,9 @@
 package com.gluck.gaming.domain;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -10,13 +11,21 @@ import java.util.Optional;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 
 import com.gluck.gaming.dao.GameDao;
+import com.gluck.gaming.dao.model.BitBoard;
 import com.gluck.gaming.dao.model.Game;
+import com.gluck.gaming.dao.model.GameHeader;
 import com.gluck.gaming.db.connection.MongoDbConnectionManager;
+import com.mongodb.client.model.Filters;
 
 /**
- * Implementation class for {@link GameDao}
+ * Implementation class for {@link GameDao}. Games are read and created through {@link GameCodec}, which has to be registered with the connection manager.<br>
+ * The grid of a game is stored as the two player bit masks of {@link BitBoard} in int64 fields, which takes a small fraction of the space of the original
+ * layout of 6 arrays of 7 int32 cells. Documents stored with the original layout don't have the {@value GameCodec#SCHEMA_VERSION} field and are still read;
+ * they are converted to the compact layout when their next turn is saved. The layout is defined by {@link GameCodec}.<br>
+ * If the games are archived by {@link GameArchiver}, the games not found in the Game collection are looked up in the archive.
  *
  * @author Vinay Semwal
  */
@@ -24,123 +33,341 @@ public class GameDaoImpl implements GameDao {
 
     private static final Logger logger = LogManager.getLogger(GameDaoImpl.class);
 
-    private static final String GRID = "grid";
+    private static final String NEW = "NEW";
 
-    private static final String LAST_TURN_PLAYED_BY = "lastTurnPlayedBy";
-
-    private static final String STATE = "state";
-
-    private static final String SESSION_ID = "sessionId";
-
-    private static final String SECOND_PLAYER = "secondPlayer";
-
-    private static final String FIRST_PLAYER = "firstPlayer";
+    private static final String IN_PROGRESS = "IN_PROGRESS";
 
     private static final String GAME = "Game";
 
     private final MongoDbConnectionManager connectionManager;
 
+    private final boolean archiveEnabled;
+
     /**
      * @param mongoDBConnectionManager connection manager to manage DB connection to a particular Mongo DB database using at specified host and port.
      */
     public GameDaoImpl(final MongoDbConnectionManager mongoDBConnectionManager) {
+        this(mongoDBConnectionManager, false);
+    }
+
+    /**
+     * @param mongoDBConnectionManager connection manager to manage DB connection to a particular Mongo DB database using at specified host and port.
+     * @param archiveEnabled true if the games are moved to the archive by a {@link GameArchiver}, so that they are still found once archived.
+     */
+    public GameDaoImpl(final MongoDbConnectionManager mongoDBConnectionManager, final boolean archiveEnabled) {
         connectionManager = mongoDBConnectionManager;
+        this.archiveEnabled = archiveEnabled;
     }
 
     @Override
     public String createGame(final String firstPlayerName, final String secondPlayerName, final String sessionId) {
-        final Document game = getGameDocumentToCreate(firstPlayerName, secondPlayerName, sessionId);
+        final Game game = new Game(null, sessionId, NEW, null, firstPlayerName, secondPlayerName, new BitBoard(), null);
         logger.info("Adding Game doument to Database : {}", game);
-        return connectionManager.createDocument(GAME, game);
+        connectionManager.createDocument(GAME, game, Game.class);
+        return game.getGameId();
+    }
+
+    @Override
+    public List<String> createGames(final List<Game> games) {
+        logger.info("Adding {} Game documents to Database", games.size());
+        connectionManager.createDocuments(GAME, games, Game.class);
+        final List<String> gameIds = new ArrayList<String>(games.size());
+        for (final Game game : games) {
+            gameIds.add(game.getGameId());
+        }
+        return gameIds;
     }
 
     @Override
     public Optional<Game> findGameById(final String id) {
-        final Optional<Document> gameDocument = connectionManager.findDocumentById(GAME, id);
-        return getGame(gameDocument);
+        final Optional<Game> game = connectionManager.findDocumentById(GAME, id, Game.class);
+        if (game.isPresent() || !archiveEnabled) {
+            return game;
+        }
+        return connectionManager.findDocumentById(GameArchiver.GAME_ARCHIVE, id, Game.class);
+    }
+
+    @Override
+    public Optional<GameHeader> findGameHeaderById(final String id) {
+        final Optional<GameHeader> gameHeader = connectionManager.findDocumentById(GAME, id, GameQueries.HEADER_PROJECTION, GameHeader.class);
+        if (gameHeader.isPresent() || !archiveEnabled) {
+            return gameHeader;
+        }
+        return connectionManager.findDocumentById(GameArchiver.GAME_ARCHIVE, id, GameQueries.HEADER_PROJECTION, GameHeader.class);
     }
 
     @Override
     public Optional<Game> findGameByPlayers(final String firstPlayerName, final String secondPlayerName) {
-        final Map<String, String> filterMap = new HashMap<String, String>();
-        final Optional<Document> document = connectionManager.findDocumentUsingFilters(GAME, filterMap);
-        return getGame(document);
+        final List<Game> games = connectionManager
+            .findDocuments(GAME, GameQueries.getPlayersFilter(firstPlayerName, secondPlayerName), null, GameQueries.LATEST_FIRST, 1, Game.class);
+        return games.isEmpty() ? Optional.empty() : Optional.of(games.get(0));
+    }
 
+    @Override
+    public List<GameHeader> findGamesByPlayer(final String playerName, final String gameState, final String afterGameId, final int limit) {
+        final List<GameHeader> games = findGamesByPlayer(GAME, playerName, gameState, afterGameId, limit);
+        if (!archiveEnabled) {
+            return games;
+        }
+        //Games are archived some time after they end, so the archived games of a player are interleaved with the others in id order.
+        final List<GameHeader> archivedGames = findGamesByPlayer(GameArchiver.GAME_ARCHIVE, playerName, gameState, afterGameId, limit);
+        if (archivedGames.isEmpty()) {
+            return games;
+        }
+        final List<GameHeader> mergedGames = new ArrayList<GameHeader>(games.size() + archivedGames.size());
+        mergedGames.addAll(games);
+        mergedGames.addAll(archivedGames);
+        Collections.sort(mergedGames, (first, second) -> second.getGameId().compareTo(first.getGameId()));
+        return mergedGames.size() > limit ? new ArrayList<GameHeader>(mergedGames.subList(0, limit)) : mergedGames;
+    }
+
+    private List<GameHeader> findGamesByPlayer(
+        final String collectionName,
+        final String playerName,
+        final String gameState,
+        final String afterGameId,
+        final int limit) {
+        return connectionManager.findDocuments(
+            collectionName,
+            GameQueries.getPlayerGamesFilter(playerName, gameState, afterGameId),
+            GameQueries.HEADER_PROJECTION,
+            GameQueries.LATEST_FIRST,
+            limit,
+            GameHeader.class);
+    }
+
+    /**
+     * Creates the indexes used to find the games by players, and to find the games to archive if the games are archived, if they don't exist yet. Meant to
+     * be called once at application startup.
+     */
+    public void createIndexes() {
+        logger.info("Created indexes : {} on Game collection", connectionManager.createIndexes(GAME, GameQueries.getIndexes()));
+        if (archiveEnabled) {
+            logger.info("Created indexes : {} on Game collection", connectionManager.createIndexes(GAME, GameQueries.getArchivalIndexes()));
+            logger.info(
+                "Created indexes : {} on {} collection",
+                connectionManager.createIndexes(GameArchiver.GAME_ARCHIVE, GameQueries.getIndexes()),
+                GameArchiver.GAME_ARCHIVE);
+        }
     }
 
     @Override
     public void updateGame(final Game game) {
-        final Document updatedGameDocument = new Document(STATE, game.getGameState()).append(LAST_TURN_PLAYED_BY, game.getLastTurnedPlayedBy())
-            .append(SESSION_ID, game.getSessionId()).append(GRID, convertGridArrayToList(game.getGrid()));
-        connectionManager.updateDocument(game.getGameId(), updatedGameDocument, GAME);
+        final Document changedValues = getChangedValues(game);
+        if (changedValues.isEmpty()) {
+            logger.info("No changes to update for game with id : {}", game.getGameId());
+            return;
+        }
+        connectionManager.updateDocument(game.getGameId(), changedValues.append(GameCodec.LAST_UPDATED, new Date()), GAME);
+        game.clearChangedFields();
+    }
+
+    @Override
+    public Optional<GameHeader> updateGameState(final String id, final List<String> currentStates, final String targetState, final String sessionId) {
+        final Optional<GameHeader> updatedGame = connectionManager.findAndUpdateDocument(
+            id,
+            GameQueries.getStatesFilter(currentStates),
+            GameQueries.getStateUpdate(targetState, sessionId),
+            GameQueries.HEADER_PROJECTION,
+            GAME,
+            GameHeader.class);
+        if (!updatedGame.isPresent()) {
+            logger.warn("State of game with id : {} not updated to : {} since the game is not in any of the states : {}", id, targetState, currentStates);
+        }
+        return updatedGame;
+    }
+
+    @Override
+    public Optional<GameHeader> saveGameState(final Game game, final List<String> currentStates) {
+        final Optional<GameHeader> updatedGame = connectionManager.findAndUpdateDocument(
+            game.getGameId(),
+            GameQueries.getGameStateConditions(game, currentStates),
+            GameQueries.getGameStateUpdate(game),
+            GameQueries.HEADER_PROJECTION,
+            GAME,
+            GameHeader.class);
+        if (updatedGame.isPresent()) {
+            game.clearChangedFields();
+        } else {
+            logger.warn(
+                "State of game with id : {} not updated to : {} since the game is not in any of the states : {} or its clock was changed",
+                game.getGameId(),
+                game.getGameState(),
+                currentStates);
+        }
+        return updatedGame;
+    }
+
+    @Override
+    public Optional<GameHeader> saveIdleGameState(final Game game, final List<String> currentStates, final long idleSinceMillis) {
+        final Optional<GameHeader> updatedGame = connectionManager.findAndUpdateDocument(
+            game.getGameId(),
+            GameQueries.getIdleGameStateConditions(game, currentStates, idleSinceMillis),
+            GameQueries.getIdleGameStateUpdate(game),
+            GameQueries.HEADER_PROJECTION,
+            GAME,
+            GameHeader.class);
+        if (updatedGame.isPresent()) {
+            game.clearChangedFields();
+        } else {
+            logger.warn(
+                "State of idle game with id : {} not updated to : {} since the game is not in any of the states : {}, its clock was changed or it was updated",
+                game.getGameId(),
+                game.getGameState(),
+                currentStates);
+        }
+        return updatedGame;
+    }
+
+    @Override
+    public Map<String, Long> findLastUpdateTimes(final List<String> states) {
+        return GameQueries.getLastUpdateTimes(
+            connectionManager.findDocuments(GAME, GameQueries.getStatesFilter(states), GameQueries.LAST_UPDATE_PROJECTION, null, 0, Document.class));
+    }
+
+    @Override
+    public void saveGames(final List<Game> games) {
+        final Map<String, Document> updatedValuesById = new LinkedHashMap<String, Document>();
+        for (final Game game : games) {
+            updatedValuesById.put(
+                game.getGameId(),
+                GameCodec.appendBoard(
+                    new Document(GameCodec.SESSION_ID, game.getSessionId()).append(GameCodec.STATE, game.getGameState())
+                        .append(GameCodec.LAST_TURN_PLAYED_BY, game.getLastTurnedPlayedBy()).append(GameCodec.WINNER, game.getWinner())
+                        .append(GameCodec.CLOCK, GameCodec.toDocument(game.getClock())).append(GameCodec.LAST_UPDATED, new Date()),
+                    game.getBoard()));
+        }
+        final int matchedCount = connectionManager.updateDocuments(GAME, updatedValuesById);
+        logger.info("Saved {} Game documents to Database, {} matched", updatedValuesById.size(), matchedCount);
+    }
+
+    @Override
+    public Optional<Game> saveTurn(final Game game, final int row, final int column) {
+        final Optional<Game> savedGame = connectionManager
+            .findAndUpdateDocument(game.getGameId(), getTurnConditions(game, row, column), getTurnUpdate(game), GAME, Game.class);
+        if (savedGame.isPresent()) {
+            game.clearChangedFields();
+        } else {
+            logger.warn(
+                "Turn not saved for game with id : {} since the game was changed after it was read. Expected move count : {}",
+                game.getGameId(),
+                game.getBoard().getFilledCellCount() - 1);
+        }
+        return savedGame;
+    }
+
+    @Override
+    public Optional<Game> saveGameResult(final Game game) {
+        final Optional<Game> savedGame = connectionManager
+            .findAndUpdateDocument(game.getGameId(), getResultConditions(game), getResultUpdate(game), GAME, Game.class);
+        if (savedGame.isPresent()) {
+            game.clearChangedFields();
+        } else {
+            logger.warn("Result not saved for game with id : {} since the game was changed after it was read.", game.getGameId());
+        }
+        return savedGame;
     }
 
     @Override
     public void deleteGame(final Game game) {
         connectionManager.deleteDocument(game.getGameId(), GAME);
+        if (archiveEnabled) {
+            connectionManager.deleteDocument(game.getGameId(), GameArchiver.GAME_ARCHIVE);
+        }
 
     }
 
-    private Document getGameDocumentToCreate(final String firstPlayerName, final String secondPlayerName, final String sessionId) {
-        return new Document(FIRST_PLAYER, firstPlayerName).append(SECOND_PLAYER, secondPlayerName).append(SESSION_ID, sessionId).append(STATE, "NEW")
-            .append(LAST_TURN_PLAYED_BY, null).append(GRID, initializeGrid());
+    /**
+     * If the games are archived, the game is deleted from the archive too even if it was found in the Game collection: the archiver copies a game to the
+     * archive before deleting it from the Game collection, so a game being archived is in both.
+     */
+    @Override
+    public boolean deleteGame(final String id, final List<String> states) {
+        final boolean deleted = connectionManager.deleteDocument(id, GameQueries.getStatesFilter(states), GAME);
+        if (!archiveEnabled) {
+            return deleted;
+        }
+        final boolean archiveDeleted = connectionManager.deleteDocument(id, GameQueries.getStatesFilter(states), GameArchiver.GAME_ARCHIVE);
+        return deleted || archiveDeleted;
     }
 
     /**
-     * @return grid initialized with value 0.
+     * @return conditions under which the turn played in the game can be saved, see {@link GameDao#saveTurn(Game, int, int)}.
      */
-    private List<List<Integer>> initializeGrid() {
-        final List<List<Integer>> gridList = new ArrayList<List<Integer>>();
-        final Integer[][] grid = new Integer[6][7];
-        for (int i = 0; i < 6; i++) {
-            Arrays.fill(grid[i], 0);
-            gridList.add(Arrays.asList(grid[i]));
-        }
-        return gridList;
+    static Bson getTurnConditions(final Game game, final int row, final int column) {
+        final BitBoard board = game.getBoard();
+        final long cellMask = BitBoard.cellMask(row, column);
+        final BitBoard boardBeforeTurn = new BitBoard(board.getFirstPlayerDiscs() & ~cellMask, board.getSecondPlayerDiscs() & ~cellMask);
+        //Games created before the move count was stored don't have the field until their first turn is saved, their whole grid is compared instead.
+        return Filters.and(
+            Filters.or(
+                Filters.eq(GameCodec.MOVE_COUNT, board.getFilledCellCount() - 1),
+                Filters.and(Filters.exists(GameCodec.MOVE_COUNT, false), Filters.eq(GameCodec.GRID, GameCodec.toGridList(boardBeforeTurn)))),
+            Filters.in(GameCodec.STATE, NEW, IN_PROGRESS),
+            Filters.eq(GameCodec.SESSION_ID, game.getStoredSessionId()),
+            Filters.ne(GameCodec.LAST_TURN_PLAYED_BY, game.getLastTurnedPlayedBy()));
     }
 
     /**
-     * @param gameDocument
-     * @return optional game
+     * @return conditions under which the result of the game can be saved, see {@link GameDao#saveGameResult(Game)}.
      */
-    @SuppressWarnings("unchecked")
-    private Optional<Game> getGame(final Optional<Document> optionalGameDocument) {
-        if (optionalGameDocument.isPresent()) {
-            final Document gameDocument = optionalGameDocument.get();
-            return Optional.of(
-                new Game(
-                    gameDocument.getObjectId("_id").toString(),
-                    gameDocument.getString(SESSION_ID),
-                    gameDocument.getString(STATE),
-                    gameDocument.getString(LAST_TURN_PLAYED_BY),
-                    gameDocument.getString(FIRST_PLAYER),
-                    gameDocument.getString(SECOND_PLAYER),
-                    getGridArray(gameDocument.get(GRID, List.class))));
-        }
-        return Optional.empty();
+    static Bson getResultConditions(final Game game) {
+        final BitBoard board = game.getBoard();
+        return Filters.and(
+            Filters.or(
+                Filters.eq(GameCodec.MOVE_COUNT, board.getFilledCellCount()),
+                Filters.and(Filters.exists(GameCodec.MOVE_COUNT, false), Filters.eq(GameCodec.GRID, GameCodec.toGridList(board)))),
+            Filters.in(GameCodec.STATE, NEW, IN_PROGRESS));
     }
 
     /**
-     * @param gridList
-     * @return Two dimensional array of size [6][7] representing the grid initialized to default value 0.
+     * @return update saving the result of the game.
      */
-    private Integer[][] getGridArray(final List<List<Integer>> gridList) {
-        final Integer[][] grid = new Integer[6][7];
-        int i = 0;
-        for (final List<Integer> list : gridList) {
-            grid[i] = list.toArray(grid[i]);
-            i++;
-        }
+    static Document getResultUpdate(final Game game) {
+        return new Document("$set", getChangedValues(game).append(GameCodec.LAST_UPDATED, new Date()));
+    }
 
-        return grid;
+    /**
+     * The turn conditions guarantee that the stored grid is the one the turn was played on, so the bit masks can be set as a whole. Documents stored with the
+     * original layout are converted.
+     *
+     * @return update saving the turn played in the game.
+     */
+    static Document getTurnUpdate(final Game game) {
+        final Document changedValues = GameCodec.appendBoard(getChangedValues(game), game.getBoard()).append(GameCodec.LAST_UPDATED, new Date());
+        return new Document("$set", changedValues).append("$unset", new Document(GameCodec.GRID, ""));
     }
 
-    private List<List<Integer>> convertGridArrayToList(final Integer[][] grid) {
-        final List<List<Integer>> gridList = new ArrayList<List<Integer>>();
-        for (final Integer[] element : grid) {
-            gridList.add(Arrays.asList(element));
+    /**
+     * @return document with the fields of the game that have been changed since it was read.
+     */
+    private static Document getChangedValues(final Game game) {
+        final Document changedValues = new Document();
+        for (final Game.Field field : game.getChangedFields()) {
+            switch (field) {
+                case SESSION_ID:
+                    changedValues.append(GameCodec.SESSION_ID, game.getSessionId());
+                    break;
+                case GAME_STATE:
+                    changedValues.append(GameCodec.STATE, game.getGameState());
+                    break;
+                case LAST_TURN_PLAYED_BY:
+                    changedValues.append(GameCodec.LAST_TURN_PLAYED_BY, game.getLastTurnedPlayedBy());
+                    break;
+                case BOARD:
+                    GameCodec.appendBoard(changedValues, game.getBoard());
+                    break;
+                case WINNER:
+                    changedValues.append(GameCodec.WINNER, game.getWinner());
+                    break;
+                case CLOCK:
+                    changedValues.append(GameCodec.CLOCK, GameCodec.toDocument(game.getClock()));
+                    break;
+                default:
+                    throw new EnumConstantNotPresentException(Game.Field.class, field.name());
+            }
         }
-        return gridList;
+        return changedValues;
     }
 
 }
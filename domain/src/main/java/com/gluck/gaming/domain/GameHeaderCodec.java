@@ -0,0 +1,80 @@
+package com.gluck.gaming.domain;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+
+import com.gluck.gaming.dao.model.GameHeader;
+
+/**
+ * Codec reading {@link GameHeader} straight from BSON. Any field of the game document that is not part of the header, like the grid, is skipped without being
+ * decoded.
+ *
+ * @author Vinay Semwal
+ */
+public class GameHeaderCodec implements Codec<GameHeader> {
+
+    @Override
+    public Class<GameHeader> getEncoderClass() {
+        return GameHeader.class;
+    }
+
+    @Override
+    public void encode(final BsonWriter writer, final GameHeader gameHeader, final EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writer.writeObjectId(GameCodec.DOCUMENT_ID, new ObjectId(gameHeader.getGameId()));
+        GameCodec.writeString(writer, GameCodec.FIRST_PLAYER, gameHeader.getFirstPlayer());
+        GameCodec.writeString(writer, GameCodec.SECOND_PLAYER, gameHeader.getSecondplayer());
+        GameCodec.writeString(writer, GameCodec.SESSION_ID, gameHeader.getSessionId());
+        GameCodec.writeString(writer, GameCodec.STATE, gameHeader.getGameState());
+        GameCodec.writeString(writer, GameCodec.LAST_TURN_PLAYED_BY, gameHeader.getLastTurnedPlayedBy());
+        GameCodec.writeString(writer, GameCodec.WINNER, gameHeader.getWinner());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public GameHeader decode(final BsonReader reader, final DecoderContext decoderContext) {
+        String gameId = null;
+        String firstPlayer = null;
+        String secondPlayer = null;
+        String sessionId = null;
+        String gameState = null;
+        String lastTurnPlayedBy = null;
+        String winner = null;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case GameCodec.DOCUMENT_ID:
+                    gameId = reader.readObjectId().toString();
+                    break;
+                case GameCodec.FIRST_PLAYER:
+                    firstPlayer = GameCodec.readString(reader);
+                    break;
+                case GameCodec.SECOND_PLAYER:
+                    secondPlayer = GameCodec.readString(reader);
+                    break;
+                case GameCodec.SESSION_ID:
+                    sessionId = GameCodec.readString(reader);
+                    break;
+                case GameCodec.STATE:
+                    gameState = GameCodec.readString(reader);
+                    break;
+                case GameCodec.LAST_TURN_PLAYED_BY:
+                    lastTurnPlayedBy = GameCodec.readString(reader);
+                    break;
+                case GameCodec.WINNER:
+                    winner = GameCodec.readString(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new GameHeader(gameId, sessionId, gameState, lastTurnPlayedBy, firstPlayer, secondPlayer, winner);
+    }
+
+}
@@ -0,0 +1,186 @@
+package com.gluck.gaming.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+import com.gluck.gaming.dao.model.Game;
+import com.gluck.gaming.dao.model.GameClock;
+import com.gluck.gaming.dao.model.GameHeader;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+
+/**
+ * Queries and indexes on the Game collection shared by the Mongo DB backed {@link com.gluck.gaming.dao.GameDao} implementations.
+ *
+ * @author Vinay Semwal
+ */
+final class GameQueries {
+
+    /**
+     * Fields read into a {@link GameHeader}.
+     */
+    static final Bson HEADER_PROJECTION = Projections.include(
+        GameCodec.SESSION_ID,
+        GameCodec.STATE,
+        GameCodec.LAST_TURN_PLAYED_BY,
+        GameCodec.FIRST_PLAYER,
+        GameCodec.SECOND_PLAYER,
+        GameCodec.WINNER);
+
+    /**
+     * Field read to find the time of the last update of a game, see {@link #getLastUpdateTimes}.
+     */
+    static final Bson LAST_UPDATE_PROJECTION = Projections.include(GameCodec.LAST_UPDATED);
+
+    /**
+     * Latest created game first. Ids are generated in increasing order, so the id gives the creation order.
+     */
+    static final Bson LATEST_FIRST = Sorts.descending(GameCodec.DOCUMENT_ID);
+
+    private GameQueries() {
+        //Static helpers only
+    }
+
+    /**
+     * Indexes for the lookups of games by players. The games of a player are found through the first or the second player index and merged in id order: the
+     * player and id indexes serve the pages of all the games of a player, and the player, state and id indexes the pages of the games in one state, so that
+     * neither sorts the games of the player in memory.
+     *
+     * @return indexes to create on the Game collection.
+     */
+    static List<IndexModel> getIndexes() {
+        return Arrays.asList(
+            new IndexModel(Indexes.ascending(GameCodec.FIRST_PLAYER, GameCodec.SECOND_PLAYER, GameCodec.STATE)),
+            new IndexModel(Indexes.ascending(GameCodec.FIRST_PLAYER, GameCodec.STATE, GameCodec.DOCUMENT_ID)),
+            new IndexModel(Indexes.ascending(GameCodec.SECOND_PLAYER, GameCodec.STATE, GameCodec.DOCUMENT_ID)),
+            new IndexModel(Indexes.ascending(GameCodec.FIRST_PLAYER, GameCodec.DOCUMENT_ID)),
+            new IndexModel(Indexes.ascending(GameCodec.SECOND_PLAYER, GameCodec.DOCUMENT_ID)));
+    }
+
+    /**
+     * @return indexes for the lookups of the games to archive, to create on the Game collection in addition to {@link #getIndexes()}.
+     */
+    static List<IndexModel> getArchivalIndexes() {
+        return Arrays.asList(new IndexModel(Indexes.ascending(GameCodec.STATE, GameCodec.LAST_UPDATED)));
+    }
+
+    /**
+     * @return filter matching the games of two players.
+     */
+    static Bson getPlayersFilter(final String firstPlayerName, final String secondPlayerName) {
+        return Filters.and(Filters.eq(GameCodec.FIRST_PLAYER, firstPlayerName), Filters.eq(GameCodec.SECOND_PLAYER, secondPlayerName));
+    }
+
+    /**
+     * @return filter matching the games in one of the given states.
+     */
+    static Bson getStatesFilter(final List<String> states) {
+        return Filters.in(GameCodec.STATE, states);
+    }
+
+    /**
+     * @return update moving a game to the target state with the given session.
+     */
+    static Bson getStateUpdate(final String targetState, final String sessionId) {
+        return new Document(
+            "$set",
+            new Document(GameCodec.STATE, targetState).append(GameCodec.SESSION_ID, sessionId).append(GameCodec.LAST_UPDATED, new Date()));
+    }
+
+    /**
+     * The clock of a timed game is compared through the start of the current turn, which changes with every turn and every resume.
+     *
+     * @return conditions under which the state set on the game can be saved, see {@link com.gluck.gaming.dao.GameDao#saveGameState}.
+     */
+    static Bson getGameStateConditions(final Game game, final List<String> currentStates) {
+        final GameClock storedClock = game.getStoredClock();
+        if (storedClock == null) {
+            return getStatesFilter(currentStates);
+        }
+        return Filters.and(
+            getStatesFilter(currentStates),
+            Filters.eq(GameCodec.CLOCK + "." + GameCodec.TURN_STARTED_MILLIS, storedClock.getTurnStartedMillis()));
+    }
+
+    /**
+     * @return conditions under which the state set on an idle game can be saved, see {@link com.gluck.gaming.dao.GameDao#saveIdleGameState}.
+     */
+    static Bson getIdleGameStateConditions(final Game game, final List<String> currentStates, final long idleSinceMillis) {
+        return Filters.and(getGameStateConditions(game, currentStates), getUpdatedBeforeFilter(new Date(idleSinceMillis + 1)));
+    }
+
+    /**
+     * Games written before the time of the last update was stored are matched by the creation time held in their id.
+     *
+     * @return filter matching the games last updated before the given time.
+     */
+    static Bson getUpdatedBeforeFilter(final Date updatedBefore) {
+        return Filters.or(
+            Filters.lt(GameCodec.LAST_UPDATED, updatedBefore),
+            Filters.and(Filters.exists(GameCodec.LAST_UPDATED, false), Filters.lt(GameCodec.DOCUMENT_ID, new ObjectId(updatedBefore, 0, (short) 0, 0))));
+    }
+
+    /**
+     * @return update saving the state, the session and, if changed, the clock set on the game.
+     */
+    static Bson getGameStateUpdate(final Game game) {
+        return new Document("$set", getGameStateValues(game).append(GameCodec.LAST_UPDATED, new Date()));
+    }
+
+    /**
+     * The time of the last update is left as it is, so that the game still looks idle since the last change made by its players.
+     *
+     * @return update saving the state, the session and, if changed, the clock set on an idle game.
+     */
+    static Bson getIdleGameStateUpdate(final Game game) {
+        return new Document("$set", getGameStateValues(game));
+    }
+
+    /**
+     * @return time of the last update of each game, by game id, the creation time held in the id for the games written before it was stored.
+     */
+    static Map<String, Long> getLastUpdateTimes(final List<Document> gameDocuments) {
+        final Map<String, Long> lastUpdateTimes = new LinkedHashMap<String, Long>();
+        for (final Document gameDocument : gameDocuments) {
+            final ObjectId id = gameDocument.getObjectId(GameCodec.DOCUMENT_ID);
+            final Date lastUpdated = gameDocument.getDate(GameCodec.LAST_UPDATED);
+            lastUpdateTimes.put(id.toHexString(), lastUpdated == null ? id.getDate().getTime() : lastUpdated.getTime());
+        }
+        return lastUpdateTimes;
+    }
+
+    private static Document getGameStateValues(final Game game) {
+        final Document values = new Document(GameCodec.STATE, game.getGameState()).append(GameCodec.SESSION_ID, game.getSessionId());
+        if (game.getChangedFields().contains(Game.Field.CLOCK)) {
+            values.append(GameCodec.CLOCK, GameCodec.toDocument(game.getClock()));
+        }
+        return values;
+    }
+
+    /**
+     * @return filter matching one page of the games of a player, for the arguments of {@link com.gluck.gaming.dao.GameDao#findGamesByPlayer}.
+     */
+    static Bson getPlayerGamesFilter(final String playerName, final String gameState, final String afterGameId) {
+        final List<Bson> filters = new ArrayList<Bson>(3);
+        filters.add(Filters.or(Filters.eq(GameCodec.FIRST_PLAYER, playerName), Filters.eq(GameCodec.SECOND_PLAYER, playerName)));
+        if (gameState != null) {
+            filters.add(Filters.eq(GameCodec.STATE, gameState));
+        }
+        if (afterGameId != null) {
+            filters.add(Filters.lt(GameCodec.DOCUMENT_ID, new ObjectId(afterGameId)));
+        }
+        return Filters.and(filters);
+    }
+
+}
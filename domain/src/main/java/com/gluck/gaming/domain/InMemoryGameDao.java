@@ -0,0 +1,454 @@
+package com.gluck.gaming.domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.bson.types.ObjectId;
+
+import com.gluck.gaming.dao.GameDao;
+import com.gluck.gaming.dao.model.BitBoard;
+import com.gluck.gaming.dao.model.Game;
+import com.gluck.gaming.dao.model.GameClock;
+import com.gluck.gaming.dao.model.GameHeader;
+
+/**
+ * {@link GameDao} implementation keeping all the games in memory, without any database. Meant for single node deployments where the games don't have to
+ * survive a restart, for tests, and as a baseline to measure the cost of the service layer without the storage.<br>
+ * Games are held as compact immutable records in a concurrent map keyed by the binary {@link ObjectId} of the game. Every write replaces the record of a game
+ * atomically, so the conditions of {@link #saveTurn(Game, int, int)} are checked the same way as by the database.
+ *
+ * @author Vinay Semwal
+ */
+public class InMemoryGameDao implements GameDao {
+
+    private static final Logger logger = LogManager.getLogger(InMemoryGameDao.class);
+
+    private static final String NEW = "NEW";
+
+    private static final String IN_PROGRESS = "IN_PROGRESS";
+
+    private final ConcurrentMap<ObjectId, GameRecord> games = new ConcurrentHashMap<ObjectId, GameRecord>();
+
+    private final LongSupplier clock;
+
+    public InMemoryGameDao() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock source of the time in milliseconds since the epoch stored as the time of the last update of the games.
+     */
+    public InMemoryGameDao(final LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public String createGame(final String firstPlayerName, final String secondPlayerName, final String sessionId) {
+        return createGame(firstPlayerName, secondPlayerName, sessionId, null);
+    }
+
+    @Override
+    public List<String> createGames(final List<Game> gamesToCreate) {
+        final List<String> gameIds = new ArrayList<String>(gamesToCreate.size());
+        for (final Game game : gamesToCreate) {
+            gameIds.add(createGame(game.getFirstPlayer(), game.getSecondplayer(), game.getSessionId(), game.getClock()));
+        }
+        return gameIds;
+    }
+
+    private String createGame(final String firstPlayerName, final String secondPlayerName, final String sessionId, final GameClock clock) {
+        final ObjectId gameId = new ObjectId();
+        games.put(gameId, new GameRecord(sessionId, NEW, null, firstPlayerName, secondPlayerName, 0L, 0L, null, clock, this.clock.getAsLong()));
+        logger.info("Added game with id : {} to memory", gameId);
+        return gameId.toString();
+    }
+
+    @Override
+    public Optional<Game> findGameById(final String id) {
+        final ObjectId gameId = new ObjectId(id);
+        return toGame(gameId, games.get(gameId));
+    }
+
+    @Override
+    public Optional<GameHeader> findGameHeaderById(final String id) {
+        final ObjectId gameId = new ObjectId(id);
+        return toGameHeader(gameId, games.get(gameId));
+    }
+
+    @Override
+    public Optional<Game> findGameByPlayers(final String firstPlayerName, final String secondPlayerName) {
+        ObjectId latestGameId = null;
+        for (final Map.Entry<ObjectId, GameRecord> entry : games.entrySet()) {
+            final GameRecord record = entry.getValue();
+            if (record.firstPlayer.equals(firstPlayerName)
+                && record.secondPlayer.equals(secondPlayerName)
+                && (latestGameId == null || entry.getKey().compareTo(latestGameId) > 0)) {
+                latestGameId = entry.getKey();
+            }
+        }
+        return latestGameId == null ? Optional.empty() : toGame(latestGameId, games.get(latestGameId));
+    }
+
+    /**
+     * Scans all the games held in memory.
+     */
+    @Override
+    public List<GameHeader> findGamesByPlayer(final String playerName, final String gameState, final String afterGameId, final int limit) {
+        final ObjectId afterId = afterGameId == null ? null : new ObjectId(afterGameId);
+        final List<ObjectId> gameIds = new ArrayList<ObjectId>();
+        for (final Map.Entry<ObjectId, GameRecord> entry : games.entrySet()) {
+            final GameRecord record = entry.getValue();
+            if ((record.firstPlayer.equals(playerName) || record.secondPlayer.equals(playerName))
+                && (gameState == null || gameState.equals(record.gameState))
+                && (afterId == null || entry.getKey().compareTo(afterId) < 0)) {
+                gameIds.add(entry.getKey());
+            }
+        }
+        Collections.sort(gameIds, Collections.reverseOrder());
+        final List<GameHeader> gameHeaders = new ArrayList<GameHeader>(Math.min(limit, gameIds.size()));
+        for (final ObjectId gameId : gameIds.subList(0, Math.min(limit, gameIds.size()))) {
+            final Optional<GameHeader> gameHeader = toGameHeader(gameId, games.get(gameId));
+            if (gameHeader.isPresent()) {
+                gameHeaders.add(gameHeader.get());
+            }
+        }
+        return gameHeaders;
+    }
+
+    @Override
+    public void updateGame(final Game game) {
+        games.computeIfPresent(new ObjectId(game.getGameId()), (gameId, record) -> record.withChanges(game, clock.getAsLong()));
+        game.clearChangedFields();
+    }
+
+    @Override
+    public Optional<GameHeader> updateGameState(final String id, final List<String> currentStates, final String targetState, final String sessionId) {
+        final ObjectId gameId = new ObjectId(id);
+        final GameRecord[] updatedRecord = new GameRecord[1];
+        games.computeIfPresent(gameId, (key, record) -> {
+            if (!currentStates.contains(record.gameState)) {
+                return record;
+            }
+            updatedRecord[0] = new GameRecord(
+                sessionId,
+                targetState,
+                record.lastTurnPlayedBy,
+                record.firstPlayer,
+                record.secondPlayer,
+                record.firstPlayerDiscs,
+                record.secondPlayerDiscs,
+                record.winner,
+                record.clock,
+                clock.getAsLong());
+            return updatedRecord[0];
+        });
+        return toGameHeader(gameId, updatedRecord[0]);
+    }
+
+    @Override
+    public Optional<GameHeader> saveGameState(final Game game, final List<String> currentStates) {
+        return saveGameState(game, currentStates, Long.MAX_VALUE, true);
+    }
+
+    @Override
+    public Optional<GameHeader> saveIdleGameState(final Game game, final List<String> currentStates, final long idleSinceMillis) {
+        return saveGameState(game, currentStates, idleSinceMillis, false);
+    }
+
+    private Optional<GameHeader> saveGameState(final Game game, final List<String> currentStates, final long idleSinceMillis, final boolean updateTime) {
+        final ObjectId gameId = new ObjectId(game.getGameId());
+        final GameRecord[] updatedRecord = new GameRecord[1];
+        games.computeIfPresent(gameId, (key, record) -> {
+            if (!currentStates.contains(record.gameState) || !isClockUnchanged(game, record.clock) || record.lastUpdatedMillis > idleSinceMillis) {
+                return record;
+            }
+            updatedRecord[0] = new GameRecord(
+                game.getSessionId(),
+                game.getGameState(),
+                record.lastTurnPlayedBy,
+                record.firstPlayer,
+                record.secondPlayer,
+                record.firstPlayerDiscs,
+                record.secondPlayerDiscs,
+                record.winner,
+                game.getChangedFields().contains(Game.Field.CLOCK) ? game.getClock() : record.clock,
+                updateTime ? clock.getAsLong() : record.lastUpdatedMillis);
+            return updatedRecord[0];
+        });
+        if (updatedRecord[0] == null) {
+            return Optional.empty();
+        }
+        game.clearChangedFields();
+        return toGameHeader(gameId, updatedRecord[0]);
+    }
+
+    /**
+     * @return true if the clock stored is the one the game was read with, compared like the database does through the start of the current turn.
+     */
+    static boolean isClockUnchanged(final Game game, final GameClock clock) {
+        final GameClock storedClock = game.getStoredClock();
+        return storedClock == null || clock != null && clock.getTurnStartedMillis() == storedClock.getTurnStartedMillis();
+    }
+
+    @Override
+    public Map<String, Long> findLastUpdateTimes(final List<String> states) {
+        final Map<String, Long> lastUpdateTimes = new LinkedHashMap<String, Long>();
+        for (final Map.Entry<ObjectId, GameRecord> entry : games.entrySet()) {
+            if (states.contains(entry.getValue().gameState)) {
+                lastUpdateTimes.put(entry.getKey().toString(), entry.getValue().lastUpdatedMillis);
+            }
+        }
+        return lastUpdateTimes;
+    }
+
+    @Override
+    public void saveGames(final List<Game> gamesToSave) {
+        for (final Game game : gamesToSave) {
+            games.computeIfPresent(
+                new ObjectId(game.getGameId()),
+                (gameId, record) -> new GameRecord(
+                    game.getSessionId(),
+                    game.getGameState(),
+                    game.getLastTurnedPlayedBy(),
+                    record.firstPlayer,
+                    record.secondPlayer,
+                    game.getBoard().getFirstPlayerDiscs(),
+                    game.getBoard().getSecondPlayerDiscs(),
+                    game.getWinner(),
+                    game.getClock(),
+                    clock.getAsLong()));
+        }
+    }
+
+    @Override
+    public Optional<Game> saveTurn(final Game game, final int row, final int column) {
+        final ObjectId gameId = new ObjectId(game.getGameId());
+        final long cellMask = BitBoard.cellMask(row, column);
+        final int disc = game.getBoard().getCell(row, column);
+        final int moveCountBeforeTurn = game.getBoard().getFilledCellCount() - 1;
+        final GameRecord[] savedRecord = new GameRecord[1];
+        games.computeIfPresent(gameId, (id, record) -> {
+            final long filledCells = record.firstPlayerDiscs | record.secondPlayerDiscs;
+            if (Long.bitCount(filledCells) != moveCountBeforeTurn
+                || (!NEW.equals(record.gameState) && !IN_PROGRESS.equals(record.gameState))
+                || !Objects.equals(game.getStoredSessionId(), record.sessionId)
+                || game.getLastTurnedPlayedBy().equals(record.lastTurnPlayedBy)
+                || (filledCells & cellMask) != 0) {
+                return record;
+            }
+            savedRecord[0] = record.withChanges(game, clock.getAsLong()).withDisc(cellMask, disc);
+            return savedRecord[0];
+        });
+        if (savedRecord[0] == null) {
+            logger.warn("Turn not saved for game with id : {} since the game was changed after it was read.", game.getGameId());
+            return Optional.empty();
+        }
+        game.clearChangedFields();
+        return toGame(gameId, savedRecord[0]);
+    }
+
+    @Override
+    public Optional<Game> saveGameResult(final Game game) {
+        final ObjectId gameId = new ObjectId(game.getGameId());
+        final BitBoard board = game.getBoard();
+        final GameRecord[] savedRecord = new GameRecord[1];
+        games.computeIfPresent(gameId, (id, record) -> {
+            if (record.firstPlayerDiscs != board.getFirstPlayerDiscs()
+                || record.secondPlayerDiscs != board.getSecondPlayerDiscs()
+                || (!NEW.equals(record.gameState) && !IN_PROGRESS.equals(record.gameState))) {
+                return record;
+            }
+            savedRecord[0] = record.withChanges(game, clock.getAsLong());
+            return savedRecord[0];
+        });
+        if (savedRecord[0] == null) {
+            logger.warn("Result not saved for game with id : {} since the game was changed after it was read.", game.getGameId());
+            return Optional.empty();
+        }
+        game.clearChangedFields();
+        return toGame(gameId, savedRecord[0]);
+    }
+
+    @Override
+    public void deleteGame(final Game game) {
+        games.remove(new ObjectId(game.getGameId()));
+    }
+
+    @Override
+    public boolean deleteGame(final String id, final List<String> states) {
+        final ObjectId gameId = new ObjectId(id);
+        final boolean[] deleted = new boolean[1];
+        games.computeIfPresent(gameId, (key, record) -> {
+            deleted[0] = states.contains(record.gameState);
+            return deleted[0] ? null : record;
+        });
+        return deleted[0];
+    }
+
+    /**
+     * @return number of games held in memory.
+     */
+    public int getGameCount() {
+        return games.size();
+    }
+
+    private Optional<Game> toGame(final ObjectId gameId, final GameRecord record) {
+        if (record == null) {
+            return Optional.empty();
+        }
+        return Optional.of(
+            new Game(
+                gameId.toString(),
+                record.sessionId,
+                record.gameState,
+                record.lastTurnPlayedBy,
+                record.firstPlayer,
+                record.secondPlayer,
+                new BitBoard(record.firstPlayerDiscs, record.secondPlayerDiscs),
+                record.winner,
+                record.clock));
+    }
+
+    private Optional<GameHeader> toGameHeader(final ObjectId gameId, final GameRecord record) {
+        if (record == null) {
+            return Optional.empty();
+        }
+        return Optional.of(
+            new GameHeader(
+                gameId.toString(),
+                record.sessionId,
+                record.gameState,
+                record.lastTurnPlayedBy,
+                record.firstPlayer,
+                record.secondPlayer,
+                record.winner));
+    }
+
+    /**
+     * Immutable game data held in memory. The grid is held as the two player bit masks only.
+     */
+    private static final class GameRecord {
+
+        private final String sessionId;
+
+        private final String gameState;
+
+        private final String lastTurnPlayedBy;
+
+        private final String firstPlayer;
+
+        private final String secondPlayer;
+
+        private final long firstPlayerDiscs;
+
+        private final long secondPlayerDiscs;
+
+        private final String winner;
+
+        private final GameClock clock;
+
+        private final long lastUpdatedMillis;
+
+        private GameRecord(
+            final String sessionId,
+            final String gameState,
+            final String lastTurnPlayedBy,
+            final String firstPlayer,
+            final String secondPlayer,
+            final long firstPlayerDiscs,
+            final long secondPlayerDiscs,
+            final String winner,
+            final GameClock clock,
+            final long lastUpdatedMillis) {
+            this.sessionId = sessionId;
+            this.gameState = gameState;
+            this.lastTurnPlayedBy = lastTurnPlayedBy;
+            this.firstPlayer = firstPlayer;
+            this.secondPlayer = secondPlayer;
+            this.firstPlayerDiscs = firstPlayerDiscs;
+            this.secondPlayerDiscs = secondPlayerDiscs;
+            this.winner = winner;
+            this.clock = clock;
+            this.lastUpdatedMillis = lastUpdatedMillis;
+        }
+
+        /**
+         * @return record with the fields changed in the game applied to it, updated at the given time.
+         */
+        private GameRecord withChanges(final Game game, final long updatedMillis) {
+            String newSessionId = sessionId;
+            String newGameState = gameState;
+            String newLastTurnPlayedBy = lastTurnPlayedBy;
+            long newFirstPlayerDiscs = firstPlayerDiscs;
+            long newSecondPlayerDiscs = secondPlayerDiscs;
+            String newWinner = winner;
+            GameClock newClock = clock;
+            for (final Game.Field field : game.getChangedFields()) {
+                switch (field) {
+                    case SESSION_ID:
+                        newSessionId = game.getSessionId();
+                        break;
+                    case GAME_STATE:
+                        newGameState = game.getGameState();
+                        break;
+                    case LAST_TURN_PLAYED_BY:
+                        newLastTurnPlayedBy = game.getLastTurnedPlayedBy();
+                        break;
+                    case BOARD:
+                        newFirstPlayerDiscs = game.getBoard().getFirstPlayerDiscs();
+                        newSecondPlayerDiscs = game.getBoard().getSecondPlayerDiscs();
+                        break;
+                    case WINNER:
+                        newWinner = game.getWinner();
+                        break;
+                    case CLOCK:
+                        newClock = game.getClock();
+                        break;
+                    default:
+                        throw new EnumConstantNotPresentException(Game.Field.class, field.name());
+                }
+            }
+            return new GameRecord(
+                newSessionId,
+                newGameState,
+                newLastTurnPlayedBy,
+                firstPlayer,
+                secondPlayer,
+                newFirstPlayerDiscs,
+                newSecondPlayerDiscs,
+                newWinner,
+                newClock,
+                updatedMillis);
+        }
+
+        /**
+         * @return record with the grid cell of the mask filled with the disc.
+         */
+        private GameRecord withDisc(final long cellMask, final int disc) {
+            final long newFirstPlayerDiscs = disc == BitBoard.FIRST_PLAYER_DISC ? firstPlayerDiscs | cellMask : firstPlayerDiscs;
+            final long newSecondPlayerDiscs = disc == BitBoard.FIRST_PLAYER_DISC ? secondPlayerDiscs : secondPlayerDiscs | cellMask;
+            return new GameRecord(
+                sessionId,
+                gameState,
+                lastTurnPlayedBy,
+                firstPlayer,
+                secondPlayer,
+                newFirstPlayerDiscs,
+                newSecondPlayerDiscs,
+                winner,
+                clock,
+                lastUpdatedMillis);
+        }
+    }
+
+}
@@ -0,0 +1,649 @@
+package com.gluck.gaming.domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.gluck.gaming.dao.GameDao;
+import com.gluck.gaming.dao.model.BitBoard;
+import com.gluck.gaming.dao.model.Game;
+import com.gluck.gaming.dao.model.GameHeader;
+import com.gluck.gaming.dao.model.GameMove;
+
+/**
+ * {@link GameDao} decorator that takes the database off the critical path of the turns. The games being played are held in memory and are the authoritative
+ * copy: turns and updates are applied to them and the changed games are written to the database later by a background flusher, in batches of
+ * {@link GameDao#saveGames(List)} calls. Several changes made to a game between two flushes are written as a single update, the moves of its turns being
+ * recorded on the game written, see {@link Game#getUnwrittenMoves()}, for the storages keeping the move log.<br>
+ * The number of games waiting to be written is bounded. Once the bound is reached the request threads flush the pending games themselves before applying
+ * their change and fail if the database doesn't accept the writes, so the amount of data that can be lost in a crash is limited to the pending games, which
+ * can be monitored through {@link #getPendingGameCount()} and {@link #getOldestPendingAgeMillis()}. {@link #shutdown()} flushes all the pending games.<br>
+ * Since the conditions of {@link #saveTurn(Game, int, int)} are checked against the copy held in memory, the games of an application instance using this
+ * class must not be played through another instance.
+ *
+ * @author Vinay Semwal
+ */
+public class WriteBehindGameDao implements GameDao {
+
+    private static final Logger logger = LogManager.getLogger(WriteBehindGameDao.class);
+
+    private static final String NEW = "NEW";
+
+    private static final String IN_PROGRESS = "IN_PROGRESS";
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final GameDao gameDao;
+
+    private final int batchSize;
+
+    private final int maximumPendingGames;
+
+    private final long expireAfterIdleNanos;
+
+    private final ConcurrentMap<String, ResidentGame> games = new ConcurrentHashMap<String, ResidentGame>();
+
+    private final Set<String> pendingGameIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Changed every time a game is removed from memory, to find out if a game read from the database may have been changed before it was added to memory.
+     */
+    private final AtomicLong removalCount = new AtomicLong();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final ScheduledExecutorService flusher;
+
+    private final LongAdder flushedGameCount = new LongAdder();
+
+    private final LongAdder failedFlushCount = new LongAdder();
+
+    private final LongAdder backpressureFlushCount = new LongAdder();
+
+    /**
+     * @param gameDao {@link GameDao} to which the games are written and from which the games not held in memory are read.
+     * @param flushIntervalMillis number of milliseconds between two flushes of the pending games.
+     * @param batchSize maximum number of games written to the database with a single call.
+     * @param maximumPendingGames maximum number of changed games waiting to be written before the request threads have to write them.
+     * @param expireAfterIdleSeconds number of seconds after which a game that has been written and not changed since is removed from memory. Games that can no
+     *            longer be played are removed as soon as they have been written.
+     */
+    public WriteBehindGameDao(
+        final GameDao gameDao,
+        final long flushIntervalMillis,
+        final int batchSize,
+        final int maximumPendingGames,
+        final long expireAfterIdleSeconds) {
+        this.gameDao = gameDao;
+        this.batchSize = batchSize;
+        this.maximumPendingGames = maximumPendingGames;
+        expireAfterIdleNanos = TimeUnit.SECONDS.toNanos(expireAfterIdleSeconds);
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "game-write-behind-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushAndEvict, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        logger.info(
+            "Write behind of games started with flush interval : {} ms, batch size : {}, maximum pending games : {}",
+            flushIntervalMillis,
+            batchSize,
+            maximumPendingGames);
+    }
+
+    @Override
+    public String createGame(final String firstPlayerName, final String secondPlayerName, final String sessionId) {
+        return gameDao.createGame(firstPlayerName, secondPlayerName, sessionId);
+    }
+
+    @Override
+    public List<String> createGames(final List<Game> gamesToCreate) {
+        return gameDao.createGames(gamesToCreate);
+    }
+
+    @Override
+    public Optional<Game> findGameById(final String id) {
+        final ResidentGame residentGame = games.get(id);
+        if (residentGame != null) {
+            return Optional.of(residentGame.game.copy());
+        }
+        return gameDao.findGameById(id);
+    }
+
+    @Override
+    public Optional<GameHeader> findGameHeaderById(final String id) {
+        final ResidentGame residentGame = games.get(id);
+        if (residentGame != null) {
+            return Optional.of(residentGame.game.getHeader());
+        }
+        return gameDao.findGameHeaderById(id);
+    }
+
+    @Override
+    public Optional<Game> findGameByPlayers(final String firstPlayerName, final String secondPlayerName) {
+        final Optional<Game> game = gameDao.findGameByPlayers(firstPlayerName, secondPlayerName);
+        if (game.isPresent()) {
+            final ResidentGame residentGame = games.get(game.get().getGameId());
+            if (residentGame != null) {
+                return Optional.of(residentGame.game.copy());
+            }
+        }
+        return game;
+    }
+
+    /**
+     * The games are found in the database, so changes not yet written can make a game appear in the wrong page or state filter for up to a flush interval.
+     * The games found are returned with their latest changes.
+     */
+    @Override
+    public List<GameHeader> findGamesByPlayer(final String playerName, final String gameState, final String afterGameId, final int limit) {
+        final List<GameHeader> gameHeaders = new ArrayList<GameHeader>(gameDao.findGamesByPlayer(playerName, gameState, afterGameId, limit));
+        for (int i = 0; i < gameHeaders.size(); i++) {
+            final ResidentGame residentGame = games.get(gameHeaders.get(i).getGameId());
+            if (residentGame != null) {
+                gameHeaders.set(i, residentGame.game.getHeader());
+            }
+        }
+        return gameHeaders;
+    }
+
+    @Override
+    public void updateGame(final Game game) {
+        awaitCapacity();
+        if (!loadGame(game.getGameId())) {
+            return;
+        }
+        games.computeIfPresent(game.getGameId(), (id, residentGame) -> residentGame.changedTo(applyChanges(residentGame.game, game)));
+        pendingGameIds.add(game.getGameId());
+        game.clearChangedFields();
+    }
+
+    /**
+     * The state is checked against and changed in the copy held in memory, like the turns.
+     */
+    @Override
+    public Optional<GameHeader> updateGameState(final String id, final List<String> currentStates, final String targetState, final String sessionId) {
+        awaitCapacity();
+        if (!loadGame(id)) {
+            return Optional.empty();
+        }
+        final ResidentGame[] updatedGame = new ResidentGame[1];
+        games.computeIfPresent(id, (gameId, residentGame) -> {
+            if (!currentStates.contains(residentGame.game.getGameState())) {
+                return residentGame;
+            }
+            final Game changedGame = residentGame.game.copy();
+            changedGame.setGameState(targetState);
+            changedGame.setSessionId(sessionId);
+            changedGame.clearChangedFields();
+            updatedGame[0] = residentGame.changedTo(changedGame);
+            return updatedGame[0];
+        });
+        if (updatedGame[0] == null) {
+            return Optional.empty();
+        }
+        pendingGameIds.add(id);
+        return Optional.of(updatedGame[0].game.getHeader());
+    }
+
+    /**
+     * The state is checked against and changed in the copy held in memory, like the turns.
+     */
+    @Override
+    public Optional<GameHeader> saveGameState(final Game game, final List<String> currentStates) {
+        awaitCapacity();
+        if (!loadGame(game.getGameId())) {
+            return Optional.empty();
+        }
+        final ResidentGame[] updatedGame = new ResidentGame[1];
+        games.computeIfPresent(game.getGameId(), (gameId, residentGame) -> {
+            final Game storedGame = residentGame.game;
+            if (!currentStates.contains(storedGame.getGameState()) || !InMemoryGameDao.isClockUnchanged(game, storedGame.getClock())) {
+                return residentGame;
+            }
+            final Game changedGame = storedGame.copy();
+            changedGame.setGameState(game.getGameState());
+            changedGame.setSessionId(game.getSessionId());
+            if (game.getChangedFields().contains(Game.Field.CLOCK)) {
+                changedGame.setClock(game.getClock());
+            }
+            changedGame.clearChangedFields();
+            updatedGame[0] = residentGame.changedTo(changedGame);
+            return updatedGame[0];
+        });
+        if (updatedGame[0] == null) {
+            return Optional.empty();
+        }
+        pendingGameIds.add(game.getGameId());
+        game.clearChangedFields();
+        return Optional.of(updatedGame[0].game.getHeader());
+    }
+
+    /**
+     * A game with changes not written yet has been changed within the last flush interval and is left as it is. The others are saved through the database,
+     * which holds the time of their last update, outside of the map so that the other games are not blocked meanwhile. The copy held in memory is then
+     * dropped unless it was changed in between, the reads made during the update not being kept in memory.
+     */
+    @Override
+    public Optional<GameHeader> saveIdleGameState(final Game game, final List<String> currentStates, final long idleSinceMillis) {
+        final ResidentGame residentGame = games.get(game.getGameId());
+        if (residentGame != null && residentGame.pending) {
+            return Optional.empty();
+        }
+        removalCount.incrementAndGet();
+        final Optional<GameHeader> updatedGame = gameDao.saveIdleGameState(game, currentStates, idleSinceMillis);
+        if (updatedGame.isPresent()) {
+            games.computeIfPresent(game.getGameId(), (gameId, currentGame) -> currentGame.pending ? currentGame : null);
+        }
+        return updatedGame;
+    }
+
+    /**
+     * The times are read from the database, so the changes not written yet are not reflected.
+     */
+    @Override
+    public Map<String, Long> findLastUpdateTimes(final List<String> states) {
+        return gameDao.findLastUpdateTimes(states);
+    }
+
+    @Override
+    public void saveGames(final List<Game> gamesToSave) {
+        gameDao.saveGames(gamesToSave);
+        for (final Game game : gamesToSave) {
+            removeGame(game.getGameId());
+        }
+    }
+
+    @Override
+    public Optional<Game> saveTurn(final Game game, final int row, final int column) {
+        awaitCapacity();
+        if (!loadGame(game.getGameId())) {
+            return Optional.empty();
+        }
+        final int moveCountBeforeTurn = game.getBoard().getFilledCellCount() - 1;
+        final ResidentGame[] savedGame = new ResidentGame[1];
+        games.computeIfPresent(game.getGameId(), (id, residentGame) -> {
+            final Game storedGame = residentGame.game;
+            if (storedGame.getBoard().getFilledCellCount() != moveCountBeforeTurn
+                || (!NEW.equals(storedGame.getGameState()) && !IN_PROGRESS.equals(storedGame.getGameState()))
+                || !Objects.equals(game.getStoredSessionId(), storedGame.getSessionId())
+                || game.getLastTurnedPlayedBy().equals(storedGame.getLastTurnedPlayedBy())
+                || storedGame.getBoard().getCell(row, column) != BitBoard.EMPTY_CELL) {
+                return residentGame;
+            }
+            final Game changedGame = applyChanges(storedGame, game);
+            final int disc = game.getBoard().getCell(row, column);
+            changedGame.getBoard().fillCell(row, column, disc);
+            savedGame[0] = residentGame.changedTo(changedGame, new GameMove(moveCountBeforeTurn + 1, column, disc));
+            return savedGame[0];
+        });
+        if (savedGame[0] == null) {
+            logger.warn("Turn not saved for game with id : {} since the game was changed after it was read.", game.getGameId());
+            return Optional.empty();
+        }
+        pendingGameIds.add(game.getGameId());
+        game.clearChangedFields();
+        return Optional.of(savedGame[0].game.copy());
+    }
+
+    @Override
+    public Optional<Game> saveGameResult(final Game game) {
+        awaitCapacity();
+        if (!loadGame(game.getGameId())) {
+            return Optional.empty();
+        }
+        final ResidentGame[] savedGame = new ResidentGame[1];
+        games.computeIfPresent(game.getGameId(), (id, residentGame) -> {
+            final Game storedGame = residentGame.game;
+            if (storedGame.getBoard().getFilledCellCount() != game.getBoard().getFilledCellCount()
+                || (!NEW.equals(storedGame.getGameState()) && !IN_PROGRESS.equals(storedGame.getGameState()))) {
+                return residentGame;
+            }
+            savedGame[0] = residentGame.changedTo(applyChanges(storedGame, game));
+            return savedGame[0];
+        });
+        if (savedGame[0] == null) {
+            logger.warn("Result not saved for game with id : {} since the game was changed after it was read.", game.getGameId());
+            return Optional.empty();
+        }
+        pendingGameIds.add(game.getGameId());
+        game.clearChangedFields();
+        return Optional.of(savedGame[0].game.copy());
+    }
+
+    @Override
+    public void deleteGame(final Game game) {
+        gameDao.deleteGame(game);
+        removeGame(game.getGameId());
+    }
+
+    /**
+     * The state of a game held in memory is checked against the copy held in memory, since its latest state may not have been written yet.
+     */
+    @Override
+    public boolean deleteGame(final String id, final List<String> states) {
+        final ResidentGame residentGame = games.get(id);
+        if (residentGame == null) {
+            final boolean deleted = gameDao.deleteGame(id, states);
+            if (deleted) {
+                removeGame(id);
+            }
+            return deleted;
+        }
+        if (!states.contains(residentGame.game.getGameState())) {
+            return false;
+        }
+        gameDao.deleteGame(residentGame.game);
+        removeGame(id);
+        return true;
+    }
+
+    /**
+     * Writes all the games changed so far to the database, in batches of the configured size. Only one flush runs at a time.
+     *
+     * @return true if all the batches were written, false if a batch failed and its games were kept pending.
+     */
+    public boolean flush() {
+        flushLock.lock();
+        try {
+            final List<Game> batch = new ArrayList<Game>(batchSize);
+            final Map<String, Long> batchVersions = new HashMap<String, Long>();
+            final Iterator<String> pendingGameIdIterator = pendingGameIds.iterator();
+            boolean written = true;
+            while (pendingGameIdIterator.hasNext()) {
+                final String gameId = pendingGameIdIterator.next();
+                //Removed before the game is read, so that a change made after the read adds the game back for the next flush.
+                pendingGameIdIterator.remove();
+                final ResidentGame residentGame = games.get(gameId);
+                if (residentGame == null || !residentGame.pending) {
+                    continue;
+                }
+                batch.add(residentGame.getGameToWrite());
+                batchVersions.put(gameId, residentGame.version);
+                if (batch.size() == batchSize) {
+                    written &= writeBatch(batch, batchVersions);
+                    batch.clear();
+                    batchVersions.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                written &= writeBatch(batch, batchVersions);
+            }
+            return written;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Stops the background flusher and writes all the pending games to the database.
+     */
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        while (!pendingGameIds.isEmpty()) {
+            if (!flush()) {
+                logger.error("{} games could not be written to the database before shutdown", pendingGameIds.size());
+                return;
+            }
+        }
+        logger.info("All the pending games written to the database. Total games written : {}", getFlushedGameCount());
+    }
+
+    /**
+     * @return number of changed games not yet written to the database.
+     */
+    public int getPendingGameCount() {
+        return pendingGameIds.size();
+    }
+
+    /**
+     * @return number of milliseconds since the oldest change not yet written to the database was made, 0 if there is none.
+     */
+    public long getOldestPendingAgeMillis() {
+        final long now = System.nanoTime();
+        long oldestAgeNanos = 0;
+        for (final ResidentGame residentGame : games.values()) {
+            if (residentGame.pending) {
+                oldestAgeNanos = Math.max(oldestAgeNanos, now - residentGame.pendingSinceNanos);
+            }
+        }
+        return TimeUnit.NANOSECONDS.toMillis(oldestAgeNanos);
+    }
+
+    /**
+     * @return number of game writes made to the database.
+     */
+    public long getFlushedGameCount() {
+        return flushedGameCount.sum();
+    }
+
+    /**
+     * @return number of batches that could not be written to the database.
+     */
+    public long getFailedFlushCount() {
+        return failedFlushCount.sum();
+    }
+
+    /**
+     * @return number of times a request thread had to flush the pending games because too many games were waiting to be written.
+     */
+    public long getBackpressureFlushCount() {
+        return backpressureFlushCount.sum();
+    }
+
+    /**
+     * @return number of games held in memory.
+     */
+    public int getResidentGameCount() {
+        return games.size();
+    }
+
+    private void flushAndEvict() {
+        try {
+            flush();
+            evictGames();
+        } catch (final RuntimeException e) {
+            logger.error("Error while writing the pending games to the database", e);
+        }
+    }
+
+    private boolean writeBatch(final List<Game> batch, final Map<String, Long> batchVersions) {
+        try {
+            gameDao.saveGames(batch);
+        } catch (final RuntimeException e) {
+            failedFlushCount.increment();
+            pendingGameIds.addAll(batchVersions.keySet());
+            logger.error("Error while writing {} games to the database, the games will be written with the next flush", batch.size(), e);
+            return false;
+        }
+        flushedGameCount.add(batch.size());
+        for (final Map.Entry<String, Long> batchVersion : batchVersions.entrySet()) {
+            games.computeIfPresent(
+                batchVersion.getKey(),
+                (id, residentGame) -> residentGame.version == batchVersion.getValue() ? residentGame.written() : residentGame);
+        }
+        return true;
+    }
+
+    /**
+     * Removes from memory the written games that can no longer be played or haven't been changed for longer than the idle expiry time.
+     */
+    private void evictGames() {
+        final long now = System.nanoTime();
+        for (final String gameId : games.keySet()) {
+            games.computeIfPresent(gameId, (id, residentGame) -> {
+                final String gameState = residentGame.game.getGameState();
+                if (residentGame.pending
+                    || (now - residentGame.changedAtNanos < expireAfterIdleNanos && (NEW.equals(gameState) || IN_PROGRESS.equals(gameState)))) {
+                    return residentGame;
+                }
+                removalCount.incrementAndGet();
+                return null;
+            });
+        }
+    }
+
+    private void removeGame(final String id) {
+        removalCount.incrementAndGet();
+        games.remove(id);
+        pendingGameIds.remove(id);
+    }
+
+    /**
+     * Reads a game from the database into memory if it is not already held in memory. A game read while another copy of it was removed from memory is read
+     * again, since the database may not have had the latest changes of the removed copy when it was read.
+     *
+     * @return true if the game is held in memory, false if it doesn't exist.
+     */
+    private boolean loadGame(final String id) {
+        while (!games.containsKey(id)) {
+            final long removalCountBeforeRead = removalCount.get();
+            final Optional<Game> storedGame = gameDao.findGameById(id);
+            if (!storedGame.isPresent()) {
+                return false;
+            }
+            games.computeIfAbsent(id, gameId -> removalCount.get() == removalCountBeforeRead ? new ResidentGame(storedGame.get().copy()) : null);
+        }
+        return true;
+    }
+
+    /**
+     * Flushes the pending games in the request thread if too many games are waiting to be written.
+     */
+    private void awaitCapacity() {
+        if (pendingGameIds.size() < maximumPendingGames) {
+            return;
+        }
+        backpressureFlushCount.increment();
+        if (!flush() && pendingGameIds.size() >= maximumPendingGames) {
+            throw new IllegalStateException("Too many games are waiting to be written to the database.");
+        }
+    }
+
+    /**
+     * @return copy of the stored game with the fields changed in the given game applied to it.
+     */
+    private static Game applyChanges(final Game storedGame, final Game game) {
+        final Game changedGame = storedGame.copy();
+        for (final Game.Field field : game.getChangedFields()) {
+            switch (field) {
+                case SESSION_ID:
+                    changedGame.setSessionId(game.getSessionId());
+                    break;
+                case GAME_STATE:
+                    changedGame.setGameState(game.getGameState());
+                    break;
+                case LAST_TURN_PLAYED_BY:
+                    changedGame.setLastTurnedPlayedBy(game.getLastTurnedPlayedBy());
+                    break;
+                case BOARD:
+                    changedGame.setBoard(game.getBoard().copy());
+                    break;
+                case WINNER:
+                    changedGame.setWinner(game.getWinner());
+                    break;
+                case CLOCK:
+                    changedGame.setClock(game.getClock());
+                    break;
+                default:
+                    throw new EnumConstantNotPresentException(Game.Field.class, field.name());
+            }
+        }
+        changedGame.clearChangedFields();
+        return changedGame;
+    }
+
+    /**
+     * Immutable copy of a game held in memory along with its write state.
+     */
+    private static final class ResidentGame {
+
+        private final Game game;
+
+        private final long version;
+
+        private final boolean pending;
+
+        private final long pendingSinceNanos;
+
+        private final long changedAtNanos;
+
+        /**
+         * Moves played since the game was last written, in the order they were played.
+         */
+        private final List<GameMove> unwrittenMoves;
+
+        private ResidentGame(final Game game) {
+            this(game, 0L, false, 0L, System.nanoTime(), Collections.<GameMove> emptyList());
+        }
+
+        private ResidentGame(
+            final Game game,
+            final long version,
+            final boolean pending,
+            final long pendingSinceNanos,
+            final long changedAtNanos,
+            final List<GameMove> unwrittenMoves) {
+            this.game = game;
+            this.version = version;
+            this.pending = pending;
+            this.pendingSinceNanos = pendingSinceNanos;
+            this.changedAtNanos = changedAtNanos;
+            this.unwrittenMoves = unwrittenMoves;
+        }
+
+        private ResidentGame changedTo(final Game changedGame) {
+            final long now = System.nanoTime();
+            return new ResidentGame(changedGame, version + 1, true, pending ? pendingSinceNanos : now, now, unwrittenMoves);
+        }
+
+        private ResidentGame changedTo(final Game changedGame, final GameMove move) {
+            final List<GameMove> moves = new ArrayList<GameMove>(unwrittenMoves.size() + 1);
+            moves.addAll(unwrittenMoves);
+            moves.add(move);
+            final long now = System.nanoTime();
+            return new ResidentGame(changedGame, version + 1, true, pending ? pendingSinceNanos : now, now, moves);
+        }
+
+        private ResidentGame written() {
+            return new ResidentGame(game, version, false, 0L, changedAtNanos, Collections.<GameMove> emptyList());
+        }
+
+        /**
+         * @return game to write to the database, carrying the moves played since it was last written.
+         */
+        private Game getGameToWrite() {
+            if (unwrittenMoves.isEmpty()) {
+                return game;
+            }
+            final Game gameToWrite = game.copy();
+            for (final GameMove move : unwrittenMoves) {
+                gameToWrite.addUnwrittenMove(move);
+            }
+            return gameToWrite;
+        }
+    }
+
+}
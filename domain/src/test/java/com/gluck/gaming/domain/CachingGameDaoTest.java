@@ -0,0 +1,233 @@
+package com.gluck.gaming.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.gluck.gaming.dao.GameDao;
+import com.gluck.gaming.dao.model.BitBoard;
+import com.gluck.gaming.dao.model.Game;
+import com.gluck.gaming.dao.model.GameHeader;
+
+/**
+ * Test class for {@link CachingGameDao}
+ *
+ * @author Vinay Semwal
+ */
+public class CachingGameDaoTest {
+
+    private static final String GAME_ID = "588f8fd9ee15e4304b647126";
+
+    private CountingGameDao databaseGameDao;
+
+    private CachingGameDao cachingGameDao;
+
+    /**
+     * set up test data.
+     */
+    @Before
+    public void setUp() {
+        databaseGameDao = new CountingGameDao();
+        databaseGameDao.games.put(GAME_ID, new Game(GAME_ID, "session", "NEW", null, "p1", "p2", new BitBoard(), null));
+        cachingGameDao = new CachingGameDao(databaseGameDao, 100, 60);
+    }
+
+    /**
+     * Test that repeated reads are served from the cache with independent copies of the game.
+     */
+    @Test
+    public void testReadThrough() {
+        final Game firstRead = cachingGameDao.findGameById(GAME_ID).get();
+        final Game secondRead = cachingGameDao.findGameById(GAME_ID).get();
+        assertEquals(1, databaseGameDao.findCount);
+        assertEquals(1, cachingGameDao.getHitCount());
+        assertEquals(1, cachingGameDao.getMissCount());
+        assertNotSame(firstRead, secondRead);
+
+        firstRead.setGameState("SUSPENDED");
+        assertEquals("NEW", cachingGameDao.findGameById(GAME_ID).get().getGameState());
+    }
+
+    /**
+     * Test that the cache is kept coherent with updates and deletes.
+     */
+    @Test
+    public void testCoherentWithWrites() {
+        final Game game = cachingGameDao.findGameById(GAME_ID).get();
+        game.setGameState("SUSPENDED");
+        cachingGameDao.updateGame(game);
+        assertEquals("SUSPENDED", cachingGameDao.findGameById(GAME_ID).get().getGameState());
+        assertEquals(1, databaseGameDao.findCount);
+
+        cachingGameDao.deleteGame(game);
+        assertFalse(cachingGameDao.findGameById(GAME_ID).isPresent());
+        assertEquals(2, databaseGameDao.findCount);
+    }
+
+    /**
+     * Test that a game is read again from the database after a turn could not be saved.
+     */
+    @Test
+    public void testInvalidatedOnFailedTurn() {
+        final Game game = cachingGameDao.findGameById(GAME_ID).get();
+        databaseGameDao.saveTurns = false;
+        assertFalse(cachingGameDao.saveTurn(game, 5, 0).isPresent());
+        cachingGameDao.findGameById(GAME_ID);
+        assertEquals(2, databaseGameDao.findCount);
+    }
+
+    /**
+     * Test that a game read from the database while a newer one is written through the cache does not replace the newer one in the cache.
+     */
+    @Test
+    public void testReadRacingWrite() {
+        databaseGameDao.afterFind = () -> {
+            databaseGameDao.afterFind = null;
+            final Game newerGame = databaseGameDao.games.get(GAME_ID).copy();
+            newerGame.setGameState("IN_PROGRESS");
+            cachingGameDao.updateGame(newerGame);
+        };
+        assertEquals("NEW", cachingGameDao.findGameById(GAME_ID).get().getGameState());
+        assertEquals("IN_PROGRESS", cachingGameDao.findGameById(GAME_ID).get().getGameState());
+        assertEquals(1, databaseGameDao.findCount);
+    }
+
+    /**
+     * Test that least recently used games are evicted once the cache is full.
+     */
+    @Test
+    public void testEviction() {
+        final CachingGameDao smallCache = new CachingGameDao(databaseGameDao, 16, 60);
+        for (int i = 0; i < 100; i++) {
+            final String id = String.format("%024x", i);
+            databaseGameDao.games.put(id, new Game(id, "session", "NEW", null, "p1", "p2", new BitBoard(), null));
+            smallCache.findGameById(id);
+        }
+        assertTrue(smallCache.getEvictionCount() > 0);
+        assertTrue(smallCache.getSize() <= 16);
+    }
+
+    /**
+     * {@link GameDao} stub counting the reads made to it.
+     */
+    private static class CountingGameDao implements GameDao {
+
+        private final Map<String, Game> games = new HashMap<String, Game>();
+
+        private int findCount;
+
+        private boolean saveTurns = true;
+
+        private Runnable afterFind;
+
+        @Override
+        public String createGame(final String firstPlayerName, final String secondPlayerName, final String sessionId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<String> createGames(final List<Game> gamesToCreate) {
+            return new ArrayList<String>();
+        }
+
+        @Override
+        public Optional<Game> findGameById(final String id) {
+            findCount++;
+            final Optional<Game> game = Optional.ofNullable(games.get(id)).map(Game::copy);
+            if (afterFind != null) {
+                afterFind.run();
+            }
+            return game;
+        }
+
+        @Override
+        public Optional<GameHeader> findGameHeaderById(final String id) {
+            findCount++;
+            return Optional.ofNullable(games.get(id)).map(Game::getHeader);
+        }
+
+        @Override
+        public Optional<Game> findGameByPlayers(final String firstPlayerName, final String secondPlayerName) {
+            return Optional.empty();
+        }
+
+        @Override
+        public List<GameHeader> findGamesByPlayer(final String playerName, final String gameState, final String afterGameId, final int limit) {
+            return new ArrayList<GameHeader>();
+        }
+
+        @Override
+        public void updateGame(final Game game) {
+            games.put(game.getGameId(), game.copy());
+        }
+
+        @Override
+        public Optional<GameHeader> updateGameState(final String id, final List<String> currentStates, final String targetState, final String sessionId) {
+            final Game game = games.get(id);
+            if (game == null || !currentStates.contains(game.getGameState())) {
+                return Optional.empty();
+            }
+            game.setGameState(targetState);
+            game.setSessionId(sessionId);
+            return Optional.of(game.getHeader());
+        }
+
+        @Override
+        public Optional<GameHeader> saveGameState(final Game game, final List<String> currentStates) {
+            final Game storedGame = games.get(game.getGameId());
+            if (storedGame == null || !currentStates.contains(storedGame.getGameState())) {
+                return Optional.empty();
+            }
+            games.put(game.getGameId(), game.copy());
+            return Optional.of(game.getHeader());
+        }
+
+        @Override
+        public Optional<GameHeader> saveIdleGameState(final Game game, final List<String> currentStates, final long idleSinceMillis) {
+            return saveGameState(game, currentStates);
+        }
+
+        @Override
+        public Map<String, Long> findLastUpdateTimes(final List<String> states) {
+            return new HashMap<String, Long>();
+        }
+
+        @Override
+        public void saveGames(final List<Game> gamesToSave) {
+            for (final Game game : gamesToSave) {
+                updateGame(game);
+            }
+        }
+
+        @Override
+        public Optional<Game> saveTurn(final Game game, final int row, final int column) {
+            return saveTurns ? Optional.of(game.copy()) : Optional.empty();
+        }
+
+        @Override
+        public Optional<Game> saveGameResult(final Game game) {
+            return saveTurns ? Optional.of(game.copy()) : Optional.empty();
+        }
+
+        @Override
+        public void deleteGame(final Game game) {
+            games.remove(game.getGameId());
+        }
+
+        @Override
+        public boolean deleteGame(final String id, final List<String> states) {
+            return games.containsKey(id) && states.contains(games.get(id).getGameState()) && games.remove(id) != null;
+        }
+    }
+
+}
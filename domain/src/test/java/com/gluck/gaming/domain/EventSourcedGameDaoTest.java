@@ -0,0 +1,158 @@
+package com.gluck.gaming.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.Test;
+
+import com.gluck.gaming.dao.model.BitBoard;
+import com.gluck.gaming.dao.model.Game;
+import com.gluck.gaming.dao.model.GameMove;
+import com.gluck.gaming.db.connection.MongoDbConnectionManager;
+
+/**
+ * Test class for {@link EventSourcedGameDao}
+ *
+ * @author Vinay Semwal
+ */
+public class EventSourcedGameDaoTest {
+
+    /**
+     * Test that the board is rebuilt from the snapshot and the moves played after it only.
+     */
+    @Test
+    public void testBoardFromSnapshotAndMoves() {
+        final BitBoard snapshotBoard = new BitBoard();
+        snapshotBoard.fillCell(5, 3, BitBoard.FIRST_PLAYER_DISC);
+        snapshotBoard.fillCell(4, 3, BitBoard.SECOND_PLAYER_DISC);
+        final Document gameDocument = new Document(
+            "snapshot",
+            new Document("firstPlayerDiscs", snapshotBoard.getFirstPlayerDiscs()).append("secondPlayerDiscs", snapshotBoard.getSecondPlayerDiscs()))
+                .append("moves", Arrays.asList(move(2, 3, BitBoard.SECOND_PLAYER_DISC), move(3, 3, BitBoard.FIRST_PLAYER_DISC), move(4, 0, 2)));
+
+        final BitBoard board = EventSourcedGameDao.getBoard(gameDocument);
+        assertEquals(4, board.getFilledCellCount());
+        assertEquals(3, board.getColumnHeight(3));
+        assertEquals(BitBoard.FIRST_PLAYER_DISC, board.getCell(3, 3));
+        assertEquals(BitBoard.SECOND_PLAYER_DISC, board.getCell(5, 0));
+    }
+
+    /**
+     * Test that the grid of a game stored without snapshots is used as the snapshot.
+     */
+    @Test
+    public void testBoardFromGrid() {
+        final BitBoard gridBoard = new BitBoard();
+        gridBoard.fillCell(5, 6, BitBoard.FIRST_PLAYER_DISC);
+        final Document gameDocument = new Document("grid", GameCodec.toGridList(gridBoard))
+            .append("moves", Arrays.asList(move(2, 6, BitBoard.SECOND_PLAYER_DISC)));
+
+        final BitBoard board = EventSourcedGameDao.getBoard(gameDocument);
+        assertEquals(BitBoard.FIRST_PLAYER_DISC, board.getCell(5, 6));
+        assertEquals(BitBoard.SECOND_PLAYER_DISC, board.getCell(4, 6));
+        assertEquals(new BitBoard(), EventSourcedGameDao.getBoard(new Document()));
+    }
+
+    /**
+     * Test that the turns of a game held in memory by a {@link WriteBehindGameDao} are appended to the move log when the game is written, in the order they
+     * were played and only once.
+     */
+    @Test
+    public void testWriteBehindMovesLogged() {
+        final StoringConnectionManager connectionManager = new StoringConnectionManager();
+        final EventSourcedGameDao eventSourcedGameDao = new EventSourcedGameDao(connectionManager, 8);
+        final WriteBehindGameDao writeBehindGameDao = new WriteBehindGameDao(eventSourcedGameDao, 60000, 10, 10, 60);
+        try {
+            final String gameId = writeBehindGameDao.createGame("p1", "p2", "session");
+            playTurn(writeBehindGameDao, gameId, "p1", 3, BitBoard.FIRST_PLAYER_DISC);
+            playTurn(writeBehindGameDao, gameId, "p2", 5, BitBoard.SECOND_PLAYER_DISC);
+            assertTrue(writeBehindGameDao.flush());
+            playTurn(writeBehindGameDao, gameId, "p1", 3, BitBoard.FIRST_PLAYER_DISC);
+            assertTrue(writeBehindGameDao.flush());
+
+            final List<GameMove> moves = eventSourcedGameDao.findMoves(gameId);
+            assertEquals(3, moves.size());
+            assertMove(moves.get(0), 1, 3, BitBoard.FIRST_PLAYER_DISC);
+            assertMove(moves.get(1), 2, 5, BitBoard.SECOND_PLAYER_DISC);
+            assertMove(moves.get(2), 3, 3, BitBoard.FIRST_PLAYER_DISC);
+            assertEquals(BitBoard.FIRST_PLAYER_DISC, eventSourcedGameDao.findGameById(gameId).get().getBoard().getCell(4, 3));
+        } finally {
+            writeBehindGameDao.shutdown();
+            connectionManager.getClient().close();
+        }
+    }
+
+    private static void playTurn(final WriteBehindGameDao gameDao, final String gameId, final String playerName, final int column, final int disc) {
+        final Game game = gameDao.findGameById(gameId).get();
+        final int row = BitBoard.ROWS - 1 - game.getBoard().getColumnHeight(column);
+        game.setLastTurnedPlayedBy(playerName);
+        game.setGameState("IN_PROGRESS");
+        game.getBoard().fillCell(row, column, disc);
+        assertTrue(gameDao.saveTurn(game, row, column).isPresent());
+    }
+
+    private static void assertMove(final GameMove move, final int sequence, final int column, final int disc) {
+        assertEquals(sequence, move.getSequence());
+        assertEquals(column, move.getColumn());
+        assertEquals(disc, move.getDisc());
+    }
+
+    private static Document move(final int sequence, final int column, final int disc) {
+        return new Document("n", sequence).append("c", column).append("p", disc);
+    }
+
+    /**
+     * {@link MongoDbConnectionManager} keeping the documents in memory, applying the operators used to create games and write them in batches. The client is
+     * created without connecting to a server.
+     */
+    private static class StoringConnectionManager extends MongoDbConnectionManager {
+
+        private final Map<String, Document> documents = new HashMap<String, Document>();
+
+        private StoringConnectionManager() {
+            super("connect4", "localhost", 27017);
+        }
+
+        @Override
+        public String createDocument(final String collectionName, final Document document) {
+            final ObjectId id = new ObjectId();
+            documents.put(id.toString(), document.append("_id", id));
+            return id.toString();
+        }
+
+        @Override
+        public Optional<Document> findDocumentById(final String collectionName, final String id, final Bson projection) {
+            return Optional.ofNullable(documents.get(id));
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public int applyUpdates(final String collectionName, final Map<String, Bson> updatesById) {
+            for (final Map.Entry<String, Bson> entry : updatesById.entrySet()) {
+                final Document document = documents.get(entry.getKey());
+                final Document update = (Document) entry.getValue();
+                document.putAll(update.get("$set", Document.class));
+                final Document addToSet = update.get("$addToSet", Document.class);
+                if (addToSet != null) {
+                    final List<Document> moves = (List<Document>) document.get("moves");
+                    for (final Document move : (List<Document>) addToSet.get("moves", Document.class).get("$each")) {
+                        if (!moves.contains(move)) {
+                            moves.add(move);
+                        }
+                    }
+                }
+            }
+            return updatesById.size();
+        }
+    }
+
+}
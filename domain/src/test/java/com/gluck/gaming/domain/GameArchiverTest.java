@@ -0,0 +1,46 @@
+package com.gluck.gaming.domain;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.Test;
+
+import com.mongodb.MongoClient;
+
+/**
+ * Test class for {@link GameArchiver}. No database is needed.
+ *
+ * @author Vinay Semwal
+ */
+public class GameArchiverTest {
+
+    /**
+     * Test that the games ended before the cutoff are selected, by their last change time or by their creation time for the games without one.
+     */
+    @Test
+    public void testArchivableFilter() {
+        final Date archiveBefore = new Date(1500000000000L);
+        final BsonDocument filter = GameArchiver.getArchivableFilter(archiveBefore).toBsonDocument(Document.class, MongoClient.getDefaultCodecRegistry());
+        final BsonDocument expected = BsonDocument.parse(
+            "{state: {$in: ['COMPLETED', 'DRAWN', 'ABANDONED']}, $or: [{lastUpdated: {$lt: {$date: 1500000000000}}}, "
+                + "{lastUpdated: {$exists: false}, _id: {$lt: {$oid: '" + new ObjectId(archiveBefore, 0, (short) 0, 0).toHexString() + "'}}}]}");
+        assertEquals(expected, filter);
+    }
+
+    /**
+     * Test that the archiver waits after a batch only as long as needed to stay within the maximum number of games per second.
+     */
+    @Test
+    public void testRateLimit() {
+        final GameArchiver gameArchiver = new GameArchiver(null, 0, 100, 1000);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(60), gameArchiver.getPauseNanos(100, TimeUnit.MILLISECONDS.toNanos(40)));
+        assertEquals(0, gameArchiver.getPauseNanos(100, TimeUnit.MILLISECONDS.toNanos(150)));
+        gameArchiver.shutdown();
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.gluck.gaming.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+import org.junit.Test;
+
+import com.gluck.gaming.dao.model.BitBoard;
+import com.gluck.gaming.dao.model.Game;
+import com.gluck.gaming.dao.model.GameClock;
+import com.mongodb.MongoClient;
+
+/**
+ * Test class for {@link GameCodec}
+ *
+ * @author Vinay Semwal
+ */
+public class GameCodecTest {
+
+    private final GameCodec gameCodec = new GameCodec();
+
+    /**
+     * Test that a game written by the codec is read back unchanged.
+     */
+    @Test
+    public void testRoundTrip() {
+        final BitBoard board = new BitBoard();
+        board.fillCell(5, 0, BitBoard.FIRST_PLAYER_DISC);
+        board.fillCell(5, 1, BitBoard.SECOND_PLAYER_DISC);
+        final Game game = gameCodec
+            .generateIdIfAbsentFromDocument(new Game(null, "session", "IN_PROGRESS", "p2", "p1", "p2", board, null, new GameClock(2000, 58000, 61000, 12345L)));
+        assertTrue(gameCodec.documentHasId(game));
+
+        final BsonDocument document = new BsonDocument();
+        gameCodec.encode(new BsonDocumentWriter(document), game, EncoderContext.builder().build());
+        assertEquals(2, document.getInt32("schemaVersion").getValue());
+        assertEquals(2, document.getInt32("moveCount").getValue());
+
+        final Game decodedGame = gameCodec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+        assertEquals(game.getGameId(), decodedGame.getGameId());
+        assertEquals("session", decodedGame.getSessionId());
+        assertEquals("IN_PROGRESS", decodedGame.getGameState());
+        assertEquals("p2", decodedGame.getLastTurnedPlayedBy());
+        assertEquals("p1", decodedGame.getFirstPlayer());
+        assertEquals("p2", decodedGame.getSecondplayer());
+        assertEquals(board, decodedGame.getBoard());
+        assertNull(decodedGame.getWinner());
+        assertEquals(2000, decodedGame.getClock().getIncrementMillis());
+        assertEquals(58000, decodedGame.getClock().getFirstPlayerRemainingMillis());
+        assertEquals(61000, decodedGame.getClock().getSecondPlayerRemainingMillis());
+        assertEquals(12345L, decodedGame.getClock().getTurnStartedMillis());
+        assertEquals(58000, GameCodec.toClock(GameCodec.toDocument(game.getClock())).getFirstPlayerRemainingMillis());
+    }
+
+    /**
+     * Test that a game stored with the original grid layout is read.
+     */
+    @Test
+    public void testDecodeOriginalLayout() {
+        final BitBoard board = new BitBoard();
+        board.fillCell(5, 6, BitBoard.SECOND_PLAYER_DISC);
+        final Document document = new Document("_id", new ObjectId()).append("firstPlayer", "p1").append("secondPlayer", "p2").append("state", "NEW")
+            .append("lastTurnPlayedBy", null).append("grid", GameCodec.toGridList(board));
+
+        final Game decodedGame = gameCodec.decode(
+            new BsonDocumentReader(document.toBsonDocument(BsonDocument.class, MongoClient.getDefaultCodecRegistry())),
+            DecoderContext.builder().build());
+        assertEquals(board, decodedGame.getBoard());
+        assertNull(decodedGame.getLastTurnedPlayedBy());
+        assertNull(decodedGame.getSessionId());
+        assertNull(decodedGame.getClock());
+    }
+
+    /**
+     * Test that the board is read from both the compact and the original layout.
+     */
+    @Test
+    public void testBoardLayouts() {
+        final BitBoard board = new BitBoard();
+        board.fillCell(5, 2, BitBoard.FIRST_PLAYER_DISC);
+        board.fillCell(4, 2, BitBoard.SECOND_PLAYER_DISC);
+
+        assertEquals(board, GameCodec.toBoard(GameCodec.appendBoard(new Document(), board)));
+        final Document compactDocument = new Document("schemaVersion", 2).append("firstPlayerDiscs", board.getFirstPlayerDiscs())
+            .append("secondPlayerDiscs", board.getSecondPlayerDiscs());
+        assertEquals(board, GameCodec.toBoard(compactDocument));
+
+        final Document originalDocument = new Document("grid", GameCodec.toGridList(board));
+        assertEquals(board, GameCodec.toBoard(originalDocument));
+    }
+
+}
@@ -0,0 +1,202 @@
+package com.gluck.gaming.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.gluck.gaming.dao.model.BitBoard;
+import com.gluck.gaming.dao.model.Game;
+import com.gluck.gaming.dao.model.GameClock;
+import com.gluck.gaming.dao.model.GameHeader;
+
+/**
+ * Test class for {@link InMemoryGameDao}
+ *
+ * @author Vinay Semwal
+ */
+public class InMemoryGameDaoTest {
+
+    private InMemoryGameDao gameDao;
+
+    private String gameId;
+
+    /**
+     * set up test data.
+     */
+    @Before
+    public void setUp() {
+        gameDao = new InMemoryGameDao();
+        gameId = gameDao.createGame("p1", "p2", "session");
+    }
+
+    /**
+     * Test creating, finding, updating and deleting a game.
+     */
+    @Test
+    public void testGameLifecycle() {
+        final Game game = gameDao.findGameById(gameId).get();
+        assertEquals("NEW", game.getGameState());
+        assertEquals("session", game.getSessionId());
+        assertEquals(gameId, gameDao.findGameByPlayers("p1", "p2").get().getGameId());
+        assertFalse(gameDao.findGameByPlayers("p2", "p1").isPresent());
+
+        game.setGameState("SUSPENDED");
+        gameDao.updateGame(game);
+        assertEquals("SUSPENDED", gameDao.findGameById(gameId).get().getGameState());
+
+        gameDao.deleteGame(game);
+        assertFalse(gameDao.findGameById(gameId).isPresent());
+        assertEquals(0, gameDao.getGameCount());
+    }
+
+    /**
+     * Test that a turn is saved only if the game was not changed after it was read.
+     */
+    @Test
+    public void testSaveTurn() {
+        final Game firstRead = gameDao.findGameById(gameId).get();
+        final Game secondRead = gameDao.findGameById(gameId).get();
+
+        firstRead.setLastTurnedPlayedBy("p1");
+        firstRead.setGameState("IN_PROGRESS");
+        firstRead.getBoard().fillCell(5, 0, BitBoard.FIRST_PLAYER_DISC);
+        final Optional<Game> savedGame = gameDao.saveTurn(firstRead, 5, 0);
+        assertTrue(savedGame.isPresent());
+        assertEquals(BitBoard.FIRST_PLAYER_DISC, savedGame.get().getBoard().getCell(5, 0));
+        assertEquals("IN_PROGRESS", gameDao.findGameById(gameId).get().getGameState());
+
+        secondRead.setLastTurnedPlayedBy("p1");
+        secondRead.getBoard().fillCell(5, 1, BitBoard.FIRST_PLAYER_DISC);
+        assertFalse(gameDao.saveTurn(secondRead, 5, 1).isPresent());
+        assertEquals(BitBoard.EMPTY_CELL, gameDao.findGameById(gameId).get().getBoard().getCell(5, 1));
+    }
+
+    /**
+     * Test that a turn validated against a session is not saved once the game has been resumed with a new session, and that a turn ending the session is
+     * saved.
+     */
+    @Test
+    public void testSaveTurnAfterNewSession() {
+        final Game staleRead = gameDao.findGameById(gameId).get();
+        gameDao.updateGameState(gameId, Arrays.asList("NEW"), "SUSPENDED", null);
+        gameDao.updateGameState(gameId, Arrays.asList("SUSPENDED"), "IN_PROGRESS", "session2");
+
+        staleRead.setLastTurnedPlayedBy("p1");
+        staleRead.getBoard().fillCell(5, 0, BitBoard.FIRST_PLAYER_DISC);
+        assertFalse(gameDao.saveTurn(staleRead, 5, 0).isPresent());
+
+        final Game game = gameDao.findGameById(gameId).get();
+        game.setLastTurnedPlayedBy("p1");
+        game.setSessionId(null);
+        game.getBoard().fillCell(5, 0, BitBoard.FIRST_PLAYER_DISC);
+        assertTrue(gameDao.saveTurn(game, 5, 0).isPresent());
+        assertNull(gameDao.findGameById(gameId).get().getSessionId());
+        assertNull(game.getStoredSessionId());
+    }
+
+    /**
+     * Test that a state change is saved only from the given states and if the clock of the game was not changed after it was read.
+     */
+    @Test
+    public void testSaveGameState() {
+        final Game game = gameDao.findGameById(gameId).get();
+        game.setClock(new GameClock(0, 1000, 1000, 1));
+        gameDao.updateGame(game);
+        final Game firstRead = gameDao.findGameById(gameId).get();
+        final Game secondRead = gameDao.findGameById(gameId).get();
+        final List<String> currentStates = Arrays.asList("NEW", "SUSPENDED");
+
+        firstRead.setGameState("SUSPENDED");
+        firstRead.setSessionId(null);
+        firstRead.setClock(new GameClock(0, 900, 1000, 2));
+        assertEquals("SUSPENDED", gameDao.saveGameState(firstRead, currentStates).get().getGameState());
+        assertEquals(900, gameDao.findGameById(gameId).get().getClock().getFirstPlayerRemainingMillis());
+
+        secondRead.setGameState("SUSPENDED");
+        assertFalse(gameDao.saveGameState(secondRead, currentStates).isPresent());
+
+        final Game thirdRead = gameDao.findGameById(gameId).get();
+        thirdRead.setGameState("IN_PROGRESS");
+        thirdRead.setSessionId("session2");
+        assertFalse(gameDao.saveGameState(thirdRead, Arrays.asList("NEW")).isPresent());
+        assertTrue(gameDao.saveGameState(thirdRead, currentStates).isPresent());
+        assertEquals("session2", gameDao.findGameById(gameId).get().getSessionId());
+        assertEquals(900, gameDao.findGameById(gameId).get().getClock().getFirstPlayerRemainingMillis());
+    }
+
+    /**
+     * Test that an idle state change is saved only if the game was not updated after the given time, and leaves the time of the last update as it is.
+     */
+    @Test
+    public void testSaveIdleGameState() {
+        final AtomicLong clock = new AtomicLong(1000);
+        final InMemoryGameDao timedGameDao = new InMemoryGameDao(clock::get);
+        final String idleGameId = timedGameDao.createGame("p1", "p2", "session");
+        final List<String> currentStates = Arrays.asList("NEW", "IN_PROGRESS");
+        clock.set(5000);
+
+        final Game game = timedGameDao.findGameById(idleGameId).get();
+        game.setGameState("SUSPENDED");
+        assertFalse(timedGameDao.saveIdleGameState(game, currentStates, 999).isPresent());
+        assertEquals("SUSPENDED", timedGameDao.saveIdleGameState(game, currentStates, 1000).get().getGameState());
+        assertEquals(Long.valueOf(1000), timedGameDao.findLastUpdateTimes(Arrays.asList("SUSPENDED")).get(idleGameId));
+        assertTrue(timedGameDao.findLastUpdateTimes(currentStates).isEmpty());
+    }
+
+    /**
+     * Test that the games of a player are paged latest first and filtered by state.
+     */
+    @Test
+    public void testFindGamesByPlayer() {
+        final String secondGameId = gameDao.createGame("p3", "p1", "session2");
+        final String thirdGameId = gameDao.createGame("p1", "p4", "session3");
+        gameDao.createGame("p3", "p4", "session4");
+        assertEquals(thirdGameId, gameDao.findGameByPlayers("p1", "p4").get().getGameId());
+
+        final List<GameHeader> firstPage = gameDao.findGamesByPlayer("p1", null, null, 2);
+        assertEquals(2, firstPage.size());
+        assertEquals(thirdGameId, firstPage.get(0).getGameId());
+        assertEquals(secondGameId, firstPage.get(1).getGameId());
+
+        final List<GameHeader> secondPage = gameDao.findGamesByPlayer("p1", null, secondGameId, 2);
+        assertEquals(1, secondPage.size());
+        assertEquals(gameId, secondPage.get(0).getGameId());
+        assertEquals("p2", secondPage.get(0).getSecondplayer());
+
+        final Game game = gameDao.findGameById(secondGameId).get();
+        game.setGameState("SUSPENDED");
+        gameDao.updateGame(game);
+        final List<GameHeader> suspendedGames = gameDao.findGamesByPlayer("p1", "SUSPENDED", null, 10);
+        assertEquals(1, suspendedGames.size());
+        assertEquals(secondGameId, suspendedGames.get(0).getGameId());
+    }
+
+    /**
+     * Test that the state of a game is changed and the game is deleted only from the given states.
+     */
+    @Test
+    public void testConditionalStateUpdateAndDelete() {
+        final List<String> terminalStates = Arrays.asList("ABANDONED", "COMPLETED", "DRAWN");
+        assertFalse(gameDao.deleteGame(gameId, terminalStates));
+        assertFalse(gameDao.updateGameState(gameId, Arrays.asList("IN_PROGRESS"), "COMPLETED", null).isPresent());
+
+        final GameHeader updatedGame = gameDao.updateGameState(gameId, Arrays.asList("NEW", "IN_PROGRESS"), "ABANDONED", null).get();
+        assertEquals("ABANDONED", updatedGame.getGameState());
+        assertNull(updatedGame.getSessionId());
+        assertEquals("ABANDONED", gameDao.findGameHeaderById(gameId).get().getGameState());
+
+        assertTrue(gameDao.deleteGame(gameId, terminalStates));
+        assertFalse(gameDao.findGameHeaderById(gameId).isPresent());
+        assertFalse(gameDao.updateGameState(gameId, terminalStates, "NEW", null).isPresent());
+    }
+
+}
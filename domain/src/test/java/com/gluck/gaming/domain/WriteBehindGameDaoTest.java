@@ -0,0 +1,160 @@
+package com.gluck.gaming.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.gluck.gaming.dao.model.BitBoard;
+import com.gluck.gaming.dao.model.Game;
+
+/**
+ * Test class for {@link WriteBehindGameDao}
+ *
+ * @author Vinay Semwal
+ */
+public class WriteBehindGameDaoTest {
+
+    private CountingGameDao databaseGameDao;
+
+    private WriteBehindGameDao writeBehindGameDao;
+
+    /**
+     * set up test data. The flush interval is long enough for the tests to control when the games are written.
+     */
+    @Before
+    public void setUp() {
+        databaseGameDao = new CountingGameDao();
+        writeBehindGameDao = new WriteBehindGameDao(databaseGameDao, 60000, 2, 3, 60);
+    }
+
+    /**
+     * Stop the flusher.
+     */
+    @After
+    public void cleanUp() {
+        writeBehindGameDao.shutdown();
+    }
+
+    /**
+     * Test that turns are served from memory and several turns of a game are written with a single update.
+     */
+    @Test
+    public void testTurnsCoalesced() {
+        final String gameId = writeBehindGameDao.createGame("p1", "p2", "session");
+        playTurn(gameId, "p1", 5, 0, BitBoard.FIRST_PLAYER_DISC);
+        playTurn(gameId, "p2", 4, 0, BitBoard.SECOND_PLAYER_DISC);
+
+        assertEquals(1, writeBehindGameDao.getPendingGameCount());
+        assertEquals(0, databaseGameDao.findGameById(gameId).get().getBoard().getFilledCellCount());
+        assertEquals(2, writeBehindGameDao.findGameById(gameId).get().getBoard().getFilledCellCount());
+
+        assertTrue(writeBehindGameDao.flush());
+        assertEquals(1, databaseGameDao.savedGameCount);
+        assertEquals(0, writeBehindGameDao.getPendingGameCount());
+        final Game storedGame = databaseGameDao.findGameById(gameId).get();
+        assertEquals("IN_PROGRESS", storedGame.getGameState());
+        assertEquals(BitBoard.SECOND_PLAYER_DISC, storedGame.getBoard().getCell(4, 0));
+    }
+
+    /**
+     * Test that a turn is not saved if the game was changed after it was read.
+     */
+    @Test
+    public void testConcurrentTurnRejected() {
+        final String gameId = writeBehindGameDao.createGame("p1", "p2", "session");
+        final Game staleGame = writeBehindGameDao.findGameById(gameId).get();
+        playTurn(gameId, "p1", 5, 0, BitBoard.FIRST_PLAYER_DISC);
+
+        staleGame.setLastTurnedPlayedBy("p2");
+        staleGame.getBoard().fillCell(5, 1, BitBoard.SECOND_PLAYER_DISC);
+        assertFalse(writeBehindGameDao.saveTurn(staleGame, 5, 1).isPresent());
+    }
+
+    /**
+     * Test that failed writes are kept pending and that the request threads are stopped once too many games are pending.
+     */
+    @Test
+    public void testBackpressure() {
+        databaseGameDao.failWrites = true;
+        for (int i = 0; i < 3; i++) {
+            playTurn(writeBehindGameDao.createGame("p1", "p2", "session"), "p1", 5, 0, BitBoard.FIRST_PLAYER_DISC);
+        }
+        assertEquals(3, writeBehindGameDao.getPendingGameCount());
+        final String gameId = writeBehindGameDao.createGame("p1", "p2", "session");
+        try {
+            playTurn(gameId, "p1", 5, 0, BitBoard.FIRST_PLAYER_DISC);
+            fail("Turn should not be accepted while the database doesn't accept writes");
+        } catch (final IllegalStateException e) {
+            assertTrue(writeBehindGameDao.getFailedFlushCount() > 0);
+        }
+
+        databaseGameDao.failWrites = false;
+        playTurn(gameId, "p1", 5, 0, BitBoard.FIRST_PLAYER_DISC);
+        assertEquals(2, writeBehindGameDao.getBackpressureFlushCount());
+        assertEquals(1, writeBehindGameDao.getPendingGameCount());
+    }
+
+    /**
+     * Test that the pending games are written on shutdown.
+     */
+    @Test
+    public void testFlushOnShutdown() {
+        final String gameId = writeBehindGameDao.createGame("p1", "p2", "session");
+        playTurn(gameId, "p1", 5, 3, BitBoard.FIRST_PLAYER_DISC);
+        writeBehindGameDao.shutdown();
+        assertEquals(0, writeBehindGameDao.getPendingGameCount());
+        assertEquals(BitBoard.FIRST_PLAYER_DISC, databaseGameDao.findGameById(gameId).get().getBoard().getCell(5, 3));
+    }
+
+    /**
+     * Test that a state change is applied in memory and that a game whose terminal state is not yet written can be deleted.
+     */
+    @Test
+    public void testStateUpdateAndDelete() {
+        final String gameId = writeBehindGameDao.createGame("p1", "p2", "session");
+        assertTrue(writeBehindGameDao.updateGameState(gameId, Arrays.asList("NEW", "IN_PROGRESS"), "ABANDONED", null).isPresent());
+        assertFalse(writeBehindGameDao.updateGameState(gameId, Arrays.asList("NEW", "IN_PROGRESS"), "SUSPENDED", null).isPresent());
+        assertEquals("NEW", databaseGameDao.findGameHeaderById(gameId).get().getGameState());
+        assertEquals("ABANDONED", writeBehindGameDao.findGameHeaderById(gameId).get().getGameState());
+
+        assertTrue(writeBehindGameDao.deleteGame(gameId, Arrays.asList("ABANDONED")));
+        assertFalse(writeBehindGameDao.findGameById(gameId).isPresent());
+        assertEquals(0, writeBehindGameDao.getPendingGameCount());
+    }
+
+    private void playTurn(final String gameId, final String playerName, final int row, final int column, final int disc) {
+        final Game game = writeBehindGameDao.findGameById(gameId).get();
+        game.setLastTurnedPlayedBy(playerName);
+        game.setGameState("IN_PROGRESS");
+        game.getBoard().fillCell(row, column, disc);
+        assertTrue(writeBehindGameDao.saveTurn(game, row, column).isPresent());
+    }
+
+    /**
+     * {@link InMemoryGameDao} counting the games written to it, which can be made to fail the writes.
+     */
+    private static class CountingGameDao extends InMemoryGameDao {
+
+        private int savedGameCount;
+
+        private boolean failWrites;
+
+        @Override
+        public void saveGames(final List<Game> gamesToSave) {
+            if (failWrites) {
+                throw new IllegalStateException("Database not available");
+            }
+            savedGameCount += gamesToSave.size();
+            super.saveGames(gamesToSave);
+        }
+    }
+
+}
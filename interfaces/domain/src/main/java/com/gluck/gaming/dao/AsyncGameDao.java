@@ -0,0 +1,104 @@
+package com.gluck.gaming.dao;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import com.gluck.gaming.dao.model.Game;
+import com.gluck.gaming.dao.model.GameHeader;
+
+/**
+ * Non blocking counterpart of {@link GameDao} for the operations on the request path of the games. Every API returns immediately with a
+ * {@link CompletableFuture} completed once the operation is done, or completed exceptionally if the operation failed. The operations have the same semantics
+ * as the {@link GameDao} APIs of the same name.
+ *
+ * @author Vinay Semwal
+ */
+public interface AsyncGameDao {
+
+    /**
+     * API to create new game.
+     *
+     * @param firstPlayerName Name of the first player to play the game
+     * @param secondPlayerName Name of the second player to play the game
+     * @param sessionId unique identifier of the current session of the newly created game
+     * @return future of the unique identifier of the game created
+     */
+    public CompletableFuture<String> createGame(String firstPlayerName, String secondPlayerName, String sessionId);
+
+    /**
+     * API to create a new game with all the fields set in the given game, like its clock, see {@link GameDao#createGames(List)}.
+     *
+     * @param game {@link Game} to create, having the player names and session id set.
+     * @return future of the unique identifier of the game created
+     */
+    public CompletableFuture<String> createGame(Game game);
+
+    /**
+     * API to retrieve a game using the game id.
+     *
+     * @param id unique identifier of the game to look up.
+     * @return future of an Optional {@link Game} POJO containing game information
+     */
+    public CompletableFuture<Optional<Game>> findGameById(String id);
+
+    /**
+     * API to retrieve the header of a game, that is all the fields of the game except the grid, using the game id.
+     *
+     * @param id unique identifier of the game to look up.
+     * @return future of an Optional {@link GameHeader} containing game information without the grid
+     */
+    public CompletableFuture<Optional<GameHeader>> findGameHeaderById(String id);
+
+    /**
+     * API to save a turn played in a Game, see {@link GameDao#saveTurn(Game, int, int)}.
+     *
+     * @param game {@link Game} with the turn applied to it.
+     * @param row row number of the grid cell filled in the turn.
+     * @param column column number of the grid cell filled in the turn.
+     * @return future of an Optional {@link Game} containing the saved game information, empty if the game was changed by another request and the turn was
+     *         not saved.
+     */
+    public CompletableFuture<Optional<Game>> saveTurn(Game game, int row, int column);
+
+    /**
+     * API to save the result of a Game decided without a turn, see {@link GameDao#saveGameResult(Game)}.
+     *
+     * @param game {@link Game} with the result applied to it.
+     * @return future of an Optional {@link Game} containing the saved game information, empty if the game was changed by another request and the result was
+     *         not saved.
+     */
+    public CompletableFuture<Optional<Game>> saveGameResult(Game game);
+
+    /**
+     * API to move a Game to another state, only if it is in one of the given states, see {@link GameDao#updateGameState(String, List, String, String)}.
+     *
+     * @param id unique identifier of the game to update.
+     * @param currentStates states the game must be in to be updated.
+     * @param targetState state to move the game to.
+     * @param sessionId session id to set, null to invalidate the current session of the game.
+     * @return future of an Optional {@link GameHeader} of the updated game, empty if the game doesn't exist or is not in one of the current states.
+     */
+    public CompletableFuture<Optional<GameHeader>> updateGameState(String id, List<String> currentStates, String targetState, String sessionId);
+
+    /**
+     * API to save the state, the session and the clock set on a Game, only if it is in one of the given states and its clock was not changed, see
+     * {@link GameDao#saveGameState(Game, List)}.
+     *
+     * @param game {@link Game} read from the database, with its new state, session and clock set on it.
+     * @param currentStates states the game must be in to be updated.
+     * @return future of an Optional {@link GameHeader} of the updated game, empty if the game doesn't exist, is not in one of the current states or its clock
+     *         was changed.
+     */
+    public CompletableFuture<Optional<GameHeader>> saveGameState(Game game, List<String> currentStates);
+
+    /**
+     * API to delete a Game only if it is in one of the given states.
+     *
+     * @param id unique identifier of the game to delete.
+     * @param states states the game must be in to be deleted.
+     * @return future of true if the game was deleted, false if it doesn't exist or is not in one of the states.
+     */
+    public CompletableFuture<Boolean> deleteGame(String id, List<String> states);
+
+}
@@ -1,8 +1,11 @@
 package com.gluck.gaming.dao;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import com.gluck.gaming.dao.model.Game;
+import com.gluck.gaming.dao.model.GameHeader;
 
 /**
  * Interface to perform CRUD operations on Game.
@@ -21,6 +24,14 @@ public interface GameDao {
      */
     public String createGame(String firstPlayerName, String secondPlayerName, String sessionId);
 
+    /**
+     * API to create multiple new games with a single database call.
+     *
+     * @param games list of {@link Game} to create, having the player names and session id set.
+     * @return unique identifiers of the games created, in the same order as the games.
+     */
+    public List<String> createGames(List<Game> games);
+
     /**
      * API to retrieve a game using the game id.
      *
@@ -30,7 +41,16 @@ public interface GameDao {
     public Optional<Game> findGameById(String id);
 
     /**
-     * API to retrieve a game by name of the players playing the game.
+     * API to retrieve the header of a game, that is all the fields of the game except the grid, using the game id. Cheaper than {@link #findGameById(String)}
+     * for the operations that don't need the grid.
+     *
+     * @param id unique identifier of the game to look up.
+     * @return an Optional {@link GameHeader} containing game information without the grid
+     */
+    public Optional<GameHeader> findGameHeaderById(String id);
+
+    /**
+     * API to retrieve the latest game created for two players.
      *
      * @param firstPlayerName Name of the first player to play the game
      * @param secondPlayerName Name of the second player to play the game
@@ -38,6 +58,18 @@ public interface GameDao {
      */
     public Optional<Game> findGameByPlayers(String firstPlayerName, String secondPlayerName);
 
+    /**
+     * API to retrieve one page of the games of a player, latest created game first. The next page is retrieved by passing the id of the last game of the
+     * previous page as afterGameId.
+     *
+     * @param playerName name of the player playing the games, either as the first or the second player
+     * @param gameState state of the games to retrieve, null to retrieve games in any state
+     * @param afterGameId unique identifier of the game after which the page starts, null to retrieve the first page
+     * @param limit maximum number of games to retrieve
+     * @return list of {@link GameHeader} of the games, without their grid.
+     */
+    public List<GameHeader> findGamesByPlayer(String playerName, String gameState, String afterGameId, int limit);
+
     /**
      * API to update a Game.
      *
@@ -45,6 +77,81 @@ public interface GameDao {
      */
     public void updateGame(Game game);
 
+    /**
+     * API to move a Game to another state, only if it is in one of the given states. The state check and the update are done atomically, in a single database
+     * call.
+     *
+     * @param id unique identifier of the game to update.
+     * @param currentStates states the game must be in to be updated.
+     * @param targetState state to move the game to.
+     * @param sessionId session id to set, null to invalidate the current session of the game.
+     * @return an Optional {@link GameHeader} of the updated game, empty if the game doesn't exist or is not in one of the current states.
+     */
+    public Optional<GameHeader> updateGameState(String id, List<String> currentStates, String targetState, String sessionId);
+
+    /**
+     * API to save the state, the session and the clock set on a Game, only if the game is in one of the given states and, for a timed game, its clock has not
+     * been changed since the game was read. The checks and the update are done atomically, so that a state change made by another request in between, like
+     * abandoning the game, is never overwritten.
+     *
+     * @param game {@link Game} read from the database, with its new state, session and clock set on it.
+     * @param currentStates states the game must be in to be updated.
+     * @return an Optional {@link GameHeader} of the updated game, empty if the game doesn't exist, is not in one of the current states or its clock was
+     *         changed.
+     */
+    public Optional<GameHeader> saveGameState(Game game, List<String> currentStates);
+
+    /**
+     * API to save the state, the session and the clock set on a Game left idle by its players, with the conditions of {@link #saveGameState} and only if the
+     * game has not been updated after the given time, so that a game played through another application instance is not taken as idle. The time of the last
+     * update of the game is not changed, the game staying idle since the last change made by its players.
+     *
+     * @param game {@link Game} read from the database, with its new state, session and clock set on it.
+     * @param currentStates states the game must be in to be updated.
+     * @param idleSinceMillis time in milliseconds since the epoch the game must have been last updated at the latest.
+     * @return an Optional {@link GameHeader} of the updated game, empty if the game doesn't exist, is not in one of the current states, its clock was changed
+     *         or it was updated after the given time.
+     */
+    public Optional<GameHeader> saveIdleGameState(Game game, List<String> currentStates, long idleSinceMillis);
+
+    /**
+     * API to find the time of the last update of the Games in the given states, for example to track the idle games after a restart.
+     *
+     * @param states states of the games to find.
+     * @return time in milliseconds since the epoch of the last update of each game, by game id.
+     */
+    public Map<String, Long> findLastUpdateTimes(List<String> states);
+
+    /**
+     * API to write the current state of multiple games with a single database call. Every mutable field of the games is written, whether it has been changed
+     * since the game was read or not, and no condition is checked before writing. The storages keeping the move log of the games append the
+     * {@link Game#getUnwrittenMoves() unwritten moves} recorded on them.
+     *
+     * @param games list of {@link Game} to write.
+     */
+    public void saveGames(List<Game> games);
+
+    /**
+     * API to save a turn played in a Game. The turn is saved only if no other turn has been saved in the game since it was read, the game is still in a
+     * playable state, its session is still the one it was read with, the same player didn't play the previous turn and the grid cell is still unfilled. The
+     * checks and the update are done atomically so that concurrent turns in the same game cannot overwrite each other.
+     *
+     * @param game {@link Game} with the turn applied to it.
+     * @param row row number of the grid cell filled in the turn.
+     * @param column column number of the grid cell filled in the turn.
+     * @return an Optional {@link Game} containing the saved game information, empty if the game was changed by another request and the turn was not saved.
+     */
+    public Optional<Game> saveTurn(Game game, int row, int column);
+
+    /**
+     * API to save the result of a Game decided without a turn, like a player running out of time. The game is saved only if no turn has been saved in it
+     * since it was read and it is still in a playable state. The checks and the update are done atomically, in a single database call.
+     *
+     * @param game {@link Game} with the result applied to it.
+     * @return an Optional {@link Game} containing the saved game information, empty if the game was changed by another request and the result was not saved.
+     */
+    public Optional<Game> saveGameResult(Game game);
+
     /**
      * API to delete a Game.
      *
@@ -52,4 +159,13 @@ public interface GameDao {
      */
     public void deleteGame(Game game);
 
+    /**
+     * API to delete a Game only if it is in one of the given states. The state check and the deletion are done atomically, in a single database call.
+     *
+     * @param id unique identifier of the game to delete.
+     * @param states states the game must be in to be deleted.
+     * @return true if the game was deleted, false if it doesn't exist or is not in one of the states.
+     */
+    public boolean deleteGame(String id, List<String> states);
+
 }
@@ -0,0 +1,252 @@
+package com.gluck.gaming.dao.model;
+
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Primitive representation of the connect4 grid. The discs of each player are held in a {@code long} bit mask and the number of filled cells of every column
+ * is held in a byte array, so that no boxed or two dimensional structure needs to be created while a game is being played.<br>
+ * The masks are laid out column by column, each column taking {@link #COLUMN_STRIDE} bits with the bottom most row in the lowest bit. The extra bit on top of
+ * every column is always 0 and keeps the bits of one column from running into the next one.<br>
+ * Rows are numbered the same way as in the rest of the application, starting from 0 for the top most row of the grid.
+ *
+ * @author Vinay Semwal
+ */
+public class BitBoard {
+
+    /**
+     * Number of rows in the grid.
+     */
+    public static final int ROWS = 6;
+
+    /**
+     * Number of columns in the grid.
+     */
+    public static final int COLUMNS = 7;
+
+    /**
+     * Number of bits used by a single column in the player masks.
+     */
+    public static final int COLUMN_STRIDE = ROWS + 1;
+
+    /**
+     * Value of a grid cell that is not filled.
+     */
+    public static final int EMPTY_CELL = 0;
+
+    /**
+     * Value of a grid cell filled by the first player.
+     */
+    public static final int FIRST_PLAYER_DISC = 1;
+
+    /**
+     * Value of a grid cell filled by the second player.
+     */
+    public static final int SECOND_PLAYER_DISC = 2;
+
+    /**
+     * Number of discs of a player to be connected in a line to win the game.
+     */
+    public static final int WINNING_LINE_LENGTH = 4;
+
+    private static final long FULL_BOARD_MASK = fullBoardMask();
+
+    /**
+     * Shifts between neighbouring cells of a line: vertical, horizontal, diagonal rising to the left and diagonal rising to the right.
+     */
+    private static final int[] LINE_DIRECTION_SHIFTS = { 1, COLUMN_STRIDE, COLUMN_STRIDE - 1, COLUMN_STRIDE + 1 };
+
+    private long firstPlayerDiscs;
+
+    private long secondPlayerDiscs;
+
+    private final byte[] columnHeights;
+
+    /**
+     * Creates an empty board.
+     */
+    public BitBoard() {
+        columnHeights = new byte[COLUMNS];
+    }
+
+    /**
+     * @param firstPlayerDiscs bit mask of the cells filled by the first player
+     * @param secondPlayerDiscs bit mask of the cells filled by the second player
+     */
+    public BitBoard(final long firstPlayerDiscs, final long secondPlayerDiscs) {
+        this.firstPlayerDiscs = firstPlayerDiscs;
+        this.secondPlayerDiscs = secondPlayerDiscs;
+        columnHeights = new byte[COLUMNS];
+        final long filledCells = firstPlayerDiscs | secondPlayerDiscs;
+        for (int column = 0; column < COLUMNS; column++) {
+            columnHeights[column] = (byte) Long.bitCount(filledCells & columnMask(column));
+        }
+    }
+
+    /**
+     * @param row row number of the grid cell, 0 being the top most row
+     * @param column column number of the grid cell, 0 being the left most column
+     * @return bit mask having only the bit of the given grid cell set.
+     */
+    public static long cellMask(final int row, final int column) {
+        return 1L << (column * COLUMN_STRIDE + (ROWS - 1 - row));
+    }
+
+    /**
+     * @param column column number, 0 being the left most column
+     * @return bit mask having all the playable bits of the given column set.
+     */
+    public static long columnMask(final int column) {
+        return ((1L << ROWS) - 1) << (column * COLUMN_STRIDE);
+    }
+
+    /**
+     * Checks if the discs of a player have a line of {@link #WINNING_LINE_LENGTH} connected cells. Every direction is checked with two shift and mask
+     * operations over the whole mask, so the cost does not depend on the number of discs on the board. The always empty top bit of each column makes sure that
+     * horizontal and diagonal lines do not wrap from one column into the next.
+     *
+     * @param discs bit mask of the discs of a single player
+     * @return true if there are four connected discs in the mask.
+     */
+    public static boolean hasConnectedFour(final long discs) {
+        for (final int shift : LINE_DIRECTION_SHIFTS) {
+            final long pairs = discs & (discs >>> shift);
+            if ((pairs & (pairs >>> (2 * shift))) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param disc {@link #FIRST_PLAYER_DISC} or {@link #SECOND_PLAYER_DISC}
+     * @return true if the player owning the disc has four connected discs on the board.
+     */
+    public boolean hasConnectedFour(final int disc) {
+        return hasConnectedFour(disc == FIRST_PLAYER_DISC ? firstPlayerDiscs : secondPlayerDiscs);
+    }
+
+    /**
+     * @return true if all the grid cells are filled.
+     */
+    public boolean isFull() {
+        return (firstPlayerDiscs | secondPlayerDiscs) == FULL_BOARD_MASK;
+    }
+
+    /**
+     * @param row row number of the grid cell, 0 being the top most row
+     * @param column column number of the grid cell, 0 being the left most column
+     * @return {@link #EMPTY_CELL}, {@link #FIRST_PLAYER_DISC} or {@link #SECOND_PLAYER_DISC}
+     */
+    public int getCell(final int row, final int column) {
+        final long mask = cellMask(row, column);
+        if ((firstPlayerDiscs & mask) != 0) {
+            return FIRST_PLAYER_DISC;
+        }
+        if ((secondPlayerDiscs & mask) != 0) {
+            return SECOND_PLAYER_DISC;
+        }
+        return EMPTY_CELL;
+    }
+
+    /**
+     * Fills a grid cell with the disc of a player. The caller is responsible for checking that the cell can be filled.
+     *
+     * @param row row number of the grid cell, 0 being the top most row
+     * @param column column number of the grid cell, 0 being the left most column
+     * @param disc {@link #FIRST_PLAYER_DISC} or {@link #SECOND_PLAYER_DISC}
+     */
+    public void fillCell(final int row, final int column, final int disc) {
+        final long mask = cellMask(row, column);
+        if (disc == FIRST_PLAYER_DISC) {
+            firstPlayerDiscs |= mask;
+        } else if (disc == SECOND_PLAYER_DISC) {
+            secondPlayerDiscs |= mask;
+        } else {
+            throw new IllegalArgumentException("Invalid disc value : " + disc);
+        }
+        columnHeights[column] = (byte) Math.max(columnHeights[column], ROWS - row);
+    }
+
+    /**
+     * @param column column number, 0 being the left most column
+     * @return number of filled cells in the column.
+     */
+    public int getColumnHeight(final int column) {
+        return columnHeights[column];
+    }
+
+    /**
+     * @return total number of filled cells in the grid.
+     */
+    public int getFilledCellCount() {
+        return Long.bitCount(firstPlayerDiscs | secondPlayerDiscs);
+    }
+
+    /**
+     * @return the firstPlayerDiscs
+     */
+    public long getFirstPlayerDiscs() {
+        return firstPlayerDiscs;
+    }
+
+    /**
+     * @return the secondPlayerDiscs
+     */
+    public long getSecondPlayerDiscs() {
+        return secondPlayerDiscs;
+    }
+
+    /**
+     * Builds the two dimensional view of the grid. Meant to be used only when the grid has to be exposed outside of the application.
+     *
+     * @return array of size [6][7] with the value of every grid cell.
+     */
+    public int[][] toGridArray() {
+        final int[][] grid = new int[ROWS][COLUMNS];
+        for (int row = 0; row < ROWS; row++) {
+            for (int column = 0; column < COLUMNS; column++) {
+                grid[row][column] = getCell(row, column);
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * @return independent copy of the board.
+     */
+    public BitBoard copy() {
+        return new BitBoard(firstPlayerDiscs, secondPlayerDiscs);
+    }
+
+    private static long fullBoardMask() {
+        long mask = 0L;
+        for (int column = 0; column < COLUMNS; column++) {
+            mask |= columnMask(column);
+        }
+        return mask;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof BitBoard)) {
+            return false;
+        }
+        final BitBoard other = (BitBoard) obj;
+        return firstPlayerDiscs == other.firstPlayerDiscs && secondPlayerDiscs == other.secondPlayerDiscs;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(firstPlayerDiscs) + Long.hashCode(secondPlayerDiscs);
+    }
+
+    @Override
+    public String toString() {
+        return ReflectionToStringBuilder.toString(this, ToStringStyle.MULTI_LINE_STYLE);
+    }
+
+}
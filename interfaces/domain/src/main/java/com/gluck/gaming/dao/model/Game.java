@@ -1,15 +1,58 @@
 package com.gluck.gaming.dao.model;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
 /**
- * Data class containing the domain Game document data stored in the database.
- * 
+ * Data class containing the domain Game document data stored in the database.<br>
+ * The fields changed through the setters after the object has been created are tracked, so that only the changed fields need to be written back to the
+ * database.
+ *
  * @author Vinay Semwal
  */
 public class Game {
 
+    /**
+     * Fields of a Game that can be changed after it has been created.
+     */
+    public enum Field {
+        /**
+         * Current session id.
+         */
+        SESSION_ID,
+
+        /**
+         * Current game state.
+         */
+        GAME_STATE,
+
+        /**
+         * Name of the player who played the last turn.
+         */
+        LAST_TURN_PLAYED_BY,
+
+        /**
+         * Game grid.
+         */
+        BOARD,
+
+        /**
+         * Name of the player who won the game.
+         */
+        WINNER,
+
+        /**
+         * Clock of a timed game.
+         */
+        CLOCK
+    }
+
     private String gameId;
 
     private String sessionId;
@@ -22,7 +65,19 @@ public class Game {
 
     private String secondplayer;
 
-    private Integer[][] grid;
+    private BitBoard board;
+
+    private String winner;
+
+    private GameClock clock;
+
+    private String storedSessionId;
+
+    private GameClock storedClock;
+
+    private final Set<Field> changedFields = EnumSet.noneOf(Field.class);
+
+    private final List<GameMove> unwrittenMoves = new ArrayList<GameMove>();
 
     /**
      * @param gameId unique identifier of the Game
@@ -31,7 +86,8 @@ public class Game {
      * @param lastTurnedPlayedBy name of player who player the last turn
      * @param firstPlayer first player name
      * @param secondplayer second player name
-     * @param grid two dimensional array representing the game grid
+     * @param board {@link BitBoard} representing the game grid
+     * @param winner name of the player who won the game. Its null unless the game is COMPLETED with a winner
      */
     public Game(
         final String gameId,
@@ -40,7 +96,32 @@ public class Game {
         final String lastTurnedPlayedBy,
         final String firstPlayer,
         final String secondplayer,
-        final Integer[][] grid) {
+        final BitBoard board,
+        final String winner) {
+        this(gameId, sessionId, gameState, lastTurnedPlayedBy, firstPlayer, secondplayer, board, winner, null);
+    }
+
+    /**
+     * @param gameId unique identifier of the Game
+     * @param sessionId current session Id. Its null if Game is SUSPENDED,COMPLETED,DRAWN or ABANDONED
+     * @param gameState current game state
+     * @param lastTurnedPlayedBy name of player who player the last turn
+     * @param firstPlayer first player name
+     * @param secondplayer second player name
+     * @param board {@link BitBoard} representing the game grid
+     * @param winner name of the player who won the game. Its null unless the game is COMPLETED with a winner
+     * @param clock {@link GameClock} of the game. Its null if the game is not timed
+     */
+    public Game(
+        final String gameId,
+        final String sessionId,
+        final String gameState,
+        final String lastTurnedPlayedBy,
+        final String firstPlayer,
+        final String secondplayer,
+        final BitBoard board,
+        final String winner,
+        final GameClock clock) {
         super();
         this.gameId = gameId;
         this.sessionId = sessionId;
@@ -48,7 +129,11 @@ public class Game {
         this.lastTurnedPlayedBy = lastTurnedPlayedBy;
         this.firstPlayer = firstPlayer;
         this.secondplayer = secondplayer;
-        this.grid = grid;
+        this.board = board;
+        this.winner = winner;
+        this.clock = clock;
+        this.storedSessionId = sessionId;
+        this.storedClock = clock;
     }
 
     /**
@@ -65,6 +150,20 @@ public class Game {
         return sessionId;
     }
 
+    /**
+     * @return session id of the game when it was read or last saved, which a turn validated against that session must still find stored to be saved.
+     */
+    public String getStoredSessionId() {
+        return storedSessionId;
+    }
+
+    /**
+     * @return clock of the game when it was read or last saved, which a state change computed from that clock must still find stored to be saved.
+     */
+    public GameClock getStoredClock() {
+        return storedClock;
+    }
+
     /**
      * @return the gameState
      */
@@ -94,10 +193,24 @@ public class Game {
     }
 
     /**
-     * @return the grid
+     * @return the board
      */
-    public Integer[][] getGrid() {
-        return grid;
+    public BitBoard getBoard() {
+        return board;
+    }
+
+    /**
+     * @return the winner
+     */
+    public String getWinner() {
+        return winner;
+    }
+
+    /**
+     * @return the clock, null if the game is not timed
+     */
+    public GameClock getClock() {
+        return clock;
     }
 
     /**
@@ -112,6 +225,7 @@ public class Game {
      */
     public void setSessionId(final String sessionId) {
         this.sessionId = sessionId;
+        changedFields.add(Field.SESSION_ID);
     }
 
     /**
@@ -119,6 +233,7 @@ public class Game {
      */
     public void setGameState(final String gameState) {
         this.gameState = gameState;
+        changedFields.add(Field.GAME_STATE);
     }
 
     /**
@@ -126,6 +241,7 @@ public class Game {
      */
     public void setLastTurnedPlayedBy(final String lastTurnedPlayedBy) {
         this.lastTurnedPlayedBy = lastTurnedPlayedBy;
+        changedFields.add(Field.LAST_TURN_PLAYED_BY);
     }
 
     /**
@@ -143,10 +259,75 @@ public class Game {
     }
 
     /**
-     * @param grid the grid to set
+     * @param board the board to set
+     */
+    public void setBoard(final BitBoard board) {
+        this.board = board;
+        changedFields.add(Field.BOARD);
+    }
+
+    /**
+     * @param winner the winner to set
+     */
+    public void setWinner(final String winner) {
+        this.winner = winner;
+        changedFields.add(Field.WINNER);
+    }
+
+    /**
+     * @param clock the clock to set
+     */
+    public void setClock(final GameClock clock) {
+        this.clock = clock;
+        changedFields.add(Field.CLOCK);
+    }
+
+    /**
+     * @return {@link GameHeader} view of the game.
+     */
+    public GameHeader getHeader() {
+        return new GameHeader(gameId, sessionId, gameState, lastTurnedPlayedBy, firstPlayer, secondplayer, winner);
+    }
+
+    /**
+     * @return independent copy of the game, with no fields marked as changed and no unwritten moves.
+     */
+    public Game copy() {
+        return new Game(gameId, sessionId, gameState, lastTurnedPlayedBy, firstPlayer, secondplayer, board.copy(), winner, clock);
+    }
+
+    /**
+     * @return fields changed since the game was created or since {@link #clearChangedFields()} was last called.
+     */
+    public Set<Field> getChangedFields() {
+        return Collections.unmodifiableSet(changedFields);
+    }
+
+    /**
+     * Records a move already applied to the board but not written to the database yet, so that the storages keeping the move log of the games can append it
+     * when the game is written.
+     *
+     * @param move {@link GameMove} to record, after the moves already recorded.
+     */
+    public void addUnwrittenMove(final GameMove move) {
+        unwrittenMoves.add(move);
+    }
+
+    /**
+     * @return moves recorded with {@link #addUnwrittenMove(GameMove)} since the changes were last saved, in the order they were played.
+     */
+    public List<GameMove> getUnwrittenMoves() {
+        return Collections.unmodifiableList(unwrittenMoves);
+    }
+
+    /**
+     * Marks all the fields as unchanged and forgets the unwritten moves. To be called once the changes have been saved.
      */
-    public void setGrid(final Integer[][] grid) {
-        this.grid = grid;
+    public void clearChangedFields() {
+        changedFields.clear();
+        unwrittenMoves.clear();
+        storedSessionId = sessionId;
+        storedClock = clock;
     }
 
     @Override
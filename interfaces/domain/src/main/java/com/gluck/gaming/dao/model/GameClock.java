@@ -0,0 +1,68 @@
+package com.gluck.gaming.dao.model;
+
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Immutable data class containing the chess clock of a timed Game. Only the clock of the player to move runs; its time left is the time stored for the player
+ * minus the time elapsed since the turn started. The player who played a turn gets the increment added to the time left.
+ *
+ * @author Vinay Semwal
+ */
+public class GameClock {
+
+    private final long incrementMillis;
+
+    private final long firstPlayerRemainingMillis;
+
+    private final long secondPlayerRemainingMillis;
+
+    private final long turnStartedMillis;
+
+    /**
+     * @param incrementMillis time added to the clock of a player after each turn
+     * @param firstPlayerRemainingMillis time left to the first player when the current turn started
+     * @param secondPlayerRemainingMillis time left to the second player when the current turn started
+     * @param turnStartedMillis time at which the clock of the player to move started, in milliseconds since the epoch
+     */
+    public GameClock(final long incrementMillis, final long firstPlayerRemainingMillis, final long secondPlayerRemainingMillis, final long turnStartedMillis) {
+        this.incrementMillis = incrementMillis;
+        this.firstPlayerRemainingMillis = firstPlayerRemainingMillis;
+        this.secondPlayerRemainingMillis = secondPlayerRemainingMillis;
+        this.turnStartedMillis = turnStartedMillis;
+    }
+
+    /**
+     * @return the incrementMillis
+     */
+    public long getIncrementMillis() {
+        return incrementMillis;
+    }
+
+    /**
+     * @return the firstPlayerRemainingMillis
+     */
+    public long getFirstPlayerRemainingMillis() {
+        return firstPlayerRemainingMillis;
+    }
+
+    /**
+     * @return the secondPlayerRemainingMillis
+     */
+    public long getSecondPlayerRemainingMillis() {
+        return secondPlayerRemainingMillis;
+    }
+
+    /**
+     * @return the turnStartedMillis
+     */
+    public long getTurnStartedMillis() {
+        return turnStartedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return ReflectionToStringBuilder.toString(this, ToStringStyle.MULTI_LINE_STYLE);
+    }
+
+}
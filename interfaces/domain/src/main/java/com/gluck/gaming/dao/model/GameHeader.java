@@ -0,0 +1,107 @@
+package com.gluck.gaming.dao.model;
+
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Read only view of a Game without its grid, for the reads that don't need the grid. Only the fields of the view are read from the database.
+ *
+ * @author Vinay Semwal
+ */
+public class GameHeader {
+
+    private final String gameId;
+
+    private final String sessionId;
+
+    private final String gameState;
+
+    private final String lastTurnedPlayedBy;
+
+    private final String firstPlayer;
+
+    private final String secondplayer;
+
+    private final String winner;
+
+    /**
+     * @param gameId unique identifier of the game
+     * @param sessionId current session id of the game
+     * @param gameState current state of the game
+     * @param lastTurnedPlayedBy name of the player who played the last turn
+     * @param firstPlayer name of the first player
+     * @param secondplayer name of the second player
+     * @param winner name of the player who won the game, null if the game has no winner
+     */
+    public GameHeader(
+        final String gameId,
+        final String sessionId,
+        final String gameState,
+        final String lastTurnedPlayedBy,
+        final String firstPlayer,
+        final String secondplayer,
+        final String winner) {
+        this.gameId = gameId;
+        this.sessionId = sessionId;
+        this.gameState = gameState;
+        this.lastTurnedPlayedBy = lastTurnedPlayedBy;
+        this.firstPlayer = firstPlayer;
+        this.secondplayer = secondplayer;
+        this.winner = winner;
+    }
+
+    /**
+     * @return the gameId
+     */
+    public String getGameId() {
+        return gameId;
+    }
+
+    /**
+     * @return the sessionId
+     */
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * @return the gameState
+     */
+    public String getGameState() {
+        return gameState;
+    }
+
+    /**
+     * @return the lastTurnedPlayedBy
+     */
+    public String getLastTurnedPlayedBy() {
+        return lastTurnedPlayedBy;
+    }
+
+    /**
+     * @return the firstPlayer
+     */
+    public String getFirstPlayer() {
+        return firstPlayer;
+    }
+
+    /**
+     * @return the secondplayer
+     */
+    public String getSecondplayer() {
+        return secondplayer;
+    }
+
+    /**
+     * @return the winner
+     */
+    public String getWinner() {
+        return winner;
+    }
+
+    @Override
+    public String toString() {
+        return ReflectionToStringBuilder.toString(this, ToStringStyle.MULTI_LINE_STYLE);
+    }
+
+}
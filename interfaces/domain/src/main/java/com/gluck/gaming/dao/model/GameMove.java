@@ -0,0 +1,57 @@
+package com.gluck.gaming.dao.model;
+
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Data class containing a single move played in a Game. Since a disc always lands on the lowest unfilled cell of a column, the column is enough to replay the
+ * move.
+ *
+ * @author Vinay Semwal
+ */
+public class GameMove {
+
+    private final int sequence;
+
+    private final int column;
+
+    private final int disc;
+
+    /**
+     * @param sequence number of the move in the game, starting from 1 for the first move
+     * @param column column number in which the disc was dropped, 0 being the left most column
+     * @param disc {@link BitBoard#FIRST_PLAYER_DISC} or {@link BitBoard#SECOND_PLAYER_DISC}
+     */
+    public GameMove(final int sequence, final int column, final int disc) {
+        this.sequence = sequence;
+        this.column = column;
+        this.disc = disc;
+    }
+
+    /**
+     * @return the sequence
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return the column
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * @return the disc
+     */
+    public int getDisc() {
+        return disc;
+    }
+
+    @Override
+    public String toString() {
+        return ReflectionToStringBuilder.toString(this, ToStringStyle.MULTI_LINE_STYLE);
+    }
+
+}
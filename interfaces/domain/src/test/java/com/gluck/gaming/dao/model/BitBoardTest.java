@@ -0,0 +1,134 @@
+package com.gluck.gaming.dao.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link BitBoard}
+ *
+ * @author Vinay Semwal
+ */
+public class BitBoardTest {
+
+    /**
+     * Test filling grid cells and reading them back.
+     */
+    @Test
+    public void testFillCell() {
+        final BitBoard board = new BitBoard();
+        board.fillCell(5, 1, BitBoard.FIRST_PLAYER_DISC);
+        board.fillCell(4, 1, BitBoard.SECOND_PLAYER_DISC);
+        board.fillCell(5, 6, BitBoard.FIRST_PLAYER_DISC);
+
+        assertEquals(BitBoard.FIRST_PLAYER_DISC, board.getCell(5, 1));
+        assertEquals(BitBoard.SECOND_PLAYER_DISC, board.getCell(4, 1));
+        assertEquals(BitBoard.FIRST_PLAYER_DISC, board.getCell(5, 6));
+        assertEquals(BitBoard.EMPTY_CELL, board.getCell(3, 1));
+        assertEquals(BitBoard.EMPTY_CELL, board.getCell(5, 0));
+        assertEquals(2, board.getColumnHeight(1));
+        assertEquals(1, board.getColumnHeight(6));
+        assertEquals(0, board.getColumnHeight(0));
+        assertEquals(3, board.getFilledCellCount());
+    }
+
+    /**
+     * Test that a board rebuilt from its bit masks has the same cells and column heights.
+     */
+    @Test
+    public void testBoardFromMasks() {
+        final BitBoard board = new BitBoard();
+        for (int row = BitBoard.ROWS - 1; row >= 0; row--) {
+            board.fillCell(row, 3, row % 2 == 0 ? BitBoard.FIRST_PLAYER_DISC : BitBoard.SECOND_PLAYER_DISC);
+        }
+        final BitBoard rebuiltBoard = new BitBoard(board.getFirstPlayerDiscs(), board.getSecondPlayerDiscs());
+        assertEquals(board, rebuiltBoard);
+        assertEquals(BitBoard.ROWS, rebuiltBoard.getColumnHeight(3));
+        assertEquals(0, rebuiltBoard.getColumnHeight(2));
+        assertEquals(0, rebuiltBoard.getColumnHeight(4));
+    }
+
+    /**
+     * Test the two dimensional view of the grid.
+     */
+    @Test
+    public void testToGridArray() {
+        final BitBoard board = new BitBoard();
+        board.fillCell(5, 0, BitBoard.FIRST_PLAYER_DISC);
+        board.fillCell(5, 6, BitBoard.SECOND_PLAYER_DISC);
+        final int[][] grid = board.toGridArray();
+        assertEquals(BitBoard.ROWS, grid.length);
+        assertEquals(BitBoard.COLUMNS, grid[0].length);
+        assertEquals(BitBoard.FIRST_PLAYER_DISC, grid[5][0]);
+        assertEquals(BitBoard.SECOND_PLAYER_DISC, grid[5][6]);
+        assertEquals(BitBoard.EMPTY_CELL, grid[0][0]);
+    }
+
+    /**
+     * Test detection of four connected discs in every direction.
+     */
+    @Test
+    public void testConnectedFour() {
+        final BitBoard vertical = new BitBoard();
+        for (int row = 5; row >= 2; row--) {
+            vertical.fillCell(row, 0, BitBoard.FIRST_PLAYER_DISC);
+        }
+        assertTrue(vertical.hasConnectedFour(BitBoard.FIRST_PLAYER_DISC));
+        assertFalse(vertical.hasConnectedFour(BitBoard.SECOND_PLAYER_DISC));
+
+        final BitBoard horizontal = new BitBoard();
+        for (int column = 3; column < 7; column++) {
+            horizontal.fillCell(5, column, BitBoard.SECOND_PLAYER_DISC);
+        }
+        assertTrue(horizontal.hasConnectedFour(BitBoard.SECOND_PLAYER_DISC));
+
+        final BitBoard risingDiagonal = new BitBoard();
+        final BitBoard fallingDiagonal = new BitBoard();
+        for (int i = 0; i < 4; i++) {
+            risingDiagonal.fillCell(5 - i, i, BitBoard.FIRST_PLAYER_DISC);
+            fallingDiagonal.fillCell(2 + i, 3 + i, BitBoard.FIRST_PLAYER_DISC);
+        }
+        assertTrue(risingDiagonal.hasConnectedFour(BitBoard.FIRST_PLAYER_DISC));
+        assertTrue(fallingDiagonal.hasConnectedFour(BitBoard.FIRST_PLAYER_DISC));
+    }
+
+    /**
+     * Test that lines are not connected across the edge of a column.
+     */
+    @Test
+    public void testNoConnectedFourAcrossColumns() {
+        final BitBoard board = new BitBoard();
+        //Top two cells of column 0 followed by bottom two cells of column 1
+        board.fillCell(0, 0, BitBoard.FIRST_PLAYER_DISC);
+        board.fillCell(1, 0, BitBoard.FIRST_PLAYER_DISC);
+        board.fillCell(5, 1, BitBoard.FIRST_PLAYER_DISC);
+        board.fillCell(4, 1, BitBoard.FIRST_PLAYER_DISC);
+        assertFalse(board.hasConnectedFour(BitBoard.FIRST_PLAYER_DISC));
+
+        final BitBoard threeInLine = new BitBoard();
+        for (int column = 0; column < 3; column++) {
+            threeInLine.fillCell(5, column, BitBoard.FIRST_PLAYER_DISC);
+        }
+        threeInLine.fillCell(5, 3, BitBoard.SECOND_PLAYER_DISC);
+        assertFalse(threeInLine.hasConnectedFour(BitBoard.FIRST_PLAYER_DISC));
+    }
+
+    /**
+     * Test full board detection.
+     */
+    @Test
+    public void testIsFull() {
+        final BitBoard board = new BitBoard();
+        for (int column = 0; column < BitBoard.COLUMNS; column++) {
+            for (int row = BitBoard.ROWS - 1; row >= 0; row--) {
+                assertFalse(board.isFull());
+                board.fillCell(row, column, (row + column) % 2 == 0 ? BitBoard.FIRST_PLAYER_DISC : BitBoard.SECOND_PLAYER_DISC);
+            }
+        }
+        assertTrue(board.isFull());
+        assertEquals(BitBoard.ROWS * BitBoard.COLUMNS, board.getFilledCellCount());
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.gluck.gaming.service;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.gluck.gaming.service.exception.BaseConnect4ServiceException;
+import com.gluck.gaming.service.model.CreateGameRequest;
+import com.gluck.gaming.service.model.CreateGameResponse;
+import com.gluck.gaming.service.model.GameDataResponse;
+
+/**
+ * Non blocking counterpart of {@link Connect4Service} for the game operations on the request path of the games. Every API returns immediately with a
+ * {@link CompletableFuture}, so that no thread has to wait for the storage while the request is processed.<br>
+ * The APIs have the same semantics as the {@link Connect4Service} APIs of the same name. Instead of being thrown, the {@link BaseConnect4ServiceException}
+ * documented on those APIs complete the returned future exceptionally, wrapped in a {@link java.util.concurrent.CompletionException} when they are raised by a
+ * dependent stage.
+ *
+ * @author Vinay Semwal
+ */
+public interface AsyncConnect4Service {
+
+    /**
+     * API to create a Game, see {@link Connect4Service#createGame(CreateGameRequest)}.
+     *
+     * @param createGameRequest {@link CreateGameRequest}
+     * @return future of the {@link CreateGameResponse}
+     */
+    public CompletableFuture<CreateGameResponse> createGame(CreateGameRequest createGameRequest);
+
+    /**
+     * API to fetch the game data of a game, see {@link Connect4Service#getGameData(String)}.
+     *
+     * @param gameId unique identifier of the game.
+     * @return future of the {@link GameDataResponse}
+     */
+    public CompletableFuture<GameDataResponse> getGameData(String gameId);
+
+    /**
+     * API to play a turn by dropping a disc in a column, see {@link Connect4Service#dropDisc(String, String, String, int)}.
+     *
+     * @param gameId unique identifier of the game for which turn is being played.
+     * @param sessionId identifier of the session in which game is being played currently.
+     * @param playerName name of the player playing the turn.
+     * @param column column number in which the disc is dropped, 0 being the leftmost column of the grid.
+     * @return future of the {@link GameDataResponse} with the game data after the turn has been played.
+     */
+    public CompletableFuture<GameDataResponse> dropDisc(String gameId, String sessionId, String playerName, int column);
+
+    /**
+     * API to suspend a game, see {@link Connect4Service#suspendGame(String)}.
+     *
+     * @param gameId unique identifier of the game to be suspended.
+     * @return future completed once the game is suspended.
+     */
+    public CompletableFuture<Void> suspendGame(String gameId);
+
+    /**
+     * API to mark a game completed, see {@link Connect4Service#completeGame(String)}.
+     *
+     * @param gameId unique identifier of the game to be completed.
+     * @return future completed once the game is completed.
+     */
+    public CompletableFuture<Void> completeGame(String gameId);
+
+    /**
+     * API to mark a game drawn, see {@link Connect4Service#drawGame(String)}.
+     *
+     * @param gameId unique identifier of the game to draw.
+     * @return future completed once the game is drawn.
+     */
+    public CompletableFuture<Void> drawGame(String gameId);
+
+    /**
+     * API to abandon a game, see {@link Connect4Service#abandonGame(String)}.
+     *
+     * @param gameId unique identifier of the game to abandon.
+     * @return future completed once the game is abandoned.
+     */
+    public CompletableFuture<Void> abandonGame(String gameId);
+
+    /**
+     * API to delete a game, see {@link Connect4Service#deleteGame(String)}.
+     *
+     * @param gameId unique identifier of the game to be deleted.
+     * @return future completed once the game is deleted.
+     */
+    public CompletableFuture<Void> deleteGame(String gameId);
+
+}
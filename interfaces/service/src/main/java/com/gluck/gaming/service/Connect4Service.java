@@ -1,7 +1,11 @@
 package com.gluck.gaming.service;
 
+import java.util.List;
+
 import javax.naming.OperationNotSupportedException;
 
+import com.gluck.gaming.service.exception.AiOpponentUnavailableException;
+import com.gluck.gaming.service.exception.ConcurrentGameUpdateException;
 import com.gluck.gaming.service.exception.Connect4ServiceValidationException;
 import com.gluck.gaming.service.exception.ConsecutiveTurnsNotAllowedException;
 import com.gluck.gaming.service.exception.GameDeletionNotAllowedException;
@@ -10,6 +14,7 @@ import com.gluck.gaming.service.exception.IncorrectGameStartException;
 import com.gluck.gaming.service.exception.InvalidGameStateException;
 import com.gluck.gaming.service.exception.InvalidGameStateTransitionException;
 import com.gluck.gaming.service.exception.InvalidGridCellToFillException;
+import com.gluck.gaming.service.model.AiStrength;
 import com.gluck.gaming.service.model.CreateGameRequest;
 import com.gluck.gaming.service.model.CreateGameResponse;
 import com.gluck.gaming.service.model.GameData;
@@ -37,6 +42,11 @@ public interface Connect4Service {
      *            <p>
      *            {@link CreateGameRequest#getSecondPlayerName()}: Name of the second player to play the game.Mandatory input, cannot be null or empty.
      *            </p>
+     *            <p>
+     *            {@link CreateGameRequest#getOpponentStrength()}: Strength of the AI playing as the second player, for a game against the AI. The second
+     *            player name must not be sent then, the AI playing under the name {@link AiStrength#getPlayerName()} and replying to every turn of the first
+     *            player in the same request. Games against the AI have no time control.
+     *            </p>
      *            </ul>
      * @return {@link CreateGameResponse}
      *         <ul>
@@ -54,6 +64,16 @@ public interface Connect4Service {
      */
     public CreateGameResponse createGame(CreateGameRequest createGameRequest) throws Connect4ServiceValidationException;
 
+    /**
+     * API to create multiple games at once, for example to set up all the games of a tournament.<br>
+     * All the games are created with a single database call. Each game is created the same way as by {@link #createGame(CreateGameRequest)}.
+     *
+     * @param createGameRequests list of {@link CreateGameRequest}, one for each game to create. Mandatory input, cannot be null or empty.
+     * @return list of {@link CreateGameResponse}, in the same order as the requests.
+     * @throws Connect4ServiceValidationException when any of the requests fails validations. No game is created in that case.
+     */
+    public List<CreateGameResponse> createGames(List<CreateGameRequest> createGameRequests) throws Connect4ServiceValidationException;
+
     /**
      * API to fetch all the details of a game using its unique identifier.<br>
      * Data of all the games can be retrieved except the deleted ones.
@@ -80,6 +100,8 @@ public interface Connect4Service {
      *         <p>
      *         {@link GameData#getConnect4Grid()}: Grid representation of the game grid in two dimensional array format. Unfilled grid cells have value 0;cells
      *         filled by first player have value 1 and the cells filled by second player have value 2.
+     *         <p>
+     *         {@link GameData#getWinner()}: Name of the player who won the game. Null if the game doesn't have a winner.
      *         </ul>
      *         </ul>
      * @throws GameNotFoundException when no game with the given ID exists in the system.
@@ -87,10 +109,25 @@ public interface Connect4Service {
      */
     public GameDataResponse getGameData(final String gameId) throws GameNotFoundException, Connect4ServiceValidationException;
 
+    /**
+     * API to fetch one page of the games of a player, latest created game first. The next page is fetched by passing the id of the last game of the previous
+     * page.
+     *
+     * @param playerName name of the player playing the games as first or second player. Mandatory input, cannot be null or empty.
+     * @param gameState state of the games to fetch, null to fetch the games in any state.
+     * @param afterGameId unique identifier of the last game of the previous page, null to fetch the first page.
+     * @param limit maximum number of games to fetch, from 1 to 100.
+     * @return list of {@link GameData} of the games without the grid, {@link GameData#getConnect4Grid()} being null. Empty if there are no more games.
+     * @throws Connect4ServiceValidationException when request fails validations.
+     */
+    public List<GameData> getGamesOfPlayer(String playerName, GameState gameState, String afterGameId, int limit) throws Connect4ServiceValidationException;
+
     /**
      * API to play turn in a game. Turns can be played in a game only if it is in NEW or IN_PROGRESS state. The first player must play the first turn in the
      * game. The same player isn't allowed to play consecutive turns in a game. The grid cell to fill shouldn't already be filled and a grid cell cannot be
-     * filled if there is a non-filled grid below the grid cell sent to fill.
+     * filled if there is a non-filled grid below the grid cell sent to fill.<br>
+     * If the turn connects four discs of the player the game is marked COMPLETED with the player as winner, and if the turn fills the last unfilled grid
+     * cell without a winner the game is marked DRAWN. In both the cases the current session is invalidated.
      *
      * @param playTurnRequest {@link PlayTurnRequest}
      *            <ul>
@@ -108,15 +145,40 @@ public interface Connect4Service {
      *            leftmost column of the grid.
      *            </ul>
      * @return Name of the player to play next turn.
-     * @throws Connect4ServiceValidationException when request fails validation.
+     * @throws Connect4ServiceValidationException when request fails validation or the player is not playing the game.
      * @throws GameNotFoundException when no game with the given ID exists in the system.
      * @throws InvalidGameStateException if game is not in IN_PROGRESS or NEW state.
      * @throws ConsecutiveTurnsNotAllowedException if same player tried to play consecutive turns.
      * @throws InvalidGridCellToFillException if either the grid cell is already filled or there is an unfilled grid cell below the grid cell sent to fill.
      * @throws IncorrectGameStartException if second player tried to play the first turn in a game.
+     * @throws ConcurrentGameUpdateException if the game was changed by another request, for example a concurrent turn, while the turn was being played.
+     * @throws AiOpponentUnavailableException if the game is against the AI and the AI cannot search its reply, in which case the turn is not saved.
      */
     public String playTurn(PlayTurnRequest playTurnRequest) throws Connect4ServiceValidationException, GameNotFoundException, InvalidGameStateException,
-        ConsecutiveTurnsNotAllowedException, InvalidGridCellToFillException, IncorrectGameStartException;
+        ConsecutiveTurnsNotAllowedException, InvalidGridCellToFillException, IncorrectGameStartException, ConcurrentGameUpdateException,
+        AiOpponentUnavailableException;
+
+    /**
+     * API to play turn in a game by dropping a disc in a column. The disc lands in the lowest unfilled grid cell of the column, so only the column has to be
+     * sent. All the rules of {@link #playTurn(PlayTurnRequest)} apply, and the column must not be already full.
+     *
+     * @param gameId unique identifier of the game for which turn is being played.
+     * @param sessionId identifier of the session in which game is being played currently.
+     * @param playerName name of the player playing the turn.
+     * @param column column number in which the disc is dropped. The number is indexed starting from 0, with 0 being the leftmost column of the grid.
+     * @return {@link GameDataResponse} with the game data after the turn has been played, including the updated grid and game state.
+     * @throws Connect4ServiceValidationException when request fails validation.
+     * @throws GameNotFoundException when no game with the given ID exists in the system.
+     * @throws InvalidGameStateException if game is not in IN_PROGRESS or NEW state.
+     * @throws ConsecutiveTurnsNotAllowedException if same player tried to play consecutive turns.
+     * @throws InvalidGridCellToFillException if all the grid cells of the column are already filled.
+     * @throws IncorrectGameStartException if second player tried to play the first turn in a game.
+     * @throws ConcurrentGameUpdateException if the game was changed by another request, for example a concurrent turn, while the turn was being played.
+     * @throws AiOpponentUnavailableException if the game is against the AI and the AI cannot search its reply, in which case the turn is not saved.
+     */
+    public GameDataResponse dropDisc(String gameId, String sessionId, String playerName, int column)
+        throws Connect4ServiceValidationException, GameNotFoundException, InvalidGameStateException, ConsecutiveTurnsNotAllowedException,
+        InvalidGridCellToFillException, IncorrectGameStartException, ConcurrentGameUpdateException, AiOpponentUnavailableException;
 
     /**
      * API to resume a game.<br>
@@ -149,9 +211,10 @@ public interface Connect4Service {
      * @throws Connect4ServiceValidationException when request fails validations.
      * @throws GameNotFoundException when no game with the given ID exists in the system.
      * @throws InvalidGameStateTransitionException when game cannot be marked completed with current game state.
+     * @throws ConcurrentGameUpdateException if the game kept being changed by other requests while its state was being changed.
      */
     public GameDataResponse resumeGame(final String gameId)
-        throws Connect4ServiceValidationException, GameNotFoundException, InvalidGameStateTransitionException;
+        throws Connect4ServiceValidationException, GameNotFoundException, InvalidGameStateTransitionException, ConcurrentGameUpdateException;
 
     /**
      * API to suspend a game<br>
@@ -162,8 +225,10 @@ public interface Connect4Service {
      * @throws Connect4ServiceValidationException when request fails validations.
      * @throws GameNotFoundException when no game with the given ID exists in the system.
      * @throws InvalidGameStateTransitionException if game cannot be suspended with current game state.
+     * @throws ConcurrentGameUpdateException if the game kept being changed by other requests while its state was being changed.
      */
-    public void suspendGame(final String gameId) throws Connect4ServiceValidationException, GameNotFoundException, InvalidGameStateTransitionException;
+    public void suspendGame(final String gameId)
+        throws Connect4ServiceValidationException, GameNotFoundException, InvalidGameStateTransitionException, ConcurrentGameUpdateException;
 
     /**
      * API to complete a game<br>
@@ -174,8 +239,10 @@ public interface Connect4Service {
      * @throws Connect4ServiceValidationException when request fails validations.
      * @throws GameNotFoundException when no game with the given ID exists in the system.
      * @throws InvalidGameStateTransitionException if game cannot be completed with current game state.
+     * @throws ConcurrentGameUpdateException if the game kept being changed by other requests while its state was being changed.
      */
-    public void completeGame(final String gameId) throws Connect4ServiceValidationException, GameNotFoundException, InvalidGameStateTransitionException;
+    public void completeGame(final String gameId)
+        throws Connect4ServiceValidationException, GameNotFoundException, InvalidGameStateTransitionException, ConcurrentGameUpdateException;
 
     /**
      * API to draw a game<br>
@@ -186,8 +253,10 @@ public interface Connect4Service {
      * @throws Connect4ServiceValidationException when request fails validations.
      * @throws GameNotFoundException when no game with the given ID exists in the system.
      * @throws InvalidGameStateTransitionException if game cannot be drawn with current game state.
+     * @throws ConcurrentGameUpdateException if the game kept being changed by other requests while its state was being changed.
      */
-    public void drawGame(final String gameId) throws Connect4ServiceValidationException, GameNotFoundException, InvalidGameStateTransitionException;
+    public void drawGame(final String gameId)
+        throws Connect4ServiceValidationException, GameNotFoundException, InvalidGameStateTransitionException, ConcurrentGameUpdateException;
 
     /**
      * API to abandon a game<br>
@@ -198,8 +267,10 @@ public interface Connect4Service {
      * @throws Connect4ServiceValidationException when request fails validations.
      * @throws GameNotFoundException when no game with the given ID exists in the system.
      * @throws InvalidGameStateTransitionException if game cannot be abandoned with current game state.
+     * @throws ConcurrentGameUpdateException if the game kept being changed by other requests while its state was being changed.
      */
-    public void abandonGame(final String gameId) throws Connect4ServiceValidationException, GameNotFoundException, InvalidGameStateTransitionException;
+    public void abandonGame(final String gameId)
+        throws Connect4ServiceValidationException, GameNotFoundException, InvalidGameStateTransitionException, ConcurrentGameUpdateException;
 
     /**
      * API to delete a game<br>
@@ -0,0 +1,20 @@
+package com.gluck.gaming.service.exception;
+
+/**
+ * Exception thrown when the turn of a player against the AI cannot be played because the AI cannot search its reply, either because all its search threads
+ * are busy and its queue is full or because no AI is configured. The turn of the player is not saved.
+ *
+ * @author Vinay Semwal
+ */
+public class AiOpponentUnavailableException extends BaseConnect4ServiceException {
+
+    private static final long serialVersionUID = -6470284815224939371L;
+
+    /**
+     * @param message exception description
+     */
+    public AiOpponentUnavailableException(final String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.gluck.gaming.service.exception;
+
+/**
+ * Exception thrown when a turn cannot be saved because the game has been changed by another request after it was read, for example when two turns are played
+ * in the same game at the same time.
+ *
+ * @author Vinay Semwal
+ */
+public class ConcurrentGameUpdateException extends BaseConnect4ServiceException {
+
+    private static final long serialVersionUID = 4216417503918839542L;
+
+    /**
+     * @param message exception description
+     */
+    public ConcurrentGameUpdateException(final String message) {
+        super(message);
+    }
+
+}
@@ -47,6 +47,16 @@ public enum Connect4ResponseErrorCode {
      */
     GAME_DELETION_NOT_ALLOWED(28008, "Game cannot be deleted when it is not in a terminal state."),
 
+    /**
+     * Indicates that the game was changed by another request while the current request was being processed.
+     */
+    CONCURRENT_GAME_UPDATE(28009, "Game was updated by another request. Please retry."),
+
+    /**
+     * Indicates that the AI opponent could not search its reply to the turn, which was not saved.
+     */
+    AI_OPPONENT_UNAVAILABLE(28010, "The AI opponent is busy. Please retry."),
+
     /**
      * Indicates that an internal error occurred in the system.
      */
@@ -0,0 +1,71 @@
+package com.gluck.gaming.service.model;
+
+/**
+ * Strength of the server side AI playing as the second player of a game, given by the budget of its search for every reply. The AI of a game is recognised by
+ * its reserved player name, so that the games against the AI are stored like any other game.
+ *
+ * @author Vinay Semwal
+ */
+public enum AiStrength {
+
+    /**
+     * Looks two turns ahead: completes its lines and blocks the ones about to be completed, but misses every longer threat.
+     */
+    EASY(2, 0),
+
+    /**
+     * Looks up to eight turns ahead, within a budget of 200000 positions.
+     */
+    MEDIUM(8, 200000),
+
+    /**
+     * Looks as far ahead as the search time allows, solving most positions once the grid is half filled.
+     */
+    HARD(0, 0);
+
+    private static final String PLAYER_NAME_PREFIX = "connect4-ai-";
+
+    private final int maxDepth;
+
+    private final long maxNodes;
+
+    private AiStrength(final int maxDepth, final long maxNodes) {
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * @return maximum number of turns searched ahead, 0 for no limit.
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @return maximum number of positions searched for a reply, 0 for no limit.
+     */
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+
+    /**
+     * @return name under which the AI plays, reserved for the AI.
+     */
+    public String getPlayerName() {
+        return PLAYER_NAME_PREFIX + name().toLowerCase();
+    }
+
+    /**
+     * @param playerName name of a player
+     * @return strength of the AI playing under the name, null if the name is not the name of an AI.
+     */
+    public static AiStrength fromPlayerName(final String playerName) {
+        for (final AiStrength strength : values()) {
+            if (strength.getPlayerName().equals(playerName)) {
+                return strength;
+            }
+        }
+        return null;
+    }
+
+}
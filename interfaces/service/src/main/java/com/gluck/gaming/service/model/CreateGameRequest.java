@@ -18,13 +18,44 @@ public class CreateGameRequest implements Serializable {
 
     private final String secondPlayerName;
 
+    private final long baseTimeMillis;
+
+    private final long incrementMillis;
+
+    private final AiStrength opponentStrength;
+
     /**
      * @param firstPlayerName first player name
      * @param secondPlayerName second player name
      */
     public CreateGameRequest(final String firstPlayerName, final String secondPlayerName) {
+        this(firstPlayerName, secondPlayerName, 0, 0);
+    }
+
+    /**
+     * @param firstPlayerName first player name
+     * @param secondPlayerName second player name
+     * @param baseTimeMillis time each player has for all the turns of the game, 0 for a game without time control
+     * @param incrementMillis time added to the clock of a player after each turn
+     */
+    public CreateGameRequest(final String firstPlayerName, final String secondPlayerName, final long baseTimeMillis, final long incrementMillis) {
         this.firstPlayerName = firstPlayerName;
         this.secondPlayerName = secondPlayerName;
+        this.baseTimeMillis = baseTimeMillis;
+        this.incrementMillis = incrementMillis;
+        this.opponentStrength = null;
+    }
+
+    /**
+     * @param firstPlayerName name of the player playing against the AI, who plays the first turn
+     * @param opponentStrength strength of the AI playing as the second player
+     */
+    public CreateGameRequest(final String firstPlayerName, final AiStrength opponentStrength) {
+        this.firstPlayerName = firstPlayerName;
+        this.secondPlayerName = null;
+        this.baseTimeMillis = 0;
+        this.incrementMillis = 0;
+        this.opponentStrength = opponentStrength;
     }
 
     /**
@@ -34,6 +65,9 @@ public class CreateGameRequest implements Serializable {
         //For JSON parsing
         firstPlayerName = null;
         secondPlayerName = null;
+        baseTimeMillis = 0;
+        incrementMillis = 0;
+        opponentStrength = null;
     }
 
     /**
@@ -50,6 +84,27 @@ public class CreateGameRequest implements Serializable {
         return secondPlayerName;
     }
 
+    /**
+     * @return the baseTimeMillis, 0 for a game without time control
+     */
+    public long getBaseTimeMillis() {
+        return baseTimeMillis;
+    }
+
+    /**
+     * @return the incrementMillis
+     */
+    public long getIncrementMillis() {
+        return incrementMillis;
+    }
+
+    /**
+     * @return the opponentStrength, null for a game between two players
+     */
+    public AiStrength getOpponentStrength() {
+        return opponentStrength;
+    }
+
     @Override
     public String toString() {
         return ReflectionToStringBuilder.toString(this, ToStringStyle.MULTI_LINE_STYLE);
@@ -26,7 +26,13 @@ public class GameData implements Serializable {
 
     private String lastTurnPlayedBy;
 
-    private Integer[][] connect4Grid;
+    private int[][] connect4Grid;
+
+    private String winner;
+
+    private Long firstPlayerRemainingMillis;
+
+    private Long secondPlayerRemainingMillis;
 
     /**
      * Default constructor to enable JSON parsing
@@ -43,6 +49,7 @@ public class GameData implements Serializable {
      * @param gameState current state of the game
      * @param lastTurnPlayedBy name of player who played last turn
      * @param connect4Grid game grid
+     * @param winner name of the player who won the game, null if the game has no winner yet
      */
     public GameData(
         final String gameId,
@@ -51,7 +58,8 @@ public class GameData implements Serializable {
         final String secondPlayerName,
         final String gameState,
         final String lastTurnPlayedBy,
-        final Integer[][] connect4Grid) {
+        final int[][] connect4Grid,
+        final String winner) {
         super();
         this.sessionId = sessionId;
         this.gameId = gameId;
@@ -60,6 +68,7 @@ public class GameData implements Serializable {
         this.gameState = gameState;
         this.lastTurnPlayedBy = lastTurnPlayedBy;
         this.connect4Grid = connect4Grid;
+        this.winner = winner;
     }
 
     /**
@@ -100,10 +109,17 @@ public class GameData implements Serializable {
     /**
      * @return the connect4Grid
      */
-    public Integer[][] getConnect4Grid() {
+    public int[][] getConnect4Grid() {
         return connect4Grid;
     }
 
+    /**
+     * @return the winner
+     */
+    public String getWinner() {
+        return winner;
+    }
+
     /**
      * @return the sessionId
      */
@@ -118,6 +134,34 @@ public class GameData implements Serializable {
         this.sessionId = sessionId;
     }
 
+    /**
+     * @return time left to the first player, null if the game is not timed
+     */
+    public Long getFirstPlayerRemainingMillis() {
+        return firstPlayerRemainingMillis;
+    }
+
+    /**
+     * @param firstPlayerRemainingMillis the firstPlayerRemainingMillis to set
+     */
+    public void setFirstPlayerRemainingMillis(final Long firstPlayerRemainingMillis) {
+        this.firstPlayerRemainingMillis = firstPlayerRemainingMillis;
+    }
+
+    /**
+     * @return time left to the second player, null if the game is not timed
+     */
+    public Long getSecondPlayerRemainingMillis() {
+        return secondPlayerRemainingMillis;
+    }
+
+    /**
+     * @param secondPlayerRemainingMillis the secondPlayerRemainingMillis to set
+     */
+    public void setSecondPlayerRemainingMillis(final Long secondPlayerRemainingMillis) {
+        this.secondPlayerRemainingMillis = secondPlayerRemainingMillis;
+    }
+
     @Override
     public String toString() {
         return ReflectionToStringBuilder.toString(this, ToStringStyle.MULTI_LINE_STYLE);
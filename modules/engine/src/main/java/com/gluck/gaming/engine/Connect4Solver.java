@@ -0,0 +1,413 @@
+package com.gluck.gaming.engine;
+
+import static com.gluck.gaming.dao.model.BitBoard.COLUMNS;
+import static com.gluck.gaming.dao.model.BitBoard.COLUMN_STRIDE;
+import static com.gluck.gaming.dao.model.BitBoard.ROWS;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.gluck.gaming.dao.model.BitBoard;
+import com.gluck.gaming.dao.model.Game;
+
+/**
+ * Negamax solver for connect4 positions, searching with alpha beta pruning over the {@link BitBoard} masks.<br>
+ * A position is held in two {@code long} values: the discs of the player to move and the mask of the filled cells, so the search loop works on primitives only
+ * and does not allocate. Columns are tried from the center outwards, moves letting the opponent win on the next turn are never searched and the search is
+ * repeated with an increasing depth until the position is solved or the budget of {@link SearchLimits} is spent. Positions at the depth limit are scored from
+ * the cells completing a line of each player.<br>
+ * With a {@link TranspositionTable}, positions reached again through other move orders are not searched twice and the best column of the previous
+ * search of a position is tried first.<br>
+ * An instance keeps the state of the running search and must not be shared between threads: {@link ParallelSolver} runs a solver per thread.
+ *
+ * @author Vinay Semwal
+ */
+public class Connect4Solver {
+
+    /**
+     * Column returned when the game is already over.
+     */
+    public static final int NO_MOVE = -1;
+
+    /**
+     * Lowest score of a forced win. A win is scored {@code WIN_SCORE} plus the number of cells left empty once the game is won.
+     */
+    public static final int WIN_SCORE = 1000;
+
+    static final int CELLS = ROWS * COLUMNS;
+
+    private static final int INFINITY = WIN_SCORE + CELLS + 1;
+
+    /**
+     * Columns in the order they are searched, the center columns taking part in more lines.
+     */
+    private static final int[] COLUMN_ORDER = { 3, 2, 4, 1, 5, 0, 6 };
+
+    private static final long BOTTOM_MASK = bottomMask();
+
+    private static final long BOARD_MASK = BOTTOM_MASK * ((1L << ROWS) - 1);
+
+    private static final long CENTER_COLUMN_MASK = BitBoard.columnMask(COLUMNS / 2);
+
+    /**
+     * The clock is read once every 1024 positions.
+     */
+    private static final long TIME_CHECK_INTERVAL_MASK = 1023;
+
+    private final TranspositionTable table;
+
+    private long nodes;
+
+    private long probes;
+
+    private long hits;
+
+    private long nodeLimit;
+
+    private long deadlineNanos;
+
+    private boolean aborted;
+
+    private AtomicBoolean stopped;
+
+    private int rootColumnOffset;
+
+    private int rootBestColumn;
+
+    private int rootScore;
+
+    /**
+     * Creates a solver searching without a transposition table.
+     */
+    public Connect4Solver() {
+        this(null);
+    }
+
+    /**
+     * @param table table of the positions already searched, which can be shared with other solvers. null to search without a table.
+     */
+    public Connect4Solver(final TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Searches the position of a game for the player whose turn is next.
+     *
+     * @param game game read from the database
+     * @param limits budget of the search
+     * @return the best column and the score of the position.
+     */
+    public SearchResult search(final Game game, final SearchLimits limits) {
+        return search(game.getBoard(), limits);
+    }
+
+    /**
+     * Searches a position for the player whose turn is next, the first player moving when the number of discs is even.
+     *
+     * @param board grid of the position
+     * @param limits budget of the search
+     * @return the best column and the score of the position.
+     */
+    public SearchResult search(final BitBoard board, final SearchLimits limits) {
+        return search(board, limits, 0, null);
+    }
+
+    /**
+     * Searches a position as one of the threads of a {@link ParallelSolver}. The threads other than the first one try the root columns in a rotated order and
+     * start one iteration deeper every other thread, so that they search other parts of the tree first and fill the shared table for the others.
+     *
+     * @param board grid of the position
+     * @param limits budget of the search
+     * @param threadIndex index of the thread of the search, 0 for the main thread
+     * @param stop set once the search must stop, returning the last completed iteration. null if the search is never stopped.
+     * @return the best column and the score of the position.
+     */
+    SearchResult search(final BitBoard board, final SearchLimits limits, final int threadIndex, final AtomicBoolean stop) {
+        final int moves = board.getFilledCellCount();
+        final boolean firstPlayerToMove = moves % 2 == 0;
+        final long current = firstPlayerToMove ? board.getFirstPlayerDiscs() : board.getSecondPlayerDiscs();
+        final long opponent = firstPlayerToMove ? board.getSecondPlayerDiscs() : board.getFirstPlayerDiscs();
+        if (BitBoard.hasConnectedFour(opponent)) {
+            return new SearchResult(NO_MOVE, -winScore(moves), 0, 0, 0, true);
+        }
+        if (moves == CELLS) {
+            return new SearchResult(NO_MOVE, 0, 0, 0, 0, true);
+        }
+        this.stopped = stop;
+        this.rootColumnOffset = threadIndex % COLUMNS;
+        return search(current, current | opponent, moves, limits, threadIndex == 0 ? 1 : 1 + threadIndex % 2, threadIndex == 0);
+    }
+
+    /**
+     * Runs the iterative deepening loop from the first depth given. The result of an iteration stopped by the budget is dropped and the last completed one is
+     * returned.
+     */
+    private SearchResult search(
+        final long current,
+        final long mask,
+        final int moves,
+        final SearchLimits limits,
+        final int firstDepth,
+        final boolean newSearch) {
+        final long startNanos = System.nanoTime();
+        nodes = 0;
+        nodeLimit = limits.getMaxNodes() == 0 ? Long.MAX_VALUE : limits.getMaxNodes();
+        deadlineNanos = limits.getMaxTimeMillis() == 0 ? Long.MAX_VALUE : startNanos + limits.getMaxTimeMillis() * 1000000L;
+        aborted = false;
+        probes = 0;
+        hits = 0;
+        if (table != null && newSearch) {
+            table.newSearch();
+        }
+        final int remainingMoves = CELLS - moves;
+        final int maxDepth = limits.getMaxDepth() == 0 ? remainingMoves : Math.min(limits.getMaxDepth(), remainingMoves);
+        int bestColumn = firstPlayableColumn(mask);
+        int score = 0;
+        int completedDepth = 0;
+        boolean solved = false;
+        for (int depth = Math.min(firstDepth, maxDepth); depth <= maxDepth && !solved; depth++) {
+            searchRoot(current, mask, moves, depth, bestColumn);
+            if (aborted) {
+                break;
+            }
+            bestColumn = rootBestColumn;
+            score = rootScore;
+            completedDepth = depth;
+            solved = depth == remainingMoves || Math.abs(score) >= WIN_SCORE;
+        }
+        if (table != null) {
+            table.recordProbes(probes, hits);
+        }
+        return new SearchResult(bestColumn, score, completedDepth, nodes, System.nanoTime() - startNanos, solved);
+    }
+
+    /**
+     * Searches the moves of the root position, starting with the best move of the previous iteration, and keeps the best one in {@link #rootBestColumn}.
+     */
+    private void searchRoot(final long current, final long mask, final int moves, final int depth, final int previousBestColumn) {
+        nodes++;
+        final long possible = possibleMoves(mask);
+        final long ownWins = winningCells(current, mask) & possible;
+        if (ownWins != 0) {
+            rootBestColumn = columnOf(ownWins);
+            rootScore = winScore(moves + 1);
+            return;
+        }
+        if (moves == CELLS - 1) {
+            rootBestColumn = columnOf(possible);
+            rootScore = 0;
+            return;
+        }
+        final long candidates = nonLosingMoves(current, mask, possible);
+        if (candidates == 0) {
+            rootBestColumn = firstPlayableColumn(mask);
+            rootScore = -winScore(moves + 2);
+            return;
+        }
+        rootBestColumn = NO_MOVE;
+        int alpha = -INFINITY;
+        for (int i = -1; i < COLUMNS; i++) {
+            final int column = i < 0 ? previousBestColumn : COLUMN_ORDER[(i + rootColumnOffset) % COLUMNS];
+            final long move = candidates & BitBoard.columnMask(column);
+            if (move == 0 || i >= 0 && column == previousBestColumn) {
+                continue;
+            }
+            final int score = -negamax(current ^ mask, mask | move, moves + 1, depth - 1, -INFINITY, -alpha);
+            if (aborted) {
+                return;
+            }
+            if (score > alpha) {
+                alpha = score;
+                rootBestColumn = column;
+            }
+        }
+        rootScore = alpha;
+    }
+
+    /**
+     * @param current discs of the player to move
+     * @param mask filled cells
+     * @param moves number of filled cells
+     * @param depth number of moves left to search before the position is scored heuristically
+     * @return score of the position for the player to move, within the bounds if it is between alpha and beta.
+     */
+    private int negamax(final long current, final long mask, final int moves, final int depth, final int alpha, final int beta) {
+        if (++nodes >= nodeLimit || (nodes & TIME_CHECK_INTERVAL_MASK) == 0 && isTimeUp()) {
+            aborted = true;
+            return 0;
+        }
+        final long possible = possibleMoves(mask);
+        final long ownWins = winningCells(current, mask);
+        if ((ownWins & possible) != 0) {
+            return winScore(moves + 1);
+        }
+        if (moves >= CELLS - 1) {
+            //The last cell does not complete a line of the player to move.
+            return 0;
+        }
+        final long candidates = nonLosingMoves(current, mask, possible);
+        if (candidates == 0) {
+            return -winScore(moves + 2);
+        }
+        //The player to move can not win before its next turn.
+        final int maxScore = winScore(moves + 3);
+        int upper = beta;
+        if (upper > maxScore) {
+            upper = maxScore;
+            if (alpha >= upper) {
+                return upper;
+            }
+        }
+        if (depth == 0) {
+            return evaluate(current, mask, ownWins);
+        }
+        final long key = current + mask;
+        int hashColumn = NO_MOVE;
+        if (table != null) {
+            probes++;
+            final long entry = table.probe(key);
+            if (entry != 0) {
+                hits++;
+                hashColumn = TranspositionTable.getBestColumn(entry);
+                if (TranspositionTable.getDepth(entry) >= depth) {
+                    final int hashScore = TranspositionTable.getScore(entry);
+                    final int bound = TranspositionTable.getBound(entry);
+                    if (bound == TranspositionTable.EXACT
+                        || bound == TranspositionTable.LOWER_BOUND && hashScore >= upper
+                        || bound == TranspositionTable.UPPER_BOUND && hashScore <= alpha) {
+                        return hashScore;
+                    }
+                }
+            }
+        }
+        int lower = alpha;
+        int bestColumn = NO_MOVE;
+        //The best column of the previous search of the position is tried first.
+        for (int i = -1; i < COLUMNS; i++) {
+            final int column = i < 0 ? hashColumn : COLUMN_ORDER[i];
+            if (column == NO_MOVE || i >= 0 && column == hashColumn) {
+                continue;
+            }
+            final long move = candidates & BitBoard.columnMask(column);
+            if (move != 0) {
+                final int score = -negamax(current ^ mask, mask | move, moves + 1, depth - 1, -upper, -lower);
+                if (aborted) {
+                    return 0;
+                }
+                if (score >= upper) {
+                    store(key, score, depth, TranspositionTable.LOWER_BOUND, column);
+                    return score;
+                }
+                if (score > lower) {
+                    lower = score;
+                    bestColumn = column;
+                }
+            }
+        }
+        store(key, lower, depth, bestColumn == NO_MOVE ? TranspositionTable.UPPER_BOUND : TranspositionTable.EXACT, bestColumn);
+        return lower;
+    }
+
+    /**
+     * @return true once the deadline of the search is passed or the search is stopped by another thread.
+     */
+    private boolean isTimeUp() {
+        return System.nanoTime() >= deadlineNanos || stopped != null && stopped.get();
+    }
+
+    private void store(final long key, final int score, final int depth, final int bound, final int bestColumn) {
+        if (table != null) {
+            table.store(key, score, depth, bound, bestColumn);
+        }
+    }
+
+    /**
+     * Heuristic score of a position that is not solved: each empty cell completing a line of a player is worth 4 points, each disc in the center column
+     * 1 point.
+     */
+    private static int evaluate(final long current, final long mask, final long ownWins) {
+        final long opponent = current ^ mask;
+        final int threats = Long.bitCount(ownWins) - Long.bitCount(winningCells(opponent, mask));
+        return 4 * threats + Long.bitCount(current & CENTER_COLUMN_MASK) - Long.bitCount(opponent & CENTER_COLUMN_MASK);
+    }
+
+    /**
+     * @return the moves of the player to move that don't let the opponent win on the next turn, 0 if there are none.
+     */
+    private static long nonLosingMoves(final long current, final long mask, final long possible) {
+        final long opponentWins = winningCells(current ^ mask, mask);
+        final long forcedMoves = possible & opponentWins;
+        long candidates = possible;
+        if (forcedMoves != 0) {
+            if ((forcedMoves & (forcedMoves - 1)) != 0) {
+                //The opponent has two cells to win and only one can be blocked.
+                return 0;
+            }
+            candidates = forcedMoves;
+        }
+        //A disc played below a cell completing a line of the opponent lets the opponent fill that cell.
+        return candidates & ~(opponentWins >>> 1);
+    }
+
+    /**
+     * @return mask of the lowest empty cell of every column that is not full.
+     */
+    static long possibleMoves(final long mask) {
+        return (mask + BOTTOM_MASK) & BOARD_MASK;
+    }
+
+    /**
+     * Finds the empty cells that would complete a line of {@link BitBoard#WINNING_LINE_LENGTH} discs for a player, whether they can be played yet or not.
+     *
+     * @param discs discs of the player
+     * @param mask filled cells
+     * @return mask of the empty cells completing a line.
+     */
+    static long winningCells(final long discs, final long mask) {
+        //Vertical lines can only be completed on top.
+        long cells = (discs << 1) & (discs << 2) & (discs << 3);
+        cells |= winningCells(discs, COLUMN_STRIDE);
+        cells |= winningCells(discs, COLUMN_STRIDE - 1);
+        cells |= winningCells(discs, COLUMN_STRIDE + 1);
+        return cells & (BOARD_MASK ^ mask);
+    }
+
+    /**
+     * @return cells completing a horizontal or diagonal line, the shift being the distance between two neighbouring cells of the line.
+     */
+    private static long winningCells(final long discs, final int shift) {
+        long pairs = (discs << shift) & (discs << 2 * shift);
+        long cells = pairs & (discs << 3 * shift);
+        cells |= pairs & (discs >>> shift);
+        pairs = (discs >>> shift) & (discs >>> 2 * shift);
+        cells |= pairs & (discs << shift);
+        cells |= pairs & (discs >>> 3 * shift);
+        return cells;
+    }
+
+    static int winScore(final int discsAfterWin) {
+        return WIN_SCORE + CELLS - discsAfterWin;
+    }
+
+    private static int columnOf(final long cells) {
+        return Long.numberOfTrailingZeros(cells) / COLUMN_STRIDE;
+    }
+
+    private static int firstPlayableColumn(final long mask) {
+        final long possible = possibleMoves(mask);
+        for (final int column : COLUMN_ORDER) {
+            if ((possible & BitBoard.columnMask(column)) != 0) {
+                return column;
+            }
+        }
+        return NO_MOVE;
+    }
+
+    private static long bottomMask() {
+        long mask = 0L;
+        for (int column = 0; column < COLUMNS; column++) {
+            mask |= 1L << (column * COLUMN_STRIDE);
+        }
+        return mask;
+    }
+
+}
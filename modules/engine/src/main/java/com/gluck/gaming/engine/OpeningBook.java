@@ -0,0 +1,221 @@
+package com.gluck.gaming.engine;
+
+import static com.gluck.gaming.dao.model.BitBoard.COLUMNS;
+import static com.gluck.gaming.dao.model.BitBoard.COLUMN_STRIDE;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.gluck.gaming.dao.model.BitBoard;
+
+/**
+ * Best columns and scores of the opening positions, searched in advance by {@link OpeningBookGenerator} and read from a memory mapped file. The file is
+ * mapped read only, so the JVMs of a host reading the same book share its pages through the page cache, and a lookup is a binary search over the mapped
+ * entries that does not allocate.<br>
+ * The file starts with a header of {@link #HEADER_BYTES} bytes: a magic number, the format version, the number of plies of the book, the depth its positions
+ * were searched to and the number of entries. Each entry is a single {@code long} holding the key of the position in its high bits, then the best column and
+ * the score, the entries being sorted by key. A position and its mirror image have the same entry, under the lowest of their keys.<br>
+ * Lookups can be made by any number of threads.
+ *
+ * @author Vinay Semwal
+ */
+public class OpeningBook {
+
+    static final int MAGIC = 0x43344F42;
+
+    static final int VERSION = 1;
+
+    /**
+     * Length of the header, keeping the entries aligned on 8 bytes.
+     */
+    static final int HEADER_BYTES = 24;
+
+    private static final int KEY_SHIFT = 15;
+
+    private static final int COLUMN_SHIFT = 12;
+
+    private static final long COLUMN_FIELD = 0x7L << COLUMN_SHIFT;
+
+    private static final int SCORE_OFFSET = 1 << 11;
+
+    private static final long COLUMN_BITS = (1L << COLUMN_STRIDE) - 1;
+
+    private final LongBuffer entries;
+
+    private final int entryCount;
+
+    private final int plies;
+
+    private final int depth;
+
+    private OpeningBook(final LongBuffer entries, final int plies, final int depth) {
+        this.entries = entries;
+        this.entryCount = entries.limit();
+        this.plies = plies;
+        this.depth = depth;
+    }
+
+    /**
+     * Maps a book file in memory.
+     *
+     * @param path file written by {@link OpeningBookGenerator}
+     * @return the book read from the file.
+     * @throws IOException if the file cannot be read or is not a book.
+     */
+    public static OpeningBook open(final Path path) throws IOException {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Not an opening book : " + path + ", size : " + size);
+            }
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            final int magic = buffer.getInt();
+            final int version = buffer.getInt();
+            final int plies = buffer.getInt();
+            final int depth = buffer.getInt();
+            final int entryCount = buffer.getInt();
+            if (magic != MAGIC || version != VERSION || size != HEADER_BYTES + (long) entryCount * Long.BYTES) {
+                throw new IOException("Not an opening book of version " + VERSION + " : " + path);
+            }
+            buffer.position(HEADER_BYTES);
+            return new OpeningBook(buffer.slice().asLongBuffer(), plies, depth);
+        }
+    }
+
+    /**
+     * @param board grid of the position
+     * @return entry of the position for the player whose turn is next, 0 if the position is not in the book.
+     */
+    public long probe(final BitBoard board) {
+        final boolean firstPlayerToMove = board.getFilledCellCount() % 2 == 0;
+        final long current = firstPlayerToMove ? board.getFirstPlayerDiscs() : board.getSecondPlayerDiscs();
+        return probe(current, board.getFirstPlayerDiscs() | board.getSecondPlayerDiscs());
+    }
+
+    /**
+     * @param current discs of the player to move
+     * @param mask filled cells
+     * @return entry of the position, 0 if the position is not in the book.
+     */
+    long probe(final long current, final long mask) {
+        final long key = current + mask;
+        final long mirroredKey = mirror(current) + mirror(mask);
+        if (mirroredKey >= key) {
+            return find(key);
+        }
+        final long entry = find(mirroredKey);
+        if (entry == 0) {
+            return 0;
+        }
+        //The entry is the one of the mirror image, its column is mirrored back.
+        return entry & ~COLUMN_FIELD | (long) (COLUMNS - 1 - getBestColumn(entry)) << COLUMN_SHIFT;
+    }
+
+    /**
+     * Binary search of the entry of a key.
+     */
+    private long find(final long key) {
+        int low = 0;
+        int high = entryCount - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            final long entry = entries.get(middle);
+            final long entryKey = entry >>> KEY_SHIFT;
+            if (entryKey < key) {
+                low = middle + 1;
+            } else if (entryKey > key) {
+                high = middle - 1;
+            } else {
+                return entry;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @param data entry of a position
+     * @return best column of the position.
+     */
+    public static int getBestColumn(final long data) {
+        return (int) ((data & COLUMN_FIELD) >>> COLUMN_SHIFT);
+    }
+
+    /**
+     * @param data entry of a position
+     * @return score of the position for the player to move, as scored by {@link Connect4Solver}.
+     */
+    public static int getScore(final long data) {
+        return (int) (data & ((1 << COLUMN_SHIFT) - 1)) - SCORE_OFFSET;
+    }
+
+    /**
+     * @param maxDepth maximum depth of a search, 0 for no limit
+     * @return true if the search is not limited to fewer plies than the positions of the book were searched to, so that the book can answer instead of the
+     *         search without playing stronger than asked.
+     */
+    public boolean isDeepEnoughFor(final int maxDepth) {
+        return maxDepth == 0 || maxDepth >= depth;
+    }
+
+    /**
+     * @return number of positions in the book.
+     */
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * @return number of plies of the book, the positions of the book having fewer discs.
+     */
+    public int getPlies() {
+        return plies;
+    }
+
+    /**
+     * @return depth the positions of the book were searched to.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return the entry of a position, as written in the book file.
+     */
+    static long entry(final long key, final int bestColumn, final int score) {
+        return key << KEY_SHIFT | (long) bestColumn << COLUMN_SHIFT | (score + SCORE_OFFSET);
+    }
+
+    /**
+     * @return key under which a position is stored, the lowest of the keys of the position and of its mirror image.
+     */
+    static long canonicalKey(final long current, final long mask) {
+        return Math.min(current + mask, mirror(current) + mirror(mask));
+    }
+
+    /**
+     * @return the cells mirrored around the center column.
+     */
+    static long mirror(final long cells) {
+        long mirrored = 0;
+        for (int column = 0; column < COLUMNS; column++) {
+            mirrored |= (cells >>> column * COLUMN_STRIDE & COLUMN_BITS) << (COLUMNS - 1 - column) * COLUMN_STRIDE;
+        }
+        return mirrored;
+    }
+
+    /**
+     * Writes the header of a book.
+     */
+    static ByteBuffer header(final int plies, final int depth, final int entryCount) {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putInt(plies).putInt(depth).putInt(entryCount);
+        header.rewind();
+        return header;
+    }
+
+}
@@ -0,0 +1,156 @@
+package com.gluck.gaming.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.gluck.gaming.dao.model.BitBoard;
+
+/**
+ * Offline tool writing an {@link OpeningBook}: every position with fewer discs than the number of plies where no line is completed yet is searched to a
+ * fixed depth, once for a position and its mirror image, and the best columns and scores are written sorted by key. The file is written under a temporary
+ * name and moved in place once complete, so that a book being replaced is never read half written.<br>
+ * Run with {@code java -cp <engine classpath> com.gluck.gaming.engine.OpeningBookGenerator <book file> [plies] [depth] [transposition table MB] [threads]}.
+ *
+ * @author Vinay Semwal
+ */
+public final class OpeningBookGenerator {
+
+    private static final Logger logger = LogManager.getLogger(OpeningBookGenerator.class);
+
+    private static final int PROGRESS_LOG_INTERVAL = 1000;
+
+    private final ParallelSolver solver;
+
+    private final SearchLimits limits;
+
+    private final int plies;
+
+    private final Set<Long> keys = new HashSet<Long>();
+
+    private long[] entries = new long[1024];
+
+    private int entryCount;
+
+    /**
+     * @param solver solver searching the positions
+     * @param plies number of plies of the book, the positions with fewer discs being put in it
+     * @param depth depth each position is searched to
+     */
+    OpeningBookGenerator(final ParallelSolver solver, final int plies, final int depth) {
+        if (plies < 1 || depth < 1) {
+            throw new IllegalArgumentException("The opening book needs at least 1 ply searched to a depth of at least 1, configured plies : " + plies
+                + ", depth : " + depth);
+        }
+        this.solver = solver;
+        this.limits = new SearchLimits(depth, 0, 0);
+        this.plies = plies;
+    }
+
+    /**
+     * @param args book file to write, number of plies, 8 by default, depth of the searches, 16 by default, size of the transposition table in MB, 256 by
+     *            default, and number of threads, the number of processors by default
+     * @throws IOException if the book cannot be written
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length == 0) {
+            logger.error("Usage : OpeningBookGenerator <book file> [plies] [depth] [transposition table MB] [threads]");
+            return;
+        }
+        final int plies = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        final int depth = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        final int tableSizeMegabytes = args.length > 3 ? Integer.parseInt(args[3]) : 256;
+        final int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        final ParallelSolver solver = new ParallelSolver(new TranspositionTable(tableSizeMegabytes), threads);
+        try {
+            final long startMillis = System.currentTimeMillis();
+            final int entryCount = new OpeningBookGenerator(solver, plies, depth).generate(Paths.get(args[0]));
+            logger.info("Opening book of {} positions written to {} in {} s", entryCount, args[0], (System.currentTimeMillis() - startMillis) / 1000);
+        } finally {
+            solver.shutdown();
+        }
+    }
+
+    /**
+     * Searches the positions and writes the book.
+     *
+     * @param path book file to write
+     * @return number of positions written.
+     * @throws IOException if the book cannot be written
+     */
+    int generate(final Path path) throws IOException {
+        addPositions(0, 0, 0);
+        //The keys take the 49 high bits of the entries, so the entries are sorted as unsigned values by flipping their sign bit around a signed sort.
+        for (int i = 0; i < entryCount; i++) {
+            entries[i] ^= Long.MIN_VALUE;
+        }
+        Arrays.sort(entries, 0, entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            entries[i] ^= Long.MIN_VALUE;
+        }
+        write(path);
+        return entryCount;
+    }
+
+    /**
+     * Searches the position and the positions reachable from it, depth first.
+     */
+    private void addPositions(final long current, final long mask, final int moves) {
+        if (moves == plies || !keys.add(OpeningBook.canonicalKey(current, mask))) {
+            return;
+        }
+        addEntry(current, mask, moves);
+        final long possible = Connect4Solver.possibleMoves(mask);
+        for (int column = 0; column < BitBoard.COLUMNS; column++) {
+            final long move = possible & BitBoard.columnMask(column);
+            //A move completing a line ends the game, there is nothing to search after it.
+            if (move != 0 && !BitBoard.hasConnectedFour(current | move)) {
+                addPositions(current ^ mask, mask | move, moves + 1);
+            }
+        }
+    }
+
+    private void addEntry(final long current, final long mask, final int moves) {
+        final long opponent = current ^ mask;
+        final BitBoard board = moves % 2 == 0 ? new BitBoard(current, opponent) : new BitBoard(opponent, current);
+        final SearchResult result = solver.search(board, limits);
+        final long key = current + mask;
+        final long mirroredKey = OpeningBook.mirror(current) + OpeningBook.mirror(mask);
+        final int column = mirroredKey < key ? BitBoard.COLUMNS - 1 - result.getBestColumn() : result.getBestColumn();
+        if (entryCount == entries.length) {
+            entries = Arrays.copyOf(entries, entryCount * 2);
+        }
+        entries[entryCount++] = OpeningBook.entry(Math.min(key, mirroredKey), column, result.getScore());
+        if (entryCount % PROGRESS_LOG_INTERVAL == 0) {
+            logger.info("{} positions searched", entryCount);
+        }
+    }
+
+    private void write(final Path path) throws IOException {
+        final Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (final FileChannel channel = FileChannel
+            .open(temporaryPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(OpeningBook.HEADER_BYTES + entryCount * Long.BYTES);
+            buffer.put(OpeningBook.header(plies, limits.getMaxDepth(), entryCount));
+            buffer.asLongBuffer().put(entries, 0, entryCount);
+            buffer.rewind();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.gluck.gaming.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.gluck.gaming.dao.model.BitBoard;
+import com.gluck.gaming.dao.model.Game;
+
+/**
+ * Searches a position on several threads sharing one {@link TranspositionTable} (lazy SMP): every thread runs its own {@link Connect4Solver} on the whole
+ * position, the threads finding in the table the positions already searched by the others. The helper threads try the root columns in another order and
+ * half of them start one iteration deeper, so that they do not all search the same positions at the same time.<br>
+ * The first thread to complete its search stops the others, each of them returning its last completed iteration, and the result of the deepest search is
+ * returned, a solved one first. The depth, node and time limits apply to each thread.<br>
+ * With a single thread the search runs in the calling thread only and gives the same result as a {@link Connect4Solver} with the same table, so it stays
+ * deterministic. With more threads the result depends on the timing of the threads. The searches of an instance are run one at a time.
+ *
+ * @author Vinay Semwal
+ */
+public class ParallelSolver {
+
+    private static final Logger logger = LogManager.getLogger(ParallelSolver.class);
+
+    private final Connect4Solver[] solvers;
+
+    private final ExecutorService executor;
+
+    /**
+     * @param table table of the positions already searched, shared by all the threads
+     * @param threads number of threads searching a position, including the calling thread
+     */
+    public ParallelSolver(final TranspositionTable table, final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The parallel solver needs at least 1 thread, configured : " + threads);
+        }
+        if (table == null) {
+            throw new IllegalArgumentException("The threads of the parallel solver need a transposition table to share.");
+        }
+        solvers = new Connect4Solver[threads];
+        for (int i = 0; i < threads; i++) {
+            solvers[i] = new Connect4Solver(table);
+        }
+        if (threads == 1) {
+            executor = null;
+        } else {
+            final AtomicInteger threadCount = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads - 1, runnable -> {
+                final Thread thread = new Thread(runnable, "parallel-solver-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Searches the position of a game for the player whose turn is next.
+     *
+     * @param game game read from the database
+     * @param limits budget of the search of each thread
+     * @return the best column and the score of the position, with the positions searched by all the threads.
+     */
+    public SearchResult search(final Game game, final SearchLimits limits) {
+        return search(game.getBoard(), limits);
+    }
+
+    /**
+     * Searches a position for the player whose turn is next on all the threads.
+     *
+     * @param board grid of the position, not changed by the search
+     * @param limits budget of the search of each thread
+     * @return the best column and the score of the position, with the positions searched by all the threads.
+     */
+    public synchronized SearchResult search(final BitBoard board, final SearchLimits limits) {
+        if (executor == null) {
+            return solvers[0].search(board, limits);
+        }
+        final long startNanos = System.nanoTime();
+        final AtomicBoolean stop = new AtomicBoolean();
+        final List<Future<SearchResult>> helpers = new ArrayList<Future<SearchResult>>(solvers.length - 1);
+        for (int i = 1; i < solvers.length; i++) {
+            final int threadIndex = i;
+            final BitBoard position = board.copy();
+            helpers.add(executor.submit(() -> {
+                final SearchResult result = solvers[threadIndex].search(position, limits, threadIndex, stop);
+                stop.set(true);
+                return result;
+            }));
+        }
+        SearchResult best = solvers[0].search(board, limits, 0, stop);
+        stop.set(true);
+        long nodes = best.getNodes();
+        for (final Future<SearchResult> helper : helpers) {
+            final SearchResult result = getResult(helper);
+            nodes += result.getNodes();
+            if (isBetter(result, best)) {
+                best = result;
+            }
+        }
+        return new SearchResult(best.getBestColumn(), best.getScore(), best.getDepth(), nodes, System.nanoTime() - startNanos, best.isSolved());
+    }
+
+    /**
+     * @return true if the result is solved and the best one is not, or if it is deeper with the same solved status.
+     */
+    private static boolean isBetter(final SearchResult result, final SearchResult best) {
+        if (result.isSolved() != best.isSolved()) {
+            return result.isSolved();
+        }
+        return result.getDepth() > best.getDepth();
+    }
+
+    private static SearchResult getResult(final Future<SearchResult> helper) {
+        try {
+            return helper.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the helper threads of the search", e);
+        } catch (final ExecutionException e) {
+            throw new IllegalStateException("Helper thread of the search failed", e.getCause());
+        }
+    }
+
+    /**
+     * @return number of threads searching a position, including the calling thread.
+     */
+    public int getThreads() {
+        return solvers.length;
+    }
+
+    /**
+     * Stops the helper threads. The solver must not be used afterwards.
+     */
+    public void shutdown() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.error("Parallel solver threads did not stop in time.");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.gluck.gaming.engine;
+
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Immutable data class containing the budget of a single search. A limit set to 0 is not applied; the search always stops once the position is solved.
+ *
+ * @author Vinay Semwal
+ */
+public class SearchLimits {
+
+    /**
+     * Limits solving the position, whatever the time it takes.
+     */
+    public static final SearchLimits NONE = new SearchLimits(0, 0, 0);
+
+    private final int maxDepth;
+
+    private final long maxNodes;
+
+    private final long maxTimeMillis;
+
+    /**
+     * @param maxDepth maximum number of moves searched ahead, 0 for no limit
+     * @param maxNodes maximum number of positions visited, 0 for no limit
+     * @param maxTimeMillis maximum time spent in the search, 0 for no limit
+     */
+    public SearchLimits(final int maxDepth, final long maxNodes, final long maxTimeMillis) {
+        if (maxDepth < 0 || maxNodes < 0 || maxTimeMillis < 0) {
+            throw new IllegalArgumentException("Search limits can not be negative");
+        }
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+        this.maxTimeMillis = maxTimeMillis;
+    }
+
+    /**
+     * @return the maxDepth
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @return the maxNodes
+     */
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+
+    /**
+     * @return the maxTimeMillis
+     */
+    public long getMaxTimeMillis() {
+        return maxTimeMillis;
+    }
+
+    @Override
+    public String toString() {
+        return ReflectionToStringBuilder.toString(this, ToStringStyle.MULTI_LINE_STYLE);
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.gluck.gaming.engine;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Immutable data class containing the outcome of a search, from the point of view of the player to move.<br>
+ * A score of {@link Connect4Solver#WIN_SCORE} or more is a forced win, higher scores being quicker wins; the negated values are forced losses and 0 is a draw
+ * when the position is solved. Scores of unsolved positions are heuristic values of the deepest completed iteration.
+ *
+ * @author Vinay Semwal
+ */
+public class SearchResult {
+
+    private final int bestColumn;
+
+    private final int score;
+
+    private final int depth;
+
+    private final long nodes;
+
+    private final long elapsedNanos;
+
+    private final boolean solved;
+
+    /**
+     * @param bestColumn column to play, {@link Connect4Solver#NO_MOVE} if the game is over
+     * @param score score of the position for the player to move
+     * @param depth number of moves searched ahead by the deepest completed iteration
+     * @param nodes number of positions visited
+     * @param elapsedNanos time spent in the search
+     * @param solved true if the score is exact and not a heuristic value
+     */
+    public SearchResult(final int bestColumn, final int score, final int depth, final long nodes, final long elapsedNanos, final boolean solved) {
+        this.bestColumn = bestColumn;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+        this.solved = solved;
+    }
+
+    /**
+     * @return the bestColumn
+     */
+    public int getBestColumn() {
+        return bestColumn;
+    }
+
+    /**
+     * @return the score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return the depth
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return the nodes
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return the elapsedNanos
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return the solved
+     */
+    public boolean isSolved() {
+        return solved;
+    }
+
+    /**
+     * @return number of positions visited per second of search.
+     */
+    public long getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * @return true if the player to move has a forced win.
+     */
+    public boolean isWin() {
+        return score >= Connect4Solver.WIN_SCORE;
+    }
+
+    /**
+     * @return true if the player to move loses against the best play of the opponent.
+     */
+    public boolean isLoss() {
+        return score <= -Connect4Solver.WIN_SCORE;
+    }
+
+    @Override
+    public String toString() {
+        return ReflectionToStringBuilder.toString(this, ToStringStyle.MULTI_LINE_STYLE);
+    }
+
+}
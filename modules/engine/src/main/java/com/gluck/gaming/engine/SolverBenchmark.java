@@ -0,0 +1,97 @@
+package com.gluck.gaming.engine;
+
+import java.util.function.BiFunction;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.gluck.gaming.dao.model.BitBoard;
+
+/**
+ * Measures the speed of {@link Connect4Solver} in positions visited per second, on an opening searched to a fixed depth and on middle and end game positions
+ * solved completely. Each position is searched a few times first so that the search loop is compiled before it is measured. The transposition table is
+ * emptied before every search.<br>
+ * Run with {@code java -cp <engine classpath> com.gluck.gaming.engine.SolverBenchmark [rounds] [transposition table MB] [threads]}, a table size of 0
+ * searching without a table and more than one thread searching with a {@link ParallelSolver}.
+ *
+ * @author Vinay Semwal
+ */
+public final class SolverBenchmark {
+
+    private static final Logger logger = LogManager.getLogger(SolverBenchmark.class);
+
+    private static final int WARM_UP_ROUNDS = 3;
+
+    /**
+     * Positions given as the columns played in turn from the empty board, with the limits of their search.
+     */
+    private static final String[] POSITIONS = { "", "63541235", "1405402300210112", "25103415024320510462", "210625450413524024664063" };
+
+    private static final SearchLimits[] LIMITS = {
+        new SearchLimits(14, 0, 0),
+        new SearchLimits(16, 0, 0),
+        SearchLimits.NONE,
+        SearchLimits.NONE,
+        SearchLimits.NONE };
+
+    private SolverBenchmark() {
+    }
+
+    /**
+     * @param args number of measured rounds, 5 by default, size of the transposition table in MB, 64 by default, and number of threads, 1 by default
+     */
+    public static void main(final String[] args) {
+        final int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        final int tableSizeMegabytes = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        final int threads = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        final TranspositionTable table = tableSizeMegabytes == 0 ? null : new TranspositionTable(tableSizeMegabytes);
+        final ParallelSolver parallelSolver = threads > 1 ? new ParallelSolver(table, threads) : null;
+        final BiFunction<BitBoard, SearchLimits, SearchResult> solver = parallelSolver == null ? new Connect4Solver(table)::search : parallelSolver::search;
+        long totalNodes = 0;
+        long totalNanos = 0;
+        for (int i = 0; i < POSITIONS.length; i++) {
+            final BitBoard board = play(POSITIONS[i]);
+            for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+                clear(table);
+                solver.apply(board, LIMITS[i]);
+            }
+            long nodes = 0;
+            long nanos = 0;
+            SearchResult result = null;
+            for (int round = 0; round < rounds; round++) {
+                clear(table);
+                result = solver.apply(board, LIMITS[i]);
+                nodes += result.getNodes();
+                nanos += result.getElapsedNanos();
+            }
+            logger.info("Position '{}' : {} threads, depth {}, score {}, best column {}, {} nodes in {} ms, {} nodes/s", POSITIONS[i], threads,
+                result.getDepth(), result.getScore(), result.getBestColumn(), nodes / rounds, nanos / rounds / 1000000,
+                nanos == 0 ? 0 : nodes * 1000000000L / nanos);
+            totalNodes += nodes;
+            totalNanos += nanos;
+        }
+        logger.info("Total : {} nodes/s", totalNanos == 0 ? 0 : totalNodes * 1000000000L / totalNanos);
+        if (table != null) {
+            logger.info("Transposition table of {} MB : hit rate {}, occupancy {}", tableSizeMegabytes, table.getHitRate(), table.getOccupancy());
+        }
+        if (parallelSolver != null) {
+            parallelSolver.shutdown();
+        }
+    }
+
+    private static void clear(final TranspositionTable table) {
+        if (table != null) {
+            table.clear();
+        }
+    }
+
+    private static BitBoard play(final String columns) {
+        final BitBoard board = new BitBoard();
+        for (int i = 0; i < columns.length(); i++) {
+            final int column = columns.charAt(i) - '0';
+            board.fillCell(BitBoard.ROWS - 1 - board.getColumnHeight(column), column, i % 2 == 0 ? BitBoard.FIRST_PLAYER_DISC : BitBoard.SECOND_PLAYER_DISC);
+        }
+        return board;
+    }
+
+}
@@ -0,0 +1,244 @@
+package com.gluck.gaming.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed size table of the positions already searched by {@link Connect4Solver}, held in a single {@code long[]} so that it costs no object per entry and
+ * can be sized in megabytes.<br>
+ * The table is made of buckets of two entries, each entry taking two {@code long} values: the position key xor the data, and the data. The first entry of a
+ * bucket keeps the deepest search of the bucket, unless it was written by an older search; the second one is replaced by every other write. Entries are
+ * read and written without locks by all the solvers sharing the table: an entry half written by another thread fails the key check and is read as a miss.
+ *
+ * @author Vinay Semwal
+ */
+public class TranspositionTable {
+
+    /**
+     * The score is a lower bound, the search having stopped on a move scoring at least beta.
+     */
+    public static final int LOWER_BOUND = 1;
+
+    /**
+     * The score is an upper bound, no move having scored more than alpha.
+     */
+    public static final int UPPER_BOUND = 2;
+
+    /**
+     * The score is exact for the depth of the entry.
+     */
+    public static final int EXACT = 3;
+
+    /**
+     * Number of {@code long} values of a bucket.
+     */
+    private static final int BUCKET_LENGTH = 4;
+
+    private static final int MAX_BUCKET_BITS = 28;
+
+    private static final long SCORE_OFFSET = 1 << 15;
+
+    private static final int DEPTH_SHIFT = 16;
+
+    private static final int BOUND_SHIFT = 24;
+
+    private static final int COLUMN_SHIFT = 26;
+
+    private static final int GENERATION_SHIFT = 32;
+
+    /**
+     * Set in the data of every entry, so that an empty entry never matches a key.
+     */
+    private static final long VALID = 1L << 63;
+
+    private static final int OCCUPANCY_SAMPLE_BUCKETS = 1000;
+
+    private final long[] entries;
+
+    private final int bucketBits;
+
+    private final int sizeMegabytes;
+
+    private final AtomicInteger generation = new AtomicInteger();
+
+    private final LongAdder probeCount = new LongAdder();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    /**
+     * @param sizeMegabytes memory taken by the table, rounded down to a power of 2 number of buckets.
+     */
+    public TranspositionTable(final int sizeMegabytes) {
+        if (sizeMegabytes < 1) {
+            throw new IllegalArgumentException("The transposition table needs at least 1 MB, configured : " + sizeMegabytes);
+        }
+        final long buckets = sizeMegabytes * 1024L * 1024L / (BUCKET_LENGTH * Long.BYTES);
+        this.bucketBits = Math.min(63 - Long.numberOfLeadingZeros(buckets), MAX_BUCKET_BITS);
+        this.entries = new long[BUCKET_LENGTH << bucketBits];
+        this.sizeMegabytes = sizeMegabytes;
+    }
+
+    /**
+     * @param key key of the position, unique for every position
+     * @return data of the entry of the position, 0 if the position is not in the table.
+     */
+    public long probe(final long key) {
+        final int index = bucketIndex(key);
+        final long data = entries[index + 1];
+        if ((entries[index] ^ data) == key && data != 0) {
+            return data;
+        }
+        final long otherData = entries[index + 3];
+        if ((entries[index + 2] ^ otherData) == key && otherData != 0) {
+            return otherData;
+        }
+        return 0;
+    }
+
+    /**
+     * Stores the result of the search of a position.
+     *
+     * @param key key of the position, unique for every position
+     * @param score score of the position for the player to move
+     * @param depth number of moves searched ahead
+     * @param bound {@link #LOWER_BOUND}, {@link #UPPER_BOUND} or {@link #EXACT}
+     * @param bestColumn best column found, {@link Connect4Solver#NO_MOVE} if none
+     */
+    public void store(final long key, final int score, final int depth, final int bound, final int bestColumn) {
+        final int currentGeneration = generation.get() & 0xFF;
+        final long data = VALID
+            | (long) currentGeneration << GENERATION_SHIFT
+            | (long) (bestColumn + 1) << COLUMN_SHIFT
+            | (long) bound << BOUND_SHIFT
+            | (long) depth << DEPTH_SHIFT
+            | (score + SCORE_OFFSET);
+        final int index = bucketIndex(key);
+        final long deepData = entries[index + 1];
+        if (deepData == 0
+            || (entries[index] ^ deepData) == key
+            || getDepth(deepData) < depth
+            || (int) (deepData >>> GENERATION_SHIFT & 0xFF) != currentGeneration) {
+            entries[index + 1] = data;
+            entries[index] = key ^ data;
+        } else {
+            entries[index + 3] = data;
+            entries[index + 2] = key ^ data;
+        }
+    }
+
+    /**
+     * Starts a new search, the entries of the previous searches giving way to the entries of the new one.
+     */
+    public void newSearch() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Adds the probes made by a search to the statistics. Solvers count their probes locally so that the table is not written by every probe.
+     *
+     * @param probes number of positions looked up
+     * @param hits number of positions found
+     */
+    public void recordProbes(final long probes, final long hits) {
+        probeCount.add(probes);
+        hitCount.add(hits);
+    }
+
+    /**
+     * Empties the table.
+     */
+    public void clear() {
+        Arrays.fill(entries, 0L);
+    }
+
+    /**
+     * @param data data of an entry
+     * @return score of the entry.
+     */
+    public static int getScore(final long data) {
+        return (int) ((data & 0xFFFF) - SCORE_OFFSET);
+    }
+
+    /**
+     * @param data data of an entry
+     * @return depth of the entry.
+     */
+    public static int getDepth(final long data) {
+        return (int) (data >>> DEPTH_SHIFT & 0xFF);
+    }
+
+    /**
+     * @param data data of an entry
+     * @return bound of the entry.
+     */
+    public static int getBound(final long data) {
+        return (int) (data >>> BOUND_SHIFT & 0x3);
+    }
+
+    /**
+     * @param data data of an entry
+     * @return best column of the entry, {@link Connect4Solver#NO_MOVE} if none.
+     */
+    public static int getBestColumn(final long data) {
+        return (int) (data >>> COLUMN_SHIFT & 0xF) - 1;
+    }
+
+    /**
+     * @return the sizeMegabytes
+     */
+    public int getSizeMegabytes() {
+        return sizeMegabytes;
+    }
+
+    /**
+     * @return number of entries the table can hold.
+     */
+    public int getCapacity() {
+        return entries.length / 2;
+    }
+
+    /**
+     * @return number of positions looked up by the completed searches.
+     */
+    public long getProbeCount() {
+        return probeCount.sum();
+    }
+
+    /**
+     * @return number of positions found by the completed searches.
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return share of the positions looked up that were found, between 0 and 1.
+     */
+    public double getHitRate() {
+        final long probes = probeCount.sum();
+        return probes == 0 ? 0 : (double) hitCount.sum() / probes;
+    }
+
+    /**
+     * @return share of the entries in use, between 0 and 1, estimated from the first buckets of the table.
+     */
+    public double getOccupancy() {
+        final int sampleLength = Math.min(entries.length, OCCUPANCY_SAMPLE_BUCKETS * BUCKET_LENGTH);
+        int used = 0;
+        for (int i = 1; i < sampleLength; i += 2) {
+            if (entries[i] != 0) {
+                used++;
+            }
+        }
+        return (double) used / (sampleLength / 2);
+    }
+
+    /**
+     * @return index of the first value of the bucket of the key, spreading the keys with a multiplicative hash.
+     */
+    int bucketIndex(final long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - bucketBits)) * BUCKET_LENGTH;
+    }
+
+}
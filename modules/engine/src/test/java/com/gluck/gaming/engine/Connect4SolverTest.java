@@ -0,0 +1,172 @@
+package com.gluck.gaming.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.gluck.gaming.dao.model.BitBoard;
+import com.gluck.gaming.dao.model.Game;
+
+/**
+ * Test class for {@link Connect4Solver}
+ *
+ * @author Vinay Semwal
+ */
+public class Connect4SolverTest {
+
+    private final Connect4Solver solver = new Connect4Solver();
+
+    private final TranspositionTable table = new TranspositionTable(4);
+
+    private final Connect4Solver tableSolver = new Connect4Solver(table);
+
+    /**
+     * Test that a line is completed when it can be and that the only move blocking the line of the opponent is played otherwise.
+     */
+    @Test
+    public void testWinAndBlock() {
+        final SearchResult win = solver.search(play("010101"), SearchLimits.NONE);
+        assertEquals(0, win.getBestColumn());
+        assertEquals(Connect4Solver.winScore(7), win.getScore());
+        assertTrue(win.isSolved());
+        assertTrue(win.isWin());
+
+        final SearchResult block = solver.search(play("01010"), new SearchLimits(4, 0, 0));
+        assertEquals(0, block.getBestColumn());
+        assertFalse(block.isWin());
+    }
+
+    /**
+     * Test that a finished game has no move to play.
+     */
+    @Test
+    public void testGameOver() {
+        final SearchResult result = solver.search(play("0101010"), SearchLimits.NONE);
+        assertEquals(Connect4Solver.NO_MOVE, result.getBestColumn());
+        assertTrue(result.isLoss());
+    }
+
+    /**
+     * Test that the scores of end game positions are the ones found by a plain minimax without pruning.
+     */
+    @Test
+    public void testScoresMatchMinimax() {
+        final Random random = new Random(7);
+        int positions = 0;
+        while (positions < 40) {
+            final BitBoard board = randomPosition(random, BitBoard.ROWS * BitBoard.COLUMNS - 9);
+            if (board == null) {
+                continue;
+            }
+            final SearchResult result = solver.search(board, SearchLimits.NONE);
+            final int moves = board.getFilledCellCount();
+            final long current = moves % 2 == 0 ? board.getFirstPlayerDiscs() : board.getSecondPlayerDiscs();
+            final long mask = board.getFirstPlayerDiscs() | board.getSecondPlayerDiscs();
+            assertTrue(result.isSolved());
+            assertEquals(board.toString(), minimax(current, mask, moves), result.getScore());
+            assertEquals(board.toString(), result.getScore(), tableSolver.search(board, SearchLimits.NONE).getScore());
+            positions++;
+        }
+    }
+
+    /**
+     * Test that the transposition table gives the score found without it while visiting fewer positions.
+     */
+    @Test
+    public void testTranspositionTable() {
+        final BitBoard board = play("25103415024320510462");
+        final SearchResult result = solver.search(board, SearchLimits.NONE);
+        final SearchResult tableResult = tableSolver.search(board, SearchLimits.NONE);
+        assertTrue(tableResult.isSolved());
+        assertEquals(result.getScore(), tableResult.getScore());
+        assertTrue(tableResult.getNodes() * 2 < result.getNodes());
+        assertTrue(table.getHitCount() > 0);
+        assertTrue(table.getProbeCount() >= table.getHitCount());
+        assertTrue(table.getOccupancy() > 0);
+    }
+
+    /**
+     * Test that the search stops once the node budget is spent, returning the best move of the last completed iteration.
+     */
+    @Test
+    public void testBudget() {
+        final SearchResult result = solver.search(new BitBoard(), new SearchLimits(0, 20000, 0));
+        assertFalse(result.isSolved());
+        assertTrue(result.getNodes() <= 20000);
+        assertTrue(result.getDepth() > 0);
+        assertTrue(result.getBestColumn() >= 0 && result.getBestColumn() < BitBoard.COLUMNS);
+
+        final long start = System.currentTimeMillis();
+        final SearchResult timedResult = solver.search(new BitBoard(), new SearchLimits(0, 0, 50));
+        assertFalse(timedResult.isSolved());
+        assertTrue(System.currentTimeMillis() - start < 1000);
+
+        final SearchResult depthResult = solver.search(new BitBoard(), new SearchLimits(8, 0, 0));
+        assertEquals(8, depthResult.getDepth());
+        assertEquals(3, depthResult.getBestColumn());
+    }
+
+    /**
+     * Test that the position of a stored game is searched for the player whose turn is next.
+     */
+    @Test
+    public void testSearchGame() {
+        final Game game = new Game("id", "session", "IN_PROGRESS", "p1", "p1", "p2", play("10161"), null);
+        final SearchResult result = solver.search(game, new SearchLimits(6, 0, 0));
+        //The second player has to block the first player's column.
+        assertEquals(1, result.getBestColumn());
+    }
+
+    /**
+     * @param columns columns played in turn by each player, starting with the first player
+     * @return the board after the moves.
+     */
+    static BitBoard play(final String columns) {
+        final BitBoard board = new BitBoard();
+        for (int i = 0; i < columns.length(); i++) {
+            final int column = columns.charAt(i) - '0';
+            board.fillCell(BitBoard.ROWS - 1 - board.getColumnHeight(column), column, i % 2 == 0 ? BitBoard.FIRST_PLAYER_DISC : BitBoard.SECOND_PLAYER_DISC);
+        }
+        return board;
+    }
+
+    /**
+     * @return a position reached with random moves where no line is completed yet, null if a line was completed on the way.
+     */
+    private static BitBoard randomPosition(final Random random, final int discs) {
+        final BitBoard board = new BitBoard();
+        for (int i = 0; i < discs; i++) {
+            int column = random.nextInt(BitBoard.COLUMNS);
+            while (board.getColumnHeight(column) == BitBoard.ROWS) {
+                column = random.nextInt(BitBoard.COLUMNS);
+            }
+            final int disc = i % 2 == 0 ? BitBoard.FIRST_PLAYER_DISC : BitBoard.SECOND_PLAYER_DISC;
+            board.fillCell(BitBoard.ROWS - 1 - board.getColumnHeight(column), column, disc);
+            if (board.hasConnectedFour(disc)) {
+                return null;
+            }
+        }
+        return board;
+    }
+
+    private static int minimax(final long current, final long mask, final int moves) {
+        if (moves == Connect4Solver.CELLS) {
+            return 0;
+        }
+        int best = Integer.MIN_VALUE;
+        for (int column = 0; column < BitBoard.COLUMNS; column++) {
+            final long move = Connect4Solver.possibleMoves(mask) & BitBoard.columnMask(column);
+            if (move != 0) {
+                final int score = BitBoard.hasConnectedFour(current | move) ? Connect4Solver.winScore(moves + 1)
+                    : -minimax(current ^ mask, mask | move, moves + 1);
+                best = Math.max(best, score);
+            }
+        }
+        return best;
+    }
+
+}
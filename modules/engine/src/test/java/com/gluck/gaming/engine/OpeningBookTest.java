@@ -0,0 +1,126 @@
+package com.gluck.gaming.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.gluck.gaming.dao.model.BitBoard;
+
+/**
+ * Test class for {@link OpeningBook} and {@link OpeningBookGenerator}
+ *
+ * @author Vinay Semwal
+ */
+public class OpeningBookTest {
+
+    private Path folder;
+
+    /**
+     * Creates the folder of the book files.
+     *
+     * @throws Exception if system error occurs
+     */
+    @Before
+    public void setUp() throws Exception {
+        folder = Files.createTempDirectory("opening-book");
+    }
+
+    /**
+     * Deletes the book files.
+     *
+     * @throws Exception if system error occurs
+     */
+    @After
+    public void cleanUp() throws Exception {
+        try (final DirectoryStream<Path> files = Files.newDirectoryStream(folder)) {
+            for (final Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(folder);
+    }
+
+    /**
+     * Test that every position of the book is found, with the column of its mirror image mirrored, and that the positions left out are not.
+     *
+     * @throws Exception if system error occurs
+     */
+    @Test
+    public void testGenerateAndProbe() throws Exception {
+        final Path path = folder.resolve("opening.book");
+        final ParallelSolver solver = new ParallelSolver(new TranspositionTable(4), 1);
+        final int entryCount = new OpeningBookGenerator(solver, 7, 4).generate(path);
+        final OpeningBook book = OpeningBook.open(path);
+        assertEquals(entryCount, book.getEntryCount());
+        assertEquals(OpeningBook.HEADER_BYTES + entryCount * Long.BYTES, Files.size(path));
+        assertEquals(7, book.getPlies());
+        assertEquals(4, book.getDepth());
+        assertTrue(book.isDeepEnoughFor(0));
+        assertTrue(book.isDeepEnoughFor(8));
+        assertFalse(book.isDeepEnoughFor(2));
+
+        final long emptyBoardEntry = book.probe(new BitBoard());
+        assertTrue(emptyBoardEntry != 0);
+        assertEquals(3, OpeningBook.getBestColumn(emptyBoardEntry));
+
+        final long win = book.probe(Connect4SolverTest.play("010101"));
+        assertEquals(0, OpeningBook.getBestColumn(win));
+        assertEquals(Connect4Solver.winScore(7), OpeningBook.getScore(win));
+        final long mirroredWin = book.probe(Connect4SolverTest.play("656565"));
+        assertEquals(6, OpeningBook.getBestColumn(mirroredWin));
+        assertEquals(Connect4Solver.winScore(7), OpeningBook.getScore(mirroredWin));
+
+        final long block = book.probe(Connect4SolverTest.play("01010"));
+        assertEquals(0, OpeningBook.getBestColumn(block));
+        assertTrue(OpeningBook.getScore(block) < Connect4Solver.WIN_SCORE);
+
+        //Every position of up to 3 discs is in the book.
+        int found = 0;
+        for (int first = 0; first < BitBoard.COLUMNS; first++) {
+            for (int second = 0; second < BitBoard.COLUMNS; second++) {
+                for (int third = 0; third < BitBoard.COLUMNS; third++) {
+                    final long entry = book.probe(Connect4SolverTest.play("" + first + second + third));
+                    assertTrue(entry != 0);
+                    assertTrue(OpeningBook.getBestColumn(entry) < BitBoard.COLUMNS);
+                    found++;
+                }
+            }
+        }
+        assertEquals(343, found);
+        assertEquals(0, book.probe(Connect4SolverTest.play("0123456")));
+    }
+
+    /**
+     * Test that a file which is not a book is refused.
+     *
+     * @throws Exception if system error occurs
+     */
+    @Test
+    public void testInvalidFile() throws Exception {
+        final Path path = folder.resolve("not.book");
+        Files.write(path, new byte[OpeningBook.HEADER_BYTES + Long.BYTES]);
+        try {
+            OpeningBook.open(path);
+            fail("A file without the magic number of a book must be refused.");
+        } catch (final IOException e) {
+            assertTrue(e.getMessage().contains("Not an opening book"));
+        }
+        try {
+            new OpeningBookGenerator(new ParallelSolver(new TranspositionTable(1), 1), 0, 4);
+            fail("A book without plies must not be generated.");
+        } catch (final IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("plies : 0"));
+        }
+    }
+
+}
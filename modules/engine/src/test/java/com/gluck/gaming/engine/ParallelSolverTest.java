@@ -0,0 +1,80 @@
+package com.gluck.gaming.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.gluck.gaming.dao.model.BitBoard;
+
+/**
+ * Test class for {@link ParallelSolver}
+ *
+ * @author Vinay Semwal
+ */
+public class ParallelSolverTest {
+
+    /**
+     * Test that a single thread search gives exactly the result of a {@link Connect4Solver} with the same table.
+     */
+    @Test
+    public void testSingleThreadIsDeterministic() {
+        final TranspositionTable table = new TranspositionTable(4);
+        final ParallelSolver parallelSolver = new ParallelSolver(table, 1);
+        final BitBoard board = Connect4SolverTest.play("1405402300210112");
+        final SearchResult result = parallelSolver.search(board, SearchLimits.NONE);
+        table.clear();
+        final SearchResult expected = new Connect4Solver(table).search(board, SearchLimits.NONE);
+        assertEquals(expected.getBestColumn(), result.getBestColumn());
+        assertEquals(expected.getScore(), result.getScore());
+        assertEquals(expected.getNodes(), result.getNodes());
+        assertEquals(1, parallelSolver.getThreads());
+    }
+
+    /**
+     * Test that the positions solved by several threads get the score found by a single thread, the moves being searched by all the threads.
+     */
+    @Test
+    public void testParallelSearch() {
+        final ParallelSolver parallelSolver = new ParallelSolver(new TranspositionTable(4), 4);
+        try {
+            for (final String position : new String[] { "25103415024320510462", "210625450413524024664063", "1405402300210112" }) {
+                final BitBoard board = Connect4SolverTest.play(position);
+                final SearchResult expected = new Connect4Solver(new TranspositionTable(4)).search(board, SearchLimits.NONE);
+                final SearchResult result = parallelSolver.search(board, SearchLimits.NONE);
+                assertTrue(result.isSolved());
+                assertEquals(position, expected.getScore(), result.getScore());
+                assertEquals(position, expected.isWin(), result.isWin());
+            }
+            //The main thread finishing stops the helper threads.
+            final long start = System.currentTimeMillis();
+            final SearchResult result = parallelSolver.search(new BitBoard(), new SearchLimits(0, 0, 100));
+            assertTrue(System.currentTimeMillis() - start < 2000);
+            assertTrue(result.getDepth() > 0);
+            assertTrue(result.getBestColumn() >= 0 && result.getBestColumn() < BitBoard.COLUMNS);
+        } finally {
+            parallelSolver.shutdown();
+        }
+    }
+
+    /**
+     * Test that a solver without thread or table cannot be created.
+     */
+    @Test
+    public void testInvalidConfiguration() {
+        try {
+            new ParallelSolver(new TranspositionTable(1), 0);
+            fail("A parallel solver without thread must not be created.");
+        } catch (final IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("at least 1 thread"));
+        }
+        try {
+            new ParallelSolver(null, 2);
+            fail("A parallel solver without table must not be created.");
+        } catch (final IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("transposition table"));
+        }
+    }
+
+}
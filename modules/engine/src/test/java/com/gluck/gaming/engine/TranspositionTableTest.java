@@ -0,0 +1,102 @@
+package com.gluck.gaming.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link TranspositionTable}
+ *
+ * @author Vinay Semwal
+ */
+public class TranspositionTableTest {
+
+    /**
+     * Test that the stored values are read back for the key they were stored with only.
+     */
+    @Test
+    public void testStoreAndProbe() {
+        final TranspositionTable table = new TranspositionTable(1);
+        assertEquals(0, table.probe(0L));
+        table.store(0L, -1035, 42, TranspositionTable.EXACT, Connect4Solver.NO_MOVE);
+        table.store(12345L, 7, 12, TranspositionTable.LOWER_BOUND, 3);
+
+        final long data = table.probe(12345L);
+        assertEquals(7, TranspositionTable.getScore(data));
+        assertEquals(12, TranspositionTable.getDepth(data));
+        assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.getBound(data));
+        assertEquals(3, TranspositionTable.getBestColumn(data));
+
+        final long emptyBoardData = table.probe(0L);
+        assertEquals(-1035, TranspositionTable.getScore(emptyBoardData));
+        assertEquals(Connect4Solver.NO_MOVE, TranspositionTable.getBestColumn(emptyBoardData));
+        assertEquals(0, table.probe(54321L));
+
+        table.clear();
+        assertEquals(0, table.probe(12345L));
+    }
+
+    /**
+     * Test that a deeper entry of the current search is kept when a shallower position falls in the same bucket, and given way to by the next search.
+     */
+    @Test
+    public void testReplacement() {
+        final TranspositionTable table = new TranspositionTable(1);
+        final long key = 1L;
+        final long[] collidingKeys = collidingKeys(table, key, 2);
+        table.store(key, 1, 20, TranspositionTable.EXACT, 3);
+        table.store(collidingKeys[0], 2, 4, TranspositionTable.EXACT, 3);
+        table.store(collidingKeys[1], 3, 4, TranspositionTable.EXACT, 3);
+        assertEquals(20, TranspositionTable.getDepth(table.probe(key)));
+        assertEquals(0, table.probe(collidingKeys[0]));
+        assertEquals(3, TranspositionTable.getScore(table.probe(collidingKeys[1])));
+
+        table.newSearch();
+        table.store(collidingKeys[0], 2, 4, TranspositionTable.EXACT, 3);
+        assertEquals(0, table.probe(key));
+        assertEquals(2, TranspositionTable.getScore(table.probe(collidingKeys[0])));
+    }
+
+    /**
+     * Test the size, hit rate and occupancy reported.
+     */
+    @Test
+    public void testStatistics() {
+        final TranspositionTable table = new TranspositionTable(2);
+        assertEquals(2, table.getSizeMegabytes());
+        assertEquals(2 * 1024 * 1024 / 16, table.getCapacity());
+        assertEquals(0, table.getHitRate(), 0);
+        table.recordProbes(10, 4);
+        table.recordProbes(10, 1);
+        assertEquals(0.25, table.getHitRate(), 0.0001);
+
+        for (long key = 0; key < table.getCapacity(); key++) {
+            table.store(key, 0, 1, TranspositionTable.EXACT, 0);
+        }
+        assertTrue(table.getOccupancy() > 0.5);
+    }
+
+    /**
+     * Test that a table smaller than 1 MB is refused.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize() {
+        new TranspositionTable(0);
+    }
+
+    /**
+     * @return keys falling in the bucket of the given key.
+     */
+    private static long[] collidingKeys(final TranspositionTable table, final long key, final int count) {
+        final long[] keys = new long[count];
+        int found = 0;
+        for (long candidate = key + 1; found < count; candidate++) {
+            if (table.bucketIndex(candidate) == table.bucketIndex(key)) {
+                keys[found++] = candidate;
+            }
+        }
+        return keys;
+    }
+
+}
@@ -1,16 +1,54 @@
 package com.gluck.gaming.objects.factory;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.gluck.gaming.dao.AsyncGameDao;
 import com.gluck.gaming.dao.GameDao;
+import com.gluck.gaming.db.connection.AsyncMongoDbConnectionManager;
+import com.gluck.gaming.db.connection.CommandLatencyMetrics;
+import com.gluck.gaming.db.connection.ConnectionPoolMetrics;
 import com.gluck.gaming.db.connection.MongoDbConnectionManager;
+import com.gluck.gaming.db.connection.MongoDbConnectionSettings;
+import com.gluck.gaming.db.connection.WriteOperation;
+import com.gluck.gaming.domain.AsyncGameDaoAdapter;
+import com.gluck.gaming.domain.AsyncGameDaoImpl;
+import com.gluck.gaming.domain.CachingGameDao;
+import com.gluck.gaming.domain.EventSourcedGameDao;
+import com.gluck.gaming.domain.GameCodec;
+import com.gluck.gaming.domain.GameArchiver;
 import com.gluck.gaming.domain.GameDaoImpl;
+import com.gluck.gaming.domain.GameHeaderCodec;
+import com.gluck.gaming.domain.InMemoryGameDao;
+import com.gluck.gaming.domain.WriteBehindGameDao;
+import com.gluck.gaming.engine.Connect4Solver;
+import com.gluck.gaming.engine.OpeningBook;
+import com.gluck.gaming.engine.TranspositionTable;
+import com.gluck.gaming.service.AsyncConnect4Service;
+import com.gluck.gaming.service.AsyncConnect4ServiceImpl;
 import com.gluck.gaming.service.Connect4Service;
 import com.gluck.gaming.service.Connect4ServiceImpl;
+import com.gluck.gaming.service.FlagFallTimer;
+import com.gluck.gaming.service.GameActivityListener;
+import com.gluck.gaming.service.GameClockListener;
+import com.gluck.gaming.service.IdleGameReaper;
+import com.gluck.gaming.service.SolverAiOpponent;
 import com.gluck.gaming.service.validator.Connect4ServiceValidator;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import com.mongodb.management.JMXConnectionPoolListener;
 
 /**
  * Factory class to manage connect4 game object creation and management. The purpose of the class is to provide dependency injection feature to the connect4
@@ -28,14 +66,110 @@ public class Connect4Factory {
 
     private static final String DB_HOST = "db.host";
 
+    private static final String DB_POOL_MAX_SIZE = "db.pool.max.size";
+
+    private static final String DB_POOL_MIN_SIZE = "db.pool.min.size";
+
+    private static final String DB_POOL_MAX_WAIT_QUEUE_SIZE = "db.pool.max.wait.queue.size";
+
+    private static final String DB_POOL_MAX_WAIT_TIME_MILLIS = "db.pool.max.wait.time.millis";
+
+    private static final String DB_CONNECT_TIMEOUT_MILLIS = "db.connect.timeout.millis";
+
+    private static final String DB_SOCKET_TIMEOUT_MILLIS = "db.socket.timeout.millis";
+
+    private static final String DB_SERVER_SELECTION_TIMEOUT_MILLIS = "db.server.selection.timeout.millis";
+
+    private static final String DB_READ_PREFERENCE = "db.read.preference";
+
+    private static final String DB_WRITE_CONCERN = "db.write.concern";
+
+    private static final String DB_SLOW_OPERATION_THRESHOLD_MILLIS = "db.slow.operation.threshold.millis";
+
+    private static final String DAO_TYPE = "dao.type";
+
+    private static final String IN_MEMORY_DAO_TYPE = "memory";
+
+    private static final String EVENT_SOURCED_DAO_TYPE = "events";
+
+    private static final String SNAPSHOT_INTERVAL = "events.snapshot.interval";
+
+    private static final String CACHE_ENABLED = "cache.enabled";
+
+    private static final String CACHE_MAXIMUM_SIZE = "cache.maximum.size";
+
+    private static final String CACHE_EXPIRE_AFTER_WRITE_SECONDS = "cache.expire.after.write.seconds";
+
+    private static final String WRITE_BEHIND_ENABLED = "write.behind.enabled";
+
+    private static final String WRITE_BEHIND_FLUSH_INTERVAL_MILLIS = "write.behind.flush.interval.millis";
+
+    private static final String WRITE_BEHIND_BATCH_SIZE = "write.behind.batch.size";
+
+    private static final String WRITE_BEHIND_MAXIMUM_PENDING_GAMES = "write.behind.maximum.pending.games";
+
+    private static final String WRITE_BEHIND_EXPIRE_AFTER_IDLE_SECONDS = "write.behind.expire.after.idle.seconds";
+
+    private static final String ARCHIVE_ENABLED = "archive.enabled";
+
+    private static final String ARCHIVE_AFTER_HOURS = "archive.after.hours";
+
+    private static final String ARCHIVE_INTERVAL_SECONDS = "archive.interval.seconds";
+
+    private static final String ARCHIVE_BATCH_SIZE = "archive.batch.size";
+
+    private static final String ARCHIVE_MAXIMUM_GAMES_PER_SECOND = "archive.maximum.games.per.second";
+
+    private static final String REAPER_ENABLED = "reaper.enabled";
+
+    private static final String REAPER_SUSPEND_AFTER_MINUTES = "reaper.suspend.after.minutes";
+
+    private static final String REAPER_ABANDON_AFTER_MINUTES = "reaper.abandon.after.minutes";
+
+    private static final String REAPER_TICK_MILLIS = "reaper.tick.millis";
+
+    private static final String CLOCK_TICK_MILLIS = "clock.tick.millis";
+
+    private static final String ENGINE_TRANSPOSITION_TABLE_MB = "engine.transposition.table.mb";
+
+    private static final String ENGINE_OPENING_BOOK = "engine.opening.book";
+
+    private static final String AI_THREADS = "ai.threads";
+
+    private static final String AI_QUEUE_SIZE = "ai.queue.size";
+
+    private static final String AI_MAX_TIME_MILLIS = "ai.max.time.millis";
+
+    private static final String AI_REPLY_TIMEOUT_MILLIS = "ai.reply.timeout.millis";
+
+    private static final int AI_QUEUE_SEARCHES_PER_THREAD = 4;
+
     private static Connect4ServiceValidator connect4ServiceValidator;
 
+    private static GameClockListener gameClockListener;
+
+    private static GameActivityListener gameActivityListener;
+
     private static Connect4Service connect4Service;
 
+    private static AsyncConnect4Service asyncConnect4Service;
+
     private static GameDao gameDao;
 
+    private static AsyncGameDao asyncGameDao;
+
     private static MongoDbConnectionManager connectionManager;
 
+    private static TranspositionTable transpositionTable;
+
+    private static SolverAiOpponent aiOpponent;
+
+    private static ThreadPoolExecutor aiReplyExecutor;
+
+    private static final List<ConnectionPoolMetrics> connectionPoolMetrics = new ArrayList<ConnectionPoolMetrics>();
+
+    private static final List<CommandLatencyMetrics> commandLatencyMetrics = new ArrayList<CommandLatencyMetrics>();
+
     private static ConfigProvider configProvider = new ConfigProvider();
 
     /**
@@ -51,31 +185,351 @@ public class Connect4Factory {
             connectionManager = new MongoDbConnectionManager(
                 configProvider.getConfigurations().getProperty(DB_NAME),
                 configProvider.getConfigurations().getProperty(DB_HOST),
-                Integer.valueOf(configProvider.getConfigurations().getProperty(DB_PORT)));
+                Integer.valueOf(configProvider.getConfigurations().getProperty(DB_PORT)),
+                Arrays.asList(new GameCodec(), new GameHeaderCodec()),
+                getMongoDbConnectionSettings("sync", true));
         }
         return connectionManager;
     }
 
+    /**
+     * @return statistics of the connection pools of the Mongo DB clients created so far.
+     */
+    public static synchronized List<ConnectionPoolMetrics> getConnectionPoolMetrics() {
+        return Collections.unmodifiableList(new ArrayList<ConnectionPoolMetrics>(connectionPoolMetrics));
+    }
+
+    /**
+     * @return latency statistics of the commands sent by the Mongo DB clients created so far.
+     */
+    public static synchronized List<CommandLatencyMetrics> getCommandLatencyMetrics() {
+        return Collections.unmodifiableList(new ArrayList<CommandLatencyMetrics>(commandLatencyMetrics));
+    }
+
+    /**
+     * @return {@link TranspositionTable} shared by the solvers of the application, of the size configured.
+     */
+    public static synchronized TranspositionTable getTranspositionTable() {
+        if (Objects.isNull(transpositionTable)) {
+            final int sizeMegabytes = getIntProperty(ENGINE_TRANSPOSITION_TABLE_MB, 64);
+            logger.info("Creating the transposition table of the solvers with {} MB.", sizeMegabytes);
+            transpositionTable = new TranspositionTable(sizeMegabytes);
+        }
+        return transpositionTable;
+    }
+
+    /**
+     * @return {@link SolverAiOpponent} shared by the services, searching with the shared {@link TranspositionTable} on the number of threads configured, which
+     *         is stopped when the JVM shuts down. The opening book configured, if any, is read before searching.
+     */
+    public static synchronized SolverAiOpponent getAiOpponent() {
+        if (Objects.isNull(aiOpponent)) {
+            final TranspositionTable table = getTranspositionTable();
+            final int threads = getAiThreads();
+            final int queueSize = getAiQueueSize(threads);
+            final int maxTimeMillis = getIntProperty(AI_MAX_TIME_MILLIS, 1000);
+            final int replyTimeoutMillis = getIntProperty(AI_REPLY_TIMEOUT_MILLIS, maxTimeMillis * SolverAiOpponent.DEFAULT_REPLY_TIMEOUT_SEARCHES);
+            logger.info(
+                "Creating the AI opponent with {} threads, a queue of {} searches, searches of at most {} ms and replies of at most {} ms.",
+                threads,
+                queueSize,
+                maxTimeMillis,
+                replyTimeoutMillis);
+            aiOpponent = new SolverAiOpponent(() -> new Connect4Solver(table), threads, queueSize, maxTimeMillis, replyTimeoutMillis, getOpeningBook());
+            Runtime.getRuntime().addShutdownHook(new Thread(aiOpponent::shutdown, "ai-opponent-shutdown"));
+        }
+        return aiOpponent;
+    }
+
+    private static int getAiThreads() {
+        return getIntProperty(AI_THREADS, Math.max(1, Runtime.getRuntime().availableProcessors() / 4));
+    }
+
+    private static int getAiQueueSize(final int threads) {
+        return getIntProperty(AI_QUEUE_SIZE, threads * AI_QUEUE_SEARCHES_PER_THREAD);
+    }
+
+    /**
+     * @return executor saving the turns once the AI replied, with as many threads and as long a queue as the AI opponent, which is stopped when the JVM
+     *         shuts down. A reply finding the queue full is saved on the thread of the AI, which slows the searches down rather than failing the turn.
+     */
+    private static synchronized ThreadPoolExecutor getAiReplyExecutor() {
+        if (Objects.isNull(aiReplyExecutor)) {
+            final int threads = getAiThreads();
+            final int queueSize = getAiQueueSize(threads);
+            final AtomicInteger threadCount = new AtomicInteger();
+            aiReplyExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(queueSize), runnable -> {
+                final Thread thread = new Thread(runnable, "ai-reply-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
+            Runtime.getRuntime().addShutdownHook(new Thread(aiReplyExecutor::shutdown, "ai-reply-executor-shutdown"));
+        }
+        return aiReplyExecutor;
+    }
+
+    /**
+     * @return {@link OpeningBook} mapped from the file configured, null if none is configured or if it cannot be read, the replies being searched then.
+     */
+    private static OpeningBook getOpeningBook() {
+        final String path = configProvider.getConfigurations().getProperty(ENGINE_OPENING_BOOK);
+        if (path == null || path.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            final OpeningBook openingBook = OpeningBook.open(Paths.get(path.trim()));
+            logger.info(
+                "Opening book of {} positions of fewer than {} plies, searched to depth {}, mapped from {}.",
+                openingBook.getEntryCount(),
+                openingBook.getPlies(),
+                openingBook.getDepth(),
+                path);
+            return openingBook;
+        } catch (final IOException e) {
+            logger.error("Opening book {} cannot be read, the AI opponent searches every reply. Exception : {}", path, e);
+            return null;
+        }
+    }
+
+    /**
+     * @param clientName name of the client, unique among the clients of the application.
+     * @param syncDriver true for a client of the sync driver, whose waits for a connection can be timed.
+     * @return {@link MongoDbConnectionSettings} from the configuration, with the connection pool and command latency statistics of the client registered
+     *         with JMX.
+     */
+    private static synchronized MongoDbConnectionSettings getMongoDbConnectionSettings(final String clientName, final boolean syncDriver) {
+        final MongoDbConnectionSettings settings = new MongoDbConnectionSettings();
+        settings.setMaxPoolSize(getIntProperty(DB_POOL_MAX_SIZE, settings.getMaxPoolSize()));
+        settings.setMinPoolSize(getIntProperty(DB_POOL_MIN_SIZE, settings.getMinPoolSize()));
+        settings.setMaxWaitQueueSize(getIntProperty(DB_POOL_MAX_WAIT_QUEUE_SIZE, settings.getMaxWaitQueueSize()));
+        settings.setMaxWaitTimeMillis(getIntProperty(DB_POOL_MAX_WAIT_TIME_MILLIS, settings.getMaxWaitTimeMillis()));
+        settings.setConnectTimeoutMillis(getIntProperty(DB_CONNECT_TIMEOUT_MILLIS, settings.getConnectTimeoutMillis()));
+        settings.setSocketTimeoutMillis(getIntProperty(DB_SOCKET_TIMEOUT_MILLIS, settings.getSocketTimeoutMillis()));
+        settings.setServerSelectionTimeoutMillis(getIntProperty(DB_SERVER_SELECTION_TIMEOUT_MILLIS, settings.getServerSelectionTimeoutMillis()));
+        final String readPreference = configProvider.getConfigurations().getProperty(DB_READ_PREFERENCE);
+        if (readPreference != null) {
+            settings.setReadPreference(ReadPreference.valueOf(readPreference.trim()));
+        }
+        final String writeConcern = configProvider.getConfigurations().getProperty(DB_WRITE_CONCERN);
+        if (writeConcern != null) {
+            settings.setWriteConcern(getWriteConcern(DB_WRITE_CONCERN, writeConcern));
+        }
+        for (final WriteOperation operation : WriteOperation.values()) {
+            final String property = DB_WRITE_CONCERN + "." + operation.name().toLowerCase();
+            final String operationWriteConcern = configProvider.getConfigurations().getProperty(property);
+            if (operationWriteConcern != null) {
+                settings.setWriteConcern(operation, getWriteConcern(property, operationWriteConcern));
+            }
+        }
+        final ConnectionPoolMetrics metrics = new ConnectionPoolMetrics(clientName, syncDriver);
+        metrics.register();
+        connectionPoolMetrics.add(metrics);
+        settings.addConnectionPoolListener(metrics);
+        settings.addConnectionPoolListener(new JMXConnectionPoolListener());
+        final CommandLatencyMetrics latencyMetrics = new CommandLatencyMetrics(clientName, getIntProperty(DB_SLOW_OPERATION_THRESHOLD_MILLIS, 100));
+        latencyMetrics.register();
+        commandLatencyMetrics.add(latencyMetrics);
+        settings.addCommandListener(latencyMetrics);
+        logger.info(
+            "Connection settings of the {} client. Pool size : {}, wait queue size : {}, read preference : {}, write concern : {}",
+            clientName,
+            settings.getMaxPoolSize(),
+            settings.getMaxWaitQueueSize(),
+            settings.getReadPreference(),
+            settings.getWriteConcern());
+        return settings;
+    }
+
+    private static int getIntProperty(final String property, final int defaultValue) {
+        final String value = configProvider.getConfigurations().getProperty(property);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    /**
+     * @param name write concern name, like ACKNOWLEDGED, W1, MAJORITY or JOURNALED.
+     */
+    private static WriteConcern getWriteConcern(final String property, final String name) {
+        final WriteConcern writeConcern = WriteConcern.valueOf(name.trim());
+        if (writeConcern == null) {
+            throw new IllegalArgumentException("Unknown write concern : " + name + " configured in : " + property);
+        }
+        return writeConcern;
+    }
+
+    /**
+     * @return {@link AsyncConnect4Service} sharing the storage of the {@link Connect4Service}
+     */
+    public static AsyncConnect4Service getAsyncConnect4Service() {
+        if (Objects.isNull(asyncConnect4Service)) {
+            asyncConnect4Service = new AsyncConnect4ServiceImpl(
+                getConnect4ServiceValidator(),
+                getAsyncGameDao(),
+                getGameActivityListener(),
+                getGameClockListener(),
+                getAiOpponent(),
+                getAiReplyExecutor());
+        }
+        return asyncConnect4Service;
+    }
+
     /**
      * @return the connect4Service
      */
     public static Connect4Service getConnect4Service() {
         if (Objects.isNull(connect4Service)) {
-            connect4Service = new Connect4ServiceImpl(getConnect4ServiceValidator(), getGameDao());
+            connect4Service = new Connect4ServiceImpl(
+                getConnect4ServiceValidator(),
+                getGameDao(),
+                getGameActivityListener(),
+                getGameClockListener(),
+                getAiOpponent());
         }
         return connect4Service;
     }
 
     /**
-     * @return
+     * @return {@link GameDao} for the storage configured. Mongo DB backed DAOs are wrapped in a {@link WriteBehindGameDao} if write behind is enabled and in a
+     *         {@link CachingGameDao} if the cache is enabled in the configuration.
      */
     private static GameDao getGameDao() {
+        if (Objects.isNull(gameDao) && IN_MEMORY_DAO_TYPE.equals(configProvider.getConfigurations().getProperty(DAO_TYPE))) {
+            logger.info("Games will be stored in memory only.");
+            gameDao = new InMemoryGameDao();
+        }
         if (Objects.isNull(gameDao)) {
-            gameDao = new GameDaoImpl(getMongoDBConnectionManager());
+            GameDao databaseGameDao;
+            if (EVENT_SOURCED_DAO_TYPE.equals(configProvider.getConfigurations().getProperty(DAO_TYPE))) {
+                logger.info("Games will be stored as move events.");
+                final EventSourcedGameDao eventSourcedGameDao = new EventSourcedGameDao(
+                    getMongoDBConnectionManager(),
+                    Integer.parseInt(configProvider.getConfigurations().getProperty(SNAPSHOT_INTERVAL, "8")));
+                eventSourcedGameDao.createIndexes();
+                databaseGameDao = eventSourcedGameDao;
+            } else {
+                final boolean archiveEnabled = isArchiveEnabled();
+                final GameDaoImpl gameDaoImpl = new GameDaoImpl(getMongoDBConnectionManager(), archiveEnabled);
+                gameDaoImpl.createIndexes();
+                if (archiveEnabled) {
+                    startGameArchiver();
+                }
+                databaseGameDao = gameDaoImpl;
+            }
+            if (Boolean.parseBoolean(configProvider.getConfigurations().getProperty(WRITE_BEHIND_ENABLED))) {
+                databaseGameDao = getWriteBehindGameDao(databaseGameDao);
+            }
+            if (Boolean.parseBoolean(configProvider.getConfigurations().getProperty(CACHE_ENABLED))) {
+                gameDao = new CachingGameDao(
+                    databaseGameDao,
+                    Integer.parseInt(configProvider.getConfigurations().getProperty(CACHE_MAXIMUM_SIZE, "10000")),
+                    Long.parseLong(configProvider.getConfigurations().getProperty(CACHE_EXPIRE_AFTER_WRITE_SECONDS, "30")));
+            } else {
+                gameDao = databaseGameDao;
+            }
         }
         return gameDao;
     }
 
+    /**
+     * @return {@link AsyncGameDao} backed by the Mongo DB async driver for the plain Mongo DB storage. The other configurations keep their state in the
+     *         {@link GameDao} decorators or read the archived games, so their calls are made on the {@link GameDao} through an {@link AsyncGameDaoAdapter}.
+     */
+    private static AsyncGameDao getAsyncGameDao() {
+        if (Objects.isNull(asyncGameDao)) {
+            final String daoType = configProvider.getConfigurations().getProperty(DAO_TYPE);
+            if (IN_MEMORY_DAO_TYPE.equals(daoType)
+                || EVENT_SOURCED_DAO_TYPE.equals(daoType)
+                || Boolean.parseBoolean(configProvider.getConfigurations().getProperty(WRITE_BEHIND_ENABLED))
+                || Boolean.parseBoolean(configProvider.getConfigurations().getProperty(CACHE_ENABLED))
+                || isArchiveEnabled()) {
+                asyncGameDao = new AsyncGameDaoAdapter(getGameDao());
+            } else {
+                asyncGameDao = new AsyncGameDaoImpl(
+                    new AsyncMongoDbConnectionManager(
+                        configProvider.getConfigurations().getProperty(DB_NAME),
+                        configProvider.getConfigurations().getProperty(DB_HOST),
+                        Integer.valueOf(configProvider.getConfigurations().getProperty(DB_PORT)),
+                        Arrays.asList(new GameCodec(), new GameHeaderCodec()),
+                        getMongoDbConnectionSettings("async", false)));
+            }
+        }
+        return asyncGameDao;
+    }
+
+    /**
+     * @return true if the games are stored in mongo DB without move events and archival is enabled.
+     */
+    private static boolean isArchiveEnabled() {
+        final String daoType = configProvider.getConfigurations().getProperty(DAO_TYPE);
+        return !IN_MEMORY_DAO_TYPE.equals(daoType)
+            && !EVENT_SOURCED_DAO_TYPE.equals(daoType)
+            && Boolean.parseBoolean(configProvider.getConfigurations().getProperty(ARCHIVE_ENABLED));
+    }
+
+    /**
+     * Starts the {@link GameArchiver}, which is stopped when the JVM shuts down.
+     */
+    private static void startGameArchiver() {
+        final GameArchiver gameArchiver = new GameArchiver(
+            getMongoDBConnectionManager(),
+            TimeUnit.HOURS.toMillis(Long.parseLong(configProvider.getConfigurations().getProperty(ARCHIVE_AFTER_HOURS, "24"))),
+            Integer.parseInt(configProvider.getConfigurations().getProperty(ARCHIVE_BATCH_SIZE, "500")),
+            Integer.parseInt(configProvider.getConfigurations().getProperty(ARCHIVE_MAXIMUM_GAMES_PER_SECOND, "1000")));
+        gameArchiver.start(TimeUnit.SECONDS.toMillis(Long.parseLong(configProvider.getConfigurations().getProperty(ARCHIVE_INTERVAL_SECONDS, "300"))));
+        Runtime.getRuntime().addShutdownHook(new Thread(gameArchiver::shutdown, "game-archiver-shutdown"));
+    }
+
+    /**
+     * @return {@link IdleGameReaper} shared by the services if enabled in the configuration, which is stopped when the JVM shuts down.
+     */
+    private static synchronized GameActivityListener getGameActivityListener() {
+        if (Objects.isNull(gameActivityListener)) {
+            if (Boolean.parseBoolean(configProvider.getConfigurations().getProperty(REAPER_ENABLED))) {
+                final IdleGameReaper idleGameReaper = new IdleGameReaper(
+                    getGameDao(),
+                    TimeUnit.MINUTES.toMillis(Long.parseLong(configProvider.getConfigurations().getProperty(REAPER_SUSPEND_AFTER_MINUTES, "30"))),
+                    TimeUnit.MINUTES.toMillis(Long.parseLong(configProvider.getConfigurations().getProperty(REAPER_ABANDON_AFTER_MINUTES, "1440"))),
+                    Long.parseLong(configProvider.getConfigurations().getProperty(REAPER_TICK_MILLIS, "1000")));
+                idleGameReaper.start();
+                Runtime.getRuntime().addShutdownHook(new Thread(idleGameReaper::shutdown, "idle-game-reaper-shutdown"));
+                gameActivityListener = idleGameReaper;
+            } else {
+                gameActivityListener = GameActivityListener.NONE;
+            }
+        }
+        return gameActivityListener;
+    }
+
+    /**
+     * @return {@link FlagFallTimer} shared by the services, which is stopped when the JVM shuts down.
+     */
+    private static synchronized GameClockListener getGameClockListener() {
+        if (Objects.isNull(gameClockListener)) {
+            final FlagFallTimer flagFallTimer = new FlagFallTimer(
+                getGameDao(),
+                getGameActivityListener(),
+                Long.parseLong(configProvider.getConfigurations().getProperty(CLOCK_TICK_MILLIS, "100")));
+            flagFallTimer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(flagFallTimer::shutdown, "flag-fall-timer-shutdown"));
+            gameClockListener = flagFallTimer;
+        }
+        return gameClockListener;
+    }
+
+    /**
+     * @param databaseGameDao {@link GameDao} to which the games are written.
+     * @return {@link WriteBehindGameDao} that writes all the pending games when the JVM shuts down.
+     */
+    private static WriteBehindGameDao getWriteBehindGameDao(final GameDao databaseGameDao) {
+        final WriteBehindGameDao writeBehindGameDao = new WriteBehindGameDao(
+            databaseGameDao,
+            Long.parseLong(configProvider.getConfigurations().getProperty(WRITE_BEHIND_FLUSH_INTERVAL_MILLIS, "100")),
+            Integer.parseInt(configProvider.getConfigurations().getProperty(WRITE_BEHIND_BATCH_SIZE, "500")),
+            Integer.parseInt(configProvider.getConfigurations().getProperty(WRITE_BEHIND_MAXIMUM_PENDING_GAMES, "10000")),
+            Long.parseLong(configProvider.getConfigurations().getProperty(WRITE_BEHIND_EXPIRE_AFTER_IDLE_SECONDS, "300")));
+        Runtime.getRuntime().addShutdownHook(new Thread(writeBehindGameDao::shutdown, "game-write-behind-shutdown"));
+        return writeBehindGameDao;
+    }
+
     /**
      * @return the connect4ServiceValidator
      */
@@ -0,0 +1,36 @@
+package com.gluck.gaming.service;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.gluck.gaming.dao.model.BitBoard;
+import com.gluck.gaming.service.exception.AiOpponentUnavailableException;
+import com.gluck.gaming.service.model.AiStrength;
+
+/**
+ * AI playing as the second player of the games created against it. The services ask it for the reply to every turn of the player and save the reply with
+ * the turn, in the same request.
+ *
+ * @author Vinay Semwal
+ */
+public interface AiOpponent {
+
+    /**
+     * No AI: the turns of the games against the AI fail with {@link AiOpponentUnavailableException}.
+     */
+    AiOpponent NONE = (board, strength) -> {
+        final CompletableFuture<Integer> reply = new CompletableFuture<Integer>();
+        reply.completeExceptionally(new AiOpponentUnavailableException("No AI opponent is configured to reply to the turn."));
+        return reply;
+    };
+
+    /**
+     * Searches the reply of the AI, off the calling thread.
+     *
+     * @param board grid of the game after the turn of the player, not changed by the search.
+     * @param strength strength of the AI of the game.
+     * @return future of the column in which the AI drops its disc, completed exceptionally with {@link AiOpponentUnavailableException} if the reply cannot
+     *         be searched or is not found in a bounded time, so that the request threads waiting for it are never held longer.
+     */
+    CompletableFuture<Integer> findReply(BitBoard board, AiStrength strength);
+
+}
@@ -0,0 +1,349 @@
+package com.gluck.gaming.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.gluck.gaming.dao.AsyncGameDao;
+import com.gluck.gaming.dao.model.Game;
+import com.gluck.gaming.dao.model.GameClock;
+import com.gluck.gaming.dao.model.GameHeader;
+import com.gluck.gaming.service.exception.BaseConnect4ServiceException;
+import com.gluck.gaming.service.model.AiStrength;
+import com.gluck.gaming.service.model.CreateGameRequest;
+import com.gluck.gaming.service.model.CreateGameResponse;
+import com.gluck.gaming.service.model.GameDataResponse;
+import com.gluck.gaming.service.model.GameState;
+import com.gluck.gaming.service.validator.Connect4ServiceValidator;
+
+/**
+ * Implementation of {@link AsyncConnect4Service}. The requests are validated in the calling thread, the rest of the processing is chained on the futures of
+ * the {@link AsyncGameDao} and runs in the thread completing them, except after the reply of the AI which is processed on the reply executor so that the
+ * threads of the AI only search. The same rules as {@link Connect4ServiceImpl} are applied, through {@link Connect4GameRules}.
+ *
+ * @author Vinay Semwal
+ */
+public class AsyncConnect4ServiceImpl implements AsyncConnect4Service {
+
+    private static final Logger logger = LogManager.getLogger(AsyncConnect4ServiceImpl.class);
+
+    private final Connect4ServiceValidator connect4ServiceValidator;
+
+    private final AsyncGameDao asyncGameDao;
+
+    private final GameActivityListener gameActivityListener;
+
+    private final GameClockListener gameClockListener;
+
+    private final AiOpponent aiOpponent;
+
+    private final Executor replyExecutor;
+
+    /**
+     * @param connect4ServiceValidator {@link Connect4ServiceValidator} instance to validate the in requests
+     * @param asyncGameDao {@link AsyncGameDao} implementation to perform non blocking database operations for a Game
+     */
+    public AsyncConnect4ServiceImpl(final Connect4ServiceValidator connect4ServiceValidator, final AsyncGameDao asyncGameDao) {
+        this(connect4ServiceValidator, asyncGameDao, GameActivityListener.NONE, GameClockListener.NONE);
+    }
+
+    /**
+     * @param connect4ServiceValidator {@link Connect4ServiceValidator} instance to validate the in requests
+     * @param asyncGameDao {@link AsyncGameDao} implementation to perform non blocking database operations for a Game
+     * @param gameActivityListener {@link GameActivityListener} told about the games changed
+     * @param gameClockListener {@link GameClockListener} told about the clocks of the timed games
+     */
+    public AsyncConnect4ServiceImpl(
+        final Connect4ServiceValidator connect4ServiceValidator,
+        final AsyncGameDao asyncGameDao,
+        final GameActivityListener gameActivityListener,
+        final GameClockListener gameClockListener) {
+        //Without an AI opponent the replies fail straight away and no turn is ever saved on the reply executor.
+        this(connect4ServiceValidator, asyncGameDao, gameActivityListener, gameClockListener, AiOpponent.NONE, Runnable::run);
+    }
+
+    /**
+     * @param connect4ServiceValidator {@link Connect4ServiceValidator} instance to validate the in requests
+     * @param asyncGameDao {@link AsyncGameDao} implementation to perform non blocking database operations for a Game
+     * @param gameActivityListener {@link GameActivityListener} told about the games changed
+     * @param gameClockListener {@link GameClockListener} told about the clocks of the timed games
+     * @param aiOpponent {@link AiOpponent} replying to the turns of the games against the AI
+     * @param replyExecutor bounded {@link Executor} owned by the caller, saving the turns once the AI replied instead of the thread of the AI
+     */
+    public AsyncConnect4ServiceImpl(
+        final Connect4ServiceValidator connect4ServiceValidator,
+        final AsyncGameDao asyncGameDao,
+        final GameActivityListener gameActivityListener,
+        final GameClockListener gameClockListener,
+        final AiOpponent aiOpponent,
+        final Executor replyExecutor) {
+        this.connect4ServiceValidator = connect4ServiceValidator;
+        this.asyncGameDao = asyncGameDao;
+        this.gameActivityListener = gameActivityListener;
+        this.gameClockListener = gameClockListener;
+        this.aiOpponent = aiOpponent;
+        this.replyExecutor = replyExecutor;
+    }
+
+    @Override
+    public CompletableFuture<CreateGameResponse> createGame(final CreateGameRequest createGameRequest) {
+        logger.info("Received create game request : {}", createGameRequest);
+        try {
+            connect4ServiceValidator.validate(createGameRequest);
+        } catch (final BaseConnect4ServiceException e) {
+            return failed(e);
+        }
+        final String sessionId = Connect4GameRules.createSession();
+        final GameClock clock = Connect4GameRules.createClock(createGameRequest, System.currentTimeMillis());
+        final CompletableFuture<String> createdGameId;
+        if (clock == null) {
+            createdGameId = asyncGameDao
+                .createGame(createGameRequest.getFirstPlayerName(), Connect4GameRules.getSecondPlayerName(createGameRequest), sessionId);
+        } else {
+            final Game game = Connect4GameRules.createGame(createGameRequest, sessionId, clock);
+            createdGameId = asyncGameDao.createGame(game).thenApply(gameId -> {
+                game.setGameId(gameId);
+                Connect4GameRules.reportClock(gameClockListener, game);
+                return gameId;
+            });
+        }
+        return createdGameId.thenApply(gameId -> {
+            gameActivityListener.gameActive(gameId);
+            final CreateGameResponse response = new CreateGameResponse(gameId, sessionId, GameState.NEW);
+            logger.info("Created game successfully. Response : {}", response);
+            return response;
+        });
+    }
+
+    @Override
+    public CompletableFuture<GameDataResponse> getGameData(final String gameId) {
+        logger.info("Received request to get game data for game with id: {}", gameId);
+        try {
+            connect4ServiceValidator.valicateGameId(gameId);
+        } catch (final BaseConnect4ServiceException e) {
+            return failed(e);
+        }
+        return asyncGameDao.findGameById(gameId)
+            .thenApply(checked(optionalGame -> Connect4GameRules.createGameDataResponse(Connect4GameRules.getFoundGame(optionalGame, gameId))));
+    }
+
+    @Override
+    public CompletableFuture<GameDataResponse> dropDisc(final String gameId, final String sessionId, final String playerName, final int column) {
+        logger.info("Received request to drop disc in column : {} by player : {} for game with id: {} in session : {}", column, playerName, gameId, sessionId);
+        try {
+            connect4ServiceValidator.validateDropDisc(gameId, sessionId, playerName, column);
+        } catch (final BaseConnect4ServiceException e) {
+            return failed(e);
+        }
+        return asyncGameDao.findGameById(gameId).thenCompose(checked(optionalGame -> {
+            final Game game = Connect4GameRules.getFoundGame(optionalGame, gameId);
+            Connect4GameRules.validateGameState(game.getGameState());
+            connect4ServiceValidator.validateSession(game.getSessionId(), sessionId);
+            connect4ServiceValidator.validatePlayer(game.getFirstPlayer(), game.getSecondplayer(), playerName);
+            Connect4GameRules.validatePlayerTurn(game, playerName);
+            final int row = Connect4GameRules.getLandingRow(column, game);
+            if (!Connect4GameRules.applyClock(game, System.currentTimeMillis())) {
+                return endGameOnTime(game);
+            }
+            Connect4GameRules.applyTurn(game, playerName, row, column);
+            //In a game against the AI the turn is saved once the AI has its reply, so that the turn is not saved when the AI cannot reply.
+            final AiStrength aiToReply = Connect4GameRules.getAiToReply(game);
+            final Function<Integer, CompletableFuture<Game>> saveTurn = aiColumn -> asyncGameDao.saveTurn(game, row, column)
+                .thenCompose(checked(optionalSavedGame -> {
+                    final Game savedGame = Connect4GameRules.getSavedGame(optionalSavedGame, playerName, gameId);
+                    return aiColumn == null ? CompletableFuture.completedFuture(savedGame) : saveAiReply(savedGame, aiColumn);
+                }));
+            final CompletableFuture<Game> savedTurn = aiToReply == null ? saveTurn.apply(null)
+                : aiOpponent.findReply(game.getBoard(), aiToReply).thenComposeAsync(saveTurn, replyExecutor);
+            return savedTurn.thenApply(savedGame -> {
+                Connect4GameRules.reportActivity(gameActivityListener, gameId, savedGame.getGameState());
+                Connect4GameRules.reportClock(gameClockListener, savedGame);
+                logger.info("Grid [{},{}] filled successfully by player : {} for game with id : {} ", row, column, playerName, gameId);
+                return Connect4GameRules.createGameDataResponse(savedGame);
+            });
+        }));
+    }
+
+    @Override
+    public CompletableFuture<Void> suspendGame(final String gameId) {
+        logger.info("suspendGame :: Received request to suspend game with id: {}", gameId);
+        try {
+            connect4ServiceValidator.valicateGameId(gameId);
+        } catch (final BaseConnect4ServiceException e) {
+            return failed(e);
+        }
+        return trySuspendGame(gameId, Connect4GameRules.getSourceStates(GameState.SUSPENDED), 1);
+    }
+
+    @Override
+    public CompletableFuture<Void> completeGame(final String gameId) {
+        logger.info("completeGame :: Received request to complete game with id: {}", gameId);
+        return transitionGameState(gameId, GameState.COMPLETED, "complete");
+    }
+
+    @Override
+    public CompletableFuture<Void> drawGame(final String gameId) {
+        logger.info("drawGame :: Received request to draw game with id: {}", gameId);
+        return transitionGameState(gameId, GameState.DRAWN, "draw");
+    }
+
+    @Override
+    public CompletableFuture<Void> abandonGame(final String gameId) {
+        logger.info("abandonGame :: Received request to abandon game with id: {}", gameId);
+        return transitionGameState(gameId, GameState.ABANDONED, "abandon");
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteGame(final String gameId) {
+        logger.info("deleteGame :: Received request to delete game with id: {}", gameId);
+        try {
+            connect4ServiceValidator.valicateGameId(gameId);
+        } catch (final BaseConnect4ServiceException e) {
+            return failed(e);
+        }
+        return asyncGameDao.deleteGame(gameId, Connect4GameRules.DELETABLE_STATES).thenCompose(deleted -> {
+            if (deleted) {
+                gameActivityListener.gameEnded(gameId);
+                gameClockListener.clockStopped(gameId);
+                return CompletableFuture.completedFuture(null);
+            }
+            //The game is either not found or not in a terminal state. Terminal states are final, so reading the game is enough to find out which.
+            return asyncGameDao.findGameHeaderById(gameId).thenApply(checked(optionalGameHeader -> {
+                throw Connect4GameRules.getGameDeletionNotAllowedException(Connect4GameRules.getFoundGame(optionalGameHeader, gameId));
+            }));
+        });
+    }
+
+    /**
+     * Moves the game to the target state with a single conditional update, from any state the transition is valid from, and invalidates its session. The game
+     * is read only if the update doesn't match, to report why, and the update is tried again a limited number of times.
+     */
+    private CompletableFuture<Void> transitionGameState(final String gameId, final GameState targetState, final String action) {
+        try {
+            connect4ServiceValidator.valicateGameId(gameId);
+        } catch (final BaseConnect4ServiceException e) {
+            return failed(e);
+        }
+        return tryTransitionGameState(gameId, targetState, action, Connect4GameRules.getSourceStates(targetState), 1);
+    }
+
+    private CompletableFuture<Void> tryTransitionGameState(
+        final String gameId,
+        final GameState targetState,
+        final String action,
+        final List<String> sourceStates,
+        final int attempt) {
+        return asyncGameDao.updateGameState(gameId, sourceStates, targetState.name(), null).thenCompose(updatedGame -> {
+            if (updatedGame.isPresent()) {
+                Connect4GameRules.reportActivity(gameActivityListener, gameId, targetState.name());
+                gameClockListener.clockStopped(gameId);
+                logger.info("Completed the operation to {} the game with id : {}. Updated game state : {}", action, gameId, targetState);
+                return CompletableFuture.completedFuture(null);
+            }
+            return asyncGameDao.findGameHeaderById(gameId).thenCompose(checked((final Optional<GameHeader> optionalGameHeader) -> {
+                Connect4GameRules.validateStateTransition(Connect4GameRules.getFoundGame(optionalGameHeader, gameId), targetState, action);
+                //The game was moved to a state allowing the transition by another request after the update was tried.
+                if (attempt == Connect4GameRules.MAX_STATE_UPDATE_ATTEMPTS) {
+                    throw Connect4GameRules.getStateUpdateFailedException(gameId, action);
+                }
+                return tryTransitionGameState(gameId, targetState, action, sourceStates, attempt + 1);
+            }));
+        });
+    }
+
+    /**
+     * Moves the game to SUSPENDED, invalidating its session and stopping its clock, with a conditional update which doesn't match if the game was changed after
+     * it was read. The game is then read again to check the transition, a limited number of times.
+     */
+    private CompletableFuture<Void> trySuspendGame(final String gameId, final List<String> sourceStates, final int attempt) {
+        return asyncGameDao.findGameById(gameId).thenCompose(checked(optionalGame -> {
+            final Game game = Connect4GameRules.getFoundGame(optionalGame, gameId);
+            Connect4GameRules.validateStateTransition(game.getHeader(), GameState.SUSPENDED, "suspend");
+            Connect4GameRules.applySuspension(game, System.currentTimeMillis());
+            return asyncGameDao.saveGameState(game, sourceStates).thenCompose(checked((final Optional<GameHeader> updatedGame) -> {
+                if (updatedGame.isPresent()) {
+                    Connect4GameRules.reportActivity(gameActivityListener, gameId, GameState.SUSPENDED.name());
+                    gameClockListener.clockStopped(gameId);
+                    logger.info("Completed the operation to suspend the game with id : {}. Updated game state : {}", gameId, GameState.SUSPENDED);
+                    return CompletableFuture.<Void> completedFuture(null);
+                }
+                if (attempt == Connect4GameRules.MAX_STATE_UPDATE_ATTEMPTS) {
+                    throw Connect4GameRules.getStateUpdateFailedException(gameId, "suspend");
+                }
+                return trySuspendGame(gameId, sourceStates, attempt + 1);
+            }));
+        }));
+    }
+
+    /**
+     * Saves the reply of the AI to the turn just saved. If the game was changed by another request in between, for example suspended, the turn stays saved
+     * without the reply and the AI replies once the game is resumed.
+     *
+     * @return future of the game data saved in the database after the reply, or after the turn if the reply could not be saved.
+     */
+    private CompletableFuture<Game> saveAiReply(final Game savedGame, final int column) {
+        final Game game = savedGame.copy();
+        final int row = Connect4GameRules.applyAiReply(game, column);
+        return asyncGameDao.saveTurn(game, row, column).thenApply(savedReply -> {
+            if (!savedReply.isPresent()) {
+                logger.warn("Reply of the AI could not be saved since game with id : {} was changed by another request.", game.getGameId());
+                return savedGame;
+            }
+            return savedReply.get();
+        });
+    }
+
+    /**
+     * Completes the game lost on time by the player to move, unless it was changed by another request after it was read.
+     *
+     * @return future completed exceptionally, since the game cannot be played anymore.
+     */
+    private <T> CompletableFuture<T> endGameOnTime(final Game game) {
+        Connect4GameRules.applyFlagFall(game);
+        return asyncGameDao.saveGameResult(game).thenApply(checked(savedGame -> {
+            if (savedGame.isPresent()) {
+                gameActivityListener.gameEnded(game.getGameId());
+                gameClockListener.clockStopped(game.getGameId());
+            }
+            throw Connect4GameRules.getTimeExpiredException(game);
+        }));
+    }
+
+    /**
+     * @return future completed exceptionally with the exception.
+     */
+    private static <T> CompletableFuture<T> failed(final BaseConnect4ServiceException exception) {
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+        future.completeExceptionally(exception);
+        return future;
+    }
+
+    /**
+     * @return function completing the dependent stage exceptionally with the exception thrown by the step.
+     */
+    private static <T, R> Function<T, R> checked(final ServiceStep<T, R> step) {
+        return value -> {
+            try {
+                return step.apply(value);
+            } catch (final BaseConnect4ServiceException e) {
+                throw new CompletionException(e);
+            }
+        };
+    }
+
+    /**
+     * Processing step of a request that can fail with a service exception.
+     */
+    @FunctionalInterface
+    private interface ServiceStep<T, R> {
+
+        R apply(T value) throws BaseConnect4ServiceException;
+    }
+
+}
@@ -0,0 +1,501 @@
+package com.gluck.gaming.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.gluck.gaming.dao.model.BitBoard;
+import com.gluck.gaming.dao.model.Game;
+import com.gluck.gaming.dao.model.GameClock;
+import com.gluck.gaming.dao.model.GameHeader;
+import com.gluck.gaming.service.exception.ConcurrentGameUpdateException;
+import com.gluck.gaming.service.exception.ConsecutiveTurnsNotAllowedException;
+import com.gluck.gaming.service.exception.GameDeletionNotAllowedException;
+import com.gluck.gaming.service.exception.GameNotFoundException;
+import com.gluck.gaming.service.exception.IncorrectGameStartException;
+import com.gluck.gaming.service.exception.InvalidGameStateException;
+import com.gluck.gaming.service.exception.InvalidGameStateTransitionException;
+import com.gluck.gaming.service.exception.InvalidGridCellToFillException;
+import com.gluck.gaming.service.model.AiStrength;
+import com.gluck.gaming.service.model.CreateGameRequest;
+import com.gluck.gaming.service.model.GameData;
+import com.gluck.gaming.service.model.GameDataResponse;
+import com.gluck.gaming.service.model.GameState;
+
+/**
+ * Rules of the game shared by {@link Connect4ServiceImpl} and {@link AsyncConnect4ServiceImpl}: checks made on a game before a turn or a state change is
+ * saved, application of a turn to a game and conversion of the games to the service model. None of the rules access the storage.
+ *
+ * @author Vinay Semwal
+ */
+final class Connect4GameRules {
+
+    private static final Logger logger = LogManager.getLogger(Connect4GameRules.class);
+
+    private static final int HIGHEST_GRID_ROW_NUMBER = BitBoard.ROWS - 1;
+
+    /**
+     * States in which a game can be deleted.
+     */
+    static final List<String> DELETABLE_STATES = Arrays.asList(GameState.ABANDONED.name(), GameState.COMPLETED.name(), GameState.DRAWN.name());
+
+    /**
+     * Number of times a state change is tried before giving up, when the game keeps being changed by other requests between the read and the update.
+     */
+    static final int MAX_STATE_UPDATE_ATTEMPTS = 3;
+
+    /**
+     * States from which a game can be moved to each state, so that a state transition can be checked by the database along with the update.
+     */
+    private static final Map<GameState, List<String>> SOURCE_STATES = new EnumMap<GameState, List<String>>(GameState.class);
+
+    static {
+        for (final GameState targetState : GameState.values()) {
+            final List<String> sourceStates = new ArrayList<String>();
+            for (final GameState sourceState : GameState.values()) {
+                if (GameState.isStateTransitionValid(sourceState, targetState)) {
+                    sourceStates.add(sourceState.name());
+                }
+            }
+            SOURCE_STATES.put(targetState, sourceStates);
+        }
+    }
+
+    private Connect4GameRules() {
+        //Static helpers only
+    }
+
+    /**
+     * @return states from which a game can be moved to the target state.
+     */
+    static List<String> getSourceStates(final GameState targetState) {
+        return SOURCE_STATES.get(targetState);
+    }
+
+    /**
+     * Tells the listener about a change of the game by a player, as an end of the game if the game was moved to a state it can't leave.
+     */
+    static void reportActivity(final GameActivityListener gameActivityListener, final String gameId, final String gameState) {
+        if (DELETABLE_STATES.contains(gameState)) {
+            gameActivityListener.gameEnded(gameId);
+        } else {
+            gameActivityListener.gameActive(gameId);
+        }
+    }
+
+    /**
+     * @return the game if it was found.
+     * @throws GameNotFoundException if the game with given id does not exists in the system.
+     */
+    static <T> T getFoundGame(final Optional<T> optionalGame, final String gameId) throws GameNotFoundException {
+        if (!optionalGame.isPresent()) {
+            logger.error("Game with id : {} does not exist.", gameId);
+            throw new GameNotFoundException("Game with the given ID does not exist.");
+        }
+        return optionalGame.get();
+    }
+
+    /**
+     * Applies the turn of the player to the game: fills the grid cell with the disc of the player and moves the game to the state resulting from the turn.
+     */
+    static void applyTurn(final Game game, final String playerName, final int row, final int column) {
+        game.setLastTurnedPlayedBy(playerName);
+        if (GameState.NEW.name().equals(game.getGameState())) {
+            game.setGameState(GameState.IN_PROGRESS.name());
+        }
+        final int disc = game.getFirstPlayer().equals(playerName) ? BitBoard.FIRST_PLAYER_DISC : BitBoard.SECOND_PLAYER_DISC;
+        game.getBoard().fillCell(row, column, disc);
+        updateGameResult(game, playerName, disc);
+    }
+
+    /**
+     * @return game data saved in the database after the turn.
+     * @throws ConcurrentGameUpdateException if the game was changed by another request after it was read.
+     */
+    static Game getSavedGame(final Optional<Game> savedGame, final String playerName, final String gameId) throws ConcurrentGameUpdateException {
+        if (!savedGame.isPresent()) {
+            logger.error("Turn played by player : {} could not be saved since game with id : {} was changed by another request.", playerName, gameId);
+            throw new ConcurrentGameUpdateException("Game was changed by another request while the turn was being played. Please retry.");
+        }
+        return savedGame.get();
+    }
+
+    /**
+     * Checks a state transition that could not be applied by a conditional update.
+     *
+     * @param gameHeader game as read after the conditional update did not match.
+     * @throws InvalidGameStateTransitionException if action cannot be performed because of the current state that game is in.
+     */
+    static void validateStateTransition(final GameHeader gameHeader, final GameState targetState, final String action)
+        throws InvalidGameStateTransitionException {
+        if (!SOURCE_STATES.get(targetState).contains(gameHeader.getGameState())) {
+            logger.error(
+                "Invalid game state transition. Cannot {} the game with id : {} since the game is in : {} state. ",
+                action,
+                gameHeader.getGameId(),
+                gameHeader.getGameState());
+            throw new InvalidGameStateTransitionException("Invalid state transition from " + gameHeader.getGameState() + "to " + targetState);
+        }
+    }
+
+    /**
+     * @return exception to throw for a state change that could not be saved in {@link #MAX_STATE_UPDATE_ATTEMPTS} attempts.
+     */
+    static ConcurrentGameUpdateException getStateUpdateFailedException(final String gameId, final String action) {
+        logger.error("Could not {} the game with id : {} since it was changed by other requests {} times.", action, gameId, MAX_STATE_UPDATE_ATTEMPTS);
+        return new ConcurrentGameUpdateException("Game was changed by other requests while its state was being changed. Please retry.");
+    }
+
+    /**
+     * @param gameHeader game as read after the conditional delete did not match.
+     * @return exception to throw for a game that could not be deleted because of its state.
+     */
+    static GameDeletionNotAllowedException getGameDeletionNotAllowedException(final GameHeader gameHeader) {
+        logger.error(
+            "Operation not supported to delete the game with id : {}  since it is not in any of the terminal states(ABANDONED,COMPLETED or DRAWN). Current game state : {}",
+            gameHeader.getGameId(),
+            gameHeader.getGameState());
+        return new GameDeletionNotAllowedException("Cannot delete the game. Game must either be in COMPLETED, DRAWN or ABANDONED state in order to be deleted.");
+    }
+
+    /**
+     * @return {@link GameData} of the game, without the grid.
+     */
+    static GameData createGameData(final GameHeader gameHeader) {
+        return new GameData(
+            gameHeader.getGameId(),
+            gameHeader.getSessionId(),
+            gameHeader.getFirstPlayer(),
+            gameHeader.getSecondplayer(),
+            gameHeader.getGameState(),
+            gameHeader.getLastTurnedPlayedBy(),
+            null,
+            gameHeader.getWinner());
+    }
+
+    /**
+     * @return unique identifier of the session created
+     */
+    static String createSession() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * @return game data with the time left to the players of a timed game, the clock of the player to move stopped at the current time.
+     */
+    static GameDataResponse createGameDataResponse(final Game game) {
+        final GameData gameData = new GameData(
+            game.getGameId(),
+            game.getSessionId(),
+            game.getFirstPlayer(),
+            game.getSecondplayer(),
+            game.getGameState(),
+            game.getLastTurnedPlayedBy(),
+            game.getBoard().toGridArray(),
+            game.getWinner());
+        final GameClock clock = game.getClock();
+        if (clock != null) {
+            long firstPlayerRemainingMillis = clock.getFirstPlayerRemainingMillis();
+            long secondPlayerRemainingMillis = clock.getSecondPlayerRemainingMillis();
+            if (isPlayable(game.getGameState())) {
+                final long remainingMillis = Math.max(0, getRemainingMillis(game, System.currentTimeMillis()));
+                if (isFirstPlayerToMove(game)) {
+                    firstPlayerRemainingMillis = remainingMillis;
+                } else {
+                    secondPlayerRemainingMillis = remainingMillis;
+                }
+            }
+            gameData.setFirstPlayerRemainingMillis(firstPlayerRemainingMillis);
+            gameData.setSecondPlayerRemainingMillis(secondPlayerRemainingMillis);
+        }
+        return new GameDataResponse(gameData);
+    }
+
+    /**
+     * @return new game to create for the request.
+     */
+    static Game createGame(final CreateGameRequest createGameRequest, final String sessionId, final GameClock clock) {
+        return new Game(
+            null,
+            sessionId,
+            GameState.NEW.name(),
+            null,
+            createGameRequest.getFirstPlayerName(),
+            getSecondPlayerName(createGameRequest),
+            new BitBoard(),
+            null,
+            clock);
+    }
+
+    /**
+     * @return name of the second player of the game to create, the name of the AI for a game against the AI.
+     */
+    static String getSecondPlayerName(final CreateGameRequest createGameRequest) {
+        final AiStrength opponentStrength = createGameRequest.getOpponentStrength();
+        return opponentStrength == null ? createGameRequest.getSecondPlayerName() : opponentStrength.getPlayerName();
+    }
+
+    /**
+     * @return strength of the AI to reply to the turn just applied to the game, null if the game is not against the AI or is over.
+     */
+    static AiStrength getAiToReply(final Game game) {
+        return isPlayable(game.getGameState()) ? AiStrength.fromPlayerName(game.getSecondplayer()) : null;
+    }
+
+    /**
+     * Applies the reply of the AI to the game, the AI dropping its disc in the column.
+     *
+     * @return row number of the grid cell filled by the AI.
+     */
+    static int applyAiReply(final Game game, final int column) {
+        final int row = HIGHEST_GRID_ROW_NUMBER - game.getBoard().getColumnHeight(column);
+        applyTurn(game, game.getSecondplayer(), row, column);
+        logger.info("AI : {} replied in column : {} for game with id : {}", game.getSecondplayer(), column, game.getGameId());
+        return row;
+    }
+
+    /**
+     * @return clock of a game created now, running for the first player who plays the first turn, null if the request has no time control.
+     */
+    static GameClock createClock(final CreateGameRequest createGameRequest, final long nowMillis) {
+        if (createGameRequest.getBaseTimeMillis() == 0) {
+            return null;
+        }
+        return new GameClock(createGameRequest.getIncrementMillis(), createGameRequest.getBaseTimeMillis(), createGameRequest.getBaseTimeMillis(), nowMillis);
+    }
+
+    /**
+     * The first player plays the first turn, so the player to move follows from the number of discs in the grid.
+     */
+    static boolean isFirstPlayerToMove(final Game game) {
+        return game.getBoard().getFilledCellCount() % 2 == 0;
+    }
+
+    /**
+     * @return time left to the player to move of a timed game at the given time, zero or negative once the player ran out of time.
+     */
+    static long getRemainingMillis(final Game game, final long nowMillis) {
+        return getFlagFallMillis(game) - nowMillis;
+    }
+
+    /**
+     * @return time at which the player to move of a timed game runs out of time.
+     */
+    static long getFlagFallMillis(final Game game) {
+        final GameClock clock = game.getClock();
+        return clock.getTurnStartedMillis() + (isFirstPlayerToMove(game) ? clock.getFirstPlayerRemainingMillis() : clock.getSecondPlayerRemainingMillis());
+    }
+
+    /**
+     * Charges the time taken for the turn about to be applied to the player to move, adds the increment, and starts the clock of the other player. Games that
+     * are not timed are left unchanged.
+     *
+     * @return false if the player to move ran out of time, in which case the game is left unchanged.
+     */
+    static boolean applyClock(final Game game, final long nowMillis) {
+        final GameClock clock = game.getClock();
+        if (clock == null) {
+            return true;
+        }
+        final long remainingMillis = getRemainingMillis(game, nowMillis);
+        if (remainingMillis <= 0) {
+            return false;
+        }
+        final long newRemainingMillis = remainingMillis + clock.getIncrementMillis();
+        if (isFirstPlayerToMove(game)) {
+            game.setClock(new GameClock(clock.getIncrementMillis(), newRemainingMillis, clock.getSecondPlayerRemainingMillis(), nowMillis));
+        } else {
+            game.setClock(new GameClock(clock.getIncrementMillis(), clock.getFirstPlayerRemainingMillis(), newRemainingMillis, nowMillis));
+        }
+        return true;
+    }
+
+    /**
+     * Suspends the game and invalidates its session. The clock of a timed game is stopped: the time used since the start of the turn is charged to the player
+     * to move, who has nothing left if they ran out of time, and the game loses on time as soon as it is resumed.
+     */
+    static void applySuspension(final Game game, final long nowMillis) {
+        final GameClock clock = game.getClock();
+        if (clock != null && isPlayable(game.getGameState())) {
+            final long remainingMillis = Math.max(0, getRemainingMillis(game, nowMillis));
+            if (isFirstPlayerToMove(game)) {
+                game.setClock(new GameClock(clock.getIncrementMillis(), remainingMillis, clock.getSecondPlayerRemainingMillis(), nowMillis));
+            } else {
+                game.setClock(new GameClock(clock.getIncrementMillis(), clock.getFirstPlayerRemainingMillis(), remainingMillis, nowMillis));
+            }
+        }
+        game.setGameState(GameState.SUSPENDED.name());
+        game.setSessionId(null);
+    }
+
+    /**
+     * Restarts the clock of the player to move of a timed game being resumed, the time used before the suspension having been charged when the game was
+     * suspended.
+     */
+    static void restartClock(final Game game, final long nowMillis) {
+        final GameClock clock = game.getClock();
+        if (clock != null) {
+            game.setClock(new GameClock(clock.getIncrementMillis(), clock.getFirstPlayerRemainingMillis(), clock.getSecondPlayerRemainingMillis(), nowMillis));
+        }
+    }
+
+    /**
+     * Completes the game lost on time by the player to move, the other player being the winner.
+     */
+    static void applyFlagFall(final Game game) {
+        final GameClock clock = game.getClock();
+        final String winner;
+        if (isFirstPlayerToMove(game)) {
+            winner = game.getSecondplayer();
+            game.setClock(new GameClock(clock.getIncrementMillis(), 0, clock.getSecondPlayerRemainingMillis(), clock.getTurnStartedMillis()));
+        } else {
+            winner = game.getFirstPlayer();
+            game.setClock(new GameClock(clock.getIncrementMillis(), clock.getFirstPlayerRemainingMillis(), 0, clock.getTurnStartedMillis()));
+        }
+        game.setGameState(GameState.COMPLETED.name());
+        game.setWinner(winner);
+        invalidateCurrentSession(game);
+        logger.info("Player : {} has won the game with id : {} on time", winner, game.getGameId());
+    }
+
+    /**
+     * @return exception reporting that the game can't be played since the player to move ran out of time.
+     */
+    static InvalidGameStateException getTimeExpiredException(final Game game) {
+        logger.error("Turn not played in game with id : {} since the player ran out of time.", game.getGameId());
+        return new InvalidGameStateException("The player ran out of time. The game is lost on time.");
+    }
+
+    /**
+     * Tells the listener when the player to move of a timed game runs out of time, or that the clock is stopped if the game can't be played anymore.
+     */
+    static void reportClock(final GameClockListener gameClockListener, final Game game) {
+        if (game.getClock() == null) {
+            return;
+        }
+        if (isPlayable(game.getGameState())) {
+            gameClockListener.clockStarted(game.getGameId(), getFlagFallMillis(game));
+        } else {
+            gameClockListener.clockStopped(game.getGameId());
+        }
+    }
+
+    static boolean isPlayable(final String gameState) {
+        return GameState.IN_PROGRESS.name().equals(gameState) || GameState.NEW.name().equals(gameState);
+    }
+
+    /**
+     * @throws InvalidGridCellToFillException if either the grid cell is already filled or the grid cell below the grid cell to fill is still unfilled.
+     */
+    static void validateGridToFill(final int gridRowToFill, final int gridColumnToFill, final Game game) throws InvalidGridCellToFillException {
+        final BitBoard board = game.getBoard();
+        if (board.getCell(gridRowToFill, gridColumnToFill) != BitBoard.EMPTY_CELL) {
+            logger.error(
+                "Invalid grid cell sent to fill for game with id : {}. The grid : {},{} is already filled.",
+                game.getGameId(),
+                gridRowToFill,
+                gridColumnToFill);
+            throw new InvalidGridCellToFillException("Cannot fill the grid. It is already filled.");
+        }
+
+        if (gridRowToFill < HIGHEST_GRID_ROW_NUMBER && board.getCell(gridRowToFill + 1, gridColumnToFill) == BitBoard.EMPTY_CELL) {
+            logger.error(
+                "Invalid grid cell sent to fill for game with id : {}. The grid : {},{} has an unfilled grid below it.",
+                game.getGameId(),
+                gridRowToFill,
+                gridColumnToFill);
+            throw new InvalidGridCellToFillException("Cannot fill the grid. The grid below it is still unfilled.");
+        }
+
+    }
+
+    /**
+     * The disc dropped in a column lands on the top of the discs already in it, so the row is derived from the column height kept by the board.
+     *
+     * @return row number of the grid cell in which the disc dropped in the column lands.
+     * @throws InvalidGridCellToFillException if all the grid cells of the column are already filled.
+     */
+    static int getLandingRow(final int column, final Game game) throws InvalidGridCellToFillException {
+        final int columnHeight = game.getBoard().getColumnHeight(column);
+        if (columnHeight == BitBoard.ROWS) {
+            logger.error("Invalid column sent to drop disc for game with id : {}. The column : {} is already full.", game.getGameId(), column);
+            throw new InvalidGridCellToFillException("Cannot drop the disc. The column is already full.");
+        }
+        return HIGHEST_GRID_ROW_NUMBER - columnHeight;
+    }
+
+    /**
+     * @throws ConsecutiveTurnsNotAllowedException if the same player has tried to play consecutive turns in a game.
+     * @throws IncorrectGameStartException if second player has tried to play the first turn in a game.
+     */
+    static void validatePlayerTurn(final Game game, final String playerName) throws ConsecutiveTurnsNotAllowedException, IncorrectGameStartException {
+        //Enforce first turn rule : first player should play the first turn
+        validateFirstTurn(game, playerName);
+        if ((!GameState.NEW.name().equals(game.getGameState())) && game.getLastTurnedPlayedBy() != null && (playerName.equals(game.getLastTurnedPlayedBy()))) {
+            logger.error("Same player : {} tried to play consecutive turns for game with id : {}", playerName, game.getGameId());
+            throw new ConsecutiveTurnsNotAllowedException("The same player is not allowed to play consecutive turns.");
+        }
+
+    }
+
+    /**
+     * @throws IncorrectGameStartException if second player has tried to play the first turn in a game.
+     */
+    private static void validateFirstTurn(final Game game, final String playerName) throws IncorrectGameStartException {
+        if (GameState.NEW.name().equals(game.getGameState()) && !playerName.equals(game.getFirstPlayer())) {
+            logger.error("Game with id : {} is in NEW state. First player should play the first turn in it.", game.getGameId());
+            throw new IncorrectGameStartException("First player should start the game.");
+
+        }
+        if (wasGameSuspendedJustAfterCreation(game) && !playerName.equals(game.getFirstPlayer())) {
+            logger.error("No turn has been played in the game with id : {}. First player should play the first turn.", game.getGameId());
+            throw new IncorrectGameStartException("First player should start the game.");
+        }
+    }
+
+    private static boolean wasGameSuspendedJustAfterCreation(final Game game) {
+        if (GameState.IN_PROGRESS.name().equals(game.getGameState()) && (game.getLastTurnedPlayedBy() == null)) {
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @throws InvalidGameStateException if the game is not in NEW or IN_PROGRESS state.
+     */
+    static void validateGameState(final String currentGameState) throws InvalidGameStateException {
+        if (!isPlayable(currentGameState)) {
+            logger.error("Game is not in a plyabale state. Game must be in NEW or IN_PROGRESS state to play the turn successfully.");
+            throw new InvalidGameStateException("Game is not in a playable state. Current Game state: " + currentGameState);
+        }
+    }
+
+    /**
+     * Moves the game to a terminal state if the disc just filled connects four discs or fills the last free grid cell. Only the lines of the player who
+     * played the turn can have changed, so the other player's discs are not checked.
+     */
+    private static void updateGameResult(final Game game, final String playerName, final int disc) {
+        if (game.getBoard().hasConnectedFour(disc)) {
+            game.setGameState(GameState.COMPLETED.name());
+            game.setWinner(playerName);
+            invalidateCurrentSession(game);
+            logger.info("Player : {} has won the game with id : {}", playerName, game.getGameId());
+        } else if (game.getBoard().isFull()) {
+            game.setGameState(GameState.DRAWN.name());
+            invalidateCurrentSession(game);
+            logger.info("All the grid cells are filled without a winner. Game with id : {} is drawn.", game.getGameId());
+        }
+    }
+
+    static void invalidateCurrentSession(final Game game) {
+        game.setSessionId(null);
+    }
+
+}
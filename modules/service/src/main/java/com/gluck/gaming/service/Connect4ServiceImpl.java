@@ -1,13 +1,21 @@
 package com.gluck.gaming.service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.concurrent.CompletionException;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.gluck.gaming.dao.GameDao;
 import com.gluck.gaming.dao.model.Game;
+import com.gluck.gaming.dao.model.GameClock;
+import com.gluck.gaming.dao.model.GameHeader;
+import com.gluck.gaming.service.exception.AiOpponentUnavailableException;
+import com.gluck.gaming.service.exception.ConcurrentGameUpdateException;
 import com.gluck.gaming.service.exception.Connect4ServiceValidationException;
 import com.gluck.gaming.service.exception.ConsecutiveTurnsNotAllowedException;
 import com.gluck.gaming.service.exception.GameDeletionNotAllowedException;
@@ -16,6 +24,7 @@ import com.gluck.gaming.service.exception.IncorrectGameStartException;
 import com.gluck.gaming.service.exception.InvalidGameStateException;
 import com.gluck.gaming.service.exception.InvalidGameStateTransitionException;
 import com.gluck.gaming.service.exception.InvalidGridCellToFillException;
+import com.gluck.gaming.service.model.AiStrength;
 import com.gluck.gaming.service.model.CreateGameRequest;
 import com.gluck.gaming.service.model.CreateGameResponse;
 import com.gluck.gaming.service.model.GameData;
@@ -33,44 +42,129 @@ public class Connect4ServiceImpl implements Connect4Service {
 
     private static final Logger logger = LogManager.getLogger(Connect4ServiceImpl.class);
 
-    private static final int HIGHEST_GRID_ROW_NUMBER = 5;
-
     private final Connect4ServiceValidator connect4ServiceValidator;
 
     private final GameDao gameDao;
 
+    private final GameActivityListener gameActivityListener;
+
+    private final GameClockListener gameClockListener;
+
+    private final AiOpponent aiOpponent;
+
     /**
      * @param connect4ServiceValidator {@link Connect4ServiceValidator} instance to validate the in requests
      * @param gameDao {@link GameDao} implementation to perform database operations for a Game
      */
     public Connect4ServiceImpl(final Connect4ServiceValidator connect4ServiceValidator, final GameDao gameDao) {
+        this(connect4ServiceValidator, gameDao, GameActivityListener.NONE, GameClockListener.NONE);
+    }
+
+    /**
+     * @param connect4ServiceValidator {@link Connect4ServiceValidator} instance to validate the in requests
+     * @param gameDao {@link GameDao} implementation to perform database operations for a Game
+     * @param gameActivityListener {@link GameActivityListener} told about the games changed
+     * @param gameClockListener {@link GameClockListener} told about the clocks of the timed games
+     */
+    public Connect4ServiceImpl(
+        final Connect4ServiceValidator connect4ServiceValidator,
+        final GameDao gameDao,
+        final GameActivityListener gameActivityListener,
+        final GameClockListener gameClockListener) {
+        this(connect4ServiceValidator, gameDao, gameActivityListener, gameClockListener, AiOpponent.NONE);
+    }
+
+    /**
+     * @param connect4ServiceValidator {@link Connect4ServiceValidator} instance to validate the in requests
+     * @param gameDao {@link GameDao} implementation to perform database operations for a Game
+     * @param gameActivityListener {@link GameActivityListener} told about the games changed
+     * @param gameClockListener {@link GameClockListener} told about the clocks of the timed games
+     * @param aiOpponent {@link AiOpponent} replying to the turns of the games against the AI
+     */
+    public Connect4ServiceImpl(
+        final Connect4ServiceValidator connect4ServiceValidator,
+        final GameDao gameDao,
+        final GameActivityListener gameActivityListener,
+        final GameClockListener gameClockListener,
+        final AiOpponent aiOpponent) {
         this.connect4ServiceValidator = connect4ServiceValidator;
         this.gameDao = gameDao;
+        this.gameActivityListener = gameActivityListener;
+        this.gameClockListener = gameClockListener;
+        this.aiOpponent = aiOpponent;
     }
 
     @Override
     public CreateGameResponse createGame(final CreateGameRequest createGameRequest) throws Connect4ServiceValidationException {
         logger.info("Received create game request : {}", createGameRequest);
         connect4ServiceValidator.validate(createGameRequest);
-        final String sessionId = createSession();
-        final String gameId = gameDao.createGame(createGameRequest.getFirstPlayerName(), createGameRequest.getSecondPlayerName(), sessionId);
+        final String sessionId = Connect4GameRules.createSession();
+        final GameClock clock = Connect4GameRules.createClock(createGameRequest, System.currentTimeMillis());
+        final String gameId;
+        if (clock == null) {
+            gameId = gameDao.createGame(createGameRequest.getFirstPlayerName(), Connect4GameRules.getSecondPlayerName(createGameRequest), sessionId);
+        } else {
+            final Game game = Connect4GameRules.createGame(createGameRequest, sessionId, clock);
+            gameId = gameDao.createGames(Collections.singletonList(game)).get(0);
+            game.setGameId(gameId);
+            Connect4GameRules.reportClock(gameClockListener, game);
+        }
+        gameActivityListener.gameActive(gameId);
         final CreateGameResponse response = new CreateGameResponse(gameId, sessionId, GameState.NEW);
         logger.info("Created game successfully. Response : {}", response);
         return response;
     }
 
+    @Override
+    public List<CreateGameResponse> createGames(final List<CreateGameRequest> createGameRequests) throws Connect4ServiceValidationException {
+        logger.info("Received request to create games in bulk");
+        connect4ServiceValidator.validate(createGameRequests);
+        final List<Game> games = new ArrayList<Game>(createGameRequests.size());
+        final long nowMillis = System.currentTimeMillis();
+        for (final CreateGameRequest createGameRequest : createGameRequests) {
+            games.add(
+                Connect4GameRules
+                    .createGame(createGameRequest, Connect4GameRules.createSession(), Connect4GameRules.createClock(createGameRequest, nowMillis)));
+        }
+        final List<String> gameIds = gameDao.createGames(games);
+        final List<CreateGameResponse> responses = new ArrayList<CreateGameResponse>(games.size());
+        for (int i = 0; i < games.size(); i++) {
+            games.get(i).setGameId(gameIds.get(i));
+            Connect4GameRules.reportClock(gameClockListener, games.get(i));
+            gameActivityListener.gameActive(gameIds.get(i));
+            responses.add(new CreateGameResponse(gameIds.get(i), games.get(i).getSessionId(), GameState.NEW));
+        }
+        logger.info("Created {} games successfully.", responses.size());
+        return responses;
+    }
+
     @Override
     public GameDataResponse getGameData(final String gameId) throws GameNotFoundException, Connect4ServiceValidationException {
         logger.info("Received request to get game data for game with id: {}", gameId);
         connect4ServiceValidator.valicateGameId(gameId);
         final Game game = fetchGame(gameId);
         logger.info("Successfully fetched game data for id : {}. Data: {}", gameId, game);
-        return createGameDataResponse(game);
+        return Connect4GameRules.createGameDataResponse(game);
+    }
+
+    @Override
+    public List<GameData> getGamesOfPlayer(final String playerName, final GameState gameState, final String afterGameId, final int limit)
+        throws Connect4ServiceValidationException {
+        logger.info("Received request to get games of player : {} in state : {} after game with id : {}", playerName, gameState, afterGameId);
+        connect4ServiceValidator.validateGamesOfPlayer(playerName, afterGameId, limit);
+        final List<GameHeader> gameHeaders = gameDao
+            .findGamesByPlayer(playerName, Objects.isNull(gameState) ? null : gameState.name(), afterGameId, limit);
+        final List<GameData> games = new ArrayList<GameData>(gameHeaders.size());
+        for (final GameHeader gameHeader : gameHeaders) {
+            games.add(Connect4GameRules.createGameData(gameHeader));
+        }
+        return games;
     }
 
     @Override
     public String playTurn(final PlayTurnRequest playTurnRequest) throws Connect4ServiceValidationException, GameNotFoundException, InvalidGameStateException,
-        ConsecutiveTurnsNotAllowedException, InvalidGridCellToFillException, IncorrectGameStartException {
+        ConsecutiveTurnsNotAllowedException, InvalidGridCellToFillException, IncorrectGameStartException, ConcurrentGameUpdateException,
+        AiOpponentUnavailableException {
         logger.info(
             "Received request to play turn by player : {} for game with id: {} in session : {}",
             playTurnRequest.getPlayerName(),
@@ -78,11 +172,12 @@ public class Connect4ServiceImpl implements Connect4Service {
             playTurnRequest.getSessionId());
         connect4ServiceValidator.validate(playTurnRequest);
         final Game game = fetchGame(playTurnRequest.getGameId());
-        validateGameState(game.getGameState());
+        Connect4GameRules.validateGameState(game.getGameState());
         connect4ServiceValidator.validateSession(game.getSessionId(), playTurnRequest.getSessionId());
-        validatePlayerTurn(game, playTurnRequest.getPlayerName());
-        validateGridToFill(playTurnRequest.getGridRowToFill(), playTurnRequest.getGridColumnToFill(), game);
-        updateGame(game, playTurnRequest);
+        connect4ServiceValidator.validatePlayer(game.getFirstPlayer(), game.getSecondplayer(), playTurnRequest.getPlayerName());
+        Connect4GameRules.validatePlayerTurn(game, playTurnRequest.getPlayerName());
+        Connect4GameRules.validateGridToFill(playTurnRequest.getGridRowToFill(), playTurnRequest.getGridColumnToFill(), game);
+        updateGame(game, playTurnRequest.getPlayerName(), playTurnRequest.getGridRowToFill(), playTurnRequest.getGridColumnToFill());
         logger.info(
             "Grid [{},{}] filled successfully by player : {} for game with id : {} ",
             playTurnRequest.getGridRowToFill(),
@@ -93,50 +188,63 @@ public class Connect4ServiceImpl implements Connect4Service {
     }
 
     @Override
-    public void suspendGame(final String gameId) throws Connect4ServiceValidationException, GameNotFoundException, InvalidGameStateTransitionException {
+    public GameDataResponse dropDisc(final String gameId, final String sessionId, final String playerName, final int column)
+        throws Connect4ServiceValidationException, GameNotFoundException, InvalidGameStateException, ConsecutiveTurnsNotAllowedException,
+        InvalidGridCellToFillException, IncorrectGameStartException, ConcurrentGameUpdateException, AiOpponentUnavailableException {
+        logger.info("Received request to drop disc in column : {} by player : {} for game with id: {} in session : {}", column, playerName, gameId, sessionId);
+        connect4ServiceValidator.validateDropDisc(gameId, sessionId, playerName, column);
+        final Game game = fetchGame(gameId);
+        Connect4GameRules.validateGameState(game.getGameState());
+        connect4ServiceValidator.validateSession(game.getSessionId(), sessionId);
+        connect4ServiceValidator.validatePlayer(game.getFirstPlayer(), game.getSecondplayer(), playerName);
+        Connect4GameRules.validatePlayerTurn(game, playerName);
+        final int row = Connect4GameRules.getLandingRow(column, game);
+        final Game savedGame = updateGame(game, playerName, row, column);
+        logger.info("Grid [{},{}] filled successfully by player : {} for game with id : {} ", row, column, playerName, gameId);
+        return Connect4GameRules.createGameDataResponse(savedGame);
+    }
+
+    @Override
+    public void suspendGame(final String gameId)
+        throws Connect4ServiceValidationException, GameNotFoundException, InvalidGameStateTransitionException, ConcurrentGameUpdateException {
         logger.info("suspendGame :: Received request to suspend game with id: {}", gameId);
         connect4ServiceValidator.valicateGameId(gameId);
-        final Game game = fetchGame(gameId);
-        invalidateCurrentSession(game);
-        updateGameState(game, GameState.SUSPENDED, "suspend");
+        suspendGameState(gameId);
     }
 
     @Override
     public GameDataResponse resumeGame(final String gameId)
-        throws Connect4ServiceValidationException, GameNotFoundException, InvalidGameStateTransitionException {
+        throws Connect4ServiceValidationException, GameNotFoundException, InvalidGameStateTransitionException, ConcurrentGameUpdateException {
         logger.info("resumeGame :: Received request to resume game with id: {}", gameId);
         connect4ServiceValidator.valicateGameId(gameId);
-        final Game game = fetchGame(gameId);
-        game.setSessionId(createSession());
-        updateGameState(game, GameState.IN_PROGRESS, "resume");
-        return createGameDataResponse(game);
+        final Game game = resumeGameState(gameId);
+        gameActivityListener.gameActive(gameId);
+        Connect4GameRules.reportClock(gameClockListener, game);
+        return Connect4GameRules.createGameDataResponse(replyIfAiToMove(game));
     }
 
     @Override
-    public void completeGame(final String gameId) throws Connect4ServiceValidationException, GameNotFoundException, InvalidGameStateTransitionException {
+    public void completeGame(final String gameId)
+        throws Connect4ServiceValidationException, GameNotFoundException, InvalidGameStateTransitionException, ConcurrentGameUpdateException {
         logger.info("completeGame :: Received request to complete game with id: {}", gameId);
         connect4ServiceValidator.valicateGameId(gameId);
-        final Game game = fetchGame(gameId);
-        invalidateCurrentSession(game);
-        updateGameState(game, GameState.COMPLETED, "complete");
+        transitionGameState(gameId, GameState.COMPLETED, "complete");
     }
 
     @Override
-    public void drawGame(final String gameId) throws Connect4ServiceValidationException, GameNotFoundException, InvalidGameStateTransitionException {
+    public void drawGame(final String gameId)
+        throws Connect4ServiceValidationException, GameNotFoundException, InvalidGameStateTransitionException, ConcurrentGameUpdateException {
         logger.info("drawGame :: Received request to draw game with id: {}", gameId);
         connect4ServiceValidator.valicateGameId(gameId);
-        final Game game = fetchGame(gameId);
-        invalidateCurrentSession(game);
-        updateGameState(game, GameState.DRAWN, "draw");
+        transitionGameState(gameId, GameState.DRAWN, "draw");
     }
 
     @Override
-    public void abandonGame(final String gameId) throws Connect4ServiceValidationException, GameNotFoundException, InvalidGameStateTransitionException {
+    public void abandonGame(final String gameId)
+        throws Connect4ServiceValidationException, GameNotFoundException, InvalidGameStateTransitionException, ConcurrentGameUpdateException {
         logger.info("abandonGame :: Received request to abandon game with id: {}", gameId);
         connect4ServiceValidator.valicateGameId(gameId);
-        final Game game = fetchGame(gameId);
-        invalidateCurrentSession(game);
-        updateGameState(game, GameState.ABANDONED, "abandon");
+        transitionGameState(gameId, GameState.ABANDONED, "abandon");
     }
 
     @Override
@@ -144,157 +252,194 @@ public class Connect4ServiceImpl implements Connect4Service {
         throws Connect4ServiceValidationException, GameNotFoundException, InvalidGameStateTransitionException, GameDeletionNotAllowedException {
         logger.info("deleteGame :: Received request to delete game with id: {}", gameId);
         connect4ServiceValidator.valicateGameId(gameId);
-        final Game game = fetchGame(gameId);
-        if (!GameState.ABANDONED.name().equals(game.getGameState()) && !GameState.COMPLETED.name().equals(game.getGameState())
-            && !GameState.DRAWN.name().equals(game.getGameState())) {
-            logger.error(
-                "Operation not supported to delete the game with id : {}  since it is not in any of the terminal states(ABANDONED,COMPLETED or DRAWN). Current game state : {}",
-                game.getGameId(),
-                game.getGameState());
-            throw new GameDeletionNotAllowedException(
-                "Cannot delete the game. Game must either be in COMPLETED, DRAWN or ABANDONED state in order to be deleted.");
+        if (gameDao.deleteGame(gameId, Connect4GameRules.DELETABLE_STATES)) {
+            gameActivityListener.gameEnded(gameId);
+            gameClockListener.clockStopped(gameId);
+            return;
         }
-        gameDao.deleteGame(game);
+        //The game is either not found or not in a terminal state. Terminal states are final, so reading the game is enough to find out which.
+        throw Connect4GameRules.getGameDeletionNotAllowedException(fetchGameHeader(gameId));
     }
 
     /**
-     * @return unique identifier of the session created
+     * Moves the game to SUSPENDED, invalidating its session and stopping its clock, with a conditional update which doesn't match if the game was changed after
+     * it was read, for example by a turn. The game is then read again to check the transition, a limited number of times.
+     *
+     * @throws GameNotFoundException if the game with given id does not exists in the system.
+     * @throws InvalidGameStateTransitionException if the game cannot be suspended from the state it is in.
+     * @throws ConcurrentGameUpdateException if the game kept being changed by other requests.
      */
-    private String createSession() {
-        return UUID.randomUUID().toString();
+    private void suspendGameState(final String gameId) throws GameNotFoundException, InvalidGameStateTransitionException, ConcurrentGameUpdateException {
+        final List<String> sourceStates = Connect4GameRules.getSourceStates(GameState.SUSPENDED);
+        for (int attempt = 0; attempt < Connect4GameRules.MAX_STATE_UPDATE_ATTEMPTS; attempt++) {
+            final Game game = fetchGame(gameId);
+            Connect4GameRules.validateStateTransition(game.getHeader(), GameState.SUSPENDED, "suspend");
+            Connect4GameRules.applySuspension(game, System.currentTimeMillis());
+            if (gameDao.saveGameState(game, sourceStates).isPresent()) {
+                Connect4GameRules.reportActivity(gameActivityListener, gameId, GameState.SUSPENDED.name());
+                gameClockListener.clockStopped(gameId);
+                logger.info("Completed the operation to suspend the game with id : {}. Updated game state : {}", gameId, GameState.SUSPENDED);
+                return;
+            }
+        }
+        throw Connect4GameRules.getStateUpdateFailedException(gameId, "suspend");
     }
 
-    private GameDataResponse createGameDataResponse(final Game game) {
-        return new GameDataResponse(
-            new GameData(
-                game.getGameId(),
-                game.getSessionId(),
-                game.getFirstPlayer(),
-                game.getSecondplayer(),
-                game.getGameState(),
-                game.getLastTurnedPlayedBy(),
-                game.getGrid()));
+    /**
+     * Moves the game to IN_PROGRESS with a new session and the clock of the player to move restarted, with a conditional update which doesn't match if the
+     * game was changed after it was read, for example abandoned. The game is then read again to check the transition, a limited number of times.
+     *
+     * @return the resumed game.
+     * @throws GameNotFoundException if the game with given id does not exists in the system.
+     * @throws InvalidGameStateTransitionException if the game cannot be resumed from the state it is in.
+     * @throws ConcurrentGameUpdateException if the game kept being changed by other requests.
+     */
+    private Game resumeGameState(final String gameId) throws GameNotFoundException, InvalidGameStateTransitionException, ConcurrentGameUpdateException {
+        final List<String> sourceStates = Connect4GameRules.getSourceStates(GameState.IN_PROGRESS);
+        for (int attempt = 0; attempt < Connect4GameRules.MAX_STATE_UPDATE_ATTEMPTS; attempt++) {
+            final Game game = fetchGame(gameId);
+            Connect4GameRules.validateStateTransition(game.getHeader(), GameState.IN_PROGRESS, "resume");
+            game.setGameState(GameState.IN_PROGRESS.name());
+            game.setSessionId(Connect4GameRules.createSession());
+            Connect4GameRules.restartClock(game, System.currentTimeMillis());
+            if (gameDao.saveGameState(game, sourceStates).isPresent()) {
+                logger.info("Completed the operation to resume the game with id : {}. Updated game state : {}", gameId, GameState.IN_PROGRESS);
+                return game;
+            }
+        }
+        throw Connect4GameRules.getStateUpdateFailedException(gameId, "resume");
     }
 
     /**
+     * Moves the game to the target state with a single conditional update, from any state the transition is valid from, and invalidates its session. The game
+     * is read only if the update doesn't match, to report why, and the update is tried again a limited number of times.
+     *
+     * @throws GameNotFoundException if the game with given id does not exists in the system.
      * @throws InvalidGameStateTransitionException if action cannot be performed because of the current state that game is in.
+     * @throws ConcurrentGameUpdateException if the game kept being changed by other requests.
      */
-    private void updateGameState(final Game game, final GameState targetState, final String action) throws InvalidGameStateTransitionException {
-        if (!GameState.isStateTransitionValid(GameState.valueOf(game.getGameState()), targetState)) {
-            logger.error(
-                "Invalid game state transition. Cannot {} the game with id : {} since the game is in : {} state. ",
-                action,
-                game.getGameId(),
-                game.getGameState());
-            throw new InvalidGameStateTransitionException("Invalid state transition from " + game.getGameState() + "to " + targetState);
+    private void transitionGameState(final String gameId, final GameState targetState, final String action)
+        throws GameNotFoundException, InvalidGameStateTransitionException, ConcurrentGameUpdateException {
+        final List<String> sourceStates = Connect4GameRules.getSourceStates(targetState);
+        int attempt = 1;
+        while (!gameDao.updateGameState(gameId, sourceStates, targetState.name(), null).isPresent()) {
+            Connect4GameRules.validateStateTransition(fetchGameHeader(gameId), targetState, action);
+            //The game was moved to a state allowing the transition by another request after the update was tried.
+            if (attempt++ == Connect4GameRules.MAX_STATE_UPDATE_ATTEMPTS) {
+                throw Connect4GameRules.getStateUpdateFailedException(gameId, action);
+            }
         }
-        game.setGameState(targetState.name());
-        gameDao.updateGame(game);
-        logger.info("Completed the operation to {} the game with id : {}. Updated game state : {}", action, game.getGameId(), targetState);
-
+        Connect4GameRules.reportActivity(gameActivityListener, gameId, targetState.name());
+        gameClockListener.clockStopped(gameId);
+        logger.info("Completed the operation to {} the game with id : {}. Updated game state : {}", action, gameId, targetState);
     }
 
     /**
-     * @throws InvalidGridCellToFillException if either the grid cell is already filled or the grid cell below the grid cell to fill is still unfilled.
+     * @throws GameNotFoundException if the game with given id does not exists in the system.
      */
-    private void validateGridToFill(final int gridRowToFill, final int gridColumnToFill, final Game game) throws InvalidGridCellToFillException {
-        final Integer[][] gameGrid = game.getGrid();
-        if (gameGrid[gridRowToFill][gridColumnToFill] != 0) {
-            logger.error(
-                "Invalid grid cell sent to fill for game with id : {}. The grid : {},{} is already filled.",
-                game.getGameId(),
-                gridRowToFill,
-                gridColumnToFill);
-            throw new InvalidGridCellToFillException("Cannot fill the grid. It is already filled.");
-        }
-
-        if (gridRowToFill < HIGHEST_GRID_ROW_NUMBER && gameGrid[gridRowToFill + 1][gridColumnToFill] == 0) {
-            logger.error(
-                "Invalid grid cell sent to fill for game with id : {}. The grid : {},{} has an unfilled grid below it.",
-                game.getGameId(),
-                gridRowToFill,
-                gridColumnToFill);
-            throw new InvalidGridCellToFillException("Cannot fill the grid. The grid below it is still unfilled.");
-        }
-
+    private Game fetchGame(final String gameId) throws GameNotFoundException {
+        return Connect4GameRules.getFoundGame(gameDao.findGameById(gameId), gameId);
     }
 
     /**
-     * @throws ConsecutiveTurnsNotAllowedException if the same player has tried to play consecutive turns in a game.
-     * @throws IncorrectGameStartException if second player has tried to play the first turn in a game.
+     * @throws GameNotFoundException if the game with given id does not exists in the system.
      */
-    private void validatePlayerTurn(final Game game, final String playerName) throws ConsecutiveTurnsNotAllowedException, IncorrectGameStartException {
-        //Enforce first turn rule : first player should play the first turn
-        validateFirstTurn(game, playerName);
-        if ((!GameState.NEW.name().equals(game.getGameState())) && game.getLastTurnedPlayedBy() != null && (playerName.equals(game.getLastTurnedPlayedBy()))) {
-            logger.error("Same player : {} tried to play consecutive turns for game with id : {}", playerName, game.getGameId());
-            throw new ConsecutiveTurnsNotAllowedException("The same player is not allowed to play consecutive turns.");
-        }
-
+    private GameHeader fetchGameHeader(final String gameId) throws GameNotFoundException {
+        return Connect4GameRules.getFoundGame(gameDao.findGameHeaderById(gameId), gameId);
     }
 
     /**
-     * @throws IncorrectGameStartException if second player has tried to play the first turn in a game.
+     * In a game against the AI, the reply of the AI is searched before the turn is saved, so that the turn is not saved when the AI cannot reply, and saved
+     * just after the turn.
+     *
+     * @return game data saved in the database after the turn, and after the reply of the AI in a game against the AI.
+     * @throws ConcurrentGameUpdateException if the game was changed by another request after it was read.
+     * @throws InvalidGameStateException if the player ran out of time, in which case the game is lost on time.
+     * @throws AiOpponentUnavailableException if the AI cannot search its reply to the turn.
      */
-    private void validateFirstTurn(final Game game, final String playerName) throws IncorrectGameStartException {
-        if (GameState.NEW.name().equals(game.getGameState()) && !playerName.equals(game.getFirstPlayer())) {
-            logger.error("Game with id : {} is in NEW state. First player should play the first turn in it.", game.getGameId());
-            throw new IncorrectGameStartException("First player should start the game.");
-
+    private Game updateGame(final Game game, final String playerName, final int row, final int column)
+        throws ConcurrentGameUpdateException, InvalidGameStateException, AiOpponentUnavailableException {
+        if (!Connect4GameRules.applyClock(game, System.currentTimeMillis())) {
+            endGameOnTime(game);
         }
-        if (wasGameSuspendedJustAfterCreation(game) && !playerName.equals(game.getFirstPlayer())) {
-            logger.error("No turn has been played in the game with id : {}. First player should play the first turn.", game.getGameId());
-            throw new IncorrectGameStartException("First player should start the game.");
+        Connect4GameRules.applyTurn(game, playerName, row, column);
+        final AiStrength aiToReply = Connect4GameRules.getAiToReply(game);
+        final int aiColumn = aiToReply == null ? 0 : findAiReply(game, aiToReply);
+        Game savedGame = Connect4GameRules.getSavedGame(gameDao.saveTurn(game, row, column), playerName, game.getGameId());
+        if (aiToReply != null) {
+            savedGame = saveAiReply(savedGame, aiColumn);
         }
-    }
-
-    private boolean wasGameSuspendedJustAfterCreation(final Game game) {
-        if (GameState.IN_PROGRESS.name().equals(game.getGameState()) && (game.getLastTurnedPlayedBy() == null)) {
-            return true;
-        }
-        return false;
+        Connect4GameRules.reportActivity(gameActivityListener, savedGame.getGameId(), savedGame.getGameState());
+        Connect4GameRules.reportClock(gameClockListener, savedGame);
+        return savedGame;
     }
 
     /**
-     * @throws InvalidGameStateException if the game is not in NEW or IN_PROGRESS state.
+     * Waits for the reply of the AI, searched by the threads of the {@link AiOpponent}, which refuses the replies not found within its reply timeout.
+     *
+     * @return column in which the AI drops its disc.
+     * @throws AiOpponentUnavailableException if the AI cannot search its reply.
      */
-    private void validateGameState(final String currentGameState) throws InvalidGameStateException {
-        if (!GameState.IN_PROGRESS.name().equals(currentGameState) && !GameState.NEW.name().equals(currentGameState)) {
-            logger.error("Game is not in a plyabale state. Game must be in NEW or IN_PROGRESS state to play the turn successfully.");
-            throw new InvalidGameStateException("Game is not in a playable state. Current Game state: " + currentGameState);
+    private int findAiReply(final Game game, final AiStrength strength) throws AiOpponentUnavailableException {
+        try {
+            return aiOpponent.findReply(game.getBoard(), strength).join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof AiOpponentUnavailableException) {
+                throw (AiOpponentUnavailableException) e.getCause();
+            }
+            throw e;
         }
     }
 
     /**
-     * @throws GameNotFoundException if the game with given id does not exists in the system.
+     * Saves the reply of the AI to the turn just saved. If the game was changed by another request in between, for example suspended, the turn stays saved
+     * without the reply and the AI replies once the game is resumed.
+     *
+     * @return game data saved in the database after the reply, or after the turn if the reply could not be saved.
      */
-    private Game fetchGame(final String gameId) throws GameNotFoundException {
-        final Optional<Game> optionalGame = gameDao.findGameById(gameId);
-        if (!optionalGame.isPresent()) {
-            logger.error("Game with id : {} does not exist.", gameId);
-            throw new GameNotFoundException("Game with the given ID does not exist.");
+    private Game saveAiReply(final Game savedGame, final int column) {
+        final Game game = savedGame.copy();
+        final int row = Connect4GameRules.applyAiReply(game, column);
+        final Optional<Game> savedReply = gameDao.saveTurn(game, row, column);
+        if (!savedReply.isPresent()) {
+            logger.warn("Reply of the AI could not be saved since game with id : {} was changed by another request.", game.getGameId());
+            return savedGame;
         }
-        final Game game = optionalGame.get();
-        return game;
+        return savedReply.get();
     }
 
-    private void updateGame(final Game game, final PlayTurnRequest playTurnRequest) {
-        game.setLastTurnedPlayedBy(playTurnRequest.getPlayerName());
-        if (GameState.NEW.name().equals(game.getGameState())) {
-            game.setGameState(GameState.IN_PROGRESS.name());
+    /**
+     * Plays the reply of the AI in a resumed game against the AI whose last turn was saved without the reply.
+     *
+     * @return game data after the reply, the game given if the AI is not to move or cannot reply.
+     */
+    private Game replyIfAiToMove(final Game game) {
+        final AiStrength aiToReply = Connect4GameRules.getAiToReply(game);
+        if (aiToReply == null || Connect4GameRules.isFirstPlayerToMove(game)) {
+            return game;
         }
-        final Integer[][] gameGrid = game.getGrid();
-        if (game.getFirstPlayer().equals(playTurnRequest.getPlayerName())) {
-            gameGrid[playTurnRequest.getGridRowToFill()][playTurnRequest.getGridColumnToFill()] = 1;
-        } else if (game.getSecondplayer().equals(playTurnRequest.getPlayerName())) {
-            gameGrid[playTurnRequest.getGridRowToFill()][playTurnRequest.getGridColumnToFill()] = 2;
+        try {
+            final Game savedGame = saveAiReply(game, findAiReply(game, aiToReply));
+            Connect4GameRules.reportActivity(gameActivityListener, savedGame.getGameId(), savedGame.getGameState());
+            return savedGame;
+        } catch (final AiOpponentUnavailableException e) {
+            logger.warn("AI could not reply in the resumed game with id : {}. It replies on the next resume.", game.getGameId());
+            return game;
         }
-        gameDao.updateGame(game);
-
     }
 
-    private void invalidateCurrentSession(final Game game) {
-        game.setSessionId(null);
+    /**
+     * Completes the game lost on time by the player to move, unless it was changed by another request after it was read.
+     *
+     * @throws InvalidGameStateException always, since the game cannot be played anymore.
+     */
+    private void endGameOnTime(final Game game) throws InvalidGameStateException {
+        Connect4GameRules.applyFlagFall(game);
+        if (gameDao.saveGameResult(game).isPresent()) {
+            gameActivityListener.gameEnded(game.getGameId());
+            gameClockListener.clockStopped(game.getGameId());
+        }
+        throw Connect4GameRules.getTimeExpiredException(game);
     }
 
     /**
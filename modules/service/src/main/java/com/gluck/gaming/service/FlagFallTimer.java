@@ -0,0 +1,170 @@
+package com.gluck.gaming.service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.gluck.gaming.dao.GameDao;
+import com.gluck.gaming.dao.model.Game;
+
+/**
+ * Background job completing the timed games whose player to move ran out of time, the other player winning on time. The turns check the clock too, this
+ * job ends the games of the players who stopped playing.<br>
+ * The time at which the player to move of each running clock runs out of time is kept in memory, with a timer held in a {@link HierarchicalTimingWheel},
+ * so the cost of a clock doesn't depend on the number of clocks running. Every turn schedules a new timer; the timers left behind by the turns are dropped
+ * when they expire. A game is only read once its player to move ran out of time, and is ended with the same conditional update as a turn, so a turn saved
+ * just before is never overwritten.
+ *
+ * @author Vinay Semwal
+ */
+public class FlagFallTimer implements GameClockListener {
+
+    private static final Logger logger = LogManager.getLogger(FlagFallTimer.class);
+
+    private static final int WHEEL_SIZE = 64;
+
+    private static final int WHEEL_LEVELS = 4;
+
+    private final GameDao gameDao;
+
+    private final GameActivityListener gameActivityListener;
+
+    private final long tickMillis;
+
+    private final LongSupplier clock;
+
+    private final HierarchicalTimingWheel<String> timingWheel;
+
+    private final Map<String, Long> flagFalls = new ConcurrentHashMap<String, Long>();
+
+    private final LongAdder flaggedGameCount = new LongAdder();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "flag-fall-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param gameDao {@link GameDao} of the services reporting the clocks.
+     * @param gameActivityListener {@link GameActivityListener} told about the games ended on time.
+     * @param tickMillis precision of the flag falls.
+     */
+    public FlagFallTimer(final GameDao gameDao, final GameActivityListener gameActivityListener, final long tickMillis) {
+        this(gameDao, gameActivityListener, tickMillis, System::currentTimeMillis);
+    }
+
+    FlagFallTimer(final GameDao gameDao, final GameActivityListener gameActivityListener, final long tickMillis, final LongSupplier clock) {
+        this.gameDao = gameDao;
+        this.gameActivityListener = gameActivityListener;
+        this.tickMillis = tickMillis;
+        this.clock = clock;
+        timingWheel = new HierarchicalTimingWheel<String>(tickMillis, WHEEL_SIZE, WHEEL_LEVELS, clock.getAsLong());
+    }
+
+    /**
+     * Starts expiring the timers of the clocks every tick.
+     */
+    public void start() {
+        executor.scheduleWithFixedDelay(this::expireClocksSafely, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        logger.info("Flag fall timer started. Clocks are checked every {} ms.", tickMillis);
+    }
+
+    /**
+     * Stops the job. Games whose player runs out of time afterwards are ended on their next turn.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.error("Flag fall timer did not stop in time.");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void clockStarted(final String gameId, final long flagFallMillis) {
+        flagFalls.put(gameId, flagFallMillis);
+        timingWheel.schedule(flagFallMillis, gameId);
+    }
+
+    @Override
+    public void clockStopped(final String gameId) {
+        flagFalls.remove(gameId);
+    }
+
+    /**
+     * Ends the games whose timer expired and whose player to move ran out of time. Called by the job thread only.
+     */
+    void expireClocks() {
+        timingWheel.advance(clock.getAsLong(), this::expireClock);
+    }
+
+    private void expireClock(final String gameId) {
+        try {
+            flagFall(gameId);
+        } catch (final RuntimeException e) {
+            logger.error("Failed to check the clock of the game with id : {}, will be tried again.", gameId, e);
+            timingWheel.schedule(clock.getAsLong() + tickMillis, gameId);
+        }
+    }
+
+    private void flagFall(final String gameId) {
+        final Long flagFallMillis = flagFalls.get(gameId);
+        final long nowMillis = clock.getAsLong();
+        if (flagFallMillis == null || flagFallMillis > nowMillis) {
+            //The clock was stopped, or restarted by a turn which scheduled a later timer.
+            return;
+        }
+        final Optional<Game> optionalGame = gameDao.findGameById(gameId);
+        if (!optionalGame.isPresent() || optionalGame.get().getClock() == null || !Connect4GameRules.isPlayable(optionalGame.get().getGameState())) {
+            flagFalls.remove(gameId, flagFallMillis);
+            return;
+        }
+        final Game game = optionalGame.get();
+        if (Connect4GameRules.getRemainingMillis(game, nowMillis) > 0) {
+            //The game was played through another instance.
+            clockStarted(gameId, Connect4GameRules.getFlagFallMillis(game));
+            return;
+        }
+        flagFalls.remove(gameId, flagFallMillis);
+        Connect4GameRules.applyFlagFall(game);
+        if (gameDao.saveGameResult(game).isPresent()) {
+            flaggedGameCount.increment();
+            gameActivityListener.gameEnded(gameId);
+        }
+    }
+
+    private void expireClocksSafely() {
+        try {
+            expireClocks();
+        } catch (final RuntimeException e) {
+            logger.error("Failed to check the clocks, will be tried again.", e);
+        }
+    }
+
+    /**
+     * @return number of running clocks, which are the clocks of the timed games played through this instance that can still be played.
+     */
+    public int getRunningClockCount() {
+        return flagFalls.size();
+    }
+
+    /**
+     * @return number of games ended by the timer since the player to move ran out of time.
+     */
+    public long getFlaggedGameCount() {
+        return flaggedGameCount.sum();
+    }
+
+}
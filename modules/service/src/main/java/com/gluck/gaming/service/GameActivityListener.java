@@ -0,0 +1,40 @@
+package com.gluck.gaming.service;
+
+/**
+ * Listener told by the services about the games changed by the players, so that the games left alone can be found without reading all the games.
+ *
+ * @author Vinay Semwal
+ */
+public interface GameActivityListener {
+
+    /**
+     * Listener ignoring the activity.
+     */
+    GameActivityListener NONE = new GameActivityListener() {
+
+        @Override
+        public void gameActive(final String gameId) {
+            //Activity is not tracked.
+        }
+
+        @Override
+        public void gameEnded(final String gameId) {
+            //Activity is not tracked.
+        }
+    };
+
+    /**
+     * Called when a game is created, a turn is played that doesn't end it, or its state is changed to a state it can still leave.
+     *
+     * @param gameId id of the game.
+     */
+    void gameActive(String gameId);
+
+    /**
+     * Called when a game is moved to a terminal state or deleted.
+     *
+     * @param gameId id of the game.
+     */
+    void gameEnded(String gameId);
+
+}
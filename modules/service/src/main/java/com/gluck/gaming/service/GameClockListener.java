@@ -0,0 +1,42 @@
+package com.gluck.gaming.service;
+
+/**
+ * Listener told by the services about the clocks of the timed games, so that the games whose player to move runs out of time can be ended without waiting
+ * for the next request.
+ *
+ * @author Vinay Semwal
+ */
+public interface GameClockListener {
+
+    /**
+     * Listener ignoring the clocks.
+     */
+    GameClockListener NONE = new GameClockListener() {
+
+        @Override
+        public void clockStarted(final String gameId, final long flagFallMillis) {
+            //Clocks are only checked on the turns.
+        }
+
+        @Override
+        public void clockStopped(final String gameId) {
+            //Clocks are only checked on the turns.
+        }
+    };
+
+    /**
+     * Called when a timed game is created, a turn is played that doesn't end it, or it is resumed.
+     *
+     * @param gameId id of the game.
+     * @param flagFallMillis time at which the player to move runs out of time.
+     */
+    void clockStarted(String gameId, long flagFallMillis);
+
+    /**
+     * Called when a game is suspended, moved to a terminal state or deleted.
+     *
+     * @param gameId id of the game.
+     */
+    void clockStopped(String gameId);
+
+}
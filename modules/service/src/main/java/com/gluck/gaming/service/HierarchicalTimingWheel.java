@@ -0,0 +1,158 @@
+package com.gluck.gaming.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel holding timers by their deadline, so that expiring the due timers costs a constant time per tick and per timer, whatever the
+ * number of timers held, instead of a scan of all the timers.<br>
+ * The lowest level has one bucket per tick. Each higher level has buckets spanning a whole turn of the level below and holds the timers too far away for
+ * it; when the level below completes a turn, the next bucket of the higher level is cascaded down. Timers beyond the reach of the highest level wait in an
+ * overflow list that is cascaded every turn of the highest level.<br>
+ * Timers can be scheduled from any thread. {@link #advance(long, Consumer)} must be called by a single thread, which owns the buckets.
+ *
+ * @author Vinay Semwal
+ */
+final class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+
+    private final int wheelSize;
+
+    /**
+     * Number of ticks in a bucket of each level.
+     */
+    private final long[] levelTicks;
+
+    private final List<List<Timer<T>>> buckets;
+
+    private final List<Timer<T>> overflow = new ArrayList<Timer<T>>();
+
+    private final Queue<Timer<T>> scheduledTimers = new ConcurrentLinkedQueue<Timer<T>>();
+
+    private long currentTick;
+
+    /**
+     * @param tickMillis duration of a tick, which is the precision of the timers.
+     * @param wheelSize number of buckets of each level.
+     * @param levels number of levels. The timers up to tickMillis * wheelSize ^ levels away are held in the buckets.
+     * @param startMillis current time.
+     */
+    HierarchicalTimingWheel(final long tickMillis, final int wheelSize, final int levels, final long startMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        levelTicks = new long[levels];
+        buckets = new ArrayList<List<Timer<T>>>(levels * wheelSize);
+        long ticks = 1;
+        for (int level = 0; level < levels; level++) {
+            levelTicks[level] = ticks;
+            ticks = Math.multiplyExact(ticks, wheelSize);
+            for (int bucket = 0; bucket < wheelSize; bucket++) {
+                buckets.add(new ArrayList<Timer<T>>());
+            }
+        }
+        currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedules a timer. It is added to the wheel by the next {@link #advance(long, Consumer)}.
+     *
+     * @param deadlineMillis time at or after which the timer expires.
+     * @param item item handed back when the timer expires.
+     */
+    void schedule(final long deadlineMillis, final T item) {
+        //Rounded up, so that a timer never expires before its deadline.
+        scheduledTimers.add(new Timer<T>((Math.max(0, deadlineMillis) + tickMillis - 1) / tickMillis, item));
+    }
+
+    /**
+     * Moves the wheel up to the given time and hands the items of the timers that expired to the consumer, in the order of their deadline tick.
+     *
+     * @param nowMillis current time.
+     * @param expiredItemConsumer consumer of the items of the expired timers, which can schedule new timers.
+     */
+    void advance(final long nowMillis, final Consumer<T> expiredItemConsumer) {
+        final List<T> expiredItems = new ArrayList<T>();
+        addScheduledTimers(expiredItems);
+        final long nowTick = nowMillis / tickMillis;
+        while (currentTick < nowTick) {
+            currentTick++;
+            for (int level = levelTicks.length - 1; level > 0; level--) {
+                if (currentTick % levelTicks[level] == 0) {
+                    cascade(level, expiredItems);
+                }
+            }
+            final List<Timer<T>> bucket = getBucket(0, currentTick);
+            for (final Timer<T> timer : bucket) {
+                expiredItems.add(timer.item);
+            }
+            bucket.clear();
+        }
+        for (final T item : expiredItems) {
+            expiredItemConsumer.accept(item);
+        }
+    }
+
+    private void addScheduledTimers(final List<T> expiredItems) {
+        Timer<T> timer;
+        while ((timer = scheduledTimers.poll()) != null) {
+            add(timer, expiredItems);
+        }
+    }
+
+    /**
+     * Moves the timers of the bucket of the level that starts now down the wheel. The overflow list is cascaded along with the highest level.
+     */
+    private void cascade(final int level, final List<T> expiredItems) {
+        final List<Timer<T>> bucket = getBucket(level, currentTick);
+        final List<Timer<T>> timers = new ArrayList<Timer<T>>(bucket);
+        bucket.clear();
+        if (level == levelTicks.length - 1 && !overflow.isEmpty()) {
+            timers.addAll(overflow);
+            overflow.clear();
+        }
+        for (final Timer<T> timer : timers) {
+            add(timer, expiredItems);
+        }
+    }
+
+    /**
+     * A timer is held by the lowest level whose buckets reach its deadline, counting from the start of the current bucket of the level.
+     */
+    private void add(final Timer<T> timer, final List<T> expiredItems) {
+        if (timer.deadlineTick <= currentTick) {
+            expiredItems.add(timer.item);
+            return;
+        }
+        for (int level = 0; level < levelTicks.length; level++) {
+            if (timer.deadlineTick / levelTicks[level] < currentTick / levelTicks[level] + wheelSize) {
+                getBucket(level, timer.deadlineTick).add(timer);
+                return;
+            }
+        }
+        overflow.add(timer);
+    }
+
+    private List<Timer<T>> getBucket(final int level, final long tick) {
+        return buckets.get(level * wheelSize + (int) ((tick / levelTicks[level]) % wheelSize));
+    }
+
+    /**
+     * Timer of an item.
+     */
+    private static final class Timer<T> {
+
+        private final long deadlineTick;
+
+        private final T item;
+
+        private Timer(final long deadlineTick, final T item) {
+            this.deadlineTick = deadlineTick;
+            this.item = item;
+        }
+    }
+
+}
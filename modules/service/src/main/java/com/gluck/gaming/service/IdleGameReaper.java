@@ -0,0 +1,290 @@
+package com.gluck.gaming.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.gluck.gaming.dao.GameDao;
+import com.gluck.gaming.dao.model.Game;
+import com.gluck.gaming.dao.model.GameHeader;
+import com.gluck.gaming.service.model.GameState;
+
+/**
+ * Background job suspending the games left idle by their players for longer than a threshold and abandoning them once idle for longer than a second
+ * threshold, which invalidates their session.<br>
+ * The time of the last activity of each game not ended is kept in memory, read from the database when the reaper starts and updated by the games played
+ * through this instance, and a single timer per game is held in a {@link HierarchicalTimingWheel}. Activity only updates the time of the game, the timer is
+ * moved when it expires and finds the game active since, so turns don't touch the wheel and the games are never scanned. Ended games are dropped straight
+ * away, so the memory used is bounded by the number of live games.<br>
+ * The states are changed with the same conditional updates as the client requests, from the states {@link GameState#isStateTransitionValid} allows, and only
+ * if the game has not been updated in the database for the idle time, so a game changed by a player at the same time, through this or another instance, is
+ * left in the state the player moved it to and is tracked as active from then on. The clock of a timed game is stopped when it is suspended, as for a
+ * suspend request.
+ *
+ * @author Vinay Semwal
+ */
+public class IdleGameReaper implements GameActivityListener {
+
+    private static final Logger logger = LogManager.getLogger(IdleGameReaper.class);
+
+    private static final int WHEEL_SIZE = 64;
+
+    private static final int WHEEL_LEVELS = 4;
+
+    private final GameDao gameDao;
+
+    private final long suspendAfterMillis;
+
+    private final long abandonAfterMillis;
+
+    private final long tickMillis;
+
+    private final LongSupplier clock;
+
+    private final HierarchicalTimingWheel<String> timingWheel;
+
+    private final Map<String, IdleGame> idleGames = new ConcurrentHashMap<String, IdleGame>();
+
+    private final LongAdder suspendedGameCount = new LongAdder();
+
+    private final LongAdder abandonedGameCount = new LongAdder();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "idle-game-reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param gameDao {@link GameDao} of the services reporting the activity.
+     * @param suspendAfterMillis idle time after which a new or in progress game is suspended.
+     * @param abandonAfterMillis idle time after which a game not ended is abandoned.
+     * @param tickMillis precision of the idle times.
+     */
+    public IdleGameReaper(final GameDao gameDao, final long suspendAfterMillis, final long abandonAfterMillis, final long tickMillis) {
+        this(gameDao, suspendAfterMillis, abandonAfterMillis, tickMillis, System::currentTimeMillis);
+    }
+
+    IdleGameReaper(final GameDao gameDao, final long suspendAfterMillis, final long abandonAfterMillis, final long tickMillis, final LongSupplier clock) {
+        if (suspendAfterMillis <= 0 || abandonAfterMillis <= suspendAfterMillis) {
+            throw new IllegalArgumentException("Games must be abandoned after being suspended. Suspend after : " + suspendAfterMillis + ", abandon after : "
+                + abandonAfterMillis);
+        }
+        this.gameDao = gameDao;
+        this.suspendAfterMillis = suspendAfterMillis;
+        this.abandonAfterMillis = abandonAfterMillis;
+        this.tickMillis = tickMillis;
+        this.clock = clock;
+        timingWheel = new HierarchicalTimingWheel<String>(tickMillis, WHEEL_SIZE, WHEEL_LEVELS, clock.getAsLong());
+    }
+
+    /**
+     * Tracks the games not ended from the time of their last update in the database, and starts expiring the timers of the games every tick. The games
+     * already idle for longer than a threshold are suspended or abandoned on the first tick.
+     */
+    public void start() {
+        try {
+            track(gameDao.findLastUpdateTimes(Connect4GameRules.getSourceStates(GameState.ABANDONED)));
+        } catch (final RuntimeException e) {
+            logger.error("Failed to read the games not ended, they will be tracked from their next change.", e);
+        }
+        executor.scheduleWithFixedDelay(this::reapSafely, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        logger.info(
+            "Idle game reaper started. Games are suspended after {} ms and abandoned after {} ms without activity.",
+            suspendAfterMillis,
+            abandonAfterMillis);
+    }
+
+    /**
+     * Stops the job. Games idle at the time are left in their state.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.error("Idle game reaper did not stop in time.");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void gameActive(final String gameId) {
+        final long now = clock.getAsLong();
+        final IdleGame idleGame = idleGames.get(gameId);
+        if (idleGame != null) {
+            idleGame.lastActivityMillis = now;
+            idleGame.suspended = false;
+            return;
+        }
+        if (idleGames.putIfAbsent(gameId, new IdleGame(now)) == null) {
+            timingWheel.schedule(now + suspendAfterMillis, gameId);
+        } else {
+            gameActive(gameId);
+        }
+    }
+
+    /**
+     * Tracks the games not already tracked, as idle since the given times.
+     *
+     * @param lastUpdateTimes time in milliseconds since the epoch of the last update of each game, by game id.
+     */
+    void track(final Map<String, Long> lastUpdateTimes) {
+        for (final Map.Entry<String, Long> lastUpdateTime : lastUpdateTimes.entrySet()) {
+            if (idleGames.putIfAbsent(lastUpdateTime.getKey(), new IdleGame(lastUpdateTime.getValue())) == null) {
+                timingWheel.schedule(lastUpdateTime.getValue() + suspendAfterMillis, lastUpdateTime.getKey());
+            }
+        }
+        logger.info("Idle game reaper tracking {} games not ended.", idleGames.size());
+    }
+
+    @Override
+    public void gameEnded(final String gameId) {
+        idleGames.remove(gameId);
+    }
+
+    /**
+     * Suspends and abandons the games whose timer expired and idle long enough, and moves the timers of the others. Called by the job thread only.
+     */
+    void reap() {
+        timingWheel.advance(clock.getAsLong(), this::reap);
+    }
+
+    private void reap(final String gameId) {
+        try {
+            reapGame(gameId);
+        } catch (final RuntimeException e) {
+            logger.error("Failed to reap the idle game with id : {}, will be tried again.", gameId, e);
+            timingWheel.schedule(clock.getAsLong() + tickMillis, gameId);
+        }
+    }
+
+    private void reapGame(final String gameId) {
+        final IdleGame idleGame = idleGames.get(gameId);
+        if (idleGame == null) {
+            return;
+        }
+        final long lastActivityMillis = idleGame.lastActivityMillis;
+        final long idleMillis = clock.getAsLong() - lastActivityMillis;
+        if (idleMillis >= abandonAfterMillis) {
+            abandon(gameId, idleGame, idleMillis);
+        } else if (idleMillis >= suspendAfterMillis && !idleGame.suspended) {
+            suspend(gameId, idleGame, idleMillis);
+        } else {
+            timingWheel.schedule(lastActivityMillis + (idleGame.suspended ? abandonAfterMillis : suspendAfterMillis), gameId);
+        }
+    }
+
+    /**
+     * The game is read to stop its clock like a suspend request does, the time the player to move left the game idle being charged to them.
+     */
+    private void suspend(final String gameId, final IdleGame idleGame, final long idleMillis) {
+        final List<String> sourceStates = Connect4GameRules.getSourceStates(GameState.SUSPENDED);
+        final Game game = gameDao.findGameById(gameId).orElse(null);
+        if (game != null && sourceStates.contains(game.getGameState())) {
+            Connect4GameRules.applySuspension(game, clock.getAsLong());
+            if (gameDao.saveIdleGameState(game, sourceStates, clock.getAsLong() - suspendAfterMillis).isPresent()) {
+                suspendedGameCount.increment();
+                logger.info("Suspended the game with id : {} idle for {} ms.", gameId, idleMillis);
+                markSuspended(gameId, idleGame);
+                return;
+            }
+        }
+        gameChanged(gameId, idleGame);
+    }
+
+    private void abandon(final String gameId, final IdleGame idleGame, final long idleMillis) {
+        final List<String> sourceStates = Connect4GameRules.getSourceStates(GameState.ABANDONED);
+        final Game game = gameDao.findGameById(gameId).orElse(null);
+        if (game != null && sourceStates.contains(game.getGameState())) {
+            game.setGameState(GameState.ABANDONED.name());
+            game.setSessionId(null);
+            if (gameDao.saveIdleGameState(game, sourceStates, clock.getAsLong() - abandonAfterMillis).isPresent()) {
+                abandonedGameCount.increment();
+                logger.info("Abandoned the game with id : {} idle for {} ms.", gameId, idleMillis);
+                idleGames.remove(gameId, idleGame);
+                return;
+            }
+        }
+        gameChanged(gameId, idleGame);
+    }
+
+    /**
+     * Called when the state of an idle game was not changed, the game having been changed by a request not reported to the reaper. An ended or deleted game
+     * is no longer tracked, a game suspended by a request is abandoned once idle for long enough, and a game updated since its last reported activity, through
+     * another instance, is tracked as active from now on.
+     */
+    private void gameChanged(final String gameId, final IdleGame idleGame) {
+        final Optional<GameHeader> gameHeader = gameDao.findGameHeaderById(gameId);
+        final String gameState = gameHeader.isPresent() ? gameHeader.get().getGameState() : null;
+        if (!Connect4GameRules.getSourceStates(GameState.ABANDONED).contains(gameState)) {
+            idleGames.remove(gameId, idleGame);
+        } else if (GameState.SUSPENDED.name().equals(gameState) && !idleGame.suspended) {
+            markSuspended(gameId, idleGame);
+        } else {
+            final long now = clock.getAsLong();
+            idleGame.lastActivityMillis = now;
+            idleGame.suspended = false;
+            timingWheel.schedule(now + suspendAfterMillis, gameId);
+        }
+    }
+
+    private void markSuspended(final String gameId, final IdleGame idleGame) {
+        idleGame.suspended = true;
+        timingWheel.schedule(idleGame.lastActivityMillis + abandonAfterMillis, gameId);
+    }
+
+    private void reapSafely() {
+        try {
+            reap();
+        } catch (final RuntimeException e) {
+            logger.error("Failed to reap the idle games, will be tried again.", e);
+        }
+    }
+
+    /**
+     * @return number of games tracked, which are the games not ended when this instance started or changed since.
+     */
+    public int getTrackedGameCount() {
+        return idleGames.size();
+    }
+
+    /**
+     * @return number of games suspended by the reaper.
+     */
+    public long getSuspendedGameCount() {
+        return suspendedGameCount.sum();
+    }
+
+    /**
+     * @return number of games abandoned by the reaper.
+     */
+    public long getAbandonedGameCount() {
+        return abandonedGameCount.sum();
+    }
+
+    /**
+     * Activity of a game not ended.
+     */
+    private static final class IdleGame {
+
+        private volatile long lastActivityMillis;
+
+        private volatile boolean suspended;
+
+        private IdleGame(final long lastActivityMillis) {
+            this.lastActivityMillis = lastActivityMillis;
+        }
+    }
+
+}
@@ -0,0 +1,228 @@
+package com.gluck.gaming.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.gluck.gaming.dao.model.BitBoard;
+import com.gluck.gaming.engine.Connect4Solver;
+import com.gluck.gaming.engine.OpeningBook;
+import com.gluck.gaming.engine.SearchLimits;
+import com.gluck.gaming.engine.SearchResult;
+import com.gluck.gaming.service.exception.AiOpponentUnavailableException;
+import com.gluck.gaming.service.model.AiStrength;
+
+/**
+ * {@link AiOpponent} searching its replies with {@link Connect4Solver} on a fixed number of threads of its own, so that the searches never run on the threads
+ * serving the requests and cannot take more processors than configured whatever the number of games against the AI. The searches waiting for a thread are
+ * held in a bounded queue: once it is full, the replies are refused with {@link AiOpponentUnavailableException} rather than queued without limit. A reply
+ * not found within the reply timeout, searching time included, fails the same way, and is not searched if it was still waiting for a thread, so that a
+ * caller waiting for the reply never waits longer than the timeout.<br>
+ * Every thread has its own solver, created by the factory given, so that the solvers of all the threads can share a transposition table.<br>
+ * When an {@link OpeningBook} is given, the replies to the positions it holds are read from it in the calling thread without any search, for the strengths
+ * whose depth is not below the depth of the book.
+ *
+ * @author Vinay Semwal
+ */
+public class SolverAiOpponent implements AiOpponent {
+
+    private static final Logger logger = LogManager.getLogger(SolverAiOpponent.class);
+
+    /**
+     * Reply timeout, in maximum search times, of the AI opponents created without one.
+     */
+    public static final int DEFAULT_REPLY_TIMEOUT_SEARCHES = 3;
+
+    private final ThreadPoolExecutor executor;
+
+    private final ScheduledThreadPoolExecutor timeoutExecutor;
+
+    private final ThreadLocal<Connect4Solver> solvers;
+
+    private final long maxTimeMillis;
+
+    private final long replyTimeoutMillis;
+
+    private final OpeningBook openingBook;
+
+    private final LongAdder replyCount = new LongAdder();
+
+    private final LongAdder rejectedReplyCount = new LongAdder();
+
+    private final LongAdder bookReplyCount = new LongAdder();
+
+    private final LongAdder timedOutReplyCount = new LongAdder();
+
+    /**
+     * @param solverFactory creates the solver of each search thread.
+     * @param threads number of threads searching the replies.
+     * @param queueSize maximum number of searches waiting for a thread.
+     * @param maxTimeMillis maximum time of a search, 0 for no limit.
+     */
+    public SolverAiOpponent(final Supplier<Connect4Solver> solverFactory, final int threads, final int queueSize, final long maxTimeMillis) {
+        this(solverFactory, threads, queueSize, maxTimeMillis, maxTimeMillis * DEFAULT_REPLY_TIMEOUT_SEARCHES, null);
+    }
+
+    /**
+     * @param solverFactory creates the solver of each search thread.
+     * @param threads number of threads searching the replies.
+     * @param queueSize maximum number of searches waiting for a thread.
+     * @param maxTimeMillis maximum time of a search, 0 for no limit.
+     * @param openingBook book of the opening replies, null to search every reply.
+     */
+    public SolverAiOpponent(final Supplier<Connect4Solver> solverFactory,
+                            final int threads,
+                            final int queueSize,
+                            final long maxTimeMillis,
+                            final OpeningBook openingBook) {
+        this(solverFactory, threads, queueSize, maxTimeMillis, maxTimeMillis * DEFAULT_REPLY_TIMEOUT_SEARCHES, openingBook);
+    }
+
+    /**
+     * @param solverFactory creates the solver of each search thread.
+     * @param threads number of threads searching the replies.
+     * @param queueSize maximum number of searches waiting for a thread.
+     * @param maxTimeMillis maximum time of a search, 0 for no limit.
+     * @param replyTimeoutMillis maximum time to find a reply, waiting for a thread and searching, 0 for no limit.
+     * @param openingBook book of the opening replies, null to search every reply.
+     */
+    public SolverAiOpponent(final Supplier<Connect4Solver> solverFactory,
+                            final int threads,
+                            final int queueSize,
+                            final long maxTimeMillis,
+                            final long replyTimeoutMillis,
+                            final OpeningBook openingBook) {
+        if (threads < 1 || queueSize < 1 || maxTimeMillis < 0 || replyTimeoutMillis < 0) {
+            throw new IllegalArgumentException(
+                "The AI opponent needs at least 1 thread and a queue of at least 1 search, configured threads : " + threads + ", queue size : " + queueSize
+                    + ", max time : " + maxTimeMillis + ", reply timeout : " + replyTimeoutMillis);
+        }
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(queueSize), runnable -> {
+            final Thread thread = new Thread(runnable, "ai-opponent-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timeoutExecutor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "ai-opponent-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timeoutExecutor.setRemoveOnCancelPolicy(true);
+        this.solvers = ThreadLocal.withInitial(solverFactory);
+        this.maxTimeMillis = maxTimeMillis;
+        this.replyTimeoutMillis = replyTimeoutMillis;
+        this.openingBook = openingBook;
+    }
+
+    @Override
+    public CompletableFuture<Integer> findReply(final BitBoard board, final AiStrength strength) {
+        if (openingBook != null && openingBook.isDeepEnoughFor(strength.getMaxDepth())) {
+            final long entry = openingBook.probe(board);
+            if (entry != 0) {
+                bookReplyCount.increment();
+                logger.debug("AI opponent of strength : {} replies in column : {} from the opening book.", strength, OpeningBook.getBestColumn(entry));
+                return CompletableFuture.completedFuture(OpeningBook.getBestColumn(entry));
+            }
+        }
+        final CompletableFuture<Integer> reply = new CompletableFuture<Integer>();
+        final BitBoard position = board.copy();
+        try {
+            executor.execute(() -> search(position, strength, reply));
+        } catch (final RejectedExecutionException e) {
+            rejectedReplyCount.increment();
+            logger.warn("AI opponent is busy, {} searches are waiting. Reply refused.", executor.getQueue().size());
+            reply.completeExceptionally(new AiOpponentUnavailableException("The AI opponent is busy. Please retry."));
+            return reply;
+        }
+        if (replyTimeoutMillis > 0) {
+            final ScheduledFuture<?> timeout = timeoutExecutor.schedule(() -> timeOut(reply), replyTimeoutMillis, TimeUnit.MILLISECONDS);
+            reply.whenComplete((column, exception) -> timeout.cancel(false));
+        }
+        return reply;
+    }
+
+    private void timeOut(final CompletableFuture<Integer> reply) {
+        if (reply.completeExceptionally(new AiOpponentUnavailableException("The AI opponent did not reply in time. Please retry."))) {
+            timedOutReplyCount.increment();
+            logger.warn("AI opponent did not reply within {} ms, {} searches are waiting. Reply refused.", replyTimeoutMillis, executor.getQueue().size());
+        }
+    }
+
+    private void search(final BitBoard position, final AiStrength strength, final CompletableFuture<Integer> reply) {
+        if (reply.isDone()) {
+            //Timed out while waiting for a thread, nobody waits for the reply anymore.
+            return;
+        }
+        try {
+            final SearchResult result = solvers.get().search(position, new SearchLimits(strength.getMaxDepth(), strength.getMaxNodes(), maxTimeMillis));
+            replyCount.increment();
+            logger.debug("AI opponent of strength : {} replies in column : {}. Search : {}", strength, result.getBestColumn(), result);
+            reply.complete(result.getBestColumn());
+        } catch (final RuntimeException e) {
+            logger.error("Search of the AI opponent failed with exception : {}", e);
+            reply.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Stops the search threads once the searches already queued are done.
+     */
+    public void shutdown() {
+        timeoutExecutor.shutdownNow();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.error("AI opponent did not stop in time.");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return number of replies searched.
+     */
+    public long getReplyCount() {
+        return replyCount.sum();
+    }
+
+    /**
+     * @return number of replies read from the opening book.
+     */
+    public long getBookReplyCount() {
+        return bookReplyCount.sum();
+    }
+
+    /**
+     * @return number of replies refused because the queue was full.
+     */
+    public long getRejectedReplyCount() {
+        return rejectedReplyCount.sum();
+    }
+
+    /**
+     * @return number of replies refused because they were not found within the reply timeout.
+     */
+    public long getTimedOutReplyCount() {
+        return timedOutReplyCount.sum();
+    }
+
+    /**
+     * @return number of searches waiting for a thread.
+     */
+    public int getQueuedReplyCount() {
+        return executor.getQueue().size();
+    }
+
+}
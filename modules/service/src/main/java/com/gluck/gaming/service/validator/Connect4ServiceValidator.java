@@ -8,8 +8,10 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.bson.types.ObjectId;
 
+import com.gluck.gaming.dao.model.BitBoard;
 import com.gluck.gaming.service.Connect4Service;
 import com.gluck.gaming.service.exception.Connect4ServiceValidationException;
+import com.gluck.gaming.service.model.AiStrength;
 import com.gluck.gaming.service.model.CreateGameRequest;
 import com.gluck.gaming.service.model.PlayTurnRequest;
 
@@ -22,6 +24,11 @@ public class Connect4ServiceValidator {
 
     private static final Logger logger = LogManager.getLogger(Connect4ServiceValidator.class);
 
+    /**
+     * Maximum number of games that can be fetched in a single page.
+     */
+    public static final int MAXIMUM_PAGE_SIZE = 100;
+
     /**
      * Method to validate the request to create game
      *
@@ -33,13 +40,75 @@ public class Connect4ServiceValidator {
             logger.error("Null request sent for creating game.");
             throw new Connect4ServiceValidationException("Request to create a new game must not be null.");
         }
+        if (Objects.nonNull(createGameRequest.getOpponentStrength())) {
+            validateGameAgainstAi(createGameRequest);
+            return;
+        }
         if (isStringNullOrEmpty(createGameRequest.getFirstPlayerName()) || isStringNullOrEmpty(createGameRequest.getSecondPlayerName())) {
             logger.error("Request failed validation. Player names to create the game must not be null or empty");
             throw new Connect4ServiceValidationException("Player names to create the game must not be null or empty");
         }
+        validateHumanPlayerName(createGameRequest.getFirstPlayerName());
+        validateHumanPlayerName(createGameRequest.getSecondPlayerName());
+        if (createGameRequest.getBaseTimeMillis() < 0
+            || createGameRequest.getIncrementMillis() < 0
+            || (createGameRequest.getBaseTimeMillis() == 0 && createGameRequest.getIncrementMillis() > 0)) {
+            logger.error(
+                "Request failed validation. Invalid time control. Base time : {}, increment : {}",
+                createGameRequest.getBaseTimeMillis(),
+                createGameRequest.getIncrementMillis());
+            throw new Connect4ServiceValidationException("Base time and increment must not be negative, and an increment needs a base time");
+        }
 
     }
 
+    /**
+     * The AI plays as the second player, under the name reserved for its strength, and games against the AI have no time control.
+     *
+     * @throws Connect4ServiceValidationException if the request to create a game against the AI fails validation.
+     */
+    private void validateGameAgainstAi(final CreateGameRequest createGameRequest) throws Connect4ServiceValidationException {
+        if (isStringNullOrEmpty(createGameRequest.getFirstPlayerName())) {
+            logger.error("Request failed validation. Player name to create the game against the AI must not be null or empty");
+            throw new Connect4ServiceValidationException("Player name to create the game against the AI must not be null or empty");
+        }
+        validateHumanPlayerName(createGameRequest.getFirstPlayerName());
+        if (!isStringNullOrEmpty(createGameRequest.getSecondPlayerName())) {
+            logger.error("Request failed validation. Second player name : {} sent for a game against the AI", createGameRequest.getSecondPlayerName());
+            throw new Connect4ServiceValidationException("The AI plays as the second player, no second player name must be sent");
+        }
+        if (createGameRequest.getBaseTimeMillis() != 0 || createGameRequest.getIncrementMillis() != 0) {
+            logger.error("Request failed validation. Time control sent for a game against the AI");
+            throw new Connect4ServiceValidationException("Games against the AI have no time control");
+        }
+    }
+
+    /**
+     * @throws Connect4ServiceValidationException if the name is reserved for the AI.
+     */
+    private void validateHumanPlayerName(final String playerName) throws Connect4ServiceValidationException {
+        if (Objects.nonNull(AiStrength.fromPlayerName(playerName))) {
+            logger.error("Request failed validation. Player name : {} is reserved for the AI", playerName);
+            throw new Connect4ServiceValidationException("Player name " + playerName + " is reserved for the AI");
+        }
+    }
+
+    /**
+     * Method to validate the requests to create games in bulk
+     *
+     * @param createGameRequests list of {@link CreateGameRequest}
+     * @throws Connect4ServiceValidationException if the list or any of the requests fails validation.
+     */
+    public void validate(final List<CreateGameRequest> createGameRequests) throws Connect4ServiceValidationException {
+        if (Objects.isNull(createGameRequests) || createGameRequests.isEmpty()) {
+            logger.error("Null or empty request list sent for creating games.");
+            throw new Connect4ServiceValidationException("Requests to create games must not be null or empty.");
+        }
+        for (final CreateGameRequest createGameRequest : createGameRequests) {
+            validate(createGameRequest);
+        }
+    }
+
     /**
      * Method to validate the request to play turn
      *
@@ -63,8 +132,13 @@ public class Connect4ServiceValidator {
         }
         if (isStringNullOrEmpty(playTurnRequest.getPlayerName())) {
             errors.add("Player name cannot be null or empty.");
+        } else if (Objects.nonNull(AiStrength.fromPlayerName(playTurnRequest.getPlayerName()))) {
+            errors.add("The turns of the AI are played by the server.");
         }
-        if (playTurnRequest.getGridColumnToFill() < 0 || playTurnRequest.getGridRowToFill() < 0) {
+        if (playTurnRequest.getGridColumnToFill() < 0
+            || playTurnRequest.getGridRowToFill() < 0
+            || playTurnRequest.getGridColumnToFill() >= BitBoard.COLUMNS
+            || playTurnRequest.getGridRowToFill() >= BitBoard.ROWS) {
             errors.add("Invalid grid cell coordinates provided to fill.");
         }
         if (!errors.isEmpty()) {
@@ -74,6 +148,71 @@ public class Connect4ServiceValidator {
 
     }
 
+    /**
+     * Method to validate the request to drop a disc in a column
+     *
+     * @param gameId unique identifier of the game
+     * @param sessionId identifier of the session in which game is being played
+     * @param playerName name of the player dropping the disc
+     * @param column column number in which the disc is dropped
+     * @throws Connect4ServiceValidationException if the request validation fails.
+     */
+    public void validateDropDisc(final String gameId, final String sessionId, final String playerName, final int column)
+        throws Connect4ServiceValidationException {
+        final List<String> errors = new ArrayList<>();
+        try {
+            valicateGameId(gameId);
+        } catch (final Connect4ServiceValidationException ex) {
+            errors.add(ex.getMessage());
+        }
+        if (isStringNullOrEmpty(sessionId)) {
+            errors.add("Session id is mandatory to play turn.");
+        }
+        if (isStringNullOrEmpty(playerName)) {
+            errors.add("Player name cannot be null or empty.");
+        } else if (Objects.nonNull(AiStrength.fromPlayerName(playerName))) {
+            errors.add("The turns of the AI are played by the server.");
+        }
+        if (column < 0 || column >= BitBoard.COLUMNS) {
+            errors.add("Invalid column provided to drop the disc.");
+        }
+        if (!errors.isEmpty()) {
+            logger.error("Drop disc request failed validation rules. Errors: {}", errors);
+            throw new Connect4ServiceValidationException("Request failed validation checks.", errors);
+        }
+
+    }
+
+    /**
+     * Method to validate the request to fetch a page of the games of a player
+     *
+     * @param playerName name of the player
+     * @param afterGameId unique identifier of the game after which the page starts, null for the first page
+     * @param limit maximum number of games to fetch
+     * @throws Connect4ServiceValidationException if the request validation fails.
+     */
+    public void validateGamesOfPlayer(final String playerName, final String afterGameId, final int limit) throws Connect4ServiceValidationException {
+        final List<String> errors = new ArrayList<>();
+        if (isStringNullOrEmpty(playerName)) {
+            errors.add("Player name cannot be null or empty.");
+        }
+        if (Objects.nonNull(afterGameId)) {
+            try {
+                valicateGameId(afterGameId);
+            } catch (final Connect4ServiceValidationException ex) {
+                errors.add(ex.getMessage());
+            }
+        }
+        if (limit < 1 || limit > MAXIMUM_PAGE_SIZE) {
+            errors.add("Number of games to fetch must be from 1 to " + MAXIMUM_PAGE_SIZE + ".");
+        }
+        if (!errors.isEmpty()) {
+            logger.error("Request to fetch games of player failed validation rules. Errors: {}", errors);
+            throw new Connect4ServiceValidationException("Request failed validation checks.", errors);
+        }
+
+    }
+
     /**
      * Method to validate game id.
      *
@@ -110,6 +249,21 @@ public class Connect4ServiceValidator {
 
     }
 
+    /**
+     * Method to validate that the player playing a turn is one of the players of the game.
+     *
+     * @param firstPlayer name of the first player of the game
+     * @param secondPlayer name of the second player of the game
+     * @param playerName name of the player sent in request.
+     * @throws Connect4ServiceValidationException if the player is not playing the game.
+     */
+    public void validatePlayer(final String firstPlayer, final String secondPlayer, final String playerName) throws Connect4ServiceValidationException {
+        if (!playerName.equals(firstPlayer) && !playerName.equals(secondPlayer)) {
+            logger.error("Player : {} is not playing the game. Players of the game are : {} and {}", playerName, firstPlayer, secondPlayer);
+            throw new Connect4ServiceValidationException("Player is not playing the game.");
+        }
+    }
+
     /**
      * Method to check if a string is null or empty.
      *
@@ -0,0 +1,161 @@
+package com.gluck.gaming.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.gluck.gaming.dao.model.Game;
+import com.gluck.gaming.domain.AsyncGameDaoAdapter;
+import com.gluck.gaming.domain.InMemoryGameDao;
+import com.gluck.gaming.objects.factory.Connect4Factory;
+import com.gluck.gaming.service.exception.Connect4ServiceValidationException;
+import com.gluck.gaming.service.exception.ConsecutiveTurnsNotAllowedException;
+import com.gluck.gaming.service.exception.GameDeletionNotAllowedException;
+import com.gluck.gaming.service.exception.GameNotFoundException;
+import com.gluck.gaming.service.exception.InvalidGameStateTransitionException;
+import com.gluck.gaming.service.model.AiStrength;
+import com.gluck.gaming.service.model.CreateGameRequest;
+import com.gluck.gaming.service.model.CreateGameResponse;
+import com.gluck.gaming.service.model.GameDataResponse;
+import com.gluck.gaming.service.model.GameState;
+import com.gluck.gaming.service.validator.Connect4ServiceValidator;
+
+/**
+ * Test class for {@link AsyncConnect4ServiceImpl}
+ *
+ * @author Vinay Semwal
+ */
+public class AsyncConnect4ServiceImplTest {
+
+    private static AsyncConnect4Service asyncConnect4Service;
+
+    /**
+     * Test data setup
+     */
+    @BeforeClass
+    public static void setUp() {
+        asyncConnect4Service = Connect4Factory.getAsyncConnect4Service();
+    }
+
+    /**
+     * Test that a game played through the async service goes through the same states as with the blocking service.
+     *
+     * @throws Exception if system error occurs
+     */
+    @Test
+    public void testGameLifecycle() throws Exception {
+        final CreateGameResponse response = asyncConnect4Service.createGame(new CreateGameRequest("p1", "p2")).get();
+        assertEquals(GameState.NEW, response.getGameState());
+        final String gameId = response.getGameId();
+
+        GameDataResponse gameDataResponse = asyncConnect4Service.dropDisc(gameId, response.getSessionId(), "p1", 3).get();
+        assertEquals(GameState.IN_PROGRESS.name(), gameDataResponse.getGameData().getGameState());
+        assertEquals("p1", gameDataResponse.getGameData().getLastTurnPlayedBy());
+        assertFailure(asyncConnect4Service.dropDisc(gameId, response.getSessionId(), "p1", 3), ConsecutiveTurnsNotAllowedException.class);
+
+        gameDataResponse = asyncConnect4Service.getGameData(gameId).get();
+        assertEquals(1, gameDataResponse.getGameData().getConnect4Grid()[5][3]);
+
+        assertFailure(asyncConnect4Service.deleteGame(gameId), GameDeletionNotAllowedException.class);
+        asyncConnect4Service.suspendGame(gameId).get();
+        assertFailure(asyncConnect4Service.drawGame(gameId), InvalidGameStateTransitionException.class);
+        asyncConnect4Service.abandonGame(gameId).get();
+        asyncConnect4Service.deleteGame(gameId).get();
+        assertFailure(asyncConnect4Service.getGameData(gameId), GameNotFoundException.class);
+    }
+
+    /**
+     * Test that the reply of the AI is saved with the turn of the player.
+     *
+     * @throws Exception if system error occurs
+     */
+    @Test
+    public void testGameAgainstAi() throws Exception {
+        final CreateGameResponse response = asyncConnect4Service.createGame(new CreateGameRequest("p1", AiStrength.EASY)).get();
+        final String gameId = response.getGameId();
+        final GameDataResponse gameDataResponse = asyncConnect4Service.dropDisc(gameId, response.getSessionId(), "p1", 3).get();
+        assertEquals(AiStrength.EASY.getPlayerName(), gameDataResponse.getGameData().getLastTurnPlayedBy());
+        int discs = 0;
+        for (final int[] row : asyncConnect4Service.getGameData(gameId).get().getGameData().getConnect4Grid()) {
+            for (final int cell : row) {
+                discs += cell == 0 ? 0 : 1;
+            }
+        }
+        assertEquals(2, discs);
+        asyncConnect4Service.abandonGame(gameId).get();
+        asyncConnect4Service.deleteGame(gameId).get();
+    }
+
+    /**
+     * Test that the turn and the reply of the AI are saved on the reply executor, not on the thread of the AI.
+     *
+     * @throws Exception if system error occurs
+     */
+    @Test
+    public void testAiReplySavedOnReplyExecutor() throws Exception {
+        final List<String> savingThreads = new CopyOnWriteArrayList<String>();
+        final AsyncGameDaoAdapter asyncGameDao = new AsyncGameDaoAdapter(new InMemoryGameDao()) {
+
+            @Override
+            public CompletableFuture<Optional<Game>> saveTurn(final Game game, final int row, final int column) {
+                savingThreads.add(Thread.currentThread().getName());
+                return super.saveTurn(game, row, column);
+            }
+        };
+        final ExecutorService aiExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "test-ai"));
+        final ExecutorService replyExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "test-reply"));
+        try {
+            final AsyncConnect4Service service = new AsyncConnect4ServiceImpl(
+                new Connect4ServiceValidator(),
+                asyncGameDao,
+                GameActivityListener.NONE,
+                GameClockListener.NONE,
+                (board, strength) -> CompletableFuture.supplyAsync(() -> 0, aiExecutor),
+                replyExecutor);
+            final CreateGameResponse response = service.createGame(new CreateGameRequest("p1", AiStrength.EASY)).get();
+            final GameDataResponse gameDataResponse = service.dropDisc(response.getGameId(), response.getSessionId(), "p1", 3).get();
+            assertEquals(AiStrength.EASY.getPlayerName(), gameDataResponse.getGameData().getLastTurnPlayedBy());
+            assertEquals(2, savingThreads.size());
+            for (final String savingThread : savingThreads) {
+                assertEquals("test-reply", savingThread);
+            }
+        } finally {
+            aiExecutor.shutdown();
+            replyExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Test that invalid requests complete the futures exceptionally instead of throwing.
+     */
+    @Test
+    public void testValidationFailures() {
+        assertFailure(asyncConnect4Service.createGame(new CreateGameRequest("p1", "")), Connect4ServiceValidationException.class);
+        assertFailure(asyncConnect4Service.getGameData(null), Connect4ServiceValidationException.class);
+        assertFailure(asyncConnect4Service.completeGame(""), Connect4ServiceValidationException.class);
+    }
+
+    private static void assertFailure(final CompletableFuture<?> future, final Class<? extends Exception> exceptionClass) {
+        try {
+            future.get();
+            fail(exceptionClass.getSimpleName() + " was expected");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause().toString(), exceptionClass.isInstance(e.getCause()));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail("Interrupted while waiting for the result");
+        }
+    }
+
+}
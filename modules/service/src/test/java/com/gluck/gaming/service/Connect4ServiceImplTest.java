@@ -6,22 +6,34 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import com.gluck.gaming.dao.GameDao;
 import com.gluck.gaming.objects.factory.Connect4Factory;
+import com.gluck.gaming.service.exception.AiOpponentUnavailableException;
 import com.gluck.gaming.service.exception.Connect4ServiceValidationException;
 import com.gluck.gaming.service.exception.ConsecutiveTurnsNotAllowedException;
+import com.gluck.gaming.service.exception.GameDeletionNotAllowedException;
 import com.gluck.gaming.service.exception.GameNotFoundException;
 import com.gluck.gaming.service.exception.IncorrectGameStartException;
 import com.gluck.gaming.service.exception.InvalidGameStateException;
+import com.gluck.gaming.service.exception.InvalidGameStateTransitionException;
 import com.gluck.gaming.service.exception.InvalidGridCellToFillException;
+import com.gluck.gaming.service.model.AiStrength;
 import com.gluck.gaming.service.model.CreateGameRequest;
 import com.gluck.gaming.service.model.CreateGameResponse;
+import com.gluck.gaming.service.model.GameData;
 import com.gluck.gaming.service.model.GameDataResponse;
 import com.gluck.gaming.service.model.GameState;
 import com.gluck.gaming.service.model.PlayTurnRequest;
+import com.gluck.gaming.service.validator.Connect4ServiceValidator;
 
 /**
  * Test class for {@link Connect4ServiceImpl}
@@ -82,6 +94,29 @@ public class Connect4ServiceImplTest {
 
     }
 
+    /**
+     * Happy path for createGames API.
+     *
+     * @throws Exception if system error occurs
+     */
+    @Test
+    public void testBulkGameCreation() throws Exception {
+        final List<CreateGameResponse> responses = connect4Service
+            .createGames(Arrays.asList(new CreateGameRequest("p1", "p2"), new CreateGameRequest("p3", "p4")));
+        try {
+            assertEquals(2, responses.size());
+            assertGameDataResponse(responses.get(0), connect4Service.getGameData(responses.get(0).getGameId()));
+            final GameDataResponse secondGameData = connect4Service.getGameData(responses.get(1).getGameId());
+            assertGameDataResponse(responses.get(1), secondGameData);
+            assertEquals("p3", secondGameData.getGameData().getFirstPlayerName());
+        } finally {
+            for (final CreateGameResponse response : responses) {
+                connect4Service.abandonGame(response.getGameId());
+                connect4Service.deleteGame(response.getGameId());
+            }
+        }
+    }
+
     /**
      * Test playTurn API.
      *
@@ -248,6 +283,46 @@ public class Connect4ServiceImplTest {
         }
     }
 
+    /**
+     * Test that the state transitions and the deletion are refused for a game in a state they are not allowed from.
+     *
+     * @throws Exception if system error occurs
+     */
+    @Test
+    public void testInvalidStateTransitions() throws Exception {
+        CreateGameResponse response = null;
+        try {
+            response = connect4Service.createGame(new CreateGameRequest("p1", "p2"));
+            try {
+                connect4Service.completeGame(response.getGameId());
+                fail("A NEW game must not be completed.");
+            } catch (final InvalidGameStateTransitionException e) {
+                assertEquals("Invalid state transition from NEWto COMPLETED", e.getMessage());
+            }
+            try {
+                connect4Service.deleteGame(response.getGameId());
+                fail("A NEW game must not be deleted.");
+            } catch (final GameDeletionNotAllowedException e) {
+                assertEquals(GameState.NEW.name(), connect4Service.getGameData(response.getGameId()).getGameData().getGameState());
+            }
+            connect4Service.abandonGame(response.getGameId());
+            try {
+                connect4Service.suspendGame(response.getGameId());
+                fail("An ABANDONED game must not be suspended.");
+            } catch (final InvalidGameStateTransitionException e) {
+                assertNull(connect4Service.getGameData(response.getGameId()).getGameData().getSessionId());
+            }
+        } finally {
+            connect4Service.deleteGame(response.getGameId());
+        }
+        try {
+            connect4Service.abandonGame(response.getGameId());
+            fail("A deleted game must not be found.");
+        } catch (final GameNotFoundException e) {
+            assertEquals("Game with the given ID does not exist.", e.getMessage());
+        }
+    }
+
     /**
      * Test drawGame API
      *
@@ -269,6 +344,191 @@ public class Connect4ServiceImplTest {
         }
     }
 
+    /**
+     * Test that the game is completed by the turn that connects four discs of a player.
+     *
+     * @throws Exception if system error occurs
+     */
+    @Test
+    public void testWinningTurnCompletesGame() throws Exception {
+        CreateGameResponse response = null;
+        try {
+            response = connect4Service.createGame(new CreateGameRequest("p1", "p2"));
+            for (int row = 5; row > 2; row--) {
+                connect4Service.playTurn(new PlayTurnRequest(response.getGameId(), response.getSessionId(), "p1", 0, row));
+                connect4Service.playTurn(new PlayTurnRequest(response.getGameId(), response.getSessionId(), "p2", 1, row));
+            }
+            assertEquals(GameState.IN_PROGRESS.name(), connect4Service.getGameData(response.getGameId()).getGameData().getGameState());
+            connect4Service.playTurn(new PlayTurnRequest(response.getGameId(), response.getSessionId(), "p1", 0, 2));
+            final GameDataResponse fetchedGameData = connect4Service.getGameData(response.getGameId());
+            assertEquals(GameState.COMPLETED.name(), fetchedGameData.getGameData().getGameState());
+            assertEquals("p1", fetchedGameData.getGameData().getWinner());
+            assertNull(fetchedGameData.getGameData().getSessionId());
+        } finally {
+            connect4Service.deleteGame(response.getGameId());
+        }
+    }
+
+    /**
+     * Test dropDisc API
+     *
+     * @throws Exception if system error occurs
+     */
+    @Test
+    public void testDropDisc() throws Exception {
+        CreateGameResponse response = null;
+        try {
+            response = connect4Service.createGame(new CreateGameRequest("p1", "p2"));
+            GameDataResponse dropResponse = connect4Service.dropDisc(response.getGameId(), response.getSessionId(), "p1", 3);
+            assertEquals(1, dropResponse.getGameData().getConnect4Grid()[5][3]);
+            dropResponse = connect4Service.dropDisc(response.getGameId(), response.getSessionId(), "p2", 3);
+            assertEquals(2, dropResponse.getGameData().getConnect4Grid()[4][3]);
+            assertEquals(GameState.IN_PROGRESS.name(), dropResponse.getGameData().getGameState());
+            for (int i = 0; i < 2; i++) {
+                connect4Service.dropDisc(response.getGameId(), response.getSessionId(), "p1", 3);
+                connect4Service.dropDisc(response.getGameId(), response.getSessionId(), "p2", 3);
+            }
+            try {
+                connect4Service.dropDisc(response.getGameId(), response.getSessionId(), "p1", 3);
+                fail("drop disc API must fail if the column is already full.");
+            } catch (final InvalidGridCellToFillException e) {
+                assertEquals("Cannot drop the disc. The column is already full.", e.getMessage());
+            }
+        } finally {
+            connect4Service.abandonGame(response.getGameId());
+            connect4Service.deleteGame(response.getGameId());
+        }
+    }
+
+    /**
+     * Test that the AI replies to every turn of the player in the same request, until the game is over, and that the turns are not saved when the AI cannot
+     * reply.
+     *
+     * @throws Exception if system error occurs
+     */
+    @Test
+    public void testGameAgainstAi() throws Exception {
+        final CreateGameResponse response = connect4Service.createGame(new CreateGameRequest("p1", AiStrength.MEDIUM));
+        try {
+            GameData gameData = connect4Service.getGameData(response.getGameId()).getGameData();
+            assertEquals(AiStrength.MEDIUM.getPlayerName(), gameData.getSecondPlayerName());
+            gameData = connect4Service.dropDisc(response.getGameId(), response.getSessionId(), "p1", 3).getGameData();
+            assertEquals(AiStrength.MEDIUM.getPlayerName(), gameData.getLastTurnPlayedBy());
+            assertEquals(GameState.IN_PROGRESS.name(), gameData.getGameState());
+            try {
+                connect4Service.dropDisc(response.getGameId(), response.getSessionId(), AiStrength.MEDIUM.getPlayerName(), 3);
+                fail("drop disc API must fail for the turns of the AI.");
+            } catch (final Connect4ServiceValidationException e) {
+                assertNotNull(e.getMessage());
+            }
+            //The player fills the columns from the left, which the AI must win against.
+            while (GameState.IN_PROGRESS.name().equals(gameData.getGameState())) {
+                int column = 0;
+                while (gameData.getConnect4Grid()[0][column] != 0) {
+                    column++;
+                }
+                gameData = connect4Service.dropDisc(response.getGameId(), response.getSessionId(), "p1", column).getGameData();
+            }
+            assertEquals(GameState.COMPLETED.name(), gameData.getGameState());
+            assertEquals(AiStrength.MEDIUM.getPlayerName(), gameData.getWinner());
+        } finally {
+            connect4Service.deleteGame(response.getGameId());
+        }
+
+        final Connect4ServiceImpl serviceWithoutAi = new Connect4ServiceImpl(new Connect4ServiceValidator(), connect4Service.getGameDao());
+        final CreateGameResponse unansweredResponse = serviceWithoutAi.createGame(new CreateGameRequest("p1", AiStrength.EASY));
+        try {
+            serviceWithoutAi.dropDisc(unansweredResponse.getGameId(), unansweredResponse.getSessionId(), "p1", 3);
+            fail("drop disc API must fail if the AI cannot reply.");
+        } catch (final AiOpponentUnavailableException e) {
+            final GameData gameData = serviceWithoutAi.getGameData(unansweredResponse.getGameId()).getGameData();
+            assertEquals(GameState.NEW.name(), gameData.getGameState());
+            assertEquals(0, gameData.getConnect4Grid()[5][3]);
+        } finally {
+            serviceWithoutAi.abandonGame(unansweredResponse.getGameId());
+            serviceWithoutAi.deleteGame(unansweredResponse.getGameId());
+        }
+
+        for (final CreateGameRequest request : Arrays.asList(
+            new CreateGameRequest(AiStrength.HARD.getPlayerName(), "p2"),
+            new CreateGameRequest("p1", AiStrength.HARD.getPlayerName()),
+            new CreateGameRequest("", AiStrength.HARD))) {
+            try {
+                connect4Service.createGame(request);
+                fail("Creating a game must fail validation for the request : " + request);
+            } catch (final Connect4ServiceValidationException e) {
+                assertNotNull(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Test that the clocks of a timed game are charged and incremented on every turn, and that a turn played after the player ran out of time loses the game
+     * on time.
+     *
+     * @throws Exception if system error occurs
+     */
+    @Test
+    public void testTimedGame() throws Exception {
+        final CreateGameResponse response = connect4Service.createGame(new CreateGameRequest("p1", "p2", 60000, 2000));
+        try {
+            final GameData gameData = connect4Service.dropDisc(response.getGameId(), response.getSessionId(), "p1", 3).getGameData();
+            assertTrue(gameData.getFirstPlayerRemainingMillis() > 60000 && gameData.getFirstPlayerRemainingMillis() <= 62000);
+            assertTrue(gameData.getSecondPlayerRemainingMillis() <= 60000);
+        } finally {
+            connect4Service.abandonGame(response.getGameId());
+            connect4Service.deleteGame(response.getGameId());
+        }
+
+        final CreateGameResponse flaggedResponse = connect4Service.createGame(new CreateGameRequest("p1", "p2", 1, 0));
+        Thread.sleep(10);
+        try {
+            connect4Service.dropDisc(flaggedResponse.getGameId(), flaggedResponse.getSessionId(), "p1", 3);
+            fail("drop disc API must fail if the player ran out of time.");
+        } catch (final InvalidGameStateException e) {
+            final GameData gameData = connect4Service.getGameData(flaggedResponse.getGameId()).getGameData();
+            assertEquals(GameState.COMPLETED.name(), gameData.getGameState());
+            assertEquals("p2", gameData.getWinner());
+            assertEquals(Long.valueOf(0), gameData.getFirstPlayerRemainingMillis());
+        } finally {
+            connect4Service.deleteGame(flaggedResponse.getGameId());
+        }
+
+        try {
+            connect4Service.createGame(new CreateGameRequest("p1", "p2", 0, 1000));
+            fail("An increment without base time must fail validation.");
+        } catch (final Connect4ServiceValidationException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    /**
+     * Test that the time used in a turn before the game is suspended is charged to the player to move, and stays charged once the game is resumed.
+     *
+     * @throws Exception if system error occurs
+     */
+    @Test
+    public void testSuspendTimedGameMidTurn() throws Exception {
+        final CreateGameResponse response = connect4Service.createGame(new CreateGameRequest("p1", "p2", 60000, 0));
+        try {
+            Thread.sleep(50);
+            connect4Service.suspendGame(response.getGameId());
+            final GameData suspendedGame = connect4Service.getGameData(response.getGameId()).getGameData();
+            final long remainingMillis = suspendedGame.getFirstPlayerRemainingMillis();
+            assertTrue(remainingMillis <= 59950);
+            assertEquals(Long.valueOf(60000), suspendedGame.getSecondPlayerRemainingMillis());
+
+            Thread.sleep(50);
+            assertEquals(Long.valueOf(remainingMillis), connect4Service.getGameData(response.getGameId()).getGameData().getFirstPlayerRemainingMillis());
+            final GameData resumedGame = connect4Service.resumeGame(response.getGameId()).getGameData();
+            assertTrue(resumedGame.getFirstPlayerRemainingMillis() <= remainingMillis);
+            assertTrue(resumedGame.getFirstPlayerRemainingMillis() > remainingMillis - 50);
+        } finally {
+            connect4Service.abandonGame(response.getGameId());
+            connect4Service.deleteGame(response.getGameId());
+        }
+    }
+
     /**
      * Test suspendGame API
      *
@@ -290,6 +550,76 @@ public class Connect4ServiceImplTest {
         }
     }
 
+    /**
+     * Test that a game abandoned after the resume request read it is not resumed.
+     *
+     * @throws Exception if system error occurs
+     */
+    @Test
+    public void testResumeRacingAbandon() throws Exception {
+        final GameDao gameDao = connect4Service.getGameDao();
+        final CreateGameResponse response = connect4Service.createGame(new CreateGameRequest("p1", "p2"));
+        connect4Service.suspendGame(response.getGameId());
+        //Abandons the game right after every read.
+        final GameDao abandoningGameDao = (GameDao) Proxy.newProxyInstance(
+            GameDao.class.getClassLoader(),
+            new Class<?>[] { GameDao.class },
+            (proxy, method, args) -> {
+                try {
+                    final Object result = method.invoke(gameDao, args);
+                    if ("findGameById".equals(method.getName())) {
+                        gameDao.updateGameState(response.getGameId(), Arrays.asList(GameState.SUSPENDED.name()), GameState.ABANDONED.name(), null);
+                    }
+                    return result;
+                } catch (final InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        try {
+            new Connect4ServiceImpl(new Connect4ServiceValidator(), abandoningGameDao).resumeGame(response.getGameId());
+            fail("resume game API must fail if the game was abandoned after it was read.");
+        } catch (final InvalidGameStateTransitionException e) {
+            final GameData gameData = connect4Service.getGameData(response.getGameId()).getGameData();
+            assertEquals(GameState.ABANDONED.name(), gameData.getGameState());
+            assertNull(gameData.getSessionId());
+        } finally {
+            connect4Service.deleteGame(response.getGameId());
+        }
+    }
+
+    /**
+     * Test getGamesOfPlayer API
+     *
+     * @throws Exception if system error occurs
+     */
+    @Test
+    public void testGetGamesOfPlayer() throws Exception {
+        final CreateGameResponse firstGame = connect4Service.createGame(new CreateGameRequest("history1", "history2"));
+        final CreateGameResponse secondGame = connect4Service.createGame(new CreateGameRequest("history3", "history1"));
+        try {
+            connect4Service.suspendGame(firstGame.getGameId());
+            List<GameData> games = connect4Service.getGamesOfPlayer("history1", null, null, 1);
+            assertEquals(1, games.size());
+            assertEquals(secondGame.getGameId(), games.get(0).getGameId());
+            assertNull(games.get(0).getConnect4Grid());
+
+            games = connect4Service.getGamesOfPlayer("history1", null, secondGame.getGameId(), 1);
+            assertEquals(1, games.size());
+            assertEquals(firstGame.getGameId(), games.get(0).getGameId());
+            assertEquals(GameState.SUSPENDED.name(), games.get(0).getGameState());
+
+            games = connect4Service.getGamesOfPlayer("history1", GameState.NEW, null, 10);
+            assertEquals(1, games.size());
+            assertEquals(secondGame.getGameId(), games.get(0).getGameId());
+            assertTrue(connect4Service.getGamesOfPlayer("history2", null, firstGame.getGameId(), 10).isEmpty());
+        } finally {
+            for (final CreateGameResponse response : Arrays.asList(firstGame, secondGame)) {
+                connect4Service.abandonGame(response.getGameId());
+                connect4Service.deleteGame(response.getGameId());
+            }
+        }
+    }
+
     private void assertGameDataResponse(final CreateGameResponse response, final GameDataResponse fetchedResponse) {
         assertNotNull(fetchedResponse);
         assertNotNull(fetchedResponse.getGameData());
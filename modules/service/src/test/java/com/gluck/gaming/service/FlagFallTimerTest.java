@@ -0,0 +1,74 @@
+package com.gluck.gaming.service;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.gluck.gaming.domain.InMemoryGameDao;
+import com.gluck.gaming.service.model.CreateGameRequest;
+import com.gluck.gaming.service.model.CreateGameResponse;
+import com.gluck.gaming.service.model.GameState;
+import com.gluck.gaming.service.validator.Connect4ServiceValidator;
+
+/**
+ * Test class for {@link FlagFallTimer}
+ *
+ * @author Vinay Semwal
+ */
+public class FlagFallTimerTest {
+
+    private final AtomicLong clockOffset = new AtomicLong();
+
+    private InMemoryGameDao gameDao;
+
+    private FlagFallTimer flagFallTimer;
+
+    private Connect4Service connect4Service;
+
+    /**
+     * Test data setup. The timer is run by the tests, with a clock they move ahead of the clock of the service.
+     */
+    @Before
+    public void setUp() {
+        gameDao = new InMemoryGameDao();
+        flagFallTimer = new FlagFallTimer(gameDao, GameActivityListener.NONE, 100, () -> System.currentTimeMillis() + clockOffset.get());
+        connect4Service = new Connect4ServiceImpl(new Connect4ServiceValidator(), gameDao, GameActivityListener.NONE, flagFallTimer);
+    }
+
+    /**
+     * Test that a game whose player to move ran out of time is completed, the other player winning, and that the clock of an ended game is dropped.
+     *
+     * @throws Exception if system error occurs
+     */
+    @Test
+    public void testFlagFall() throws Exception {
+        final CreateGameResponse response = connect4Service.createGame(new CreateGameRequest("p1", "p2", 60000, 0));
+        final String otherGameId = connect4Service.createGame(new CreateGameRequest("p3", "p4", 60000, 0)).getGameId();
+        connect4Service.dropDisc(response.getGameId(), response.getSessionId(), "p1", 3);
+        connect4Service.abandonGame(otherGameId);
+        assertEquals(1, flagFallTimer.getRunningClockCount());
+
+        moveClock(50000);
+        assertEquals(GameState.IN_PROGRESS.name(), gameDao.findGameById(response.getGameId()).get().getGameState());
+        moveClock(11000);
+        assertEquals(GameState.COMPLETED.name(), gameDao.findGameById(response.getGameId()).get().getGameState());
+        assertEquals("p1", gameDao.findGameById(response.getGameId()).get().getWinner());
+        assertEquals(1, flagFallTimer.getFlaggedGameCount());
+        assertEquals(0, flagFallTimer.getRunningClockCount());
+        assertEquals(GameState.ABANDONED.name(), gameDao.findGameById(otherGameId).get().getGameState());
+    }
+
+    /**
+     * Moves the clock of the timer one second at a time, running the timer every second.
+     */
+    private void moveClock(final long millis) {
+        for (long moved = 0; moved < millis; moved += 1000) {
+            clockOffset.addAndGet(1000);
+            flagFallTimer.expireClocks();
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.gluck.gaming.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link HierarchicalTimingWheel}
+ *
+ * @author Vinay Semwal
+ */
+public class HierarchicalTimingWheelTest {
+
+    /**
+     * Test that timers expire on the tick of their deadline, whichever level of the wheel they were held by.
+     */
+    @Test
+    public void testTimersExpireOnTheirTick() {
+        final HierarchicalTimingWheel<Long> timingWheel = new HierarchicalTimingWheel<Long>(10, 4, 2, 0);
+        //Level 0 holds 4 ticks, level 1 holds 16 ticks, the rest waits in the overflow list.
+        final List<Long> deadlines = Arrays.asList(25L, 30L, 95L, 160L, 170L, 1000L, 5005L);
+        for (final Long deadline : deadlines) {
+            timingWheel.schedule(deadline, deadline);
+        }
+        final List<Long> expired = new ArrayList<Long>();
+        for (long now = 0; now <= 6000; now += 10) {
+            final long currentTime = now;
+            timingWheel.advance(now, deadline -> {
+                assertTrue(deadline + " expired at " + currentTime, deadline <= currentTime && currentTime - deadline < 10);
+                expired.add(deadline);
+            });
+        }
+        assertEquals(deadlines, expired);
+    }
+
+    /**
+     * Test that the timers due are expired when the wheel is moved several ticks at once, and that timers past due expire straight away.
+     */
+    @Test
+    public void testAdvanceSeveralTicks() {
+        final HierarchicalTimingWheel<String> timingWheel = new HierarchicalTimingWheel<String>(10, 4, 2, 1000);
+        timingWheel.schedule(500, "past");
+        timingWheel.schedule(1100, "near");
+        timingWheel.schedule(1500, "far");
+        final List<String> expired = new ArrayList<String>();
+        timingWheel.advance(1000, expired::add);
+        assertEquals(Arrays.asList("past"), expired);
+        timingWheel.advance(1499, expired::add);
+        assertEquals(Arrays.asList("past", "near"), expired);
+        timingWheel.advance(1500, item -> {
+            expired.add(item);
+            timingWheel.schedule(1520, "rescheduled");
+        });
+        timingWheel.advance(1530, expired::add);
+        assertEquals(Arrays.asList("past", "near", "far", "rescheduled"), expired);
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.gluck.gaming.service;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.gluck.gaming.domain.InMemoryGameDao;
+import com.gluck.gaming.service.model.CreateGameRequest;
+import com.gluck.gaming.service.model.GameState;
+import com.gluck.gaming.service.validator.Connect4ServiceValidator;
+
+/**
+ * Test class for {@link IdleGameReaper}
+ *
+ * @author Vinay Semwal
+ */
+public class IdleGameReaperTest {
+
+    private static final long SUSPEND_AFTER_MILLIS = 60000;
+
+    private static final long ABANDON_AFTER_MILLIS = 300000;
+
+    private final AtomicLong clock = new AtomicLong(1000000);
+
+    private InMemoryGameDao gameDao;
+
+    private IdleGameReaper idleGameReaper;
+
+    private Connect4Service connect4Service;
+
+    /**
+     * Test data setup. The reaper is run by the tests, with a clock they move and the games are updated at.
+     */
+    @Before
+    public void setUp() {
+        gameDao = new InMemoryGameDao(clock::get);
+        idleGameReaper = new IdleGameReaper(gameDao, SUSPEND_AFTER_MILLIS, ABANDON_AFTER_MILLIS, 1000, clock::get);
+        connect4Service = new Connect4ServiceImpl(new Connect4ServiceValidator(), gameDao, idleGameReaper, GameClockListener.NONE);
+    }
+
+    /**
+     * Test that an idle game is suspended, then abandoned, and is no longer tracked.
+     *
+     * @throws Exception if system error occurs
+     */
+    @Test
+    public void testIdleGameSuspendedThenAbandoned() throws Exception {
+        final String gameId = connect4Service.createGame(new CreateGameRequest("p1", "p2")).getGameId();
+        assertEquals(1, idleGameReaper.getTrackedGameCount());
+
+        moveClock(SUSPEND_AFTER_MILLIS - 1000);
+        assertEquals(GameState.NEW.name(), getGameState(gameId));
+        moveClock(1000);
+        assertEquals(GameState.SUSPENDED.name(), getGameState(gameId));
+        assertEquals(null, gameDao.findGameById(gameId).get().getSessionId());
+
+        moveClock(ABANDON_AFTER_MILLIS - SUSPEND_AFTER_MILLIS);
+        assertEquals(GameState.ABANDONED.name(), getGameState(gameId));
+        assertEquals(1, idleGameReaper.getSuspendedGameCount());
+        assertEquals(1, idleGameReaper.getAbandonedGameCount());
+        assertEquals(0, idleGameReaper.getTrackedGameCount());
+    }
+
+    /**
+     * Test that activity moves the idle timer of a game, and that ended games are no longer tracked.
+     *
+     * @throws Exception if system error occurs
+     */
+    @Test
+    public void testActivityResetsIdleTime() throws Exception {
+        final String gameId = connect4Service.createGame(new CreateGameRequest("p1", "p2")).getGameId();
+        final String otherGameId = connect4Service.createGame(new CreateGameRequest("p3", "p4")).getGameId();
+        connect4Service.abandonGame(otherGameId);
+        assertEquals(1, idleGameReaper.getTrackedGameCount());
+
+        moveClock(SUSPEND_AFTER_MILLIS - 10000);
+        final String sessionId = gameDao.findGameById(gameId).get().getSessionId();
+        connect4Service.dropDisc(gameId, sessionId, "p1", 3);
+        moveClock(20000);
+        assertEquals(GameState.IN_PROGRESS.name(), getGameState(gameId));
+        moveClock(SUSPEND_AFTER_MILLIS);
+        assertEquals(GameState.SUSPENDED.name(), getGameState(gameId));
+
+        connect4Service.resumeGame(gameId);
+        moveClock(ABANDON_AFTER_MILLIS - SUSPEND_AFTER_MILLIS);
+        assertEquals(GameState.SUSPENDED.name(), getGameState(gameId));
+        assertEquals(2, idleGameReaper.getSuspendedGameCount());
+        assertEquals(0, idleGameReaper.getAbandonedGameCount());
+    }
+
+    /**
+     * Test that a game updated through another instance, without its activity being reported, is not suspended until idle since that update.
+     *
+     * @throws Exception if system error occurs
+     */
+    @Test
+    public void testGameUpdatedElsewhereNotReaped() throws Exception {
+        final String gameId = connect4Service.createGame(new CreateGameRequest("p1", "p2")).getGameId();
+
+        moveClock(SUSPEND_AFTER_MILLIS / 2);
+        gameDao.updateGameState(gameId, Arrays.asList(GameState.NEW.name()), GameState.IN_PROGRESS.name(), "other-instance-session");
+        moveClock(SUSPEND_AFTER_MILLIS / 2);
+        assertEquals(GameState.IN_PROGRESS.name(), getGameState(gameId));
+        assertEquals(0, idleGameReaper.getSuspendedGameCount());
+        assertEquals(1, idleGameReaper.getTrackedGameCount());
+
+        moveClock(SUSPEND_AFTER_MILLIS);
+        assertEquals(GameState.SUSPENDED.name(), getGameState(gameId));
+        assertEquals(1, idleGameReaper.getSuspendedGameCount());
+    }
+
+    /**
+     * Test that the games not ended are tracked from their last update when the reaper starts, without any activity reported.
+     *
+     * @throws Exception if system error occurs
+     */
+    @Test
+    public void testStartTracksStoredGames() throws Exception {
+        final String gameId = gameDao.createGame("p1", "p2", "session");
+        final String endedGameId = gameDao.createGame("p3", "p4", "other-session");
+        gameDao.updateGameState(endedGameId, Arrays.asList(GameState.NEW.name()), GameState.ABANDONED.name(), null);
+        moveClock(10000);
+
+        idleGameReaper.start();
+        idleGameReaper.shutdown();
+        assertEquals(1, idleGameReaper.getTrackedGameCount());
+
+        moveClock(SUSPEND_AFTER_MILLIS - 10000);
+        assertEquals(GameState.SUSPENDED.name(), getGameState(gameId));
+        moveClock(ABANDON_AFTER_MILLIS - SUSPEND_AFTER_MILLIS);
+        assertEquals(GameState.ABANDONED.name(), getGameState(gameId));
+        assertEquals(0, idleGameReaper.getTrackedGameCount());
+    }
+
+    /**
+     * Moves the clock one tick at a time, running the reaper every tick.
+     */
+    private void moveClock(final long millis) {
+        for (long moved = 0; moved < millis; moved += 1000) {
+            clock.addAndGet(1000);
+            idleGameReaper.reap();
+        }
+    }
+
+    private String getGameState(final String gameId) {
+        return gameDao.findGameHeaderById(gameId).get().getGameState();
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.gluck.gaming.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.Test;
+
+import com.gluck.gaming.dao.model.BitBoard;
+import com.gluck.gaming.engine.Connect4Solver;
+import com.gluck.gaming.engine.OpeningBook;
+import com.gluck.gaming.engine.OpeningBookGenerator;
+import com.gluck.gaming.engine.TranspositionTable;
+import com.gluck.gaming.service.exception.AiOpponentUnavailableException;
+import com.gluck.gaming.service.model.AiStrength;
+
+/**
+ * Test class for {@link SolverAiOpponent}
+ *
+ * @author Vinay Semwal
+ */
+public class SolverAiOpponentTest {
+
+    /**
+     * Test that the AI completes its line when it can, whatever its strength.
+     *
+     * @throws Exception if system error occurs
+     */
+    @Test
+    public void testReply() throws Exception {
+        final TranspositionTable table = new TranspositionTable(1);
+        final SolverAiOpponent aiOpponent = new SolverAiOpponent(() -> new Connect4Solver(table), 2, 10, 500);
+        try {
+            //The second player has three discs in column 1, the first player none in a line.
+            final BitBoard board = new BitBoard();
+            final int[] columns = { 0, 1, 2, 1, 4, 1, 6 };
+            for (int i = 0; i < columns.length; i++) {
+                board.fillCell(
+                    BitBoard.ROWS - 1 - board.getColumnHeight(columns[i]),
+                    columns[i],
+                    i % 2 == 0 ? BitBoard.FIRST_PLAYER_DISC : BitBoard.SECOND_PLAYER_DISC);
+            }
+            for (final AiStrength strength : AiStrength.values()) {
+                assertEquals(Integer.valueOf(1), aiOpponent.findReply(board, strength).get());
+            }
+            assertEquals(AiStrength.values().length, aiOpponent.getReplyCount());
+            assertEquals(7, board.getFilledCellCount());
+        } finally {
+            aiOpponent.shutdown();
+        }
+    }
+
+    /**
+     * Test that the replies to the positions of the opening book are read from it, unless the strength is limited to fewer plies than the book was searched to.
+     *
+     * @throws Exception if system error occurs
+     */
+    @Test
+    public void testOpeningBook() throws Exception {
+        final Path path = Files.createTempFile("opening", ".book");
+        final SolverAiOpponent aiOpponent;
+        try {
+            OpeningBookGenerator.main(new String[] { path.toString(), "3", "4", "1", "1" });
+            aiOpponent = new SolverAiOpponent(Connect4Solver::new, 1, 10, 500, OpeningBook.open(path));
+        } finally {
+            Files.delete(path);
+        }
+        try {
+            final BitBoard board = new BitBoard();
+            board.fillCell(BitBoard.ROWS - 1, 3, BitBoard.FIRST_PLAYER_DISC);
+            final CompletableFuture<Integer> hardReply = aiOpponent.findReply(board, AiStrength.HARD);
+            assertTrue(hardReply.isDone());
+            assertTrue(hardReply.get() >= 0 && hardReply.get() < BitBoard.COLUMNS);
+            assertTrue(aiOpponent.findReply(board, AiStrength.MEDIUM).isDone());
+            assertEquals(2, aiOpponent.getBookReplyCount());
+            assertEquals(0, aiOpponent.getReplyCount());
+
+            //The easy AI searches 2 plies only, and no position of 3 discs is in the book.
+            assertTrue(aiOpponent.findReply(board, AiStrength.EASY).get() >= 0);
+            board.fillCell(BitBoard.ROWS - 2, 3, BitBoard.SECOND_PLAYER_DISC);
+            board.fillCell(BitBoard.ROWS - 3, 3, BitBoard.FIRST_PLAYER_DISC);
+            assertTrue(aiOpponent.findReply(board, AiStrength.HARD).get() >= 0);
+            assertEquals(2, aiOpponent.getBookReplyCount());
+            assertEquals(2, aiOpponent.getReplyCount());
+        } finally {
+            aiOpponent.shutdown();
+        }
+    }
+
+    /**
+     * Test that a reply not found within the reply timeout is refused, and that the replies waiting for the thread past the timeout are not searched.
+     *
+     * @throws Exception if system error occurs
+     */
+    @Test
+    public void testReplyTimeout() throws Exception {
+        final SolverAiOpponent aiOpponent = new SolverAiOpponent(Connect4Solver::new, 1, 10, 300, 50, null);
+        try {
+            final CompletableFuture<Integer> searchedReply = aiOpponent.findReply(new BitBoard(), AiStrength.HARD);
+            final CompletableFuture<Integer> queuedReply = aiOpponent.findReply(new BitBoard(), AiStrength.HARD);
+            for (final CompletableFuture<Integer> reply : Arrays.asList(searchedReply, queuedReply)) {
+                try {
+                    reply.get();
+                    fail("The reply must be refused once the timeout is over.");
+                } catch (final ExecutionException e) {
+                    assertTrue(e.getCause() instanceof AiOpponentUnavailableException);
+                }
+            }
+            assertEquals(2, aiOpponent.getTimedOutReplyCount());
+            Thread.sleep(400);
+            assertEquals(1, aiOpponent.getReplyCount());
+        } finally {
+            aiOpponent.shutdown();
+        }
+    }
+
+    /**
+     * Test that the replies are refused once the thread is busy and the queue is full, instead of waiting.
+     *
+     * @throws Exception if system error occurs
+     */
+    @Test
+    public void testBusy() throws Exception {
+        final SolverAiOpponent aiOpponent = new SolverAiOpponent(Connect4Solver::new, 1, 1, 200);
+        final List<CompletableFuture<Integer>> replies = new ArrayList<CompletableFuture<Integer>>();
+        try {
+            for (int i = 0; i < 4; i++) {
+                replies.add(aiOpponent.findReply(new BitBoard(), AiStrength.HARD));
+            }
+            assertTrue(aiOpponent.getRejectedReplyCount() >= 2);
+            try {
+                replies.get(3).get();
+                fail("The reply must be refused when the queue is full.");
+            } catch (final ExecutionException e) {
+                assertTrue(e.getCause() instanceof AiOpponentUnavailableException);
+            }
+            assertTrue(replies.get(0).get() >= 0);
+        } finally {
+            aiOpponent.shutdown();
+        }
+        try {
+            new SolverAiOpponent(Connect4Solver::new, 0, 1, 0);
+            fail("An AI opponent without thread must not be created.");
+        } catch (final IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("threads : 0"));
+        }
+    }
+
+}
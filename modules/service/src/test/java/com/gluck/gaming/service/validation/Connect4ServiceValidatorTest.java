@@ -72,6 +72,50 @@ public class Connect4ServiceValidatorTest {
         }
     }
 
+    /**
+     * Validations failure scenarios for drop disc requests.
+     */
+    @Test
+    public void testDropDiscValidations() {
+        try {
+            validator.validateDropDisc(null, null, null, 7);
+            fail("Validation expected to fail for empty request. ");
+        } catch (final Connect4ServiceValidationException ex) {
+            assertEquals("Expectet 4 error messages to be present for empty request validation failure.", 4, ex.getErrors().size());
+            assertTrue(ex.getErrors().contains("Session id is mandatory to play turn."));
+            assertTrue(ex.getErrors().contains("Player name cannot be null or empty."));
+            assertTrue(ex.getErrors().contains("Invalid column provided to drop the disc."));
+            assertTrue(ex.getErrors().contains("Game id is mandatory, cannot be null or empty."));
+        }
+        try {
+            validator.validateDropDisc("588f8fd9ee15e4304b647126", "sessionId", "playerName", 6);
+        } catch (final Connect4ServiceValidationException ex) {
+            fail("Expected succcessful validation for correct drop disc request.");
+        }
+    }
+
+    /**
+     * Validations failure scenarios for the request to fetch the games of a player.
+     */
+    @Test
+    public void testGamesOfPlayerValidations() {
+        try {
+            validator.validateGamesOfPlayer(null, "invalid", 0);
+            fail("Validation expected to fail for empty request. ");
+        } catch (final Connect4ServiceValidationException ex) {
+            assertEquals("Expectet 3 error messages to be present for empty request validation failure.", 3, ex.getErrors().size());
+            assertTrue(ex.getErrors().contains("Player name cannot be null or empty."));
+            assertTrue(ex.getErrors().contains("Invalid game Id provided."));
+            assertTrue(ex.getErrors().contains("Number of games to fetch must be from 1 to 100."));
+        }
+        try {
+            validator.validateGamesOfPlayer("playerName", null, Connect4ServiceValidator.MAXIMUM_PAGE_SIZE);
+            validator.validateGamesOfPlayer("playerName", "588f8fd9ee15e4304b647126", 1);
+        } catch (final Connect4ServiceValidationException ex) {
+            fail("Expected succcessful validation for correct request to fetch the games of a player.");
+        }
+    }
+
     /**
      * Happy path test for CreateGameRequest Validation.
      */
@@ -1,14 +1,21 @@
 package com.gluck.gaming.rest;
 
-import javax.naming.OperationNotSupportedException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
@@ -18,16 +25,19 @@ import org.apache.logging.log4j.Logger;
 
 import com.gluck.gaming.objects.factory.Connect4Factory;
 import com.gluck.gaming.rest.exception.mapper.Connect4ExceptionMapper;
+import com.gluck.gaming.service.AsyncConnect4Service;
 import com.gluck.gaming.service.Connect4Service;
+import com.gluck.gaming.service.exception.AiOpponentUnavailableException;
+import com.gluck.gaming.service.exception.ConcurrentGameUpdateException;
 import com.gluck.gaming.service.exception.Connect4ServiceValidationException;
 import com.gluck.gaming.service.exception.ConsecutiveTurnsNotAllowedException;
-import com.gluck.gaming.service.exception.GameDeletionNotAllowedException;
 import com.gluck.gaming.service.exception.GameNotFoundException;
 import com.gluck.gaming.service.exception.IncorrectGameStartException;
 import com.gluck.gaming.service.exception.InvalidGameStateException;
 import com.gluck.gaming.service.exception.InvalidGameStateTransitionException;
 import com.gluck.gaming.service.exception.InvalidGridCellToFillException;
 import com.gluck.gaming.service.model.CreateGameRequest;
+import com.gluck.gaming.service.model.GameState;
 import com.gluck.gaming.service.model.PlayTurnRequest;
 
 /**
@@ -42,43 +52,90 @@ public class Connect4RestService {
 
     private static final String ID = "id";
 
+    private static final String COLUMN = "column";
+
+    private static final String SESSION_ID = "sessionId";
+
+    private static final String PLAYER_NAME = "playerName";
+
+    private static final String STATE = "state";
+
+    private static final String AFTER = "after";
+
+    private static final String LIMIT = "limit";
+
     private static Connect4Service connect4Service;
 
+    private static AsyncConnect4Service asyncConnect4Service;
+
     static {
         connect4Service = Connect4Factory.getConnect4Service();
+        asyncConnect4Service = Connect4Factory.getAsyncConnect4Service();
     }
 
     /**
      * @param request {@link CreateGameRequest}
-     * @return {@link Response}
+     * @param asyncResponse {@link AsyncResponse} resumed with the created game once it is stored
      */
     @POST
     @Path("/create")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response createGame(final CreateGameRequest request) {
+    public void createGame(final CreateGameRequest request, @Suspended final AsyncResponse asyncResponse) {
+        logger.info("Received create game request : {}", request);
+        resume(asyncResponse, asyncConnect4Service.createGame(request), Status.CREATED, "Request to create the game");
+    }
+
+    /**
+     * @param requests list of {@link CreateGameRequest}, one for each game to create
+     * @return {@link Response}
+     */
+    @POST
+    @Path("/create/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response createGames(final List<CreateGameRequest> requests) {
         try {
-            logger.info("Received create game request : {}", request);
-            return Response.ok(connect4Service.createGame(request)).status(Status.CREATED).build();
+            logger.info("Received request to create games in bulk");
+            return Response.ok(connect4Service.createGames(requests)).status(Status.CREATED).build();
         } catch (final Connect4ServiceValidationException e) {
-            logger.error("Request to create the game failed with exception : {}", e);
+            logger.error("Request to create the games failed with exception : {}", e);
             return Connect4ExceptionMapper.toResponse(e).build();
         }
     }
 
     /**
      * @param gameId Unique identifier of the game for which data is to be fetched
-     * @return {@link Response}
+     * @param asyncResponse {@link AsyncResponse} resumed with the game data once it is read
      */
     @GET
     @Path("{id}")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getGameData(@PathParam(value = ID) final String gameId) {
+    public void getGameData(@PathParam(value = ID) final String gameId, @Suspended final AsyncResponse asyncResponse) {
+        logger.info("Received request to fetch data for game with id : {}", gameId);
+        resume(asyncResponse, asyncConnect4Service.getGameData(gameId), Status.FOUND, "Request to get the game data");
+    }
+
+    /**
+     * @param playerName name of the player whose games are to be fetched
+     * @param gameState state of the games to fetch, all the games of the player if not given
+     * @param afterGameId unique identifier of the last game of the previous page, first page if not given
+     * @param limit maximum number of games to fetch
+     * @return {@link Response}
+     */
+    @GET
+    @Path("/player/{playerName}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getGamesOfPlayer(
+        @PathParam(value = PLAYER_NAME) final String playerName,
+        @QueryParam(value = STATE) final GameState gameState,
+        @QueryParam(value = AFTER) final String afterGameId,
+        @QueryParam(value = LIMIT) @DefaultValue("20") final int limit) {
         try {
-            logger.info("Received request to fetch data for game with id : {}", gameId);
-            return Response.ok(connect4Service.getGameData(gameId)).status(Status.FOUND).build();
-        } catch (final GameNotFoundException | Connect4ServiceValidationException e) {
-            logger.error("Request to get the game data failed with exception : {}", e);
+            logger.info("Received request to fetch games of player : {}", playerName);
+            return Response.ok(connect4Service.getGamesOfPlayer(playerName, gameState, afterGameId, limit)).status(Status.OK).build();
+        } catch (final Connect4ServiceValidationException e) {
+            logger.error("Request to get the games of player failed with exception : {}", e);
             return Connect4ExceptionMapper.toResponse(e).build();
         }
     }
@@ -101,29 +158,49 @@ public class Connect4RestService {
             | InvalidGameStateException
             | ConsecutiveTurnsNotAllowedException
             | InvalidGridCellToFillException
-            | IncorrectGameStartException e) {
+            | IncorrectGameStartException
+            | ConcurrentGameUpdateException
+            | AiOpponentUnavailableException e) {
             logger.error("Request to play turn in the game with id : {} failed with exception : {}", request.getGameId(), e);
             return Connect4ExceptionMapper.toResponse(e).build();
         }
     }
 
+    /**
+     * @param gameId unique identifier of the game for which turn is being played.
+     * @param column column number in which the disc is dropped.
+     * @param sessionId identifier of the session in which game is being played.
+     * @param playerName name of the player playing the turn.
+     * @param asyncResponse {@link AsyncResponse} resumed with the game data once the turn is saved
+     */
+    @PUT
+    @Path("{id}/drop/{column}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public void dropDisc(
+        @PathParam(value = ID) final String gameId,
+        @PathParam(value = COLUMN) final int column,
+        @QueryParam(value = SESSION_ID) final String sessionId,
+        @QueryParam(value = PLAYER_NAME) final String playerName,
+        @Suspended final AsyncResponse asyncResponse) {
+        logger.info("Received request to drop disc in column : {} by player : {} for game with id : {}", column, playerName, gameId);
+        resume(
+            asyncResponse,
+            asyncConnect4Service.dropDisc(gameId, sessionId, playerName, column),
+            Status.ACCEPTED,
+            "Request to drop disc in the game with id : " + gameId);
+    }
+
     /**
      * @param gameId unique identifier of the game to be suspended.
-     * @return {@link Response}
+     * @param asyncResponse {@link AsyncResponse} resumed once the game is suspended
      */
     @PUT
     @Path("/suspend/{id}")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response suspendGame(@PathParam(value = ID) final String gameId) {
-        try {
-            logger.info("Received request to suspend a game with id : {}", gameId);
-            connect4Service.suspendGame(gameId);
-            return Response.ok().status(Status.ACCEPTED).build();
-        } catch (final GameNotFoundException | Connect4ServiceValidationException | InvalidGameStateTransitionException e) {
-            logger.error("Request to suspend the game with id : {} failed with exception : {}", gameId, e);
-            return Connect4ExceptionMapper.toResponse(e).build();
-        }
+    public void suspendGame(@PathParam(value = ID) final String gameId, @Suspended final AsyncResponse asyncResponse) {
+        logger.info("Received request to suspend a game with id : {}", gameId);
+        resume(asyncResponse, asyncConnect4Service.suspendGame(gameId), Status.ACCEPTED, "Request to suspend the game with id : " + gameId);
     }
 
     /**
@@ -138,7 +215,7 @@ public class Connect4RestService {
         try {
             logger.info("Received request to resume a game with id : {}", gameId);
             return Response.ok(connect4Service.resumeGame(gameId)).status(Status.ACCEPTED).build();
-        } catch (final GameNotFoundException | Connect4ServiceValidationException | InvalidGameStateTransitionException e) {
+        } catch (final GameNotFoundException | Connect4ServiceValidationException | InvalidGameStateTransitionException | ConcurrentGameUpdateException e) {
             logger.error("Request to resume the game with id : {} failed with exception : {}", gameId, e);
             return Connect4ExceptionMapper.toResponse(e).build();
         }
@@ -146,89 +223,76 @@ public class Connect4RestService {
 
     /**
      * @param gameId unique identifier of the game to be completed
-     * @return {@link Response}
+     * @param asyncResponse {@link AsyncResponse} resumed once the game is completed
      */
     @PUT
     @Path("/complete/{id}")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response completeGame(@PathParam(value = ID) final String gameId) {
-        try {
-            logger.info("Received request to complete a game with id : {}", gameId);
-            connect4Service.completeGame(gameId);
-            logger.info("Completed the game with id : {}", gameId);
-            return Response.ok().status(Status.NO_CONTENT).build();
-        } catch (final GameNotFoundException | Connect4ServiceValidationException | InvalidGameStateTransitionException e) {
-            logger.error("Request to complete the game with id : {} failed with exception : {}", gameId, e);
-            return Connect4ExceptionMapper.toResponse(e).build();
-        }
+    public void completeGame(@PathParam(value = ID) final String gameId, @Suspended final AsyncResponse asyncResponse) {
+        logger.info("Received request to complete a game with id : {}", gameId);
+        resume(asyncResponse, asyncConnect4Service.completeGame(gameId), Status.NO_CONTENT, "Request to complete the game with id : " + gameId);
     }
 
     /**
      * @param gameId unique identifier of the game to draw
-     * @return {@link Response}
+     * @param asyncResponse {@link AsyncResponse} resumed once the game is drawn
      */
     @PUT
     @Path("/draw/{id}")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response drawGame(@PathParam(value = ID) final String gameId) {
-        try {
-            logger.info("Received request to draw a game with id : {}", gameId);
-            connect4Service.drawGame(gameId);
-            logger.info("Drawn the game with id : {}", gameId);
-            return Response.ok().status(Status.ACCEPTED).build();
-        } catch (final GameNotFoundException | Connect4ServiceValidationException | InvalidGameStateTransitionException e) {
-            logger.error("Request to draw the game with id : {} failed with exception : {}", gameId, e);
-            return Connect4ExceptionMapper.toResponse(e).build();
-        }
+    public void drawGame(@PathParam(value = ID) final String gameId, @Suspended final AsyncResponse asyncResponse) {
+        logger.info("Received request to draw a game with id : {}", gameId);
+        resume(asyncResponse, asyncConnect4Service.drawGame(gameId), Status.ACCEPTED, "Request to draw the game with id : " + gameId);
     }
 
     /**
      * @param gameId Unique Identifier of the game to abandon.
-     * @return {@link Response}
+     * @param asyncResponse {@link AsyncResponse} resumed once the game is abandoned
      */
     @PUT
     @Path("/abandon/{id}")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response abandonGame(@PathParam(value = ID) final String gameId) {
-        try {
-            logger.info("Received request to abandon a game with id : {}", gameId);
-            connect4Service.abandonGame(gameId);
-            logger.info("Abandoned the game with id : {}", gameId);
-            return Response.ok().status(Status.ACCEPTED).build();
-        } catch (final GameNotFoundException | Connect4ServiceValidationException | InvalidGameStateTransitionException e) {
-            logger.error("Request to abandon the game with id : {} failed with exception : {}", gameId, e);
-            return Connect4ExceptionMapper.toResponse(e).build();
-        }
+    public void abandonGame(@PathParam(value = ID) final String gameId, @Suspended final AsyncResponse asyncResponse) {
+        logger.info("Received request to abandon a game with id : {}", gameId);
+        resume(asyncResponse, asyncConnect4Service.abandonGame(gameId), Status.ACCEPTED, "Request to abandon the game with id : " + gameId);
     }
 
     /**
      * API to hard delete the Game from the System.
      *
      * @param gameId Unique Identifier of the game to be deleted.
-     * @return {@link Response}
+     * @param asyncResponse {@link AsyncResponse} resumed once the game is deleted
      */
     @DELETE
     @Path("/delete/{id}")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response deleteGame(@PathParam(value = ID) final String gameId) {
-        try {
-            logger.info("Received request to delete a game with id : {}", gameId);
-            connect4Service.deleteGame(gameId);
-            logger.info("Deleted the game with id : {}", gameId);
-            return Response.ok().status(Status.ACCEPTED).build();
-        } catch (final
-            GameNotFoundException
-            | Connect4ServiceValidationException
-            | InvalidGameStateTransitionException
-            | OperationNotSupportedException
-            | GameDeletionNotAllowedException e) {
-            logger.error("Request to delete the game with id : {} failed with exception : {}", gameId, e);
-            return Connect4ExceptionMapper.toResponse(e).build();
-        }
+    public void deleteGame(@PathParam(value = ID) final String gameId, @Suspended final AsyncResponse asyncResponse) {
+        logger.info("Received request to delete a game with id : {}", gameId);
+        resume(asyncResponse, asyncConnect4Service.deleteGame(gameId), Status.ACCEPTED, "Request to delete the game with id : " + gameId);
+    }
+
+    /**
+     * Resumes the suspended request once the service call completes, with the result of the call or with the response of its failure.
+     *
+     * @param asyncResponse {@link AsyncResponse} of the suspended request
+     * @param result future of the service call
+     * @param status status of the response if the call succeeds
+     * @param request description of the request, for the log
+     */
+    private static void resume(final AsyncResponse asyncResponse, final CompletableFuture<?> result, final Status status, final String request) {
+        result.whenComplete((entity, throwable) -> {
+            if (throwable == null) {
+                asyncResponse.resume(Response.ok(entity).status(status).build());
+                return;
+            }
+            final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            logger.error("{} failed with exception : {}", request, cause);
+            asyncResponse.resume(Connect4ExceptionMapper.toResponse(cause instanceof Exception ? (Exception) cause : new Exception(cause)).build());
+        });
     }
 
 }
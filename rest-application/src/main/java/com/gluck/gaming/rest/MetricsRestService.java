@@ -0,0 +1,61 @@
+package com.gluck.gaming.rest;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import com.gluck.gaming.objects.factory.Connect4Factory;
+
+/**
+ * Service class to expose the runtime metrics of the application RESTfully, for the monitoring tools that don't read JMX.
+ *
+ * @author Vinay Semwal
+ */
+@Path("/metrics")
+public class MetricsRestService {
+
+    /**
+     * @return {@link Response} with the statistics of the connection pool of each Mongo DB client, empty if the games are not stored in Mongo DB.
+     */
+    @GET
+    @Path("/connection-pools")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getConnectionPoolMetrics() {
+        return Response.ok(Connect4Factory.getConnectionPoolMetrics()).status(Status.OK).build();
+    }
+
+    /**
+     * @return {@link Response} with the latency statistics of each command and collection for each Mongo DB client, empty if the games are not stored in
+     *         Mongo DB.
+     */
+    @GET
+    @Path("/commands")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getCommandLatencyMetrics() {
+        return Response.ok(Connect4Factory.getCommandLatencyMetrics()).status(Status.OK).build();
+    }
+
+    /**
+     * @return {@link Response} with the size, hit rate and occupancy of the transposition table of the solvers.
+     */
+    @GET
+    @Path("/transposition-table")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getTranspositionTableMetrics() {
+        return Response.ok(Connect4Factory.getTranspositionTable()).status(Status.OK).build();
+    }
+
+    /**
+     * @return {@link Response} with the number of replies searched, read from the opening book, refused and waiting for a thread by the AI opponent.
+     */
+    @GET
+    @Path("/ai-opponent")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getAiOpponentMetrics() {
+        return Response.ok(Connect4Factory.getAiOpponent()).status(Status.OK).build();
+    }
+
+}
@@ -6,7 +6,9 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.Response.Status;
 
+import com.gluck.gaming.service.exception.AiOpponentUnavailableException;
 import com.gluck.gaming.service.exception.BaseConnect4ServiceException;
+import com.gluck.gaming.service.exception.ConcurrentGameUpdateException;
 import com.gluck.gaming.service.exception.Connect4ResponseErrorCode;
 import com.gluck.gaming.service.exception.Connect4ServiceValidationException;
 import com.gluck.gaming.service.exception.ConsecutiveTurnsNotAllowedException;
@@ -69,6 +71,14 @@ public class Connect4ExceptionMapper implements Serializable {
             return Response.status(Status.FORBIDDEN)
                 .entity(new Connect4RestError(Connect4ResponseErrorCode.GAME_DELETION_NOT_ALLOWED.getCode(), ex.getMessage()));
         }
+        if (ex instanceof ConcurrentGameUpdateException) {
+            return Response.status(Status.CONFLICT)
+                .entity(new Connect4RestError(Connect4ResponseErrorCode.CONCURRENT_GAME_UPDATE.getCode(), ex.getMessage()));
+        }
+        if (ex instanceof AiOpponentUnavailableException) {
+            return Response.status(Status.SERVICE_UNAVAILABLE)
+                .entity(new Connect4RestError(Connect4ResponseErrorCode.AI_OPPONENT_UNAVAILABLE.getCode(), ex.getMessage()));
+        }
         return Response.status(Connect4ResponseErrorCode.INTERNAL_SYSTEM_ERROR.getCode()).entity(Connect4ResponseErrorCode.INTERNAL_SYSTEM_ERROR.getMessage());
 
     }